@@ -0,0 +1,116 @@
+package io.reticulum;
+
+import io.reticulum.destination.Destination;
+import io.reticulum.destination.DestinationType;
+import io.reticulum.destination.Direction;
+import io.reticulum.identity.Identity;
+import io.reticulum.interfaces.AbstractConnectionInterface;
+import io.reticulum.link.Link;
+import io.reticulum.utils.InterfaceUtils;
+import lombok.SneakyThrows;
+import lombok.experimental.UtilityClass;
+import org.bouncycastle.crypto.params.Ed25519PrivateKeyParameters;
+import org.bouncycastle.crypto.params.X25519PrivateKeyParameters;
+
+import java.nio.file.Files;
+import java.security.SecureRandom;
+import java.util.Random;
+
+import static io.reticulum.constant.ReticulumConstant.TRUNCATED_HASHLENGTH;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Objects the benchmarks need but cannot build without a running node: a {@link Transport}
+ * backed by a throwaway storage directory, destinations registered with it, a link that went
+ * through the key exchange and an interface with an access code.
+ */
+@UtilityClass
+public class BenchmarkFixtures {
+
+    /**
+     * Starts the transport once per fork, the same way the unit tests do, with a mocked
+     * {@link Reticulum} that only provides a storage path.
+     */
+    @SneakyThrows
+    public static synchronized Transport transport() {
+        try {
+            return Transport.getInstance();
+        } catch (IllegalStateException e) {
+            var storagePath = Files.createTempDirectory("jreticulum-jmh");
+            var reticulum = mock(Reticulum.class);
+            when(reticulum.getStoragePath()).thenReturn(storagePath);
+
+            return Transport.start(reticulum);
+        }
+    }
+
+    /**
+     * @return an IN destination of the given type; SINGLE destinations get a fresh identity
+     */
+    public static Destination destination(final DestinationType type, final String... aspects) {
+        transport();
+        var identity = type == DestinationType.PLAIN ? null : new Identity();
+
+        return new Destination(identity, Direction.IN, type, "jmh", aspects);
+    }
+
+    /**
+     * A link to {@code owner} as the receiving side would have it after the link request:
+     * peer keys loaded, link id set and the shared key derived. It never becomes ACTIVE,
+     * so nothing sent over it reaches the outbound queue.
+     */
+    public static Link handshakedLink(final Destination owner) {
+        var random = new SecureRandom();
+        var peerPub = new X25519PrivateKeyParameters(random).generatePublicKey().getEncoded();
+        var peerSigPub = new Ed25519PrivateKeyParameters(random).generatePublicKey().getEncoded();
+
+        var link = new Link(owner, peerPub, peerSigPub);
+        link.setLinkId(randomBytes(TRUNCATED_HASHLENGTH / 8, random));
+        link.handshake();
+
+        return link;
+    }
+
+    /**
+     * @return an interface that drops whatever is sent on it and never receives on its own
+     */
+    public static AbstractConnectionInterface discardInterface(final String name) {
+        var iface = new AbstractConnectionInterface() {
+            @Override
+            public void processIncoming(byte[] data) {
+            }
+
+            @Override
+            public void processOutgoing(byte[] data) {
+            }
+
+            @Override
+            public void launch() {
+            }
+        };
+        iface.setInterfaceName(name);
+
+        return iface;
+    }
+
+    /**
+     * @return an interface with IFAC enabled, keyed the way {@link InterfaceUtils#initIFac} keys configured interfaces
+     */
+    public static AbstractConnectionInterface ifacInterface(final int ifacSize) {
+        var iface = discardInterface("jmh");
+        iface.setIfacNetName("jmh");
+        iface.setIfacNetKey("passphrase");
+        iface.setIfacSize(ifacSize);
+        InterfaceUtils.initIFac(iface);
+
+        return iface;
+    }
+
+    public static byte[] randomBytes(final int length, final Random random) {
+        var bytes = new byte[length];
+        random.nextBytes(bytes);
+
+        return bytes;
+    }
+}
@@ -0,0 +1,110 @@
+package io.reticulum;
+
+import io.reticulum.interfaces.ConnectionInterface;
+import io.reticulum.packet.Packet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static io.reticulum.destination.DestinationType.PLAIN;
+
+/**
+ * Packets/sec through {@link Transport#inbound(List, ConnectionInterface)} on 1, 2, 4 and all
+ * available threads: frames are unpacked, the shards of their destinations locked, and the
+ * packets filtered and delivered to local destinations.
+ * <p>
+ * The frames are DATA packets to PLAIN destinations, which the packet filter never drops as
+ * duplicates, so the same frames can be routed again and again. With {@code destinations = 1}
+ * every packet needs the same shard, as all packets needed the single routing lock before; with
+ * more destinations the packets spread over all shards and should scale with the threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransportInboundBenchmark {
+
+    private static final int BATCH = 8;
+
+    @Param({"1", "4096"})
+    public int destinations;
+
+    private Transport transport;
+    private ConnectionInterface iface;
+    private byte[][] frames;
+
+    @State(Scope.Thread)
+    public static class Batch {
+        private final List<byte[]> frames = new ArrayList<>(BATCH);
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        transport = BenchmarkFixtures.transport();
+        iface = BenchmarkFixtures.discardInterface("jmh-inbound");
+
+        var payload = BenchmarkFixtures.randomBytes(64, new Random(42));
+        frames = new byte[destinations][];
+        for (int i = 0; i < destinations; i++) {
+            var packet = new Packet(BenchmarkFixtures.destination(PLAIN, "inbound", String.valueOf(i)), payload);
+            packet.pack();
+            frames[i] = packet.getRaw();
+        }
+    }
+
+    private void route(Batch batch) {
+        var random = ThreadLocalRandom.current();
+        batch.frames.clear();
+        for (int i = 0; i < BATCH; i++) {
+            batch.frames.add(frames[random.nextInt(destinations)]);
+        }
+        transport.inbound(batch.frames, iface);
+    }
+
+    @Benchmark
+    @Threads(1)
+    @OperationsPerInvocation(BATCH)
+    public void inbound1Thread(Batch batch) {
+        route(batch);
+    }
+
+    @Benchmark
+    @Threads(2)
+    @OperationsPerInvocation(BATCH)
+    public void inbound2Threads(Batch batch) {
+        route(batch);
+    }
+
+    @Benchmark
+    @Threads(4)
+    @OperationsPerInvocation(BATCH)
+    public void inbound4Threads(Batch batch) {
+        route(batch);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    @OperationsPerInvocation(BATCH)
+    public void inboundAllThreads(Batch batch) {
+        route(batch);
+    }
+}
@@ -0,0 +1,101 @@
+package io.reticulum.buffer;
+
+import io.reticulum.BenchmarkFixtures;
+import io.reticulum.channel.Channel;
+import io.reticulum.channel.Envelope;
+import io.reticulum.channel.LinkChannelOutlet;
+import io.reticulum.message.StreamDataMessage;
+import lombok.SneakyThrows;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static io.reticulum.constant.ChannelConstant.SEQ_MODULUS;
+import static io.reticulum.destination.DestinationType.SINGLE;
+
+/**
+ * A buffered stream as fast as the channel can deliver it: every invocation receives one
+ * {@link StreamDataMessage} chunk, and a ready callback drains the reader.
+ * <p>
+ * Teardown prints how many threads were started and how many callbacks ran per chunk; with a
+ * thread per chunk and listener both used to equal the number of chunks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StreamBenchmark {
+
+    private static final int STREAM_ID = 1;
+
+    @Param({"64", "400"})
+    public int chunkSize;
+
+    private Channel channel;
+    private RawChannelReader reader;
+    private byte[][] envelopes;
+    private int nextEnvelope;
+    private long chunks;
+    private final AtomicLong callbacks = new AtomicLong();
+    private long threadsStartedBefore;
+
+    @Setup(Level.Trial)
+    @SneakyThrows
+    public void setUp() {
+        var link = BenchmarkFixtures.handshakedLink(BenchmarkFixtures.destination(SINGLE, "stream"));
+        var outlet = new LinkChannelOutlet(link);
+        channel = new Channel(outlet);
+        reader = new RawChannelReader(STREAM_ID, channel);
+        reader.addReadyCallback(ready -> {
+            callbacks.incrementAndGet();
+            try {
+                reader.read(ready);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        var data = BenchmarkFixtures.randomBytes(chunkSize, new Random(42));
+        envelopes = new byte[SEQ_MODULUS][];
+        for (int sequence = 0; sequence < SEQ_MODULUS; sequence++) {
+            envelopes[sequence] = new Envelope(outlet, new StreamDataMessage(STREAM_ID, data, false, false), sequence).pack();
+        }
+        threadsStartedBefore = ManagementFactory.getThreadMXBean().getTotalStartedThreadCount();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        var threadsStarted = ManagementFactory.getThreadMXBean().getTotalStartedThreadCount() - threadsStartedBefore;
+        System.out.printf(
+                "%n%d chunks: %d threads started, %.3f ready callbacks per chunk%n",
+                chunks,
+                threadsStarted,
+                chunks == 0 ? 0 : (double) callbacks.get() / chunks
+        );
+        reader.close();
+    }
+
+    @Benchmark
+    public void receiveChunk() {
+        channel.receive(envelopes[nextEnvelope]);
+        nextEnvelope = (nextEnvelope + 1) % SEQ_MODULUS;
+        chunks++;
+    }
+}
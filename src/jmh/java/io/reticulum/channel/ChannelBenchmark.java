@@ -0,0 +1,84 @@
+package io.reticulum.channel;
+
+import io.reticulum.BenchmarkFixtures;
+import io.reticulum.message.StringMessage;
+import lombok.SneakyThrows;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static io.reticulum.constant.ChannelConstant.SEQ_MODULUS;
+import static io.reticulum.destination.DestinationType.SINGLE;
+
+/**
+ * {@link Channel#send} and {@link Channel#receive} of a {@link StringMessage} over a link that
+ * is not active, so sending stops at the outlet and no packet is transmitted.
+ * <p>
+ * Receiving walks all sequence numbers in order; sending clears the tx ring after every call
+ * (outside the measurement), since unacknowledged envelopes would otherwise close the window.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChannelBenchmark {
+
+    @Param({"16", "256"})
+    public int messageSize;
+
+    private Channel sender;
+    private Channel receiver;
+    private StringMessage message;
+    private byte[][] received;
+    private int nextReceived;
+
+    @Setup(Level.Trial)
+    @SneakyThrows
+    public void setUp() {
+        var link = BenchmarkFixtures.handshakedLink(BenchmarkFixtures.destination(SINGLE, "channel"));
+        var outlet = new LinkChannelOutlet(link);
+        message = new StringMessage(BenchmarkFixtures.randomBytes(messageSize, new Random(42)));
+
+        sender = new Channel(outlet);
+
+        receiver = new Channel(outlet);
+        receiver.registerMessageType(new StringMessage(), false);
+        receiver.addMessageHandler(m -> true);
+
+        received = new byte[SEQ_MODULUS][];
+        for (int sequence = 0; sequence < SEQ_MODULUS; sequence++) {
+            received[sequence] = new Envelope(outlet, message, sequence).pack();
+        }
+    }
+
+    @TearDown(Level.Invocation)
+    public void clearTxRing() {
+        sender.shutdown();
+    }
+
+    @Benchmark
+    public Envelope send() {
+        return sender.send(message);
+    }
+
+    @Benchmark
+    public void receive() {
+        receiver.receive(received[nextReceived]);
+        nextReceived = (nextReceived + 1) % SEQ_MODULUS;
+    }
+}
@@ -0,0 +1,72 @@
+package io.reticulum.identity;
+
+import io.reticulum.BenchmarkFixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Asymmetric operations of {@link Identity}: encrypting for a peer known only by its public
+ * key (ephemeral X25519 agreement, HKDF, Fernet), decrypting that token, and Ed25519
+ * sign/validate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IdentityBenchmark {
+
+    @Param({"16", "400"})
+    public int messageSize;
+
+    private Identity identity;
+    private Identity remote;
+    private byte[] message;
+    private byte[] token;
+    private byte[] signature;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        identity = new Identity(true);
+        remote = new Identity(false);
+        remote.loadPublicKey(identity.getPublicKey());
+
+        message = BenchmarkFixtures.randomBytes(messageSize, new Random(42));
+        token = remote.encrypt(message);
+        signature = identity.sign(message);
+    }
+
+    @Benchmark
+    public byte[] encrypt() {
+        return remote.encrypt(message);
+    }
+
+    @Benchmark
+    public byte[] decrypt() {
+        return identity.decrypt(token);
+    }
+
+    @Benchmark
+    public byte[] sign() {
+        return identity.sign(message);
+    }
+
+    @Benchmark
+    public boolean validate() {
+        return remote.validate(signature, message);
+    }
+}
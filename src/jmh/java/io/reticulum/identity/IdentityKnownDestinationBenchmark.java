@@ -0,0 +1,61 @@
+package io.reticulum.identity;
+
+import io.reticulum.BenchmarkFixtures;
+import io.reticulum.packet.Packet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import static io.reticulum.destination.DestinationType.SINGLE;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Validation of a received announce: {@link IdentityKnownDestination#verifyAnnounce} is the
+ * signature check that runs outside the routing lock, {@link IdentityKnownDestination#validateAnnounce}
+ * the full check including remembering the announced identity. Both start from the raw frame,
+ * as an interface hands it to transport.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IdentityKnownDestinationBenchmark {
+
+    private byte[] raw;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        var destination = BenchmarkFixtures.destination(SINGLE, "announce");
+        var announce = destination.announce("jmh app data".getBytes(UTF_8), false, null, null, false);
+        announce.pack();
+        raw = announce.getRaw();
+    }
+
+    @Benchmark
+    public AnnounceVerdict verifyAnnounce() {
+        var packet = new Packet(raw);
+        packet.unpack();
+
+        return IdentityKnownDestination.verifyAnnounce(packet);
+    }
+
+    @Benchmark
+    public boolean validateAnnounce() {
+        var packet = new Packet(raw);
+        packet.unpack();
+
+        return IdentityKnownDestination.validateAnnounce(packet);
+    }
+}
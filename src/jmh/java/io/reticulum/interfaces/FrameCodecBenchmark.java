@@ -0,0 +1,126 @@
+package io.reticulum.interfaces;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.DelimiterBasedFrameDecoder;
+import io.netty.handler.codec.bytes.ByteArrayDecoder;
+import io.netty.handler.codec.bytes.ByteArrayEncoder;
+import io.reticulum.BenchmarkFixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One HDLC frame through the TCP and Backbone channel pipelines, in both directions.
+ * <p>
+ * The {@code pipeline*} benchmarks run the handlers those pipelines used before the frame
+ * codecs: {@link DelimiterBasedFrameDecoder} and {@link ByteArrayDecoder} followed by
+ * {@link HDLC#unmaskHdlc}, and a frame assembled in a {@link ByteArrayOutputStream} written
+ * through {@link ByteArrayEncoder}. The {@code codec*} benchmarks run {@link HDLCFrameDecoder}
+ * and {@link HDLCFrameEncoder}, including the copy to {@code byte[]} the inbound handlers make.
+ * Run with {@code -prof gc} to compare the allocation per frame.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FrameCodecBenchmark implements HDLC {
+
+    private static final int HW_MTU = 1064;
+
+    @Param({"64", "500"})
+    public int frameSize;
+
+    private byte[] packet;
+    private byte[] frame;
+    private EmbeddedChannel pipelineInbound;
+    private EmbeddedChannel pipelineOutbound;
+    private EmbeddedChannel codecInbound;
+    private EmbeddedChannel codecOutbound;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        packet = BenchmarkFixtures.randomBytes(frameSize, new Random(42));
+        codecOutbound = new EmbeddedChannel(new HDLCFrameEncoder());
+        codecOutbound.writeOutbound(packet);
+        ByteBuf encoded = codecOutbound.readOutbound();
+        frame = ByteBufUtil.getBytes(encoded);
+        encoded.release();
+
+        pipelineInbound = new EmbeddedChannel(new DelimiterBasedFrameDecoder(HW_MTU, true, delimitersHdlc()), new ByteArrayDecoder());
+        pipelineOutbound = new EmbeddedChannel(new ByteArrayEncoder());
+        codecInbound = new EmbeddedChannel(new HDLCFrameDecoder(HW_MTU));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pipelineInbound.finishAndReleaseAll();
+        pipelineOutbound.finishAndReleaseAll();
+        codecInbound.finishAndReleaseAll();
+        codecOutbound.finishAndReleaseAll();
+    }
+
+    @Benchmark
+    public byte[] pipelineDecode() {
+        pipelineInbound.writeInbound(Unpooled.wrappedBuffer(frame));
+        // the opening flag yields an empty frame first, which the inbound handlers skipped
+        byte[] message;
+        do {
+            message = pipelineInbound.readInbound();
+        } while (message.length == 0);
+        return unmaskHdlc(message);
+    }
+
+    @Benchmark
+    public byte[] codecDecode() {
+        codecInbound.writeInbound(Unpooled.wrappedBuffer(frame));
+        ByteBuf message = codecInbound.readInbound();
+        try {
+            return ByteBufUtil.getBytes(message);
+        } finally {
+            message.release();
+        }
+    }
+
+    @Benchmark
+    public int pipelineEncode() throws IOException {
+        try (var os = new ByteArrayOutputStream()) {
+            os.write(FLAG);
+            os.write(escapeHdlc(packet));
+            os.write(FLAG);
+            pipelineOutbound.writeOutbound(os.toByteArray());
+        }
+        return release(pipelineOutbound.readOutbound());
+    }
+
+    @Benchmark
+    public int codecEncode() {
+        codecOutbound.writeOutbound(packet);
+        return release(codecOutbound.readOutbound());
+    }
+
+    private static int release(ByteBuf buffer) {
+        var length = buffer.readableBytes();
+        buffer.release();
+        return length;
+    }
+}
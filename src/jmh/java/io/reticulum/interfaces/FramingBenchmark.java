@@ -0,0 +1,67 @@
+package io.reticulum.interfaces;
+
+import io.reticulum.BenchmarkFixtures;
+import org.apache.commons.lang3.ArrayUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HDLC and KISS byte stuffing of a random frame, as done by the TCP, Backbone and Local
+ * interfaces for every packet they write or read.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FramingBenchmark implements HDLC, KISS {
+
+    @Param({"64", "500"})
+    public int frameSize;
+
+    private byte[] frame;
+    private byte[] hdlcEscaped;
+    private byte[] kissEscaped;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        frame = BenchmarkFixtures.randomBytes(frameSize, new Random(42));
+        hdlcEscaped = escapeHdlc(frame);
+        // unmaskKiss expects the command byte in front of the data
+        kissEscaped = ArrayUtils.insert(0, escapeKiss(frame), (byte) CMD_DATA);
+    }
+
+    @Benchmark
+    public byte[] hdlcEscape() {
+        return escapeHdlc(frame);
+    }
+
+    @Benchmark
+    public byte[] hdlcUnescape() {
+        return unmaskHdlc(hdlcEscaped);
+    }
+
+    @Benchmark
+    public byte[] kissEscape() {
+        return escapeKiss(frame);
+    }
+
+    @Benchmark
+    public byte[] kissUnescape() {
+        return unmaskKiss(kissEscaped);
+    }
+}
@@ -0,0 +1,57 @@
+package io.reticulum.link;
+
+import io.reticulum.BenchmarkFixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static io.reticulum.destination.DestinationType.SINGLE;
+
+/**
+ * Symmetric encryption of link traffic with the key derived during the handshake,
+ * i.e. what every DATA, channel and resource packet on a link pays.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LinkBenchmark {
+
+    @Param({"16", "400"})
+    public int payloadSize;
+
+    private Link link;
+    private byte[] plaintext;
+    private byte[] ciphertext;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        link = BenchmarkFixtures.handshakedLink(BenchmarkFixtures.destination(SINGLE, "link"));
+        plaintext = BenchmarkFixtures.randomBytes(payloadSize, new Random(42));
+        ciphertext = link.encrypt(plaintext);
+    }
+
+    @Benchmark
+    public byte[] encrypt() {
+        return link.encrypt(plaintext);
+    }
+
+    @Benchmark
+    public byte[] decrypt() {
+        return link.decrypt(ciphertext);
+    }
+}
@@ -0,0 +1,99 @@
+package io.reticulum.link;
+
+import io.reticulum.BenchmarkFixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.management.ManagementFactory;
+import java.time.Instant;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static io.reticulum.constant.LinkConstant.KEEPALIVE;
+import static io.reticulum.destination.DestinationType.SINGLE;
+import static io.reticulum.link.LinkStatus.ACTIVE;
+
+/**
+ * Idle links under the shared {@link LinkWatchdog}: {@code tick} is one 25 ms step of the wheel
+ * with the links' next checks spread over the keepalive interval, so its time multiplied by 40
+ * is the watchdog CPU time per second. The clock is virtual, every invocation moves it one tick.
+ * <p>
+ * Setup prints the heap the watchdog keeps per link and the live thread count; with the former
+ * thread per link, 10k links meant 10k more threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LinkWatchdogBenchmark {
+
+    @Param({"1000", "10000"})
+    public int links;
+
+    private long now;
+    private LinkWatchdog watchdog;
+
+    @Setup(Level.Trial)
+    public void setUp() throws InterruptedException {
+        var owner = BenchmarkFixtures.destination(SINGLE, "watchdog");
+        var idle = new Link[links];
+        var activatedAt = Instant.now();
+        for (int i = 0; i < links; i++) {
+            idle[i] = BenchmarkFixtures.handshakedLink(owner);
+            idle[i].setStatus(ACTIVE);
+            idle[i].setActivatedAt(activatedAt);
+            idle[i].setLastInbound(activatedAt);
+        }
+
+        now = System.currentTimeMillis();
+        watchdog = new LinkWatchdog(Runnable::run, () -> now);
+        var heapBefore = usedHeapAfterGc();
+        var random = new Random(42);
+        for (Link link : idle) {
+            watchdog.schedule(link, random.nextInt(KEEPALIVE * 1_000));
+        }
+        var heapAfter = usedHeapAfterGc();
+
+        System.out.printf(
+                "%n%d idle links: watchdog heap %d bytes per link, %d live threads%n",
+                links,
+                (heapAfter - heapBefore) / links,
+                ManagementFactory.getThreadMXBean().getThreadCount()
+        );
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (watchdog.size() != links) {
+            throw new IllegalStateException("Idle links left the watchdog: " + watchdog.size() + " of " + links);
+        }
+    }
+
+    private static long usedHeapAfterGc() throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    @Benchmark
+    public void tick() {
+        now += LinkWatchdog.TICK_MILLIS;
+        watchdog.tick();
+    }
+}
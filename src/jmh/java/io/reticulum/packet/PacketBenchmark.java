@@ -0,0 +1,67 @@
+package io.reticulum.packet;
+
+import io.reticulum.BenchmarkFixtures;
+import io.reticulum.destination.Destination;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static io.reticulum.destination.DestinationType.PLAIN;
+
+/**
+ * {@link Packet#pack()} and {@link Packet#unpack()} of a DATA packet to a PLAIN destination,
+ * so the numbers show the framing and hashing cost without any encryption.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PacketBenchmark {
+
+    @Param({"16", "400"})
+    public int payloadSize;
+
+    private Destination destination;
+    private byte[] payload;
+    private byte[] raw;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        destination = BenchmarkFixtures.destination(PLAIN, "packet");
+        payload = BenchmarkFixtures.randomBytes(payloadSize, new Random(42));
+
+        var packet = new Packet(destination, payload);
+        packet.pack();
+        raw = packet.getRaw();
+    }
+
+    @Benchmark
+    public byte[] pack() {
+        var packet = new Packet(destination, payload);
+        packet.pack();
+
+        return packet.getRaw();
+    }
+
+    @Benchmark
+    public Packet unpack() {
+        var packet = new Packet(raw);
+        packet.unpack();
+
+        return packet;
+    }
+}
@@ -0,0 +1,111 @@
+package io.reticulum.packet.data;
+
+import com.igormaznitsa.jbbp.io.JBBPBitInputStream;
+import com.igormaznitsa.jbbp.io.JBBPBitOutputStream;
+import io.reticulum.BenchmarkFixtures;
+import io.reticulum.destination.DestinationType;
+import io.reticulum.packet.ContextType;
+import io.reticulum.packet.HeaderType;
+import io.reticulum.packet.PacketContextType;
+import io.reticulum.packet.PacketType;
+import io.reticulum.transport.TransportType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The wire codec on its own: {@link DataPacketConverter#toBytes(DataPacket)} and
+ * {@link DataPacketConverter#fromBytes(byte[])} for both header types, next to the JBBP
+ * stream mapping they replaced ({@code jbbp*}). {@code toBytesInto} writes into a preallocated
+ * buffer; run with {@code -prof gc} to see it allocate nothing.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DataPacketConverterBenchmark {
+
+    @Param({"HEADER_1", "HEADER_2"})
+    public HeaderType headerType;
+
+    private DataPacket dataPacket;
+    private byte[] raw;
+    private byte[] buffer;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        var random = new Random(42);
+
+        var flags = new Flags();
+        flags.setAccessCodes(false);
+        flags.setHeaderType(headerType);
+        flags.setContextType(ContextType.FLAG_UNSET);
+        flags.setPropagationType(headerType == HeaderType.HEADER_2 ? TransportType.TRANSPORT : TransportType.BROADCAST);
+        flags.setDestinationType(DestinationType.SINGLE);
+        flags.setPacketType(PacketType.DATA);
+
+        dataPacket = new DataPacket();
+        var header = new Header(dataPacket);
+        header.setFlags(flags);
+        header.setHops((byte) 3);
+        var addresses = new Addresses(dataPacket);
+        addresses.setHash1(BenchmarkFixtures.randomBytes(16, random));
+        if (headerType == HeaderType.HEADER_2) {
+            addresses.setHash2(BenchmarkFixtures.randomBytes(16, random));
+        }
+        dataPacket.setHeader(header);
+        dataPacket.setAddresses(addresses);
+        dataPacket.setContext(PacketContextType.NONE);
+        dataPacket.setData(BenchmarkFixtures.randomBytes(400, random));
+
+        raw = DataPacketConverter.toBytes(dataPacket);
+        buffer = new byte[raw.length];
+    }
+
+    @Benchmark
+    public byte[] toBytes() {
+        return DataPacketConverter.toBytes(dataPacket);
+    }
+
+    @Benchmark
+    public DataPacket fromBytes() {
+        return DataPacketConverter.fromBytes(raw);
+    }
+
+    @Benchmark
+    public int toBytesInto() {
+        return DataPacketConverter.toBytes(dataPacket, buffer, 0);
+    }
+
+    @Benchmark
+    public byte[] jbbpToBytes() throws IOException {
+        try (var os = new ByteArrayOutputStream()) {
+            dataPacket.write(new JBBPBitOutputStream(os));
+            return os.toByteArray();
+        }
+    }
+
+    @Benchmark
+    public DataPacket jbbpFromBytes() throws IOException {
+        try (var is = new ByteArrayInputStream(raw)) {
+            return new DataPacket().read(new JBBPBitInputStream(is));
+        }
+    }
+}
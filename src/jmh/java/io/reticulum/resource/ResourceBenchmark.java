@@ -0,0 +1,54 @@
+package io.reticulum.resource;
+
+import io.reticulum.BenchmarkFixtures;
+import io.reticulum.link.Link;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static io.reticulum.destination.DestinationType.SINGLE;
+
+/**
+ * Preparing an outgoing {@link Resource} without advertising it: optional compression,
+ * encryption with the link key, and splitting into packed parts with their hashmap.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResourceBenchmark {
+
+    @Param({"4096", "262144"})
+    public int size;
+
+    @Param({"false", "true"})
+    public boolean autoCompress;
+
+    private Link link;
+    private byte[] data;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        link = BenchmarkFixtures.handshakedLink(BenchmarkFixtures.destination(SINGLE, "resource"));
+        data = BenchmarkFixtures.randomBytes(size, new Random(42));
+    }
+
+    @Benchmark
+    public Resource prepare() {
+        return new Resource(data, link, null, null, null, false, 1000L, autoCompress, null, false);
+    }
+}
@@ -0,0 +1,101 @@
+package io.reticulum.resource;
+
+import io.reticulum.BenchmarkFixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.management.ManagementFactory;
+import java.time.Instant;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static io.reticulum.destination.DestinationType.SINGLE;
+import static io.reticulum.resource.ResourceStatus.COMPLETE;
+import static io.reticulum.resource.ResourceStatus.TRANSFERRING;
+import static java.util.Objects.nonNull;
+
+/**
+ * Simultaneous outgoing transfers waiting for part requests, each with its watchdog on the
+ * shared {@link ResourceScheduler}. {@code watchdogPass} is one pass of one watchdog.
+ * <p>
+ * Setup prints the live thread count and the CPU time the scheduler threads use per second
+ * with all watchdogs running; before the scheduler every transfer had a thread of its own.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResourceWatchdogBenchmark {
+
+    @Param({"200"})
+    public int transfers;
+
+    private Resource[] resources;
+
+    @Setup(Level.Trial)
+    public void setUp() throws InterruptedException {
+        var link = BenchmarkFixtures.handshakedLink(BenchmarkFixtures.destination(SINGLE, "resource"));
+        var data = BenchmarkFixtures.randomBytes(4096, new Random(42));
+        var threads = ManagementFactory.getThreadMXBean();
+        var threadsBefore = threads.getThreadCount();
+
+        resources = new Resource[transfers];
+        for (int i = 0; i < transfers; i++) {
+            resources[i] = new Resource(data, link, null, null, null, false, 1000L, false, null, false);
+            resources[i].setStatus(TRANSFERRING);
+            resources[i].setRtt(1_000L);
+            resources[i].setLastActivity(Instant.now());
+            resources[i].watchdogJobStart();
+        }
+
+        Thread.sleep(100);
+        var cpuBefore = schedulerCpuNanos();
+        Thread.sleep(1_000);
+        var cpu = schedulerCpuNanos() - cpuBefore;
+
+        System.out.printf(
+                "%n%d transfers: %d live threads (%d before), resource scheduler CPU %.2f ms/s%n",
+                transfers,
+                threads.getThreadCount(),
+                threadsBefore,
+                cpu / 1e6
+        );
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        for (Resource resource : resources) {
+            resource.setStatus(COMPLETE);
+        }
+    }
+
+    private static long schedulerCpuNanos() {
+        var threads = ManagementFactory.getThreadMXBean();
+        var total = 0L;
+        for (var info : threads.getThreadInfo(threads.getAllThreadIds())) {
+            if (nonNull(info) && info.getThreadName().startsWith(ResourceScheduler.THREAD_NAME_PREFIX)) {
+                total += Math.max(0, threads.getThreadCpuTime(info.getThreadId()));
+            }
+        }
+
+        return total;
+    }
+
+    @Benchmark
+    public long watchdogPass() {
+        return resources[0].watchdog();
+    }
+}
@@ -0,0 +1,69 @@
+package io.reticulum.transport;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rate checks of an announce flood: 1M announces spread over a fixed set of destinations
+ * per invocation. Once every destination is in the table, the GC profiler should show
+ * {@code gc.alloc.rate.norm} of 0 bytes per announce.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AnnounceRateTableBenchmark {
+
+    private static final int ANNOUNCES = 1_000_000;
+
+    @Param({"1000", "100000"})
+    public int destinations;
+
+    private byte[][] destinationHashes;
+    private int[] order;
+    private AnnounceRateTable table;
+    private long now;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        destinationHashes = new byte[destinations][16];
+        var random = new Random(42);
+        for (byte[] hash : destinationHashes) {
+            random.nextBytes(hash);
+        }
+        order = new int[ANNOUNCES];
+        for (int i = 0; i < ANNOUNCES; i++) {
+            order[i] = random.nextInt(destinations);
+        }
+        table = new AnnounceRateTable(16);
+        for (byte[] hash : destinationHashes) {
+            table.record(hash, now, 3600, 10, 7200);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ANNOUNCES)
+    public void floodOfAnnounces(Blackhole blackhole) {
+        for (int i = 0; i < ANNOUNCES; i++) {
+            now += 1_000_000;
+            blackhole.consume(table.record(destinationHashes[order[i]], now, 3600, 10, 7200));
+        }
+    }
+}
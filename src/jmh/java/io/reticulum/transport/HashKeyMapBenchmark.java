@@ -0,0 +1,70 @@
+package io.reticulum.transport;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.apache.commons.codec.binary.Hex.encodeHexString;
+
+/**
+ * Routing table lookup by raw destination hash: the former hex-string keyed
+ * {@code ConcurrentHashMap} against {@link HashKeyMap}. Run with {@code -prof gc} to
+ * compare allocation per lookup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HashKeyMapBenchmark {
+
+    @Param({"1000", "100000"})
+    public int destinations;
+
+    private byte[][] destinationHashes;
+    private Map<String, Object> hexTable;
+    private HashKeyMap<Object> hashKeyTable;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        destinationHashes = new byte[destinations][16];
+        hexTable = new ConcurrentHashMap<>();
+        hashKeyTable = new HashKeyMap<>();
+        var random = new Random(42);
+        for (byte[] hash : destinationHashes) {
+            random.nextBytes(hash);
+            hexTable.put(encodeHexString(hash), hash);
+            hashKeyTable.put(hash, hash);
+        }
+    }
+
+    private byte[] nextHash() {
+        return destinationHashes[ThreadLocalRandom.current().nextInt(destinations)];
+    }
+
+    @Benchmark
+    public Object hexStringLookup() {
+        return hexTable.get(encodeHexString(nextHash()));
+    }
+
+    @Benchmark
+    public Object hashKeyLookup() {
+        return hashKeyTable.get(nextHash());
+    }
+}
@@ -0,0 +1,69 @@
+package io.reticulum.transport;
+
+import io.reticulum.BenchmarkFixtures;
+import io.reticulum.interfaces.ConnectionInterface;
+import io.reticulum.packet.Packet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static io.reticulum.destination.DestinationType.PLAIN;
+
+/**
+ * IFAC work done per packet by {@code Transport.transmit()} ({@link InterfaceAccessCode#mask})
+ * and {@code Transport.inbound()} ({@link InterfaceAccessCode#unmask}) on an interface with
+ * a network name and passphrase.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InterfaceAccessCodeBenchmark {
+
+    @Param({"8", "16"})
+    public int ifacSize;
+
+    @Param({"16", "400"})
+    public int payloadSize;
+
+    private ConnectionInterface iface;
+    private byte[] raw;
+    private byte[] masked;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        iface = BenchmarkFixtures.ifacInterface(ifacSize);
+
+        var packet = new Packet(
+                BenchmarkFixtures.destination(PLAIN, "ifac"),
+                BenchmarkFixtures.randomBytes(payloadSize, new Random(42))
+        );
+        packet.pack();
+        raw = packet.getRaw();
+        masked = InterfaceAccessCode.mask(iface, raw);
+    }
+
+    @Benchmark
+    public byte[] mask() {
+        return InterfaceAccessCode.mask(iface, raw);
+    }
+
+    @Benchmark
+    public byte[] unmask() {
+        return InterfaceAccessCode.unmask(iface, masked);
+    }
+}
@@ -5,8 +5,7 @@ import io.reticulum.interfaces.AbstractConnectionInterface;
 import io.reticulum.interfaces.ConnectionInterface;
 import io.reticulum.interfaces.local.LocalClientInterface;
 import io.reticulum.interfaces.local.LocalServerInterface;
-import io.reticulum.storage.Storage;
-import io.reticulum.utils.IdentityUtils;
+import io.reticulum.transport.OverflowPolicy;
 import io.reticulum.utils.InterfaceUtils;
 import io.reticulum.utils.Scheduler;
 import lombok.Getter;
@@ -22,6 +21,9 @@ import java.util.Optional;
 import java.util.concurrent.atomic.AtomicLong;
 
 import static io.reticulum.constant.ReticulumConstant.*;
+import static io.reticulum.constant.TransportConstant.INBOUND_BATCH_SIZE;
+import static io.reticulum.constant.TransportConstant.INBOUND_QUEUE_DEPTH;
+import static io.reticulum.constant.TransportConstant.INBOUND_WORKERS;
 import static io.reticulum.identity.IdentityKnownDestination.loadKnownDestinations;
 import static io.reticulum.utils.CommonUtils.panic;
 import static io.reticulum.utils.Scheduler.scheduler;
@@ -81,6 +83,14 @@ public class Reticulum implements ExitHandler {
     private boolean allowProbes = false;
     @Getter
     private boolean panicOnIntefaceError = false;
+    @Getter
+    private int inboundWorkers = INBOUND_WORKERS;
+    @Getter
+    private int inboundQueueDepth = INBOUND_QUEUE_DEPTH;
+    @Getter
+    private int inboundBatchSize = INBOUND_BATCH_SIZE;
+    @Getter
+    private OverflowPolicy inboundOverflowPolicy = OverflowPolicy.DROP_NEWEST;
     private int localIntefacePort = 37428;
     private boolean shareInstance = true;
 
@@ -108,6 +118,7 @@ public class Reticulum implements ExitHandler {
         var ifList = initInterfaces();
         loadKnownDestinations();
         transport.getInterfaces().addAll(ifList);
+        transport.restoreRoutingTables();
 
 //        rpcAddr = new InetSocketAddress(localIntefacePort);
 //        rpcKey = fullHash(transport.getIdentity().getPrivateKey());
@@ -139,7 +150,6 @@ public class Reticulum implements ExitHandler {
      */
     public void exitHandler() {
         transport.exitHandler();
-        IdentityUtils.exitHandler();
         // Stop the shared scheduler last, after data has been persisted. This halts
         // Transport.jobs() and the periodic announce/persist work so the mesh stops
         // recovering once shutdown has begun (previously these kept running and the
@@ -149,7 +159,6 @@ public class Reticulum implements ExitHandler {
 
     public void persistData() {
         transport.persistData();
-        IdentityUtils.persistData();
     }
 
     /**
@@ -204,7 +213,7 @@ public class Reticulum implements ExitHandler {
             var hops = entry.getValue();
             if (maxHops == null || hops.getPathLength() <= maxHops) {
                 result.add(new PathEntry(
-                        entry.getKey(),
+                        entry.getKey().toString(),
                         hops.getTimestamp(),
                         hops.getVia(),
                         hops.getPathLength(),
@@ -285,12 +294,8 @@ public class Reticulum implements ExitHandler {
         var count = 0;
         for (var entry : transport.getDestinationTable().entrySet()) {
             if (java.util.Arrays.equals(entry.getValue().getVia(), viaHash)) {
-                try {
-                    transport.expirePath(org.apache.commons.codec.binary.Hex.decodeHex(entry.getKey()));
-                    count++;
-                } catch (Exception ignored) {
-                    // Malformed key — skip
-                }
+                transport.expirePath(entry.getKey().toBytes());
+                count++;
             }
         }
         return count;
@@ -321,7 +326,7 @@ public class Reticulum implements ExitHandler {
 
         // Clean packet caches
         try {
-            Storage.getInstance().cleanPacketCache();
+            transport.getPacketCache().expire();
         } catch (Exception e) {
             log.error("Error while cleaning caches cache.", e);
         }
@@ -419,6 +424,10 @@ public class Reticulum implements ExitHandler {
         transportEnabled = Optional.ofNullable(reticulumConfig.getEnableTransport()).orElse(transportEnabled);
         panicOnIntefaceError = Optional.ofNullable(reticulumConfig.getPanicOnInterfaceError()).orElse(panicOnIntefaceError);
         useImplicitProof = Optional.ofNullable(reticulumConfig.getUseImplicitProof()).orElse(useImplicitProof);
+        inboundWorkers = Optional.ofNullable(reticulumConfig.getInboundWorkers()).orElse(inboundWorkers);
+        inboundQueueDepth = Optional.ofNullable(reticulumConfig.getInboundQueueDepth()).orElse(inboundQueueDepth);
+        inboundBatchSize = Optional.ofNullable(reticulumConfig.getInboundBatchSize()).orElse(inboundBatchSize);
+        inboundOverflowPolicy = Optional.ofNullable(reticulumConfig.getInboundOverflowPolicy()).orElse(inboundOverflowPolicy);
     }
 
     private void startLocalInterface() {
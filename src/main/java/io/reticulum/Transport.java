@@ -3,32 +3,51 @@ package io.reticulum;
 import io.reticulum.constant.TransportConstant;
 import io.reticulum.destination.Destination;
 import io.reticulum.identity.Identity;
+import io.reticulum.identity.IdentityKnownDestination;
+import io.reticulum.identity.IdentityKnownDestination.DestinationData;
 import io.reticulum.interfaces.ConnectionInterface;
 import io.reticulum.link.Link;
 import io.reticulum.packet.Packet;
 import io.reticulum.packet.PacketReceipt;
-import io.reticulum.packet.PacketReceiptStatus;
 import io.reticulum.packet.PacketType;
 import io.reticulum.packet.data.DataPacket;
 import io.reticulum.packet.data.DataPacketConverter;
 import io.reticulum.storage.Storage;
+import io.reticulum.storage.cache.PacketCache;
 import io.reticulum.storage.entity.DestinationTable;
 import io.reticulum.storage.entity.HopEntity;
-import io.reticulum.storage.entity.PacketCache;
+import io.reticulum.storage.entity.RatchetEntity;
 import io.reticulum.storage.entity.TunnelEntity;
+import io.reticulum.storage.journal.RoutingJournal;
 import io.reticulum.transport.AnnounceEntry;
 import io.reticulum.transport.AnnounceHandler;
+import io.reticulum.transport.AnnounceVerifier;
 import io.reticulum.transport.AnnounceQueueEntry;
+import io.reticulum.transport.AnnounceRateTable;
+import io.reticulum.transport.ExpiringHashKeyMap;
+import io.reticulum.transport.HashKey;
+import io.reticulum.transport.HashIndexedList;
+import io.reticulum.transport.HashKeyMap;
+import io.reticulum.transport.InboundPipeline;
+import io.reticulum.transport.InterfaceAccessCode;
+import io.reticulum.transport.InterfaceList;
 import io.reticulum.transport.Hops;
 import io.reticulum.transport.LinkEntry;
+import io.reticulum.transport.LinkRegistry;
+import io.reticulum.transport.OutboundQueue;
+import io.reticulum.transport.OverflowPolicy;
 import io.reticulum.transport.PathRequestEntry;
-import io.reticulum.transport.RateEntry;
+import io.reticulum.transport.PacketHashFilter;
+import io.reticulum.transport.PathResolver;
+import io.reticulum.transport.ReceiptRegistry;
+import io.reticulum.transport.ShardedLock;
 import com.fasterxml.jackson.core.type.TypeReference;
 import io.reticulum.interfaces.discovery.InterfaceAnnouncer;
 import io.reticulum.transport.BlackholeEntry;
 import org.msgpack.jackson.dataformat.MessagePackMapper;
 import io.reticulum.transport.ReversEntry;
 import io.reticulum.transport.TransportState;
+import io.reticulum.transport.TransportMetrics;
 import io.reticulum.transport.Tunnel;
 import io.reticulum.utils.IdentityUtils;
 import io.reticulum.utils.Scheduler;
@@ -39,17 +58,17 @@ import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.collections4.MapUtils;
 import org.apache.commons.lang3.ArrayUtils;
-import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.tuple.Pair;
-import org.bouncycastle.crypto.digests.SHA256Digest;
-import org.bouncycastle.crypto.generators.HKDFBytesGenerator;
-import org.bouncycastle.crypto.params.HKDFParameters;
 
+import java.io.IOException;
 import java.math.BigInteger;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -59,6 +78,8 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.concurrent.ConcurrentLinkedQueue;
@@ -66,7 +87,6 @@ import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
-import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Consumer;
 
 import static io.reticulum.constant.IdentityConstant.HASHLENGTH;
@@ -83,20 +103,30 @@ import static io.reticulum.constant.ReticulumConstant.HEADER_MINSIZE;
 import static io.reticulum.constant.ReticulumConstant.MAX_QUEUED_ANNOUNCES;
 import static io.reticulum.constant.ReticulumConstant.MTU;
 import static io.reticulum.constant.ReticulumConstant.TRUNCATED_HASHLENGTH;
-import static io.reticulum.constant.TransportConstant.ANNOUNCES_CHECK_INTERVAL;
 import static io.reticulum.constant.TransportConstant.APP_NAME;
 import static io.reticulum.constant.TransportConstant.AP_PATH_TIME;
+import static io.reticulum.constant.TransportConstant.ANNOUNCE_VERDICT_CACHE_SIZE;
 import static io.reticulum.constant.TransportConstant.DESTINATION_TIMEOUT;
 import static io.reticulum.constant.TransportConstant.DISCOVER_PATHS_FOR;
-import static io.reticulum.constant.TransportConstant.HASHLIST_MAXSIZE;
+import static io.reticulum.constant.TransportConstant.INBOUND_BATCH_SIZE;
+import static io.reticulum.constant.TransportConstant.INBOUND_QUEUE_DEPTH;
+import static io.reticulum.constant.TransportConstant.PACKET_CACHE_MEMORY;
+import static io.reticulum.constant.TransportConstant.PACKET_CACHE_SEGMENT_SIZE;
+import static io.reticulum.constant.TransportConstant.PACKET_CACHE_SEGMENT_SPAN;
+import static io.reticulum.constant.TransportConstant.PACKET_FILTER_GENERATIONS;
+import static io.reticulum.constant.TransportConstant.PACKET_FILTER_MAX_BYTES;
+import static io.reticulum.constant.TransportConstant.PACKET_FILTER_WINDOW;
 import static io.reticulum.constant.TransportConstant.JOB_INTERVAL;
 import static io.reticulum.constant.TransportConstant.LINKS_CHECK_INTERVAL;
 import static io.reticulum.constant.TransportConstant.LINK_TIMEOUT;
 import static io.reticulum.constant.TransportConstant.LOCAL_CLIENT_CACHE_MAXSIZE;
 import static io.reticulum.constant.TransportConstant.LOCAL_REBROADCASTS_MAX;
-import static io.reticulum.constant.TransportConstant.MAX_PR_TAGS;
+import static io.reticulum.constant.TransportConstant.PATH_REQUEST_TAG_GENERATIONS;
+import static io.reticulum.constant.TransportConstant.PATH_REQUEST_TAG_MAX_BYTES;
+import static io.reticulum.constant.TransportConstant.PATH_REQUEST_TAG_WINDOW;
 import static io.reticulum.constant.TransportConstant.MAX_RATE_TIMESTAMPS;
 import static io.reticulum.constant.TransportConstant.MAX_RECEIPTS;
+import static io.reticulum.constant.TransportConstant.METRICS_INTERVAL;
 import static io.reticulum.constant.TransportConstant.PATHFINDER_E;
 import static io.reticulum.constant.TransportConstant.PATHFINDER_G;
 import static io.reticulum.constant.TransportConstant.PATHFINDER_M;
@@ -107,8 +137,8 @@ import static io.reticulum.constant.TransportConstant.PATH_REQUEST_MI;
 import static io.reticulum.constant.TransportConstant.PATH_REQUEST_RG;
 import static io.reticulum.constant.TransportConstant.PATH_REQUEST_TIMEOUT;
 import static io.reticulum.constant.TransportConstant.RANDOM_BLOBS_MAX_PER_DESTINATION;
-import static io.reticulum.constant.TransportConstant.RECEIPTS_CHECK_INTERVAL;
 import static io.reticulum.constant.TransportConstant.REVERSE_TIMEOUT;
+import static io.reticulum.constant.TransportConstant.ROUTING_JOURNAL_MIN_COMPACTION;
 import static io.reticulum.constant.TransportConstant.ROAMING_PATH_TIME;
 import static io.reticulum.constant.TransportConstant.TABLES_CULL_INTERVAL;
 import static io.reticulum.destination.DestinationType.GROUP;
@@ -143,7 +173,6 @@ import static io.reticulum.packet.PacketType.ANNOUNCE;
 import static io.reticulum.packet.PacketType.DATA;
 import static io.reticulum.packet.PacketType.LINKREQUEST;
 import static io.reticulum.packet.PacketType.PROOF;
-import static io.reticulum.storage.Storage.DESTINATION_TABLE;
 import static io.reticulum.transport.TransportState.STATE_RESPONSIVE;
 import static io.reticulum.transport.TransportState.STATE_UNKNOWN;
 import static io.reticulum.transport.TransportState.STATE_UNRESPONSIVE;
@@ -157,7 +186,7 @@ import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
 import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
-import static org.apache.commons.codec.binary.Hex.decodeHex;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static org.apache.commons.codec.binary.Hex.encodeHexString;
 import static org.apache.commons.collections4.CollectionUtils.isNotEmpty;
 import static org.apache.commons.lang3.ArrayUtils.getLength;
@@ -167,13 +196,32 @@ import static org.apache.commons.lang3.BooleanUtils.isNotTrue;
 
 @Slf4j
 public final class Transport implements ExitHandler {
-    private final ReentrantLock savingPathTableLock = new ReentrantLock();
-    private final ReentrantLock savingTunnelTableLock = new ReentrantLock();
-    private final ReentrantLock jobsLock = new ReentrantLock(true);
+    /**
+     * Per-destination shards guarding the routing tables. Replaces the former single
+     * {@code jobsLock}: inbound()/outbound() hold one shard, jobs() holds all of them.
+     */
+    private final ShardedLock routingLocks = new ShardedLock(ShardedLock.defaultShards());
+    /**
+     * Per-interface receive queues drained in batches by the transport workers
+     */
+    @Getter
+    private final InboundPipeline inboundPipeline;
+    /**
+     * Packets submitted with {@link #outboundAsync(Packet)}, sent by a single transport thread
+     */
+    @Getter
+    private final OutboundQueue outboundQueue = new OutboundQueue(this::outbound);
+    /**
+     * Verifies announce signatures of inbound batches before the routing lock is taken
+     */
+    @Getter
+    private final AnnounceVerifier announceVerifier = new AnnounceVerifier(
+            IdentityKnownDestination::verifyAnnounce,
+            Runtime.getRuntime().availableProcessors(),
+            ANNOUNCE_VERDICT_CACHE_SIZE
+    );
 
     private final AtomicReference<Instant> linksLastChecked = new AtomicReference<>(Instant.EPOCH);
-    private final AtomicReference<Instant> announcesLastChecked = new AtomicReference<>(Instant.EPOCH);
-    private final AtomicReference<Instant> receiptsLastChecked = new AtomicReference<>(Instant.EPOCH);
     private final AtomicReference<Instant> tablesLastCulled = new AtomicReference<>(Instant.EPOCH);
     private final AtomicReference<Instant> interfaceLastJobs = new AtomicReference<>(Instant.EPOCH);
     private final AtomicReference<Duration> interfaceJobsInterval = new AtomicReference<>(Duration.ofSeconds(5));
@@ -184,6 +232,17 @@ public final class Transport implements ExitHandler {
     @Getter
     private Identity identity;
     private final Storage storage;
+    /**
+     * Persisted paths, tunnels, known destinations and ratchets, {@code null} if the files
+     * could not be opened
+     */
+    @Getter
+    private final RoutingJournal routingJournal;
+    /**
+     * Packets cached for cache requests, path responses and restoring paths
+     */
+    @Getter
+    private final PacketCache packetCache;
     @Getter
     private InterfaceAnnouncer interfaceAnnouncer;
 
@@ -191,12 +250,12 @@ public final class Transport implements ExitHandler {
      * All active interfaces
      */
     @Getter
-    private final List<ConnectionInterface> interfaces = new CopyOnWriteArrayList<>();
+    private final InterfaceList interfaces = new InterfaceList();
     /**
      * All active destinations
      */
     @Getter
-    private final List<Destination> destinations = new CopyOnWriteArrayList<>();
+    private final HashIndexedList<Destination> destinations = new HashIndexedList<>(Destination::getHash);
 
     /**
      * Interfaces for communicating with local clients connected to a shared Reticulum instance
@@ -207,15 +266,15 @@ public final class Transport implements ExitHandler {
     /**
      * A table for storing announces currently waiting to be retransmitted
      */
-    private final Map<String, AnnounceEntry> announceTable = new ConcurrentHashMap<>();
+    private final ExpiringHashKeyMap<AnnounceEntry> announceTable = new ExpiringHashKeyMap<>(JOB_INTERVAL, Transport::announceExpiresAt);
     /**
      * A table containing temporarily held announce-table entries
      */
-    private final Map<String, AnnounceEntry> heldAnnounces = new ConcurrentHashMap<>();
+    private final HashKeyMap<AnnounceEntry> heldAnnounces = new HashKeyMap<>();
     /**
      * A table for keeping track of announce rates
      */
-    private final Map<String, RateEntry> announceRateTable = new ConcurrentHashMap<>();
+    private final AnnounceRateTable announceRateTable = new AnnounceRateTable(MAX_RATE_TIMESTAMPS);
     /**
      * A table storing externally registered announce handlers
      */
@@ -223,59 +282,90 @@ public final class Transport implements ExitHandler {
     private final List<AnnounceHandler> announceHandlers = new CopyOnWriteArrayList<>();
     private final Queue<AnnounceQueueEntry> announceQueue = new ConcurrentLinkedQueue<>();
     /**
-     * A table for storing path request timestamps
+     * Path resolutions in flight and the times paths were last requested, by destination
      */
-    private final Map<String, Instant> pathRequests = new ConcurrentHashMap<>();
-    private final Map<String, TransportState> pathStates = new ConcurrentHashMap<>();
+    private final PathResolver pathResolver = new PathResolver(JOB_INTERVAL, Duration.ofSeconds(PATH_REQUEST_MI));
+    private final HashKeyMap<TransportState> pathStates = new HashKeyMap<>();
     /**
      * A table of blackholed identity hashes and their associated metadata.
      * Announces and path table entries for identities in this table are suppressed.
      */
     @Getter
-    private final Map<String, BlackholeEntry> blackholedIdentities = new ConcurrentHashMap<>();
+    private final HashKeyMap<BlackholeEntry> blackholedIdentities = new HashKeyMap<>();
     /**
      * A lookup table containing the next hop to a given destination
      */
     @Getter
-    private final Map<String, Hops> destinationTable = new ConcurrentHashMap<>();
+    private final ExpiringHashKeyMap<Hops> destinationTable = new ExpiringHashKeyMap<>(JOB_INTERVAL, this::pathExpiresAt);
     /**
      * A lookup table for storing packet hashes used to return proofs and replies
      */
-    private final Map<String, ReversEntry> reverseTable = new ConcurrentHashMap<>();
+    private final ExpiringHashKeyMap<ReversEntry> reverseTable = new ExpiringHashKeyMap<>(
+            JOB_INTERVAL, reverseEntry -> reverseEntry.getTimestamp().plusSeconds(REVERSE_TIMEOUT)
+    );
     /**
      * A lookup table containing hops for links
      */
     @Getter
-    private final Map<String, LinkEntry> linkTable = new ConcurrentHashMap<>();
+    private final ExpiringHashKeyMap<LinkEntry> linkTable = new ExpiringHashKeyMap<>(JOB_INTERVAL, this::linkEntryExpiresAt);
     /**
      * A table storing tunnels to other transport instances
      */
-    private final Map<String, Tunnel> tunnels = new ConcurrentHashMap<>();
+    private final ExpiringHashKeyMap<Tunnel> tunnels = new ExpiringHashKeyMap<>(JOB_INTERVAL, Transport::tunnelExpiresAt);
+    /**
+     * Paths and tunnels that changed since the last persist; only these are written to the
+     * routing journal
+     */
+    private final Set<HashKey> dirtyPaths = ConcurrentHashMap.newKeySet();
+    private final Set<HashKey> dirtyTunnels = ConcurrentHashMap.newKeySet();
+    /**
+     * Set while the paths of the routing snapshot are restored in the background; until
+     * then, lookups that miss the destination table restore the path on the spot
+     */
+    private volatile boolean restoringPaths;
     /**
-     * Links that are active
+     * Paths restored, learned or dropped since startup, for which the snapshot is outdated
      */
-    private final List<Link> activeLinks = new CopyOnWriteArrayList<>();
+    private final Set<HashKey> settledPaths = ConcurrentHashMap.newKeySet();
     /**
-     * Links that are being established
+     * Links that are active and links that are being established, by link ID
      */
-    private final List<Link> pendingLinks = new CopyOnWriteArrayList<>();
-    private final Map<String, ConnectionInterface> pendingLocalPathRequests = new ConcurrentHashMap<>();
+    @Getter
+    private final LinkRegistry links = new LinkRegistry();
+    private final HashKeyMap<ConnectionInterface> pendingLocalPathRequests = new HashKeyMap<>();
     /**
      * A table for keeping track of path requests on behalf of other nodes
      */
-    private final Map<String, PathRequestEntry> discoveryPathRequests = new ConcurrentHashMap<>();
+    private final ExpiringHashKeyMap<PathRequestEntry> discoveryPathRequests = new ExpiringHashKeyMap<>(
+            JOB_INTERVAL, PathRequestEntry::getTimeout
+    );
+    /**
+     * Interfaces that were attached when the tables were last culled
+     */
+    private Set<ConnectionInterface> culledInterfaces = Set.of();
     /**
-     * A list of packet hashes for duplicate detection
+     * Packet hashes for duplicate detection, kept in rotating generations within a fixed memory budget
      */
-    private final Map<String, byte[]> packetHashMap = new ConcurrentHashMap<>();
+    @Getter
+    private final PacketHashFilter packetHashFilter = new PacketHashFilter(
+            PACKET_FILTER_GENERATIONS, PACKET_FILTER_MAX_BYTES, Duration.ofSeconds(PACKET_FILTER_WINDOW)
+    );
     /**
-     * A table for keeping track of tagged path requests
+     * Tags of path requests already handled, hashed together with the destination
      */
-    private final List<byte[]> discoveryPrTags = new CopyOnWriteArrayList<>();
+    private final PacketHashFilter pathRequestTags = new PacketHashFilter(
+            PATH_REQUEST_TAG_GENERATIONS, PATH_REQUEST_TAG_MAX_BYTES, Duration.ofSeconds(PATH_REQUEST_TAG_WINDOW)
+    );
     /**
      * Receipts of all outgoing packets for proof processing
      */
-    private final List<PacketReceipt> receipts = new CopyOnWriteArrayList<>();
+    @Getter
+    private final ReceiptRegistry receipts = new ReceiptRegistry(JOB_INTERVAL, MAX_RECEIPTS);
+    /**
+     * Hot-path counters and latency histograms, published over JMX
+     */
+    @Getter
+    private final TransportMetrics metrics = new TransportMetrics(Duration.ofSeconds(METRICS_INTERVAL));
 
     //Transport control destinations are used for control purposes like path requests
     private final List<byte[]> controlHashes = new CopyOnWriteArrayList<>();
@@ -306,8 +396,9 @@ public final class Transport implements ExitHandler {
             // behaviour) and is no longer persisted. Do not load it from storage —
             // a multi-GB legacy collection would be read into memory here and risk
             // OOM at startup. Drop any legacy on-disk collection instead.
-            packetHashMap.clear();
+            packetHashFilter.clear();
             storage.clearPacketHashList();
+            storage.cleanPacketCache();
             reloadBlacklist();
         }
 
@@ -322,85 +413,8 @@ public final class Transport implements ExitHandler {
         controlDestinations.add(tunnelSynthesizeDestination);
         controlHashes.add(tunnelSynthesizeDestination.getHash());
 
-        if (owner.isTransportEnabled()) {
-            var dtList = storage.getDestinationTables();
-            if (isNotEmpty(dtList) && isFalse(owner.isConnectedToSharedInstance())) {
-                for (DestinationTable entry : dtList) {
-                    var destinationHash = entry.getDestinationHash();
-                    var hopEntry = entry.getHop();
-                    if (getLength(decodeHex(destinationHash)) == TRUNCATED_HASHLENGTH / 8) {
-                        var receivingInterface = findInterfaceFromHash(hopEntry.getInterfaceHash());
-                        var announcePacket = getCachedPacket(hopEntry.getPacketHash());
-                        if (nonNull(announcePacket) && nonNull(receivingInterface)) {
-                            announcePacket.unpack();
-                            // We increase the hops, since reading a packet
-                            // from cache is equivalent to receiving it again
-                            // over an interface. It is cached with it's non-increased hop-count.
-                            announcePacket.setHops(announcePacket.getHops() + 1);
-                            destinationTable.put(
-                                    destinationHash,
-                                    Hops.builder()
-                                            .timestamp(hopEntry.getTimestamp())
-                                            .via(hopEntry.getVia())
-                                            .expires(hopEntry.getExpires())
-                                            .hops(hopEntry.getHops())
-                                            .randomBlobs(hopEntry.getRandomBlobs())
-                                            .anInterface(receivingInterface)
-                                            .packet(announcePacket)
-                                            .build()
-                            );
-                            log.debug("Loaded path table entry for {} from storage {}", destinationHash, DESTINATION_TABLE);
-                        } else {
-                            log.debug("Could not reconstruct path table entry from storage for {}", destinationHash);
-                            if (isNull(announcePacket)) {
-                                log.debug("The announce packet could not be loaded from cache");
-                            }
-                            if (isNull(receivingInterface)) {
-                                log.debug("The interface is no longer available");
-                            }
-                        }
-                    }
-                }
-
-                log.debug("Loaded {}  path table entries  from storage", destinationTable.size());
-            }
-
-            var tunnelList = storage.getTunnelTables();
-            if (isNotEmpty(tunnelList) && isFalse(owner.isConnectedToSharedInstance())) {
-                for (TunnelEntity tunnelEntity : tunnelList) {
-                    var tunnelPaths = new HashMap<String, Hops>();
-                    MapUtils.emptyIfNull(tunnelEntity.getTunnelPaths()).forEach((destinationHash, hopEntry) -> {
-                        var receivingInterface = findInterfaceFromHash(hopEntry.getInterfaceHash());
-                        var announcePacket = getCachedPacket(hopEntry.getPacketHash());
-                        if (nonNull(announcePacket)) {
-                            // We increase the hops, since reading a packet
-                            // from cache is equivalent to receiving it again
-                            // over an interface. It is cached with it's non-increased hop-count.
-                            announcePacket.setHops(announcePacket.getHops() + 1);
-
-                            var tunnelPath = Hops.builder()
-                                    .timestamp(hopEntry.getTimestamp())
-                                    .hops(hopEntry.getHops())
-                                    .via(hopEntry.getVia())
-                                    .expires(hopEntry.getExpires())
-                                    .randomBlobs(hopEntry.getRandomBlobs())
-                                    .anInterface(receivingInterface)
-                                    .packet(announcePacket)
-                                    .build();
-                            tunnelPaths.put(destinationHash, tunnelPath);
-                        }
-                    });
-                    tunnels.put(
-                            tunnelEntity.getTunnelIdHex(),
-                            Tunnel.builder()
-                                    .tunnelId(tunnelEntity.getTunnelId())
-                                    .tunnelPaths(tunnelPaths)
-                                    .expires(tunnelEntity.getExpires())
-                                    .anInterface(findInterfaceFromHash(tunnelEntity.getInterfaceHash()))
-                                    .build()
-                    );
-                }
-            }
+        if (isFalse(owner.isConnectedToSharedInstance())) {
+            importLegacyTables();
         }
 
         //Synthesize tunnels for any interfaces wanting it
@@ -421,6 +435,44 @@ public final class Transport implements ExitHandler {
     private Transport(@NonNull final Reticulum reticulum) {
         this.owner = reticulum;
         this.storage = Storage.init(reticulum.getStoragePath());
+        this.packetCache = new PacketCache(
+                reticulum.getStoragePath().resolve("cache"),
+                PACKET_CACHE_MEMORY,
+                PACKET_CACHE_SEGMENT_SIZE,
+                Duration.ofSeconds(PACKET_CACHE_SEGMENT_SPAN),
+                Duration.ofSeconds(DESTINATION_TIMEOUT)
+        );
+        this.routingJournal = openRoutingJournal(reticulum.getStoragePath().resolve("routing"));
+        this.inboundPipeline = new InboundPipeline(
+                (iface, frames) -> inbound(frames, iface),
+                reticulum.getInboundWorkers(),
+                reticulum.getInboundQueueDepth() > 0 ? reticulum.getInboundQueueDepth() : INBOUND_QUEUE_DEPTH,
+                reticulum.getInboundBatchSize() > 0 ? reticulum.getInboundBatchSize() : INBOUND_BATCH_SIZE,
+                Optional.ofNullable(reticulum.getInboundOverflowPolicy()).orElse(OverflowPolicy.DROP_NEWEST)
+        );
+        registerGauges();
+    }
+
+    private void registerGauges() {
+        metrics.gauge("tables.paths", destinationTable::size);
+        metrics.gauge("tables.reversePaths", reverseTable::size);
+        metrics.gauge("tables.links", linkTable::size);
+        metrics.gauge("tables.announces", announceTable::size);
+        metrics.gauge("tables.heldAnnounces", heldAnnounces::size);
+        metrics.gauge("tables.tunnels", tunnels::size);
+        metrics.gauge("tables.announceRates", announceRateTable::size);
+        metrics.gauge("tables.pathResolutions", pathResolver::size);
+        metrics.gauge("tables.pathRequests", discoveryPathRequests::size);
+        metrics.gauge("links.active", links::activeCount);
+        metrics.gauge("links.pending", links::pendingCount);
+        metrics.gauge("receipts", receipts::size);
+        metrics.gauge("dedup.size", packetHashFilter::size);
+        metrics.gauge("dedup.hits", packetHashFilter::getHits);
+        metrics.gauge("dedup.lookups", packetHashFilter::getLookups);
+        metrics.gauge("inbound.queued", inboundPipeline::getQueuedFrames);
+        metrics.gauge("inbound.dropped", inboundPipeline::getDroppedFrames);
+        metrics.gauge("outbound.queued", outboundQueue::getDepth);
+        metrics.gauge("outbound.rejected", outboundQueue::getRejected);
     }
 
     public static Transport start(@NonNull final Reticulum reticulum) {
@@ -431,6 +483,9 @@ public final class Transport implements ExitHandler {
                 if (transport == null) {
                     INSTANCE = transport = new Transport(reticulum);
                     transport.init();
+                    transport.metrics.register();
+                    transport.inboundPipeline.start();
+                    transport.outboundQueue.start();
                 }
             }
         }
@@ -455,9 +510,21 @@ public final class Transport implements ExitHandler {
         if (owner.isConnectedToSharedInstance()) {
             persistData();
         }
+        packetCache.close();
+        metrics.unregister();
+        if (nonNull(routingJournal)) {
+            try {
+                routingJournal.close();
+            } catch (IOException e) {
+                log.warn("Could not close the routing journal", e);
+            }
+        }
     }
 
     public void detachInterfaces() {
+        // let packets that are already queued reach the interfaces first
+        outboundQueue.stop();
+
         var detachableInterfaces = new LinkedList<ConnectionInterface>();
 
         for (ConnectionInterface anInterface : interfaces) {
@@ -489,12 +556,15 @@ public final class Transport implements ExitHandler {
                 log.error("An error occurred while detaching {}.", anInterface, e);
             }
         });
+
+        inboundPipeline.stop();
     }
 
     public void persistData() {
         savePacketHashlist();
-        savePathTable();
-        saveTunnelTable();
+        saveRoutingTables();
+        // the saved tables refer to cached announces
+        packetCache.flush();
     }
 
     private void savePacketHashlist() {
@@ -503,63 +573,321 @@ public final class Transport implements ExitHandler {
         // current hashes into Nitrite on every persist but never deleted aged-out ones,
         // so the on-disk collection grew without bound (the union of every packet hash
         // ever seen) and drove jreticulum.db into multi-GB territory on transport-enabled
-        // nodes. The in-memory map is bounded by the HASHLIST_MAXSIZE clear in jobs(), so
-        // nothing needs to be written here.
+        // nodes. The in-memory PacketHashFilter has a fixed memory budget and ages out old
+        // generations by itself, so nothing needs to be written here.
     }
 
-    private void savePathTable() {
-        if (owner.isConnectedToSharedInstance()) {
-            return;
+    private static RoutingJournal openRoutingJournal(Path directory) {
+        try {
+            return new RoutingJournal(directory, ROUTING_JOURNAL_MIN_COMPACTION);
+        } catch (IOException e) {
+            log.error("Could not open the routing journal in {}, path and tunnel tables will not be persisted", directory, e);
+            return null;
         }
+    }
 
+    /**
+     * Moves tables saved to the database by earlier versions to the routing journal, once.
+     */
+    private void importLegacyTables() {
+        if (isNull(routingJournal) || isFalse(routingJournal.isEmpty())) {
+            return;
+        }
         try {
-            if (savingPathTableLock.tryLock(5, TimeUnit.SECONDS)) {
-                var saveStart = Instant.now();
-
-                log.debug("Saving path table to storage...");
-
-                var dtList = new LinkedList<DestinationTable>();
-                for (String destinationHash : destinationTable.keySet()) {
-                    // Get the destination entry from the destination table
-                    var de = destinationTable.get(destinationHash);
-                    var interfaceHash = de.getInterface().getHash();
-
-                    //Only store destination table entry if the associated interface is still active
-                    var iface = findInterfaceFromHash(interfaceHash);
-                    if (nonNull(iface)) {
-                        //Get the destination entry from the destination table
-                        dtList.add(
-                                DestinationTable.builder()
-                                        .destinationHash(destinationHash)
-                                        .hop(
-                                                HopEntity.builder()
-                                                        .timestamp(de.getTimestamp())
-                                                        .via(de.getVia())
-                                                        .hops(de.getHops())
-                                                        .expires(de.getExpires())
-                                                        .randomBlobs(de.getRandomBlobs())
-                                                        .interfaceHash(interfaceHash)
-                                                        .packetHash(de.getPacket().getHash())
-                                                        .build()
-                                        )
-                                        .build()
-                        );
-                        cache(de.getPacket(), true);
-                    }
+            var paths = storage.getDestinationTables();
+            var tunnelEntities = storage.getTunnelTables();
+            var knownDestinations = storage.loadKnownDestinations();
+            if (paths.isEmpty() && tunnelEntities.isEmpty() && knownDestinations.isEmpty()) {
+                return;
+            }
+
+            var batch = routingJournal.batch();
+            for (var path : paths) {
+                batch.putPath(path);
+            }
+            for (var tunnel : tunnelEntities) {
+                batch.putTunnel(tunnel);
+            }
+            for (var destinationData : knownDestinations.values()) {
+                batch.putKnownDestination(destinationData);
+            }
+            routingJournal.commit(batch);
+            routingJournal.compact();
+            storage.dropRoutingTables();
+            storage.dropKnownDestinations();
+            log.info("Moved {} paths, {} tunnels and {} known destinations from the database to the routing journal",
+                    paths.size(), tunnelEntities.size(), knownDestinations.size());
+        } catch (IOException e) {
+            log.error("Could not move path and tunnel tables to the routing journal", e);
+        }
+    }
+
+    /**
+     * Restores the persisted tunnels and starts restoring the persisted paths in the
+     * background. Called once the interfaces are attached, since entries refer to them.
+     * <p>
+     * Until every path is restored, a lookup for a path that is not in the destination table
+     * yet restores it from the snapshot, so the node forwards from the start however large
+     * the table is.
+     */
+    public void restoreRoutingTables() {
+        if (isNull(routingJournal) || isFalse(owner.isTransportEnabled()) || owner.isConnectedToSharedInstance()) {
+            return;
+        }
+
+        restoreTunnels();
+
+        restoringPaths = true;
+        var restorer = new Thread(() -> {
+            var start = System.currentTimeMillis();
+            try {
+                routingJournal.forEachPath(this::restorePath);
+            } catch (RuntimeException e) {
+                log.error("Could not restore the path table", e);
+            } finally {
+                restoringPaths = false;
+                settledPaths.clear();
+            }
+            log.debug("Restored path table from storage, {} paths in {} ms",
+                    destinationTable.size(), System.currentTimeMillis() - start);
+        }, "path-table-restore");
+        restorer.setDaemon(true);
+        restorer.start();
+    }
+
+    private void restoreTunnels() {
+        for (TunnelEntity tunnelEntity : routingJournal.tunnels()) {
+            var tunnelPaths = new HashKeyMap<Hops>();
+            MapUtils.emptyIfNull(tunnelEntity.getTunnelPaths()).forEach((destinationHash, hopEntry) -> {
+                var receivingInterface = findInterfaceFromHash(hopEntry.getInterfaceHash());
+                var announcePacket = getCachedPacket(hopEntry.getPacketHash());
+                if (nonNull(announcePacket)) {
+                    // We increase the hops, since reading a packet
+                    // from cache is equivalent to receiving it again
+                    // over an interface. It is cached with it's non-increased hop-count.
+                    announcePacket.setHops(announcePacket.getHops() + 1);
+
+                    var tunnelPath = Hops.builder()
+                            .timestamp(hopEntry.getTimestamp())
+                            .hops(hopEntry.getHops())
+                            .via(hopEntry.getVia())
+                            .expires(hopEntry.getExpires())
+                            .randomBlobs(hopEntry.getRandomBlobs())
+                            .anInterface(receivingInterface)
+                            .packet(announcePacket)
+                            .build();
+                    tunnelPaths.put(HashKey.fromHex(destinationHash), tunnelPath);
                 }
-                storage.saveDestinationTables(dtList);
+            });
+            tunnels.put(
+                    tunnelEntity.getTunnelId(),
+                    Tunnel.builder()
+                            .tunnelId(tunnelEntity.getTunnelId())
+                            .tunnelPaths(tunnelPaths)
+                            .expires(tunnelEntity.getExpires())
+                            .anInterface(findInterfaceFromHash(tunnelEntity.getInterfaceHash()))
+                            .build()
+            );
+        }
+    }
 
-                log.debug("Saved {}  path table entries in {} ms", dtList, Duration.between(saveStart, Instant.now()).toMillis());
-            } else {
-                log.error("Could not save path table to storage, waiting for previous save operation timed out.");
+    /**
+     * @return the path to the destination, restored from the routing snapshot if it is not
+     * in the destination table yet
+     */
+    private Hops findPath(byte[] destinationHash) {
+        var hops = destinationTable.get(destinationHash);
+        if (isNull(hops) && restoringPaths) {
+            var entry = routingJournal.path(destinationHash);
+            if (nonNull(entry)) {
+                hops = restorePath(entry);
             }
-        } catch (Exception e) {
-            log.error("Error", e);
+        }
+
+        return hops;
+    }
+
+    /**
+     * Puts a path of the routing snapshot into the destination table, unless the path was
+     * restored, learned or dropped since startup.
+     *
+     * @return the path in the destination table afterwards
+     */
+    private Hops restorePath(DestinationTable entry) {
+        var hex = entry.getDestinationHash();
+        if (isNull(hex) || hex.length() != TRUNCATED_HASHLENGTH / 8 * 2) {
+            return null;
+        }
+        var key = HashKey.fromHex(hex);
+        var destinationHash = key.toBytes();
+
+        var lock = routingLocks.forHash(destinationHash);
+        lock.lock();
+        try {
+            if (isFalse(settledPaths.add(key))) {
+                return destinationTable.get(key);
+            }
+
+            var hopEntry = entry.getHop();
+            var receivingInterface = findInterfaceFromHash(hopEntry.getInterfaceHash());
+            var announcePacket = getCachedPacket(hopEntry.getPacketHash());
+            if (nonNull(announcePacket) && nonNull(receivingInterface)) {
+                announcePacket.unpack();
+                // We increase the hops, since reading a packet
+                // from cache is equivalent to receiving it again
+                // over an interface. It is cached with it's non-increased hop-count.
+                announcePacket.setHops(announcePacket.getHops() + 1);
+                var hops = Hops.builder()
+                        .timestamp(hopEntry.getTimestamp())
+                        .via(hopEntry.getVia())
+                        .expires(hopEntry.getExpires())
+                        .hops(hopEntry.getHops())
+                        .randomBlobs(hopEntry.getRandomBlobs())
+                        .anInterface(receivingInterface)
+                        .packet(announcePacket)
+                        .build();
+                destinationTable.put(key, hops);
+                log.trace("Restored path table entry for {} from storage", entry.getDestinationHash());
+
+                return hops;
+            }
+
+            log.debug("Could not reconstruct path table entry from storage for {}", entry.getDestinationHash());
+            // drop it from the journal with the next persist
+            dirtyPaths.add(key);
+            if (isNull(announcePacket)) {
+                log.debug("The announce packet could not be loaded from cache");
+            }
+            if (isNull(receivingInterface)) {
+                log.debug("The interface is no longer available");
+            }
+
+            return null;
         } finally {
-            savingPathTableLock.unlock();
+            lock.unlock();
+        }
+    }
+
+    private void pathChanged(byte[] destinationHash) {
+        pathChanged(HashKey.of(destinationHash));
+    }
+
+    private void pathChanged(HashKey destinationHash) {
+        dirtyPaths.add(destinationHash);
+        if (restoringPaths) {
+            settledPaths.add(destinationHash);
+        }
+    }
+
+    private void tunnelChanged(byte[] tunnelId) {
+        dirtyTunnels.add(HashKey.of(tunnelId));
+    }
+
+    /**
+     * Writes the paths, tunnels, known destinations and ratchets that changed since the last
+     * call to the routing journal.
+     */
+    private void saveRoutingTables() {
+        if (owner.isConnectedToSharedInstance() || isNull(routingJournal)) {
+            return;
+        }
+
+        // what was taken from the change sets, to be marked again if the commit fails
+        var takenPaths = new ArrayList<HashKey>();
+        var takenTunnels = new ArrayList<HashKey>();
+        List<DestinationData> knownDestinations = List.of();
+        List<RatchetEntity> ratchets = List.of();
+        try {
+            var start = Instant.now();
+            var batch = routingJournal.batch();
+            var paths = 0;
+            for (var iterator = dirtyPaths.iterator(); iterator.hasNext(); ) {
+                var destinationHash = iterator.next();
+                // removed first, so a change made while writing marks the path again
+                iterator.remove();
+                takenPaths.add(destinationHash);
+                var de = destinationTable.get(destinationHash);
+                //Only store destination table entry if the associated interface is still active
+                if (isNull(de) || isNull(findInterfaceFromHash(de.getInterface().getHash()))) {
+                    batch.removePath(destinationHash.toBytes());
+                } else {
+                    batch.putPath(
+                            DestinationTable.builder()
+                                    .destinationHash(destinationHash.toString())
+                                    .hop(toHopEntity(de, de.getInterface().getHash()))
+                                    .build()
+                    );
+                    cache(de.getPacket(), true);
+                    paths++;
+                }
+            }
+
+            var tunnelCount = 0;
+            for (var iterator = dirtyTunnels.iterator(); iterator.hasNext(); ) {
+                var tunnelKey = iterator.next();
+                iterator.remove();
+                takenTunnels.add(tunnelKey);
+                var te = tunnels.get(tunnelKey);
+                if (isNull(te)) {
+                    batch.removeTunnel(tunnelKey.toBytes());
+                    continue;
+                }
+
+                var interfaceHash = nonNull(te.getInterface()) ? te.getInterface().getHash() : null;
+                var serialisedPaths = new HashMap<String, HopEntity>();
+                for (var tunnelPath : te.getTunnelPaths().entrySet()) {
+                    var de = tunnelPath.getValue();
+                    serialisedPaths.put(tunnelPath.getKey().toString(), toHopEntity(de, interfaceHash));
+                    cache(de.getPacket(), true);
+                }
+                batch.putTunnel(
+                        TunnelEntity.builder()
+                                .tunnelIdHex(encodeHexString(te.getTunnelId()))
+                                .tunnelId(te.getTunnelId())
+                                .interfaceHash(interfaceHash)
+                                .expires(te.getExpires())
+                                .tunnelPaths(serialisedPaths)
+                                .build()
+                );
+                tunnelCount++;
+            }
+
+            knownDestinations = IdentityKnownDestination.takeChanged();
+            for (var destinationData : knownDestinations) {
+                batch.putKnownDestination(destinationData);
+            }
+            ratchets = Identity.takeChangedRatchets();
+            for (var ratchet : ratchets) {
+                batch.putRatchet(ratchet);
+            }
+
+            routingJournal.commit(batch);
+            if (isFalse(batch.isEmpty())) {
+                log.debug("Journaled {} changes ({} paths, {} tunnels, {} known destinations, {} ratchets) in {} ms",
+                        batch.size(), paths, tunnelCount, knownDestinations.size(), ratchets.size(),
+                        Duration.between(start, Instant.now()).toMillis());
+            }
+        } catch (IOException e) {
+            log.error("Could not save routing state to the routing journal, retrying with the next save", e);
+            dirtyPaths.addAll(takenPaths);
+            dirtyTunnels.addAll(takenTunnels);
+            IdentityKnownDestination.markChanged(knownDestinations);
+            Identity.restoreChangedRatchets(ratchets);
         }
     }
 
+    private static HopEntity toHopEntity(Hops hops, byte[] interfaceHash) {
+        return HopEntity.builder()
+                .timestamp(hops.getTimestamp())
+                .via(hops.getVia())
+                .hops(hops.getHops())
+                .expires(hops.getExpires())
+                .randomBlobs(hops.getRandomBlobs())
+                .interfaceHash(interfaceHash)
+                .packetHash(hops.getPacket().getHash())
+                .build();
+    }
+
     /**
      * When caching packets to storage, they are written
      * exactly as they arrived over their interface. This
@@ -571,20 +899,9 @@ public final class Transport implements ExitHandler {
      * @param forceCache
      */
     private void cache(Packet packet, boolean forceCache) {
-        if (forceCache || shouldCache(packet)) {
+        if (forceCache || packetCache.shouldCache(packet)) {
             try {
-                String interfaceName = null;
-                if (nonNull(packet.getReceivingInterface())) {
-                    interfaceName = packet.getReceivingInterface().getInterfaceName();
-                }
-
-                storage.savePacketCache(
-                        PacketCache.builder()
-                                .interfaceName(interfaceName)
-                                .raw(packet.getRaw())
-                                .packetHash(encodeHexString(packet.getHash()))
-                                .build()
-                );
+                packetCache.put(packet);
             } catch (Exception e) {
                 log.error("Error writing packet to cache", e);
             }
@@ -596,206 +913,180 @@ public final class Transport implements ExitHandler {
     }
 
     private Packet getCachedPacket(byte[] packetHash, PacketType packetType) {
-        var paketCache = storage.getPacketCache(encodeHexString(packetHash));
-        //if (isNull(paketCache) && (packetType != ANNOUNCE)) {
-        if (isNull(paketCache)) {
+        var cachedPacket = packetCache.get(packetHash);
+        //if (isNull(cachedPacket) && (packetType != ANNOUNCE)) {
+        if (isNull(cachedPacket)) {
             return null;
         }
 
-        var packet = new Packet(paketCache.getRaw());
+        var packet = new Packet(cachedPacket.getRaw());
         //if (packetType == ANNOUNCE) {
-        //    var announceEntry = announceTable.get(encodeHexString(packetHash));
+        //    var announceEntry = announceTable.get(packetHash);
         //    if (nonNull(announceEntry)) {
         //        packet = announceEntry.getPacket();
         //    }
         //}
 
-        interfaces.stream()
-                .filter(i -> StringUtils.equals(i.getInterfaceName(), paketCache.getInterfaceName()))
-                .findAny()
-                .ifPresent(packet::setReceivingInterface);
+        var receivingInterface = interfaces.findByName(cachedPacket.getInterfaceName());
+        if (nonNull(receivingInterface)) {
+            packet.setReceivingInterface(receivingInterface);
+        }
 
         return packet;
     }
 
-    private boolean shouldCache(Packet packet) {
-        // TODO: Rework the caching system. It's currently
-        // not very useful to even cache Resource proofs,
-        // disabling it for now, until redesigned.
-        // return packet.getContext() == RESOURCE_PRF;
-
-        return false;
-    }
-
     private ConnectionInterface findInterfaceFromHash(byte[] interfaceHash) {
-        return interfaces.stream()
-                .filter(iface -> Arrays.equals(iface.getHash(), interfaceHash))
-                .findFirst()
-                .orElse(null);
-    }
-
-    private void saveTunnelTable() {
-        if (owner.isConnectedToSharedInstance()) {
-            return;
-        }
-
-        try {
-            if (savingTunnelTableLock.tryLock(5, TimeUnit.SECONDS)) {
-                var start = Instant.now();
-
-                log.debug("Saving tunnel table to storage...");
-
-                var serialisedTunnels = new LinkedList<TunnelEntity>();
-                for (String tunnelId : tunnels.keySet()) {
-                    var te = tunnels.get(tunnelId);
-                    var iface = te.getInterface();
-                    var tunnelPaths = te.getTunnelPaths();
-                    var expires = te.getExpires();
-
-                    byte[] interfaceHash = null;
-                    if (nonNull(iface)) {
-                        interfaceHash = iface.getHash();
-                    }
-
-                    var serialisedPaths = new HashMap<String, HopEntity>();
-                    for (String destinationHash : tunnelPaths.keySet()) {
-                        var de = tunnelPaths.get(destinationHash);
-                        var hopEntity = HopEntity.builder()
-                                .timestamp(de.getTimestamp())
-                                .via(de.getVia())
-                                .hops(de.getHops())
-                                .expires(de.getExpires())
-                                .randomBlobs(de.getRandomBlobs())
-                                .interfaceHash(interfaceHash)
-                                .packetHash(de.getPacket().getHash())
-                                .build();
-                        serialisedPaths.put(destinationHash, hopEntity);
-                        cache(de.getPacket(), true);
-                    }
-
-                    serialisedTunnels.add(
-                            TunnelEntity.builder()
-                                    .expires(expires)
-                                    .tunnelIdHex(tunnelId)
-                                    .tunnelId(te.getTunnelId())
-                                    .tunnelPaths(serialisedPaths)
-                                    .build()
-                    );
-                }
-                storage.saveTunnelTable(serialisedTunnels);
-
-                log.debug("Saved {} tunnel table entries in {} ms", serialisedTunnels.size(), Duration.between(start, Instant.now()).toMillis());
-            } else {
-                log.error("Could not save tunnel table to storage, waiting for previous save operation timed out.");
-            }
-        } catch (Exception e) {
-            log.error("Error", e);
-        } finally {
-            savingTunnelTableLock.unlock();
-        }
+        return interfaces.find(interfaceHash);
     }
 
+    /**
+     * Checks the interface access code and unpacks a received frame. Touches no shared
+     * state, so it runs before any routing lock is taken.
+     *
+     * @return the unpacked packet, or null if the frame has to be dropped
+     */
     // TODO: 12.05.2023 for refactoring.
-    public void inbound(final byte[] raw, final ConnectionInterface iface) {
+    private Packet unpackInbound(final byte[] raw, final ConnectionInterface iface) {
         byte[] localRaw;
         //If interface access codes are enabled, we must authenticate each packet.
         if (getLength(raw) > 2) {
             if (nonNull(iface) && nonNull(iface.getIdentity())) {
-                // diagnostic log
-                //log.debug("inbound IFAC check: iface={}, identity null={}", iface.getInterfaceName(), iface.getIdentity() == null);
-                //Check that IFAC flag is set
-                if ((raw[0] & 0x80) == 0x80) {
-                    if (getLength(raw) > 2 + iface.getIfacSize()) {
-                        //Extract IFAC
-                        var ifac = subarray(raw, 2, 2 + iface.getIfacSize());
-
-                        //Generate mask
-                        var hkdf = new HKDFBytesGenerator(new SHA256Digest());
-                        hkdf.init(new HKDFParameters(ifac, iface.getIfacKey(), new byte[0]));
-                        var mask = new byte[getLength(raw)];
-                        hkdf.generateBytes(mask, 0, mask.length);
-
-                        //Unmask payload
-                        var i = 0;
-                        var unmaskedRaw = new byte[0];
-                        for (byte b : raw) {
-                            if (i <= 1 || i > iface.getIfacSize() + 1) {
-                                //Unmask header bytes and payload
-                                unmaskedRaw = ArrayUtils.add(unmaskedRaw, (byte) (b ^ mask[i]));
-                            } else {
-                                //Don't unmask IFAC itself
-                                unmaskedRaw = ArrayUtils.add(unmaskedRaw, b);
-                            }
-                            i++;
-                        }
-
-                        //Unset IFAC flag
-                        var newHeader = new byte[]{(byte) (unmaskedRaw[0] & 0x7f), unmaskedRaw[1]};
-
-                        //Re-assemble packet
-                        var newRaw = concatArrays(newHeader, subarray(unmaskedRaw, 2 + iface.getIfacSize(), unmaskedRaw.length));
-
-                        //Calculate expected IFAC
-                        var signed = iface.getIdentity().sign(newRaw);
-                        var expectedIfac = subarray(signed, signed.length - iface.getIfacSize(), signed.length);
-
-                        //Check it
-                        if (Arrays.equals(ifac, expectedIfac)) {
-                            localRaw = newRaw;
-                        } else {
-                            return;
-                        }
-                    } else {
-                        return;
-                    }
-                } else {
-                    //If the IFAC flag is not set, but should be, drop the packet.
-                    log.trace("The IFAC flag is not set, but should be, drop the packet: {}, iface: {}", raw, iface);
-                    return;
+                localRaw = InterfaceAccessCode.unmask(iface, raw);
+                if (isNull(localRaw)) {
+                    return null;
                 }
             } else {
                 //If the interface does not have IFAC enabled, check the received packet IFAC flag.
                 if ((raw[0] & 0x80) == 0x80) {
                     //If the flag is set, drop the packet
                     log.trace("Interface does not have IFAC enabled, but the flag is set. Drop the packet: {}, iface: {}", raw, iface);
-                    return;
+                    return null;
                 }
 
                 localRaw = raw;
             }
         } else {
+            return null;
+        }
+
+        if (isNull(identity)) {
+            return null;
+        }
+
+        var packet = new Packet(localRaw);
+        if (isFalse(packet.unpack())) {
+            return null;
+        }
+
+        return packet;
+    }
+
+
+    /**
+     * Hands a received frame to the inbound pipeline. Interfaces call this from their
+     * receive threads; it never blocks on the routing lock.
+     *
+     * @param raw   frame as received, after interface framing was removed
+     * @param iface receiving interface
+     */
+    public void enqueueInbound(final byte[] raw, final ConnectionInterface iface) {
+        if (isNull(iface) || isFalse(inboundPipeline.isRunning())) {
+            inbound(raw, iface);
+        } else {
+            inboundPipeline.enqueue(iface, raw);
+        }
+    }
+
+    /**
+     * Routes a single frame on the calling thread.
+     */
+    public void inbound(final byte[] raw, final ConnectionInterface iface) {
+        inbound(Collections.singletonList(raw), iface);
+    }
+
+    /**
+     * Routes a batch of frames received on one interface. Frames are unpacked without any
+     * lock, then every routing shard the batch touches is taken once, in index order, and
+     * the packets are processed in arrival order. Transmits and local deliveries collected
+     * on the way run after the shards are released.
+     *
+     * @param frames raw frames in the order they were received
+     * @param iface  receiving interface
+     */
+    public void inbound(final List<byte[]> frames, final ConnectionInterface iface) {
+        var packets = new ArrayList<Packet>(frames.size());
+        for (byte[] raw : frames) {
+            metrics.received(iface, raw.length);
+            var packet = unpackInbound(raw, iface);
+            if (nonNull(packet)) {
+                packets.add(packet);
+            }
+        }
+        if (packets.isEmpty()) {
             return;
         }
+        // Announce signatures are the expensive part of routing, check them in parallel while no lock is held
+        announceVerifier.verify(packets);
 
-        // tryLock(2ms) enters the fair queue, preventing starvation of outbound() callers.
-        // Plain tryLock() barges past waiting threads; with high inbound rate this starves announce.
+        // Only the shards owning these destinations are locked; packets for other
+        // destinations are processed concurrently on other threads.
+        var shards = new BitSet(routingLocks.getShards());
+        for (Packet packet : packets) {
+            shards.set(routingLocks.shardOf(packet.getDestinationHash()));
+        }
+        var inboundLockWaitStart = System.nanoTime();
         try {
-            while (isFalse(jobsLock.tryLock(2, MILLISECONDS))) {
-                if (Thread.currentThread().isInterrupted()) {
-                    return;
-                }
-            }
+            routingLocks.lockShards(shards);
         } catch (InterruptedException e) {
             log.trace("inbound lock wait interrupted");
             Thread.currentThread().interrupt();
             return;
         }
 
-        var inboundLockAcquiredAt = System.currentTimeMillis();
-        // Collect all outgoing I/O operations; execute them AFTER releasing jobsLock
+        var inboundLockAcquiredAt = System.nanoTime();
+        metrics.getInboundLockWait().record((inboundLockAcquiredAt - inboundLockWaitStart) / 1_000);
+        // Collect all outgoing I/O operations; execute them AFTER releasing the routing lock
         // to prevent ABBA deadlock with channel.lock (processOutgoing → channel.send acquires it).
         List<Runnable> deferredIO = new ArrayList<>();
         try {
-
-        if (isNull(identity)) {
-            return;
-        }
-
-        var packet = new Packet(localRaw);
-        if (isFalse(packet.unpack())) {
-            return;
+            for (Packet packet : packets) {
+                try {
+                    var packetStart = System.nanoTime();
+                    processInbound(packet, iface, deferredIO);
+                    metrics.inbound(packet.getPacketType()).recordMicrosSince(packetStart);
+                } catch (Exception e) {
+                    log.error("Error while processing inbound packet {}", encodeHexString(packet.getHash()), e);
+                }
+            }
+        } finally {
+            // Unlock BEFORE logging: log.warn() allocates (string format + autoboxing) and can
+            // itself throw OutOfMemoryError under heap pressure, which would skip unlock() and
+            // leak the lock forever. Capture timing into primitives first, release the lock,
+            // then log.
+            long inboundHeldNanos = System.nanoTime() - inboundLockAcquiredAt;
+            routingLocks.unlockShards(shards);
+            metrics.getInboundLockHold().record(inboundHeldNanos / 1_000);
+            long inboundHeldMs = NANOSECONDS.toMillis(inboundHeldNanos);
+            if (inboundHeldMs > 200) {
+                log.warn("inbound() held routing lock for {}ms for {} packets (thread={})",
+                        inboundHeldMs, packets.size(), Thread.currentThread().getName());
+            }
+            // Flush deferred I/O AFTER releasing the routing lock to prevent ABBA deadlock:
+            // processOutgoing → channel.send acquires channel.lock; if the routing lock were still
+            // held here, and another thread held channel.lock while spinning for it,
+            // we would deadlock.
+            for (Runnable io : deferredIO) {
+                try { io.run(); } catch (Exception e) { log.error("Error in deferred inbound I/O", e); }
+            }
         }
+    }
 
+    /**
+     * Routes one unpacked packet. Must be called with the routing shard of the packet's
+     * destination held; anything that sends or calls into links and destinations is added
+     * to {@code deferredIO} instead.
+     */
+    private void processInbound(final Packet packet, final ConnectionInterface iface, final List<Runnable> deferredIO) {
         packet.setReceivingInterface(iface);
         packet.setHops(packet.getHops() + 1);
 
@@ -806,7 +1097,7 @@ public final class Transport implements ExitHandler {
                     localClientRssiCache.add(Pair.of(packet.getHash(), packet.getRssi()));
 
                     while (localClientRssiCache.size() > LOCAL_CLIENT_CACHE_MAXSIZE) {
-                        localClientRssiCache.pop();
+                        localClientRssiCache.poll();
                     }
                 }
             }
@@ -817,7 +1108,7 @@ public final class Transport implements ExitHandler {
                     localClientSnrCache.add(Pair.of(packet.getHash(), packet.getSnr()));
 
                     while (localClientSnrCache.size() > LOCAL_CLIENT_CACHE_MAXSIZE) {
-                        localClientSnrCache.pop();
+                        localClientSnrCache.poll();
                     }
                 }
             }
@@ -828,7 +1119,7 @@ public final class Transport implements ExitHandler {
                     localClientQCache.push(Pair.of(packet.getPacketHash(), packet.getQ()));
 
                     while (localClientQCache.size() > LOCAL_CLIENT_CACHE_MAXSIZE) {
-                        localClientQCache.pop();
+                        localClientQCache.poll();
                     }
                 }
             }
@@ -853,7 +1144,7 @@ public final class Transport implements ExitHandler {
             // or terminates with this instance, but before it would
             // normally reach us. If the packet is appended to the
             // filter list at this point, link transport will break.
-            if (linkTable.containsKey(encodeHexString(packet.getDestinationHash()))) {
+            if (linkTable.containsKey(packet.getDestinationHash())) {
                 rememberPacketHash = false;
             }
 
@@ -865,23 +1156,23 @@ public final class Transport implements ExitHandler {
             }
 
             if (rememberPacketHash) {
-                packetHashMap.put(encodeHexString(packet.getPacketHash()), packet.getPacketHash());
+                packetHashFilter.add(packet.getPacketHash());
                 cache(packet, false);
             }
 
             //Check special conditions for local clients connected through a shared Reticulum instance
             var fromLocalClient = localClientInterfaces.contains(packet.getReceivingInterface());
             var forLocalClient = packet.getPacketType() != ANNOUNCE
-                    && destinationTable.containsKey(encodeHexString(packet.getDestinationHash()))
-                    && destinationTable.get(encodeHexString(packet.getDestinationHash())).getHops() == 0;
+                    && nonNull(findPath(packet.getDestinationHash()))
+                    && destinationTable.get(packet.getDestinationHash()).getHops() == 0;
             var forLocalClientLink = packet.getPacketType() != ANNOUNCE
-                    && linkTable.containsKey(encodeHexString(packet.getDestinationHash()))
+                    && linkTable.containsKey(packet.getDestinationHash())
                     && (
-                    localClientInterfaces.contains(linkTable.get(encodeHexString(packet.getDestinationHash())).getNextHopInterface())
-                            || localClientInterfaces.contains(linkTable.get(encodeHexString(packet.getDestinationHash())).getReceivingInterface())
+                    localClientInterfaces.contains(linkTable.get(packet.getDestinationHash()).getNextHopInterface())
+                            || localClientInterfaces.contains(linkTable.get(packet.getDestinationHash()).getReceivingInterface())
             );
-            var proofForLocalClient = reverseTable.containsKey(encodeHexString(packet.getDestinationHash()))
-                    && localClientInterfaces.contains(reverseTable.get(encodeHexString(packet.getDestinationHash())).getReceivingInterface());
+            var proofForLocalClient = reverseTable.containsKey(packet.getDestinationHash())
+                    && localClientInterfaces.contains(reverseTable.get(packet.getDestinationHash()).getReceivingInterface());
 
             //Plain broadcast packets from local clients are sent
             // directly on all attached interfaces, since they are
@@ -921,7 +1212,7 @@ public final class Transport implements ExitHandler {
 
                 // If this is a cache request, and we can fullfill it, do so and stop processing. Otherwise resume normal processing.
                 if (packet.getContext() == CACHE_REQUEST) {
-                    if (cacheRequestPacket(packet)) {
+                    if (cacheRequestPacket(packet, deferredIO)) {
                         return;
                     }
                 }
@@ -929,8 +1220,8 @@ public final class Transport implements ExitHandler {
                 // If the packet is in transport, check whether we are the designated next hop, and process it accordingly if we are.
                 if (nonNull(packet.getTransportId()) && packet.getPacketType() != ANNOUNCE) {
                     if (Arrays.equals(packet.getTransportId(), identity.getHash())) {
-                        if (destinationTable.containsKey(encodeHexString(packet.getDestinationHash()))) {
-                            var hopsEntry = destinationTable.get(encodeHexString(packet.getDestinationHash()));
+                        var hopsEntry = findPath(packet.getDestinationHash());
+                        if (nonNull(hopsEntry)) {
                             var nextHop = hopsEntry.getVia();
                             var remainingHops = hopsEntry.getHops();
 
@@ -958,7 +1249,7 @@ public final class Transport implements ExitHandler {
                                 dataPacket.getHeader().setHops((byte) packet.getHops());
                             }
 
-                            var outboundInterface = destinationTable.get(encodeHexString(packet.getDestinationHash())).getInterface();
+                            var outboundInterface = hopsEntry.getInterface();
 
                             if (packet.getPacketType() == LINKREQUEST) {
                                 var now = Instant.now();
@@ -982,7 +1273,7 @@ public final class Transport implements ExitHandler {
                                 // Key must be the link ID computed WITHOUT signalling bytes
                                 // (mirrors Python's link_id_from_lr_packet which strips them).
                                 // The LRPROOF arrives with destinationHash = that stripped link ID.
-                                linkTable.put(encodeHexString(io.reticulum.utils.LinkUtils.linkIdFromLrPacket(packet)), linkEntry);
+                                linkTable.put(io.reticulum.utils.LinkUtils.linkIdFromLrPacket(packet), linkEntry);
                             } else {
                                 //Entry format is
                                 var reserveEntry = ReversEntry.builder()
@@ -991,8 +1282,8 @@ public final class Transport implements ExitHandler {
                                         .timestamp(Instant.now())
                                         .build();
 
-                                reverseTable.put(encodeHexString(packet.getDestinationHash()), reserveEntry);
-                                //reverseTable.put(encodeHexString(packet.getTruncatedHash()), reserveEntry);
+                                reverseTable.put(packet.getDestinationHash(), reserveEntry);
+                                //reverseTable.put(packet.getTruncatedHash(), reserveEntry);
                             }
 
                             final var _hopIface = outboundInterface;
@@ -1012,8 +1303,8 @@ public final class Transport implements ExitHandler {
 
                 //Link transport handling. Directs packets according to entries in the link tables
                 if (packet.getPacketType() != ANNOUNCE && packet.getPacketType() != LINKREQUEST && packet.getContext() != LRPROOF) {
-                    if (linkTable.containsKey(encodeHexString(packet.getDestinationHash()))) {
-                        var linkEntry = linkTable.get(encodeHexString(packet.getDestinationHash()));
+                    if (linkTable.containsKey(packet.getDestinationHash())) {
+                        var linkEntry = linkTable.get(packet.getDestinationHash());
                         //If receiving and outbound interface is the same for this link, direction doesn't matter, and we simply send the packet on.
                         ConnectionInterface outboundInterface = null;
                         if (Objects.equals(linkEntry.getNextHopInterface(), linkEntry.getReceivingInterface())) {
@@ -1055,23 +1346,24 @@ public final class Transport implements ExitHandler {
                 // Silently drop announces from blackholed identities
                 var announceSourceIdentity = recall(packet.getDestinationHash());
                 if (announceSourceIdentity != null) {
-                    var announceSourceHex = encodeHexString(announceSourceIdentity.getHash());
-                    if (blackholedIdentities.containsKey(announceSourceHex)) {
-                        var bhEntry = blackholedIdentities.get(announceSourceHex);
+                    var bhEntry = blackholedIdentities.get(announceSourceIdentity.getHash());
+                    if (nonNull(bhEntry)) {
                         if (bhEntry.getUntil() == null || Instant.now().isBefore(bhEntry.getUntil())) {
-                            log.debug("Dropping announce from blackholed identity {}", announceSourceHex);
+                            log.debug("Dropping announce from blackholed identity {}", announceSourceIdentity.getHexHash());
                             return;
                         } else {
                             // Expired inline — clean up
-                            blackholedIdentities.remove(announceSourceHex);
+                            blackholedIdentities.remove(announceSourceIdentity.getHash());
                             persistBlacklist();
                         }
                     }
                 }
-                if (nonNull(iface) && validateAnnounce(packet)) {
+                // the signature was checked before the routing lock was taken, see inbound()
+                var announceVerdict = announceVerifier.verdictFor(packet);
+                if (nonNull(iface) && validateAnnounce(packet, announceVerdict, false)) {
                     iface.receivedAnnounce();
                 }
-                if (isFalse(destinationTable.containsKey(encodeHexString(packet.getDestinationHash())))) {
+                if (isFalse(destinationTable.containsKey(packet.getDestinationHash()))) {
                     // This is an unknown destination, and we'll apply
                     // potential ingress limiting. Already known
                     // destinations will have re-announces controlled
@@ -1082,19 +1374,16 @@ public final class Transport implements ExitHandler {
                     }
                 }
 
-                var localDestination = destinations.stream()
-                        .filter(destination -> Arrays.equals(destination.getHash(), packet.getDestinationHash()))
-                        .findFirst()
-                        .orElse(null);
-                if (isNull(localDestination) && validateAnnounce(packet)) {
+                var localDestination = destinations.find(packet.getDestinationHash());
+                if (isNull(localDestination) && validateAnnounce(packet, announceVerdict, false)) {
                     byte[] receivedFrom;
                     if (nonNull(packet.getTransportId())) {
                         receivedFrom = packet.getTransportId();
 
                         //Check if this is a next retransmission from another node. If it is, we're removing the
                         // announce in question from our pending table
-                        if (owner.isTransportEnabled() && announceTable.containsKey(encodeHexString(packet.getDestinationHash()))) {
-                            var announceEntry = announceTable.get(encodeHexString(packet.getDestinationHash()));
+                        if (owner.isTransportEnabled() && announceTable.containsKey(packet.getDestinationHash())) {
+                            var announceEntry = announceTable.get(packet.getDestinationHash());
 
                             if (packet.getHops() - 1 == announceEntry.getHops()) {
                                 log.debug("Heard a local rebroadcast of announce for {}", encodeHexString(packet.getDestinationHash()));
@@ -1102,7 +1391,7 @@ public final class Transport implements ExitHandler {
                                 if (announceEntry.getLocalRebroadcasts() >= LOCAL_REBROADCASTS_MAX) {
                                     log.debug("Max local rebroadcasts of announce for {} reached, dropping announce from our table",
                                             encodeHexString(packet.getDestinationHash()));
-                                    announceTable.remove(encodeHexString(packet.getDestinationHash()));
+                                    announceTable.remove(packet.getDestinationHash());
                                 }
                             }
 
@@ -1111,7 +1400,7 @@ public final class Transport implements ExitHandler {
                                 if (now.isBefore(announceEntry.getRetransmitTimeout())) {
                                     log.debug("Rebroadcasted announce for {} has been passed on to another node, no further tries needed",
                                             encodeHexString(packet.getDestinationHash()));
-                                    announceTable.remove(encodeHexString(packet.getDestinationHash()));
+                                    announceTable.remove(packet.getDestinationHash());
                                 }
                             }
                         }
@@ -1124,7 +1413,7 @@ public final class Transport implements ExitHandler {
 
                     //First, check that the announce is not for a destination local to this system, and that hops are less than the max
                     if (
-                            destinations.stream().noneMatch(destination -> Arrays.equals(destination.getHash(), packet.getDestinationHash()))
+                            isNull(destinations.find(packet.getDestinationHash()))
                                     && packet.getHops() < PATHFINDER_M + 1
                     ) {
                         var announceEmitted = announceEmitted(packet);
@@ -1135,8 +1424,8 @@ public final class Transport implements ExitHandler {
                                 KEYSIZE / 8 + NAME_HASH_LENGTH / 8 + 10
                         );
                         List<byte[]> randomBlobs = new ArrayList<>();
-                        if (destinationTable.containsKey(encodeHexString(packet.getDestinationHash()))) {
-                            var hopsEntry = destinationTable.get(encodeHexString(packet.getDestinationHash()));
+                        var hopsEntry = findPath(packet.getDestinationHash());
+                        if (nonNull(hopsEntry)) {
                             randomBlobs = hopsEntry.getRandomBlobs();
 
                             //If we already have a path to the announced destination, but the hop count is equal or less, we'll update our tables.
@@ -1219,44 +1508,15 @@ public final class Transport implements ExitHandler {
                             var now = Instant.now();
 
                             var rateBlocked = false;
-                            if (packet.getContext() != PATH_RESPONSE && nonNull(packet.getReceivingInterface().getAnnounceRateTarget())) {
-                                if (isFalse(announceRateTable.containsKey(encodeHexString(packet.getDestinationHash())))) {
-                                    var rateEntryBuilder = RateEntry.builder()
-                                            .last(now)
-                                            .rateViolations(0)
-                                            .blockedUntil(Instant.EPOCH)
-                                            .timestamps(new ArrayList<>() {{
-                                                add(now);
-                                            }});
-                                    announceRateTable.put(encodeHexString(packet.getDestinationHash()), rateEntryBuilder.build());
-                                } else {
-                                    var rateEntry = announceRateTable.get(encodeHexString(packet.getDestinationHash()));
-                                    rateEntry.getTimestamps().add(now);
-
-                                    while (rateEntry.getTimestamps().size() > MAX_RATE_TIMESTAMPS) {
-                                        rateEntry.getTimestamps().remove(0);
-                                    }
-
-                                    var currentRate = rateEntry.getLast();
-                                    if (now.isAfter(rateEntry.getBlockedUntil())) {
-                                        if (Duration.between(currentRate, now).toSeconds() < packet.getReceivingInterface().getAnnounceRateTarget()) {
-                                            rateEntry.setRateViolations(rateEntry.getRateViolations() + 1);
-                                        } else {
-                                            rateEntry.setRateViolations(Math.max(0, rateEntry.getRateViolations() - 1));
-                                        }
-
-                                        if (rateEntry.getRateViolations() > packet.getReceivingInterface().getAnnounceRateGrace()) {
-                                            var rateTarget = packet.getReceivingInterface().getAnnounceRateTarget();
-                                            var ratePenalty = packet.getReceivingInterface().getAnnounceRatePenalty();
-                                            rateEntry.setBlockedUntil(rateEntry.getLast().plusSeconds(rateTarget).plusSeconds(ratePenalty));
-                                            rateBlocked = true;
-                                        } else {
-                                            rateEntry.setLast(now);
-                                        }
-                                    } else {
-                                        rateBlocked = true;
-                                    }
-                                }
+                            var receivingInterface = packet.getReceivingInterface();
+                            if (packet.getContext() != PATH_RESPONSE && nonNull(receivingInterface.getAnnounceRateTarget())) {
+                                rateBlocked = announceRateTable.record(
+                                        packet.getDestinationHash(),
+                                        System.nanoTime(),
+                                        receivingInterface.getAnnounceRateTarget(),
+                                        receivingInterface.getAnnounceRateGrace(),
+                                        receivingInterface.getAnnounceRatePenalty()
+                                );
                             }
 
                             var retries = 0;
@@ -1300,7 +1560,7 @@ public final class Transport implements ExitHandler {
                                     }
 
                                     announceTable.put(
-                                            encodeHexString(packet.getDestinationHash()),
+                                            packet.getDestinationHash(),
                                             AnnounceEntry.builder()
                                                     .timestamp(now)
                                                     .retransmitTimeout(retransmitTimeout)
@@ -1318,13 +1578,12 @@ public final class Transport implements ExitHandler {
                             // TODO: 11.05.2023 Check from_local_client once and store result
                             else if (fromLocalClient(packet) && packet.getContext() == PATH_RESPONSE) {
                                 //If this is a path response from a local client, check if any external interfaces have pending path requests.
-                                if (pendingLocalPathRequests.containsKey(encodeHexString(packet.getDestinationHash()))) {
-                                    pendingLocalPathRequests.remove(encodeHexString(packet.getDestinationHash()));
+                                if (nonNull(pendingLocalPathRequests.remove(packet.getDestinationHash()))) {
                                     retransmitTimeout = now;
                                     retries = PATHFINDER_R;
 
                                     announceTable.put(
-                                            encodeHexString(packet.getDestinationHash()),
+                                            packet.getDestinationHash(),
                                             AnnounceEntry.builder()
                                                     .timestamp(now)
                                                     .retransmitTimeout(retransmitTimeout)
@@ -1391,8 +1650,8 @@ public final class Transport implements ExitHandler {
 
                             //If we have any waiting discovery path requests for this destination, we retransmit to that
                             // interface immediately
-                            if (discoveryPathRequests.containsKey(encodeHexString(packet.getDestinationHash()))) {
-                                var prEntry = discoveryPathRequests.get(encodeHexString(packet.getDestinationHash()));
+                            if (discoveryPathRequests.containsKey(packet.getDestinationHash())) {
+                                var prEntry = discoveryPathRequests.get(packet.getDestinationHash());
                                 attachedInterface = prEntry.getRequestingInterface();
 
                                 log.debug("Got matching announce, answering waiting discovery path request for {} on {}",
@@ -1429,9 +1688,13 @@ public final class Transport implements ExitHandler {
                                     .packet(packet)
                                     .build();
                             destinationTable.put(
-                                    encodeHexString(packet.getDestinationHash()),
+                                    packet.getDestinationHash(),
                                     destinationTableEntry
                             );
+                            pathChanged(packet.getDestinationHash());
+                            // completing the future runs the callbacks of awaitPath() callers, which may send
+                            final var _resolvedHash = packet.getDestinationHash();
+                            deferredIO.add(() -> pathResolver.resolved(_resolvedHash, destinationTableEntry));
                             log.debug(
                                     "Destination {} is now {} hops away via {} on {}",
                                     encodeHexString(packet.getDestinationHash()),
@@ -1443,13 +1706,14 @@ public final class Transport implements ExitHandler {
                             //If the receiving interface is a tunnel, we add the announce to the tunnels table
                             if (
                                     nonNull(packet.getReceivingInterface().getTunnelId())
-                                            && tunnels.containsKey(encodeHexString(packet.getReceivingInterface().getTunnelId()))
+                                            && tunnels.containsKey(packet.getReceivingInterface().getTunnelId())
                             ) {
-                                var tunnelEntry = tunnels.get(encodeHexString(packet.getReceivingInterface().getTunnelId()));
+                                var tunnelEntry = tunnels.get(packet.getReceivingInterface().getTunnelId());
                                 var paths = tunnelEntry.getTunnelPaths();
-                                paths.put(encodeHexString(packet.getDestinationHash()), destinationTableEntry);
+                                paths.put(HashKey.of(packet.getDestinationHash()), destinationTableEntry);
                                 expires = Instant.now().plusSeconds(DESTINATION_TIMEOUT);
                                 tunnelEntry.setExpires(expires);
+                                tunnelChanged(packet.getReceivingInterface().getTunnelId());
                                 log.debug(
                                         "Path to {} associated with tunnel {}.",
                                         encodeHexString(packet.getDestinationHash()),
@@ -1459,7 +1723,7 @@ public final class Transport implements ExitHandler {
 
                             // Call externally registered callbacks from apps
                             // wanting to know when an announce arrives.
-                            // Callbacks are deferred to run AFTER jobsLock is released to avoid
+                            // Callbacks are deferred to run AFTER the routing lock is released to avoid
                             // holding the lock while application code runs (e.g. creating links).
                             for (AnnounceHandler handler : announceHandlers) {
                                 try {
@@ -1485,7 +1749,7 @@ public final class Transport implements ExitHandler {
                                     }
 
                                     if (executeCallback) {
-                                        // Capture all data needed by the callback while still holding jobsLock,
+                                        // Capture all data needed by the callback while still holding the routing lock,
                                         // then defer the actual invocation to after the lock is released.
                                         final AnnounceHandler _handler = handler;
                                         final byte[] _destHash = packet.getDestinationHash();
@@ -1513,25 +1777,16 @@ public final class Transport implements ExitHandler {
             //Handling for link requests to local destinations
             else if (packet.getPacketType() == LINKREQUEST) {
                 if (isNull(packet.getTransportId()) || Arrays.equals(packet.getTransportId(), identity.getHash())) {
-                    Destination linkRequestDest = null;
-                    for (Destination destination : destinations) {
-                        // Note: TODO - implement python path_mtu, mode part
-                        if (
-                                Arrays.equals(destination.getHash(), packet.getDestinationHash())
-                                        && destination.getType() == packet.getDestinationType()
-                        ) {
-                            packet.setDestination(destination);
-                            linkRequestDest = destination;
-                            break;
-                        }
-                    }
-                    if (linkRequestDest != null) {
-                        // Release jobsLock before dispatch to prevent ABBA deadlock:
+                    // Note: TODO - implement python path_mtu, mode part
+                    var linkRequestDest = destinations.find(packet.getDestinationHash());
+                    if (nonNull(linkRequestDest) && linkRequestDest.getType() == packet.getDestinationType()) {
+                        packet.setDestination(linkRequestDest);
+                        // Dispatch after the routing lock is released to prevent ABBA deadlock:
                         // destination.receive() on a link request triggers Link establishment
                         // which may acquire channel.lock, while channel.send() holds channel.lock
-                        // and spins for jobsLock (in outbound()).
-                        jobsLock.unlock();
-                        linkRequestDest.receive(packet);
+                        // and spins for the routing lock (in outbound()).
+                        final var _linkRequestDest = linkRequestDest;
+                        deferredIO.add(() -> _linkRequestDest.receive(packet));
                     }
                 }
             }
@@ -1539,53 +1794,40 @@ public final class Transport implements ExitHandler {
             //Handling for local data packets
             else if (packet.getPacketType() == DATA) {
                 if (packet.getDestinationType() == LINK) {
-                    Link dataLink = null;
-                    for (Link link : activeLinks) {
-                        if (Arrays.equals(link.getLinkId(), packet.getDestinationHash())) {
-                            packet.setDestination(link);
-                            dataLink = link;
-                            break;
-                        }
-                    }
-                    if (dataLink != null) {
-                        // Release jobsLock before calling link.receive() to prevent ABBA deadlock:
-                        // inbound holds jobsLock and blocks on channel.lock (inside channel.receive()),
-                        // while channel.send() holds channel.lock and spins for jobsLock (in outbound()).
-                        jobsLock.unlock();
-                        dataLink.receive(packet);
+                    var dataLink = links.getActive(packet.getDestinationHash());
+                    if (nonNull(dataLink)) {
+                        packet.setDestination(dataLink);
+                        // Call link.receive() after the routing lock is released to prevent ABBA deadlock:
+                        // inbound would hold the routing lock and block on channel.lock (inside channel.receive()),
+                        // while channel.send() holds channel.lock and spins for the routing lock (in outbound()).
+                        final var _dataLink = dataLink;
+                        deferredIO.add(() -> _dataLink.receive(packet));
                     }
                 } else {
-                    Destination dataDest = null;
-                    for (Destination destination : destinations) {
-                        if (
-                                Arrays.equals(destination.getHash(), packet.getDestinationHash())
-                                        && destination.getType() == packet.getDestinationType()
-                        ) {
-                            packet.setDestination(destination);
-                            dataDest = destination;
-                            break;
-                        }
-                    }
-                    if (dataDest != null) {
-                        // Release jobsLock before dispatch to prevent ABBA deadlock:
+                    var dataDest = destinations.find(packet.getDestinationHash());
+                    if (nonNull(dataDest) && dataDest.getType() == packet.getDestinationType()) {
+                        packet.setDestination(dataDest);
+                        // Dispatch after the routing lock is released to prevent ABBA deadlock:
                         // destination.receive() may acquire other locks (channel.lock, etc.)
-                        // while outbound() holds channel.lock and spins for jobsLock.
-                        jobsLock.unlock();
-                        dataDest.receive(packet);
-
-                        if (dataDest.getProofStrategy() == PROVE_ALL) {
-                            packet.prove(null);
-                        } else if (dataDest.getProofStrategy() == PROVE_APP) {
-                            if (nonNull(dataDest.getCallbacks().getProofRequested())) {
-                                try {
-                                    if (dataDest.getCallbacks().getProofRequested().apply(packet)) {
-                                        packet.prove(null);
+                        // while outbound() holds channel.lock and spins for the routing lock.
+                        final var _dataDest = dataDest;
+                        deferredIO.add(() -> {
+                            _dataDest.receive(packet);
+
+                            if (_dataDest.getProofStrategy() == PROVE_ALL) {
+                                packet.prove(null);
+                            } else if (_dataDest.getProofStrategy() == PROVE_APP) {
+                                if (nonNull(_dataDest.getCallbacks().getProofRequested())) {
+                                    try {
+                                        if (_dataDest.getCallbacks().getProofRequested().apply(packet)) {
+                                            packet.prove(null);
+                                        }
+                                    } catch (Exception e) {
+                                        log.error("Error while executing proof request callback.", e);
                                     }
-                                } catch (Exception e) {
-                                    log.error("Error while executing proof request callback.", e);
                                 }
                             }
-                        }
+                        });
                     }
                 }
             }
@@ -1596,9 +1838,9 @@ public final class Transport implements ExitHandler {
                     // This is a link request proof, check if it needs to be transported
                     if (
                             (owner.isTransportEnabled() || forLocalClientLink || fromLocalClient)
-                                    && linkTable.containsKey(encodeHexString(packet.getDestinationHash()))
+                                    && linkTable.containsKey(packet.getDestinationHash())
                     ) {
-                        var linkEntry = linkTable.get(encodeHexString(packet.getDestinationHash()));
+                        var linkEntry = linkTable.get(packet.getDestinationHash());
                         if (packet.getHops() == linkEntry.getRemainingHops()) {
                             if (Objects.equals(packet.getReceivingInterface(), linkEntry.getNextHopInterface())) {
                                 try {
@@ -1650,44 +1892,38 @@ public final class Transport implements ExitHandler {
                         }
                     } else {
                         //Check if we can deliver it to a local pending link
-                        for (Link link : pendingLinks) {
-                            if (Arrays.equals(link.getLinkId(), packet.getDestinationHash())) {
-                                // We need to also allow an expected hops value of
-                                // PATHFINDER_M, since in some cases, the number of hops
-                                // to the destination will be unknown at link creation
-                                // time. The real chance of this occuring is likely to be
-                                // extremely small, and this allowance could probably
-                                // be discarded without major issues, but it is kept
-                                // for now to ensure backwards compatibility.
-
-                                if ((packet.getHops() <= link.getExpectedHops()) || (link.getExpectedHops() == TransportConstant.PATHFINDER_M)) {
-                                    // Add this packet to the filter hashlist if we
-                                    // have determined that it's actually destined
-                                    // for this system, and then validate the proof
-                                    packetHashMap.put(encodeHexString(packet.getHash()), packet.getHash());
-                                    link.validateProof(packet);
-                                }
+                        var link = links.getPending(packet.getDestinationHash());
+                        if (nonNull(link)) {
+                            // We need to also allow an expected hops value of
+                            // PATHFINDER_M, since in some cases, the number of hops
+                            // to the destination will be unknown at link creation
+                            // time. The real chance of this occuring is likely to be
+                            // extremely small, and this allowance could probably
+                            // be discarded without major issues, but it is kept
+                            // for now to ensure backwards compatibility.
+
+                            if ((packet.getHops() <= link.getExpectedHops()) || (link.getExpectedHops() == TransportConstant.PATHFINDER_M)) {
+                                // Add this packet to the filter hashlist if we
+                                // have determined that it's actually destined
+                                // for this system, and then validate the proof
+                                packetHashFilter.add(packet.getHash());
+                                // Link establishment fires callbacks that may send, so it runs after unlock
+                                deferredIO.add(() -> link.validateProof(packet));
                             }
                         }
                     }
                 } else if (packet.getContext() == RESOURCE_PRF) {
-                    Link resourceLink = null;
-                    for (Link link : activeLinks) {
-                        if (Arrays.equals(link.getLinkId(), packet.getDestinationHash())) {
-                            resourceLink = link;
-                            break;
-                        }
-                    }
-                    if (resourceLink != null) {
-                        jobsLock.unlock(); // same deadlock risk as DATA/LINK dispatch
-                        resourceLink.receive(packet);
+                    var resourceLink = links.getActive(packet.getDestinationHash());
+                    if (nonNull(resourceLink)) {
+                        // same deadlock risk as DATA/LINK dispatch
+                        final var _resourceLink = resourceLink;
+                        deferredIO.add(() -> _resourceLink.receive(packet));
                     }
                 } else {
                     if (packet.getDestinationType() == LINK) {
-                        for (Link link : activeLinks) {
-                            if (Arrays.equals(link.getLinkId(), packet.getDestinationHash())) {
-                                packet.setDestination(link);
-                            }
+                        var proofLink = links.getActive(packet.getDestinationHash());
+                        if (nonNull(proofLink)) {
+                            packet.setDestination(proofLink);
                         }
                     }
 
@@ -1698,9 +1934,9 @@ public final class Transport implements ExitHandler {
                     //Check if this proof needs to be transported
                     if (
                             (owner.isTransportEnabled() || fromLocalClient || proofForLocalClient)
-                                    && reverseTable.containsKey(encodeHexString(packet.getDestinationHash()))
+                                    && reverseTable.containsKey(packet.getDestinationHash())
                     ) {
-                        var reverseEntry = reverseTable.remove(encodeHexString(packet.getDestinationHash()));
+                        var reverseEntry = reverseTable.remove(packet.getDestinationHash());
                         if (Objects.equals(packet.getReceivingInterface(), reverseEntry.getOutboundInterface())) {
                             log.debug("Proof received on correct interface, transporting it via {}",
                                     reverseEntry.getReceivingInterface().getInterfaceName());
@@ -1716,14 +1952,13 @@ public final class Transport implements ExitHandler {
                     }
 
                     // validateProofPacket() fires delivery callbacks → Channel.packetTxOp()
-                    // → channel.lock.lock() (blocking).  Calling it while holding jobsLock
+                    // → channel.lock.lock() (blocking).  Calling it while holding the routing lock
                     // creates a classic ABBA deadlock with any thread that holds channel.lock
-                    // and spins for jobsLock in outbound().  Defer to deferredIO instead.
+                    // and spins for the routing lock in outbound().  Defer to deferredIO instead.
                     final var _proofPacket = packet;
-                    for (PacketReceipt receipt : receipts) {
-                        if (nonNull(proofHash) && !Arrays.equals(receipt.getHash(), proofHash)) {
-                            continue; // skip non-matching receipts for explicit proofs
-                        }
+                    // explicit proofs carry the packet hash, implicit ones are addressed to the truncated packet hash
+                    var provedHash = nonNull(proofHash) ? proofHash : packet.getDestinationHash();
+                    for (PacketReceipt receipt : receipts.get(provedHash)) {
                         final PacketReceipt _receipt = receipt;
                         deferredIO.add(() -> {
                             if (_receipt.validateProofPacket(_proofPacket)) {
@@ -1735,32 +1970,43 @@ public final class Transport implements ExitHandler {
             }
         }
 
-        } finally {
-            // Unlock BEFORE logging: log.warn() allocates (string format + autoboxing) and can
-            // itself throw OutOfMemoryError under heap pressure, which would skip unlock() and
-            // leak the lock forever. Capture timing into primitives first, release the lock,
-            // then log.
-            long inboundHeldMs = System.currentTimeMillis() - inboundLockAcquiredAt;
-            if (jobsLock.isHeldByCurrentThread()) {
-                jobsLock.unlock();
-            }
-            if (inboundHeldMs > 200) {
-                log.warn("inbound() held jobsLock for {}ms (thread={})", inboundHeldMs, Thread.currentThread().getName());
-            }
-            // Flush deferred I/O AFTER releasing jobsLock to prevent ABBA deadlock:
-            // processOutgoing → channel.send acquires channel.lock; if jobsLock were still
-            // held here, and another thread held channel.lock while spinning for jobsLock,
-            // we would deadlock.
-            for (Runnable io : deferredIO) {
-                try { io.run(); } catch (Exception e) { log.error("Error in deferred inbound I/O", e); }
+    }
+
+    /**
+     * Queues the packet for sending and returns immediately. The calling thread never waits
+     * for the routing lock.
+     *
+     * @param packet packed packet
+     * @return future completed with the packet receipt (or {@code null} if the packet does not
+     * generate one) once the packet was written to an interface, or completed exceptionally if
+     * no interface could send it, the outbound queue is full or the transport stopped meanwhile
+     */
+    public CompletableFuture<PacketReceipt> outboundAsync(@NonNull final Packet packet) {
+        if (outboundQueue.isRunning()) {
+            return outboundQueue.submit(packet);
+        }
+
+        // not started yet or already stopped, send on the calling thread
+        var future = new CompletableFuture<PacketReceipt>();
+        try {
+            if (outbound(packet)) {
+                future.complete(packet.getReceipt());
+            } else {
+                future.completeExceptionally(new IllegalStateException("No interfaces could process the outbound packet"));
             }
+        } catch (Exception e) {
+            future.completeExceptionally(e);
         }
+
+        return future;
     }
 
     // TODO: 12.05.2023 подлежит рефакторингу. (subject to refactoring)
     public boolean outbound(@NonNull final Packet packet) {
+        var outboundStart = System.nanoTime();
+        var routingLock = routingLocks.forHash(packet.getDestinationHash());
         var outboundSpinStart = System.currentTimeMillis();
-        while (isFalse(jobsLock.tryLock())) {
+        while (isFalse(routingLock.tryLock())) {
             try {
                 MILLISECONDS.sleep(5);
             } catch (InterruptedException e) {
@@ -1773,11 +2019,11 @@ public final class Transport implements ExitHandler {
             }
             long outboundWaitedMs = System.currentTimeMillis() - outboundSpinStart;
             if (outboundWaitedMs > 1000 && outboundWaitedMs % 5000 < 10) {
-                log.warn("outbound() spin-waited {}ms for jobsLock; lock state: {}", outboundWaitedMs, jobsLock);
+                log.warn("outbound() spin-waited {}ms for routing lock; lock state: {}", outboundWaitedMs, routingLock);
             }
             // At 30s intervals, log the full stack trace of the lock holder for root-cause diagnosis.
             if (outboundWaitedMs > 30_000 && outboundWaitedMs % 30_000 < 10) {
-                String holderDesc = jobsLock.toString();
+                String holderDesc = routingLock.toString();
                 Thread.getAllStackTraces().forEach((t, frames) -> {
                     if (holderDesc.contains(t.getName())) {
                         StringBuilder sb = new StringBuilder();
@@ -1789,7 +2035,8 @@ public final class Transport implements ExitHandler {
         }
 
         var sent = false;
-        var lockAcquiredAt = System.currentTimeMillis();
+        var lockAcquiredAt = System.nanoTime();
+        metrics.getOutboundLockWait().record((lockAcquiredAt - outboundStart) / 1_000);
         try {
             var outboundTime = Instant.now();
 
@@ -1821,9 +2068,9 @@ public final class Transport implements ExitHandler {
                 packet.getPacketType() != ANNOUNCE
                         && packet.getDestination().getType() != PLAIN
                         && packet.getDestination().getType() != GROUP
-                        && destinationTable.containsKey(encodeHexString(packet.getDestinationHash()))
+                        && nonNull(findPath(packet.getDestinationHash()))
         ) {
-            var hopsEntry = destinationTable.get(encodeHexString(packet.getDestinationHash()));
+            var hopsEntry = destinationTable.get(packet.getDestinationHash());
             var outboundInterface = hopsEntry.getInterface();
 
             //If there's more than one hop to the destination, and we know
@@ -1908,10 +2155,7 @@ public final class Transport implements ExitHandler {
                                 log.debug("Blocking announce broadcast on {} due to AP mode", anInterface.getInterfaceName());
                                 shouldTransmit = false;
                             } else if (anInterface.getMode() == MODE_ROAMING) {
-                                var localDestination = destinations.stream()
-                                        .filter(destination -> Arrays.equals(destination.getHash(), packet.getDestinationHash()))
-                                        .findFirst()
-                                        .orElse(null);
+                                var localDestination = destinations.find(packet.getDestinationHash());
                                 if (nonNull(localDestination)) {
                                     //log.debug("Allowing announce broadcast on roaming-mode interface from instance-local destination")
                                     //pass
@@ -1939,10 +2183,7 @@ public final class Transport implements ExitHandler {
                                     }
                                 }
                             } else if (anInterface.getMode() == MODE_BOUNDARY) {
-                                var localDestination = destinations.stream()
-                                        .filter(destination -> Arrays.equals(destination.getHash(), packet.getDestinationHash()))
-                                        .findFirst()
-                                        .orElse(null);
+                                var localDestination = destinations.find(packet.getDestinationHash());
                                 if (nonNull(localDestination)) {
                                     //log.debug("Allowing announce broadcast on boundary-mode interface from instance-local destination")
                                     //pass
@@ -2040,7 +2281,7 @@ public final class Transport implements ExitHandler {
 
                     if (shouldTransmit) {
                         if (isFalse(storedHash)) {
-                            packetHashMap.put(encodeHexString(packet.getPacketHash()), packet.getPacketHash());
+                            packetHashFilter.add(packet.getPacketHash());
                             storedHash = true;
                         }
 
@@ -2073,10 +2314,13 @@ public final class Transport implements ExitHandler {
             // itself throw OutOfMemoryError under heap pressure, which would skip unlock() and
             // leak the lock forever. Capture timing into primitives first, release the lock,
             // then log.
-            long heldMs = System.currentTimeMillis() - lockAcquiredAt;
-            jobsLock.unlock();
+            long heldNanos = System.nanoTime() - lockAcquiredAt;
+            routingLock.unlock();
+            metrics.getOutboundLockHold().record(heldNanos / 1_000);
+            metrics.outbound(packet.getPacketType()).recordMicrosSince(outboundStart);
+            long heldMs = NANOSECONDS.toMillis(heldNanos);
             if (heldMs > 200) {
-                log.warn("outbound() held jobsLock for {}ms (thread={}, pkt={})",
+                log.warn("outbound() held routing lock for {}ms (thread={}, pkt={})",
                         heldMs, Thread.currentThread().getName(),
                         packet.getPacketType());
             }
@@ -2088,7 +2332,7 @@ public final class Transport implements ExitHandler {
      * @return The destination hash as byte[] for the next hop to the specified destination, or null if unknown.
      */
     public byte[] nextHop(byte[] destinationHash) {
-        return Optional.ofNullable(destinationTable.get(encodeHexString(destinationHash)))
+        return Optional.ofNullable(findPath(destinationHash))
                 .map(Hops::getVia)
                 .orElse(null);
     }
@@ -2098,7 +2342,7 @@ public final class Transport implements ExitHandler {
      * @return The interface for the next hop to the specified destination, or null if the interface is unknown.
      */
     public ConnectionInterface nextHopInterface(byte[] destinationHash) {
-        return Optional.ofNullable(destinationTable.get(encodeHexString(destinationHash)))
+        return Optional.ofNullable(findPath(destinationHash))
                 .map(Hops::getInterface)
                 .orElse(null);
     }
@@ -2139,13 +2383,15 @@ public final class Transport implements ExitHandler {
         return false;
     }
 
-    private boolean cacheRequestPacket(Packet packet) {
+    private boolean cacheRequestPacket(Packet packet, List<Runnable> deferredIO) {
         if (getLength(packet.getData()) == HASHLENGTH / 8) {
             var localPacket = getCachedPacket(packet.getData());
             if (nonNull(localPacket)) {
                 //If the packet was retrieved from the local cache, replay it to the Transport instance,
                 // so that it can be directed towards it original destination.
-                inbound(localPacket.getRaw(), localPacket.getReceivingInterface());
+                // The replay is deferred: the cached packet may belong to another routing shard,
+                // and taking a second shard while holding this one could deadlock.
+                deferredIO.add(() -> inbound(localPacket.getRaw(), localPacket.getReceivingInterface()));
 
                 return true;
             } else {
@@ -2200,7 +2446,7 @@ public final class Transport implements ExitHandler {
             }
         }
 
-        if (isFalse(packetHashMap.containsKey(encodeHexString(packet.getPacketHash())))) {
+        if (isFalse(packetHashFilter.contains(packet.getPacketHash()))) {
             return true;
         } else {
             if (packet.getPacketType() == ANNOUNCE) {
@@ -2227,11 +2473,11 @@ public final class Transport implements ExitHandler {
     }
 
     public void sharedConnectionDisappeared() {
-        for (Link activeLink : activeLinks) {
+        for (Link activeLink : links.activeLinks()) {
             activeLink.teardown();
         }
 
-        for (Link pendingLink : pendingLinks) {
+        for (Link pendingLink : links.pendingLinks()) {
             pendingLink.teardown();
         }
 
@@ -2284,13 +2530,13 @@ public final class Transport implements ExitHandler {
     public void registerDestination(Destination destination) {
         destination.setMtu(MTU);
         if (destination.getDirection() == IN) {
-            for (Destination registeredDestination : destinations) {
-                if (Arrays.equals(destination.getHash(), registeredDestination.getHash())) {
+            synchronized (destinations) {
+                if (nonNull(destinations.find(destination.getHash()))) {
                     throw new IllegalStateException("Attempt to register an already registered destination.");
                 }
-            }
 
-            destinations.add(destination);
+                destinations.add(destination);
+            }
 
             if (owner.isConnectedToSharedInstance()) {
                 if (destination.getType() == SINGLE) {
@@ -2309,28 +2555,23 @@ public final class Transport implements ExitHandler {
      * @return The number of hops to the specified destination, or ``RNS.Transport.PATHFINDER_M`` if the number of hops is unknown.
      */
     public int hopsTo(byte[] destinationHash) {
-        return Optional.ofNullable(destinationTable.get(encodeHexString(destinationHash)))
+        return Optional.ofNullable(findPath(destinationHash))
                 .map(Hops::getPathLength)
                 .orElse(PATHFINDER_M);
     }
 
     public void registerLink(@NonNull Link link) {
         log.trace("Registering link {}", link);
-        if (link.isInitiator()) {
-            pendingLinks.add(link);
-        } else {
-            activeLinks.add(link);
-        }
+        links.register(link);
     }
 
     public void activateLink(@NonNull Link link) {
         log.trace("Activating link {}", link);
-        if (pendingLinks.contains(link)) {
+        if (links.isPending(link)) {
             if (link.getStatus() != ACTIVE) {
                 throw new IllegalStateException("Invalid link state for link activation: " + link.getStatus());
             }
-            pendingLinks.remove(link);
-            activeLinks.add(link);
+            links.activate(link);
             link.setStatus(ACTIVE);
         } else {
             log.error("Attempted to activate a link that was not in the pending table");
@@ -2379,42 +2620,20 @@ public final class Transport implements ExitHandler {
     }
 
     private void transmit(final ConnectionInterface iface, final byte[] raw) {
+        if (isFalse(iface.isWritable())) {
+            // the peer does not keep up; dropping bounds what is buffered for it
+            log.trace("Dropping packet for {}, its write buffer is full.", iface.getInterfaceName());
+            metrics.dropped(iface);
+            return;
+        }
         try {
             if (nonNull(iface.getIdentity())) {
-                //Calculate packet access code
-                var signed = iface.getIdentity().sign(raw);
-                var ifac = subarray(signed, signed.length - iface.getIfacSize(), signed.length);
-
-                //Generate mask
-                var hkdf = new HKDFBytesGenerator(new SHA256Digest());
-                hkdf.init(new HKDFParameters(ifac, iface.getIfacKey(), new byte[0]));
-                var mask = new byte[getLength(raw) + iface.getIfacSize()];
-                hkdf.generateBytes(mask, 0, mask.length);
-
-                //Set IFAC flag
-                var dataPacket = DataPacketConverter.fromBytes(raw);
-                dataPacket.getHeader().getFlags().setAccessCodes(true);
-                dataPacket.setIfac(ifac);
-
-                var newRaw = DataPacketConverter.toBytes(dataPacket);
-                var maskedRaw = new byte[newRaw.length];
-                for (int i = 0; i < newRaw.length; i++) {
-                    if (i == 0) {
-                        //Mask first header byte, but make sure the IFAC flag is still set
-                        maskedRaw[i] = (byte) (newRaw[i] ^ mask[i] | 0x80);
-                    } else if (i == 1 || i > iface.getIfacSize() + 1) {
-                        //Mask second header byte and payload
-                        maskedRaw[i] = (byte) (newRaw[i] ^ mask[i]);
-                    } else {
-                        //Don't mask the IFAC itself
-                        maskedRaw[i] = newRaw[i];
-                    }
-                }
-
-                //Send it
+                var maskedRaw = InterfaceAccessCode.mask(iface, raw);
                 iface.processOutgoing(maskedRaw);
+                metrics.transmitted(iface, maskedRaw.length);
             } else {
                 iface.processOutgoing(raw);
+                metrics.transmitted(iface, raw.length);
             }
         } catch (Exception e) {
             log.error("Error while transmitting on {}.", iface.getInterfaceName(), e);
@@ -2448,8 +2667,9 @@ public final class Transport implements ExitHandler {
                     }
 
                     var uniqueTag = concatArrays(destinationHash, tagBytes);
-                    if (discoveryPrTags.stream().noneMatch(bytes -> Arrays.equals(bytes, uniqueTag))) {
-                        discoveryPrTags.add(uniqueTag);
+                    var tagHash = fullHash(uniqueTag);
+                    if (isFalse(pathRequestTags.contains(tagHash))) {
+                        pathRequestTags.add(tagHash);
 
                         pathRequest(
                                 destinationHash,
@@ -2489,22 +2709,16 @@ public final class Transport implements ExitHandler {
         log.debug("Path request for {} on {}", encodeHexString(destinationHash), attachedInterface);
 
         if (isFalse(localClientInterfaces.isEmpty())) {
-            if (destinationTable.containsKey(encodeHexString(destinationHash))) {
-                var destinationInterface = destinationTable.get(encodeHexString(destinationHash)).getInterface();
+            if (destinationTable.containsKey(destinationHash)) {
+                var destinationInterface = destinationTable.get(destinationHash).getInterface();
 
                 if (isLocalClientInterface(destinationInterface)) {
-                    pendingLocalPathRequests.put(
-                            encodeHexString(destinationHash),
-                            attachedInterface
-                    );
+                    pendingLocalPathRequests.put(destinationHash, attachedInterface);
                 }
             }
         }
 
-        var localDestination = destinations.stream()
-                .filter(destination -> Arrays.equals(destination.getHash(), destinationHash))
-                .findFirst()
-                .orElse(null);
+        var localDestination = destinations.find(destinationHash);
         if (nonNull(localDestination)) {
             localDestination.announce(true, tag, attachedInterface);
 
@@ -2512,11 +2726,14 @@ public final class Transport implements ExitHandler {
                     encodeHexString(destinationHash), attachedInterface);
         } else if (
                 (getOwner().isTransportEnabled() || isFromLocalClient)
-                        && destinationTable.containsKey(encodeHexString(destinationHash))
+                        && nonNull(findPath(destinationHash))
         ) {
-            var destinationEntry = destinationTable.get(encodeHexString(destinationHash));
+            var destinationEntry = destinationTable.get(destinationHash);
             //var packet = destinationEntry.getPacket();
-            var packet = getCachedPacket(destinationHash, ANNOUNCE);
+            // the cache is keyed by packet hash, look up the announce the path was learned from
+            var packet = nonNull(destinationEntry.getPacket())
+                    ? getCachedPacket(destinationEntry.getPacket().getHash(), ANNOUNCE)
+                    : null;
             var nextHop = destinationEntry.getVia();
             var receivedFrom = destinationEntry.getPacket().getTransportId(); //todo в питоне тут ошибка (?)
             // python version has "Transport.path_table[destination_hash][IDX_PT_RVCD_IF]" (?)
@@ -2574,13 +2791,13 @@ public final class Transport implements ExitHandler {
                     // rebroadcast locally. In such a case the actual announce
                     // is temporarily held, and then reinserted when the path
                     // request has been served to the peer.
-                    if (announceTable.containsKey(encodeHexString(destinationHash))) {
-                        var heldEntry = announceTable.get(encodeHexString(destinationHash));
-                        heldAnnounces.put(encodeHexString(destinationHash), heldEntry);
+                    if (announceTable.containsKey(destinationHash)) {
+                        var heldEntry = announceTable.get(destinationHash);
+                        heldAnnounces.put(destinationHash, heldEntry);
                     }
 
                     announceTable.put(
-                            encodeHexString(destinationHash),
+                            destinationHash,
                             AnnounceEntry.builder()
                                     .timestamp(now)
                                     .retransmitTimeout(retransmitTimeout)
@@ -2596,17 +2813,24 @@ public final class Transport implements ExitHandler {
                 }
             }
         } else if (isFromLocalClient) {
-            //Forward path request on all interfaces except the local client
-            log.debug("Forwarding path request from local client for {} on {} to all other interfaces",
-                    encodeHexString(destinationHash), attachedInterface);
-            var requestTag = getRandomHash();
-            for (ConnectionInterface connectionInterface : interfaces) {
-                if (isFalse(Objects.equals(connectionInterface, attachedInterface))) {
-                    requestPath(destinationHash, connectionInterface, requestTag, false);
-                }
+            //Forward path request on all interfaces except the local client, unless a request
+            // for the destination is already out; the announce answering it reaches all local clients
+            if (pathResolver.isResolving(destinationHash)) {
+                log.debug("There is already a path request out for {}, not forwarding the one from local client on {}",
+                        encodeHexString(destinationHash), attachedInterface);
             }
+            pathResolver.resolve(destinationHash, Duration.ofSeconds(PATH_REQUEST_TIMEOUT), () -> {
+                log.debug("Forwarding path request from local client for {} on {} to all other interfaces",
+                        encodeHexString(destinationHash), attachedInterface);
+                var requestTag = getRandomHash();
+                for (ConnectionInterface connectionInterface : interfaces) {
+                    if (isFalse(Objects.equals(connectionInterface, attachedInterface))) {
+                        requestPath(destinationHash, connectionInterface, requestTag, false);
+                    }
+                }
+            });
         } else if (shouldSearchForUnknown) {
-            if (discoveryPathRequests.containsKey(encodeHexString(destinationHash))) {
+            if (discoveryPathRequests.containsKey(destinationHash)) {
                 log.debug("There is already a waiting path request for {} on behalf of path request on {}",
                         encodeHexString(destinationHash), attachedInterface);
 
@@ -2615,7 +2839,7 @@ public final class Transport implements ExitHandler {
                 log.debug("Attempting to discover unknown path to {} on behalf of path request on {}",
                         encodeHexString(destinationHash), attachedInterface);
 
-                discoveryPathRequests.put(encodeHexString(destinationHash),
+                discoveryPathRequests.put(destinationHash,
                         PathRequestEntry.builder()
                                 .destinationHash(destinationHash)
                                 .timeout(Instant.now().plusSeconds(PATH_REQUEST_TIMEOUT))
@@ -2650,16 +2874,47 @@ public final class Transport implements ExitHandler {
      * @return True/false depending on whether any route towards given node can currently be determined by checking routing tables etc..
      */
     public Boolean hasPath(@NonNull byte[] destinationHash) {
-        return destinationTable.containsKey(encodeHexString(destinationHash));
+        return nonNull(findPath(destinationHash));
     }
 
     /**
-     * Public version of the method requestPath.
+     * Requests a path to the destination from the network, unless a request for it is
+     * already out.
      * 
      * @param destinationHash hash
      */
     public void requestPath(@NonNull byte[] destinationHash) {
-        requestPath(destinationHash, null, null, false);
+        pathResolver.resolve(
+                destinationHash,
+                Duration.ofSeconds(PATH_REQUEST_TIMEOUT),
+                () -> requestPath(destinationHash, null, null, false)
+        );
+    }
+
+    /**
+     * Waits for a path to the destination without polling {@link #hasPath(byte[])}.
+     * Requests the path from the network if it is unknown; callers waiting for the same
+     * destination share one request.
+     *
+     * @param destinationHash hash
+     * @param timeout         how long to wait
+     * @return future completed with the path, or failed with a
+     * {@link java.util.concurrent.TimeoutException} if none was learned in time
+     */
+    public CompletableFuture<Hops> awaitPath(@NonNull byte[] destinationHash, @NonNull Duration timeout) {
+        var hops = findPath(destinationHash);
+        if (nonNull(hops)) {
+            return CompletableFuture.completedFuture(hops);
+        }
+
+        var future = pathResolver.resolve(destinationHash, timeout, () -> requestPath(destinationHash, null, null, false));
+        // the path may have been learned before the resolution was in place
+        hops = destinationTable.get(destinationHash);
+        if (nonNull(hops)) {
+            pathResolver.resolved(destinationHash, hops);
+        }
+
+        return future;
     }
 
     /**
@@ -2706,7 +2961,7 @@ public final class Transport implements ExitHandler {
         }
 
         packet.send();
-        pathRequests.put(encodeHexString(destinationHash), Instant.now());
+        pathResolver.requested(destinationHash);
     }
 
     private void tunnelSynthesizeHandler(byte[] data, Packet packet) {
@@ -2737,12 +2992,13 @@ public final class Transport implements ExitHandler {
     @SneakyThrows
     private void handleTunnel(byte[] tunnelId, ConnectionInterface iface) {
         var expires = Instant.now().plusSeconds(DESTINATION_TIMEOUT);
-        Map<String, Hops> paths = new HashMap<>();
-        if (isFalse(tunnels.containsKey(encodeHexString(tunnelId)))) {
+        tunnelChanged(tunnelId);
+        Map<HashKey, Hops> paths = new HashKeyMap<>();
+        if (isFalse(tunnels.containsKey(tunnelId))) {
             log.debug("Tunnel endpoint {} established.", encodeHexString(tunnelId));
             iface.setTunnelId(tunnelId);
             tunnels.put(
-                    encodeHexString(tunnelId),
+                    tunnelId,
                     Tunnel.builder()
                             .tunnelId(tunnelId)
                             .expires(expires)
@@ -2752,23 +3008,23 @@ public final class Transport implements ExitHandler {
             );
         } else {
             log.debug("Tunnel endpoint {} reappeared. Restoring paths...", encodeHexString(tunnelId));
-            var tunnelEntry = tunnels.get(encodeHexString(tunnelId));
+            var tunnelEntry = tunnels.get(tunnelId);
             tunnelEntry.setAnInterface(iface);
             tunnelEntry.setExpires(expires);
             iface.setTunnelId(tunnelId);
             paths = tunnelEntry.getTunnelPaths();
 
             var deprecatedPaths = new LinkedList<byte[]>();
-            for (Map.Entry<String, Hops> entry : paths.entrySet()) {
-                var destinationHash = decodeHex(entry.getKey());
+            for (Map.Entry<HashKey, Hops> entry : paths.entrySet()) {
+                var destinationHash = entry.getKey().toBytes();
                 var pathEntry = entry.getValue();
                 var packet = pathEntry.getPacket();
                 var announceHops = pathEntry.getHops();
                 expires = pathEntry.getExpires();
 
                 var shouldAdd = false;
-                if (destinationTable.containsKey(encodeHexString(destinationHash))) {
-                    var oldEntry = destinationTable.get(encodeHexString(destinationHash));
+                if (destinationTable.containsKey(destinationHash)) {
+                    var oldEntry = destinationTable.get(destinationHash);
                     var oldHops = oldEntry.getHops();
                     var oldExpires = oldEntry.getExpires();
                     if (announceHops < oldHops || Instant.now().isAfter(oldExpires)) {
@@ -2786,12 +3042,13 @@ public final class Transport implements ExitHandler {
 
                 if (shouldAdd) {
                     destinationTable.put(
-                            encodeHexString(destinationHash),
+                            destinationHash,
                             pathEntry.toBuilder()
                                     .timestamp(Instant.now())
                                     .anInterface(iface)
                                     .build()
                     );
+                    pathChanged(destinationHash);
 
                     log.debug(
                             "Restored path to {} is now {} hops away via {}",
@@ -2806,26 +3063,218 @@ public final class Transport implements ExitHandler {
 
             for (byte[] deprecatedPath : deprecatedPaths) {
                 log.debug("Removing path to {} from tunnel {}", encodeHexString(deprecatedPath), encodeHexString(tunnelId));
-                paths.remove(encodeHexString(deprecatedPath));
+                paths.remove(HashKey.of(deprecatedPath));
+            }
+        }
+    }
+
+    private Instant pathExpiresAt(Hops destinationEntry) {
+        var attachedInterface = destinationEntry.getInterface();
+        if (isFalse(interfaces.contains(attachedInterface))) {
+            return Instant.EPOCH;
+        }
+        if (attachedInterface.getMode() == MODE_ACCESS_POINT) {
+            return destinationEntry.getTimestamp().plusSeconds(AP_PATH_TIME);
+        } else if (attachedInterface.getMode() == MODE_ROAMING) {
+            return destinationEntry.getTimestamp().plusSeconds(ROAMING_PATH_TIME);
+        }
+
+        return destinationEntry.getTimestamp().plusSeconds(DESTINATION_TIMEOUT);
+    }
+
+    private Instant linkEntryExpiresAt(LinkEntry linkEntry) {
+        if (linkEntry.isValidated()) {
+            if (isFalse(interfaces.contains(linkEntry.getNextHopInterface()))
+                    || isFalse(interfaces.contains(linkEntry.getReceivingInterface()))) {
+                return Instant.EPOCH;
+            }
+
+            return linkEntry.getTimestamp().plusSeconds(LINK_TIMEOUT);
+        }
+
+        return linkEntry.getProofTimestamp();
+    }
+
+    private static Instant announceExpiresAt(AnnounceEntry announceEntry) {
+        // entries past the retry limit are completed on the next tick
+        return announceEntry.getRetries() > PATHFINDER_R ? Instant.EPOCH : announceEntry.getRetransmitTimeout();
+    }
+
+    private static Instant tunnelExpiresAt(Tunnel tunnel) {
+        var expires = tunnel.getExpires();
+        for (var tunnelPath : MapUtils.emptyIfNull(tunnel.getTunnelPaths()).values()) {
+            var pathExpires = tunnelPath.getTimestamp().plusSeconds(DESTINATION_TIMEOUT);
+            if (pathExpires.isBefore(expires)) {
+                expires = pathExpires;
+            }
+        }
+
+        return expires;
+    }
+
+    private void retransmitAnnounce(AnnounceEntry announceEntry, List<Packet> outgoing) {
+        announceEntry.setRetransmitTimeout(Instant.now().plusSeconds(PATHFINDER_G).plusMillis(PATHFINDER_RW));
+        announceEntry.setRetries(announceEntry.getRetries() + 1);
+        var packet = announceEntry.getPacket();
+        var blockRebroadcasts = announceEntry.isBlockRebroadcasts();
+        var attachedInterface = announceEntry.getAttachedInterface();
+        var announceContext = blockRebroadcasts ? PATH_RESPONSE : NONE;
+        var announceData = packet.getData();
+        var announceIdentity = recall(packet.getDestinationHash());
+        var announceDestination = new Destination(announceIdentity, OUT, SINGLE, "unknown", "unknown");
+        announceDestination.setHash(packet.getDestinationHash());
+        announceDestination.setHexHash(encodeHexString(announceDestination.getHash()));
+
+        var newPacket = new Packet(
+                announceDestination,
+                announceData,
+                ANNOUNCE,
+                announceContext,
+                HEADER_2,
+                TRANSPORT,
+                identity.getHash(),
+                attachedInterface
+        );
+        newPacket.setHops(announceEntry.getHops());
+
+        if (blockRebroadcasts) {
+            log.debug("Rebroadcasting announce as path response for {} with hop count {}",
+                    announceDestination.getHexHash(), newPacket.getHops());
+        } else {
+            log.debug("Rebroadcasting announce for {} with hop count {}",
+                    announceDestination.getHexHash(), newPacket.getHops());
+        }
+
+        outgoing.add(newPacket);
+
+        // This handles an edge case where a peer sends a past
+        // request for a destination just after an announce for
+        // said destination has arrived, but before it has been
+        // rebroadcast locally. In such a case the actual announce
+        // is temporarily held, and then reinserted when the path
+        // request has been served to the peer.
+        for (var destinationHashKey : heldAnnounces.keySet()) {
+            var heldEntry = heldAnnounces.remove(destinationHashKey);
+            if (nonNull(heldEntry)) {
+                announceTable.put(destinationHashKey, heldEntry);
+                log.debug("Reinserting held announce into table");
             }
         }
     }
 
+    /**
+     * A link request was forwarded, but no proof came back in time. Decides whether the
+     * path to the destination should be rediscovered.
+     */
+    private void linkRequestExpired(LinkEntry linkEntry, Map<HashKey, ConnectionInterface> pathRequestList) {
+        ConnectionInterface blockedIf = null;
+        var lastPathRequest = pathResolver.lastRequest(linkEntry.getDestinationHash());
+
+        var lrTakenHops = linkEntry.getHops();
+
+        var pathRequestThrottle = Duration.between(lastPathRequest, Instant.now()).toSeconds() < PATH_REQUEST_MI;
+        var pathRequestConditions = false;
+
+        // If the path has been invalidated between the time of
+        // making the link request and now, try to rediscover it
+        if (isFalse(destinationTable.containsKey(linkEntry.getDestinationHash()))) {
+            log.debug("Trying to rediscover path for {} since an attempted link was never established, and path is now missing",
+                    encodeHexString(linkEntry.getDestinationHash()));
+            pathRequestConditions = true;
+        }
+
+        // If this link request was originated from a local client
+        // attempt to rediscover a path to the destination, if this
+        // has not already happened recently.
+        else if (isFalse(pathRequestThrottle && lrTakenHops == 0)) {
+            log.debug("Trying to rediscover path for {} since an attempted local client link was never established",
+                    encodeHexString(linkEntry.getDestinationHash()));
+            pathRequestConditions = true;
+        }
+
+        // If the link destination was previously only 1 hop
+        // away, this likely means that it was local to one
+        // of our interfaces, and that it roamed somewhere else.
+        // In that case, try to discover a new path.
+        else if (isFalse(pathRequestThrottle && hopsTo(linkEntry.getDestinationHash()) == 1)) {
+            log.debug("Trying to rediscover path for {}  since an attempted link was never established, and destination was previously local to an interface on this instance",
+                    encodeHexString(linkEntry.getDestinationHash()));
+            pathRequestConditions = true;
+            blockedIf = linkEntry.getReceivingInterface();
+        }
+
+        // If the link initiator is only 1 hop away,
+        // this likely means that network topology has
+        // changed. In that case, we try to discover a new path,
+        // and mark the old one as potentially unresponsive.
+        else if (isFalse(pathRequestThrottle && lrTakenHops == 1)) {
+            log.debug("Trying to rediscover path for {} since an attempted link was never established, and link initiator is local to an interface on this instance",
+                    encodeHexString(linkEntry.getDestinationHash()));
+            pathRequestConditions = true;
+            blockedIf = linkEntry.getReceivingInterface();
+
+            if (getOwner().isTransportEnabled()) {
+                if (linkEntry.getReceivingInterface().getMode() != MODE_BOUNDARY) {
+                    markPathUnresponsive(linkEntry.getDestinationHash());
+                }
+            }
+        }
+
+        if (pathRequestConditions) {
+            pathRequestList.putIfAbsent(HashKey.of(linkEntry.getDestinationHash()), blockedIf);
+
+            if (isFalse(owner.isTransportEnabled())) {
+                // Drop current path if we are not a transport instance, to
+                // allow using higher-hop count paths or reused announces
+                // from newly adjacent transport instances.
+                expirePath(linkEntry.getDestinationHash());
+            }
+        }
+    }
+
+    private void expireTunnel(HashKey tunnelId, Tunnel tunnel) {
+        if (Instant.now().isAfter(tunnel.getExpires())) {
+            tunnels.remove(tunnelId);
+            dirtyTunnels.add(tunnelId);
+            log.debug("Tunnel {} timed out and was removed", tunnelId);
+            return;
+        }
+
+        var tunnelPaths = tunnel.getTunnelPaths();
+        var ti = 0;
+        for (var tunnelPathsEntry : tunnelPaths.entrySet()) {
+            if (Instant.now().isAfter(tunnelPathsEntry.getValue().getTimestamp().plusSeconds(DESTINATION_TIMEOUT))) {
+                tunnelPaths.remove(tunnelPathsEntry.getKey());
+                log.debug("Tunnel path to {} timed out and was removed", tunnelPathsEntry.getKey());
+                ti++;
+            }
+        }
+
+        if (ti > 0) {
+            dirtyTunnels.add(tunnelId);
+            log.debug("Removed {} tunnel paths", ti);
+        }
+    }
+
     @SneakyThrows
     private void jobs() {
         List<Packet> outgoing = new LinkedList<>();
         List<Runnable> deferredReceiptChecks = new ArrayList<>();
-        Map<String, ConnectionInterface> pathRequestList = new HashMap<>();
+        Map<HashKey, ConnectionInterface> pathRequestList = new HashMap<>();
         ConnectionInterface blockedIf = null;
 
-        //if (jobsLock.tryLock()) {
-        if (jobsLock.tryLock(3, TimeUnit.SECONDS)) {
+        metrics.rotate(Instant.now());
+
+        // jobs() walks every table, so it needs every routing shard.
+        var jobsLockWaitStart = System.nanoTime();
+        if (routingLocks.lockAll(3, TimeUnit.SECONDS)) {
+            metrics.getJobsLockWait().recordMicrosSince(jobsLockWaitStart);
             var jobsLockAcquiredAt = System.currentTimeMillis();
             try {
                 long _t = System.currentTimeMillis();
                 //Process active and pending link lists
                 if (Instant.now().isAfter(linksLastChecked.get().plusMillis(LINKS_CHECK_INTERVAL))) {
-                    for (Link link : pendingLinks) {
+                    for (Link link : links.pendingLinks()) {
                         if (link.getStatus() == CLOSED) {
                             // If we are not a Transport Instance, finding a pending link
                             // that was never activated will trigger an expiry of the path
@@ -2837,360 +3286,130 @@ public final class Transport implements ExitHandler {
                                 // care of sending out a new path request. If not, we will
                                 // send one directly.
                                 if (isFalse(owner.isConnectedToSharedInstance())) {
-                                    var lastPathRequest = Instant.EPOCH;
-                                    if (pathRequests.containsKey(encodeHexString(link.getDestination().getHash()))) {
-                                        lastPathRequest = pathRequests.get(encodeHexString(link.getDestination().getHash()));
-                                    }
+                                    var lastPathRequest = pathResolver.lastRequest(link.getDestination().getHash());
 
                                     if (Duration.between(lastPathRequest, Instant.now()).toSeconds() > PATH_REQUEST_MI) {
                                         log.debug("Trying to rediscover path for {} since an attempted link was never established",
                                                 encodeHexString(link.getDestination().getHash()));
-                                        if (pathRequestList.keySet().stream().noneMatch(bytes -> StringUtils.equals(bytes, encodeHexString(link.getDestination().getHash())))) {
-                                            blockedIf = null;
-                                            pathRequestList.put(encodeHexString(link.getDestination().getHash()), blockedIf);
-                                        }
+                                        pathRequestList.putIfAbsent(HashKey.of(link.getDestination().getHash()), null);
                                     }
                                 }
                             }
-                            pendingLinks.remove(link);
+                            links.removePending(link);
                         }
                     }
 
-                    activeLinks.removeIf(link -> link.getStatus() == CLOSED);
+                    links.removeClosedActive();
 
                     linksLastChecked.set(Instant.now());
                 }
                 long _linksMs = System.currentTimeMillis() - _t; _t = System.currentTimeMillis();
 
-                //Process receipts list for timed-out packets
-                if (Instant.now().isAfter(receiptsLastChecked.get().plusMillis(RECEIPTS_CHECK_INTERVAL))) {
-                    while (receipts.size() > MAX_RECEIPTS) {
-                        var culledReceipt = receipts.remove(0);
-                        culledReceipt.setTimeout(-1);
-                        // Defer checkTimeout(): it can fire the packet delivery callback → channel.lock,
-                        // causing ABBA with outbound() which holds channel.lock and spins for jobsLock.
-                        deferredReceiptChecks.add(culledReceipt::checkTimeout);
-                    }
-
-                    // CopyOnWriteArrayList for-each iterates a snapshot; capture each receipt
-                    // explicitly for the deferred lambda so checkTimeout() runs after jobsLock released.
-                    for (PacketReceipt receipt : receipts) {
-                        PacketReceipt capturedReceipt = receipt;
-                        deferredReceiptChecks.add(() -> {
-                            capturedReceipt.checkTimeout();
-                            if (capturedReceipt.getStatus() != PacketReceiptStatus.SENT) {
-                                receipts.remove(capturedReceipt);
-                            }
-                        });
-                    }
-
-                    receiptsLastChecked.set(Instant.now());
+                //Process receipts for timed-out packets
+                for (PacketReceipt receipt : receipts.expire(Instant.now())) {
+                    // Defer checkTimeout(): it can fire the packet timeout callback → channel.lock,
+                    // causing ABBA with outbound() which holds channel.lock and spins for the routing lock.
+                    deferredReceiptChecks.add(receipt::checkTimeout);
                 }
                 long _receiptsMs = System.currentTimeMillis() - _t; _t = System.currentTimeMillis();
 
                 // Process announces needing retransmission
-                if (Instant.now().isAfter(announcesLastChecked.get().plusMillis(ANNOUNCES_CHECK_INTERVAL))) {
-                    var completedAnnounces = new HashSet<String>();
-                    for (String destinationHashString : announceTable.keySet()) {
-                        var announceEntry = announceTable.get(destinationHashString);
-                        if (announceEntry.getRetries() > PATHFINDER_R) {
-                            log.debug("Completed announce processing for {}, retry limit reached", destinationHashString);
-                            completedAnnounces.add(destinationHashString);
-                        } else {
-                            if (Instant.now().isAfter(announceEntry.getRetransmitTimeout())) {
-                                announceEntry.setRetransmitTimeout(Instant.now().plusSeconds(PATHFINDER_G).plusMillis(PATHFINDER_RW));
-                                announceEntry.setRetries(announceEntry.getRetries() + 1);
-                                var packet = announceEntry.getPacket();
-                                var blockRebroadcasts = announceEntry.isBlockRebroadcasts();
-                                var attachedInterface = announceEntry.getAttachedInterface();
-                                var announceContext = blockRebroadcasts ? PATH_RESPONSE : NONE;
-                                var announceData = packet.getData();
-                                var announceIdentity = recall(packet.getDestinationHash());
-                                var announceDestination = new Destination(announceIdentity, OUT, SINGLE, "unknown", "unknown");
-                                announceDestination.setHash(packet.getDestinationHash());
-                                announceDestination.setHexHash(encodeHexString(announceDestination.getHash()));
-
-                                var newPacket = new Packet(
-                                        announceDestination,
-                                        announceData,
-                                        ANNOUNCE,
-                                        announceContext,
-                                        HEADER_2,
-                                        TRANSPORT,
-                                        identity.getHash(),
-                                        attachedInterface
-                                );
-                                newPacket.setHops(announceEntry.getHops());
-
-                                if (blockRebroadcasts) {
-                                    log.debug("Rebroadcasting announce as path response for {} with hop count {}",
-                                            announceDestination.getHexHash(), newPacket.getHops());
-                                } else {
-                                    log.debug("Rebroadcasting announce for {} with hop count {}",
-                                            announceDestination.getHexHash(), newPacket.getHops());
-                                }
-
-                                outgoing.add(newPacket);
-
-                                // This handles an edge case where a peer sends a past
-                                // request for a destination just after an announce for
-                                // said destination has arrived, but before it has been
-                                // rebroadcast locally. In such a case the actual announce
-                                // is temporarily held, and then reinserted when the path
-                                // request has been served to the peer.
-                                for (String destinationHashHex : heldAnnounces.keySet()) {
-                                    announceTable.put(destinationHashHex, heldAnnounces.remove(destinationHashHex));
-                                    log.debug("Reinserting held announce into table");
-                                }
-                            }
-                        }
-                    }
-
-                    for (String destinationHash : completedAnnounces) {
+                announceTable.expire(Instant.now(), (destinationHash, announceEntry) -> {
+                    if (announceEntry.getRetries() > PATHFINDER_R) {
+                        log.debug("Completed announce processing for {}, retry limit reached", destinationHash);
                         announceTable.remove(destinationHash);
+                    } else {
+                        retransmitAnnounce(announceEntry, outgoing);
                     }
-
-                    announcesLastChecked.set(Instant.now());
-                }
+                });
                 long _announcesMs = System.currentTimeMillis() - _t; _t = System.currentTimeMillis();
 
-                //Cull the packet hashlist if it has reached its max size
+                //Age out the oldest packet filter generation
                 // The packet hashlist is an in-memory-only dedup window (never persisted).
                 // Persisting it previously drove jreticulum.db into multi-GB territory, and a
-                // DB-backed trim read 1M Nitrite records while holding jobsLock (60+ seconds,
-                // blocking all traffic). Since packet-dedup works in a rolling window (not a
-                // full multi-day history), a simple in-memory
-                // clear is sufficient and matches Python RNS behaviour (in-memory only).
-                if (packetHashMap.size() > HASHLIST_MAXSIZE) {
-                    log.warn("packetHashMap reached {} entries — clearing in-memory dedup table", packetHashMap.size());
-                    packetHashMap.clear();
-                }
-
-                //Cull the path request tags list if it has reached its max size
-                if (discoveryPrTags.size() > MAX_PR_TAGS) {
-                    // Copy the tail into an independent list BEFORE clearing.
-                    // subList() returns a live view into the backing CopyOnWriteArrayList;
-                    // clear() then invalidates the view and the subsequent addAll(view)
-                    // throws ConcurrentModificationException, aborting the whole jobs() run.
-                    var keep = new ArrayList<>(discoveryPrTags.subList(
-                            discoveryPrTags.size() - MAX_PR_TAGS,
-                            discoveryPrTags.size() - 1));
-                    discoveryPrTags.clear();
-                    discoveryPrTags.addAll(keep);
-                }
-
-                if (Instant.now().isAfter(tablesLastCulled.get().plusMillis(TABLES_CULL_INTERVAL))) {
-                    //Remove unneeded path state entries
-                    var stalePathStates = new LinkedList<String>();
-                    for (String hashString : pathStates.keySet()) {
-                        if (isFalse(destinationTable.containsKey(hashString))) {
-                            stalePathStates.add(hashString);
-                        }
-                    }
-                    //Cull the reverse table according to timeout
-                    List<String> staleReverseEntries = new LinkedList<>();
-                    for (String truncatedPacketHashHex : reverseTable.keySet()) {
-                        var reverseEntry = reverseTable.get(truncatedPacketHashHex);
-                        if (Instant.now().isAfter(reverseEntry.getTimestamp().plusSeconds(REVERSE_TIMEOUT))) {
-                            staleReverseEntries.add(truncatedPacketHashHex);
-                        }
-                    }
-
-                    //Cull the link table according to timeout
-                    List<String> staleLinks = new LinkedList<>();
-                    for (String linkIdHex : linkTable.keySet()) {
-                        var linkEntry = linkTable.get(linkIdHex);
-
-                        if (linkEntry.isValidated()) {
-                            if (Instant.now().isAfter(linkEntry.getTimestamp().plusSeconds(LINK_TIMEOUT))) {
-                                staleLinks.add(linkIdHex);
-                            } else if (isFalse(interfaces.contains(linkEntry.getNextHopInterface()))) {
-                                staleLinks.add(linkIdHex);
-                            } else if (isFalse(interfaces.contains(linkEntry.getReceivingInterface()))) {
-                                staleLinks.add(linkIdHex);
-                            }
-                        } else {
-                            if (Instant.now().isAfter(linkEntry.getProofTimestamp())) {
-                                staleLinks.add(linkIdHex);
-
-                                var lastPathRequest = pathRequests.getOrDefault(
-                                        encodeHexString(linkEntry.getDestinationHash()),
-                                        Instant.EPOCH
-                                );
+                // DB-backed trim read 1M Nitrite records while holding the routing lock (60+ seconds,
+                // blocking all traffic). The filter rotates generations on its own when it fills
+                // up, this only makes an idle node forget hashes older than the window.
+                packetHashFilter.expire();
 
-                                var lrTakenHops = linkEntry.getHops();
+                //Age out the oldest path request tag generation
+                pathRequestTags.expire();
 
-                                var pathRequestThrottle = Duration.between(lastPathRequest, Instant.now()).toSeconds() < PATH_REQUEST_MI;
-                                var pathRequestConditions = false;
+                //Fail path resolutions that timed out
+                pathResolver.expire(Instant.now());
 
-                                // If the path has been invalidated between the time of
-                                // making the link request and now, try to rediscover it
-                                if (isFalse(destinationTable.containsKey(encodeHexString(linkEntry.getDestinationHash())))) {
-                                    log.debug("Trying to rediscover path for {} since an attempted link was never established, and path is now missing",
-                                            encodeHexString(linkEntry.getDestinationHash()));
-                                    pathRequestConditions = true;
-                                }
-
-                                // If this link request was originated from a local client
-                                // attempt to rediscover a path to the destination, if this
-                                // has not already happened recently.
-                                else if (isFalse(pathRequestThrottle && lrTakenHops == 0)) {
-                                    log.debug("Trying to rediscover path for {} since an attempted local client link was never established",
-                                            encodeHexString(linkEntry.getDestinationHash()));
-                                    pathRequestConditions = true;
-                                }
-
-                                // If the link destination was previously only 1 hop
-                                // away, this likely means that it was local to one
-                                // of our interfaces, and that it roamed somewhere else.
-                                // In that case, try to discover a new path.
-                                else if (isFalse(pathRequestThrottle && hopsTo(linkEntry.getDestinationHash()) == 1)) {
-                                    log.debug("Trying to rediscover path for {}  since an attempted link was never established, and destination was previously local to an interface on this instance",
-                                            encodeHexString(linkEntry.getDestinationHash()));
-                                    pathRequestConditions = true;
-                                    blockedIf = linkEntry.getReceivingInterface();
-                                }
-
-                                // If the link initiator is only 1 hop away,
-                                // this likely means that network topology has
-                                // changed. In that case, we try to discover a new path,
-                                // and mark the old one as potentially unresponsive.
-                                else if (isFalse(pathRequestThrottle && lrTakenHops == 1)) {
-                                    log.debug("Trying to rediscover path for {} since an attempted link was never established, and link initiator is local to an interface on this instance",
-                                            encodeHexString(linkEntry.getDestinationHash()));
-                                    pathRequestConditions = true;
-                                    blockedIf = linkEntry.getReceivingInterface();
-
-                                    if (getOwner().isTransportEnabled()) {
-                                        if (linkEntry.getReceivingInterface().getMode() != MODE_BOUNDARY) {
-                                            markPathUnresponsive(linkEntry.getDestinationHash());
-                                        }
-                                    }
-                                }
-
-                                if (pathRequestConditions) {
-                                    pathRequestList.putIfAbsent(encodeHexString(linkEntry.getDestinationHash()), blockedIf);
+                // Expire table entries. Every entry registered its deadline in a timing wheel
+                // when it was put, so this only touches entries that actually expire.
+                var now = Instant.now();
+                var expiredReverseEntries = reverseTable.expire(now, (key, reverseEntry) -> reverseTable.remove(key));
+                if (expiredReverseEntries > 0) {
+                    log.debug("Released {} reverse table entries", expiredReverseEntries);
+                }
 
-                                    if (isFalse(owner.isTransportEnabled())) {
-                                        // Drop current path if we are not a transport instance, to
-                                        // allow using higher-hop count paths or reused announces
-                                        // from newly adjacent transport instances.
-                                        expirePath(linkEntry.getDestinationHash());
-                                    }
-                                }
-                            }
-                        }
+                var expiredLinks = linkTable.expire(now, (linkId, linkEntry) -> {
+                    linkTable.remove(linkId);
+                    if (isFalse(linkEntry.isValidated())) {
+                        linkRequestExpired(linkEntry, pathRequestList);
                     }
+                });
+                if (expiredLinks > 0) {
+                    log.debug("Released {} links", expiredLinks);
+                }
 
-                    //Cull the path table
-                    List<String> stalePaths = new LinkedList<>();
-                    for (String destinationHashHex : destinationTable.keySet()) {
-                        var destinationEntry = destinationTable.get(destinationHashHex);
-                        var attachedInterface = destinationEntry.getInterface();
-
-                        Instant destinationExpiry;
-                        if (nonNull(attachedInterface) && attachedInterface.getMode() == MODE_ACCESS_POINT) {
-                            destinationExpiry = destinationEntry.getTimestamp().plusSeconds(AP_PATH_TIME);
-                        } else if (nonNull(attachedInterface) && attachedInterface.getMode() == MODE_ROAMING) {
-                            destinationExpiry = destinationEntry.getTimestamp().plusSeconds(ROAMING_PATH_TIME);
-                        } else {
-                            destinationExpiry = destinationEntry.getTimestamp().plusSeconds(DESTINATION_TIMEOUT);
-                        }
-
-                        if (Instant.now().isAfter(destinationExpiry)) {
-                            stalePaths.add(destinationHashHex);
-                            log.debug("Path to {} timed out and was removed", destinationHashHex);
-                        } else if (isFalse(interfaces.contains(attachedInterface))) {
-                            stalePaths.add(destinationHashHex);
-                            log.debug("Path to {} was removed since the attached interface no longer exists", destinationHashHex);
-                        }
+                var expiredPaths = destinationTable.expire(now, (destinationHash, destinationEntry) -> {
+                    destinationTable.remove(destinationHash);
+                    pathChanged(destinationHash);
+                    pathStates.remove(destinationHash);
+                    announceRateTable.remove(destinationHash);
+                    if (interfaces.contains(destinationEntry.getInterface())) {
+                        log.debug("Path to {} timed out and was removed", destinationHash);
+                    } else {
+                        log.debug("Path to {} was removed since the attached interface no longer exists", destinationHash);
                     }
+                });
+                if (expiredPaths > 0) {
+                    log.debug("Removed {} paths", expiredPaths);
+                }
 
-                    //Cull the pending discovery path requests table
-                    List<String> staleDiscoveryPathRequests = new LinkedList<>();
-                    for (String destinationHashHex : discoveryPathRequests.keySet()) {
-                        var entry = discoveryPathRequests.get(destinationHashHex);
-
-                        if (Instant.now().isAfter(entry.getTimeout())) {
-                            staleDiscoveryPathRequests.add(destinationHashHex);
-                            log.debug("Waiting path request for {} timed out and was removed", destinationHashHex);
-                        }
-                    }
+                var expiredPathRequests = discoveryPathRequests.expire(now, (destinationHash, entry) -> {
+                    discoveryPathRequests.remove(destinationHash);
+                    log.debug("Waiting path request for {} timed out and was removed", destinationHash);
+                });
+                if (expiredPathRequests > 0) {
+                    log.debug("Removed {} waiting path requests", expiredPathRequests);
+                }
 
-                    //Cull the tunnel table
-                    List<String> staleTunnels = new LinkedList<>();
-                    var ti = 0;
-                    for (String tunnelIdHex : tunnels.keySet()) {
-                        var tunnelEntry = tunnels.get(tunnelIdHex);
+                tunnels.expire(now, this::expireTunnel);
 
-                        var expires = tunnelEntry.getExpires();
-                        if (Instant.now().isAfter(expires)) {
-                            staleTunnels.add(tunnelIdHex);
-                            log.debug("Tunnel {} timed out and was removed", tunnelIdHex);
-                        } else {
-                            List<String> staleTunnelPaths = new LinkedList<>();
-                            var tunnelPaths = tunnelEntry.getTunnelPaths();
-                            for (String tunnelPath : tunnelPaths.keySet()) {
-                                var tunnelPathEntry = tunnelPaths.get(tunnelPath);
-
-                                if (Instant.now().isAfter(tunnelPathEntry.getTimestamp().plusSeconds(DESTINATION_TIMEOUT))) {
-                                    staleTunnelPaths.add(tunnelPath);
-                                    log.debug("Tunnel path to {} timed out and was removed", tunnelPath);
-                                }
+                if (Instant.now().isAfter(tablesLastCulled.get().plusMillis(TABLES_CULL_INTERVAL))) {
+                    // Paths and link entries are checked against the interface list when their
+                    // deadline comes due. Entries of interfaces that went away since the last
+                    // cull are expired right away instead.
+                    var attachedInterfaces = new HashSet<>(interfaces);
+                    if (isFalse(attachedInterfaces.containsAll(culledInterfaces))) {
+                        destinationTable.forEach((destinationHash, destinationEntry) -> {
+                            if (isFalse(attachedInterfaces.contains(destinationEntry.getInterface()))) {
+                                destinationTable.reschedule(destinationHash.toBytes());
                             }
-
-                            for (String staleTunnelPath : staleTunnelPaths) {
-                                tunnelPaths.remove(staleTunnelPath);
-                                ti++;
+                        });
+                        linkTable.forEach((linkId, linkEntry) -> {
+                            if (linkEntry.isValidated() && isFalse(
+                                    attachedInterfaces.contains(linkEntry.getNextHopInterface())
+                                            && attachedInterfaces.contains(linkEntry.getReceivingInterface())
+                            )) {
+                                linkTable.reschedule(linkId.toBytes());
                             }
-                        }
-                    }
-
-                    if (ti > 0) {
-                        log.debug("Removed {} tunnel paths", ti);
-                    }
-
-                    try {
-                        staleReverseEntries.forEach(reverseTable::remove);
-                        if (isFalse(staleReverseEntries.isEmpty())) {
-                            log.debug("Released {} reverse table entries", staleReverseEntries.size());
-                        }
-                    } catch (IllegalMonitorStateException e) {
-                        log.error("IllegalMonitorStateException while removing staleLinks from reverseTable");
-                    }
-
-                    try {
-                        staleLinks.forEach(linkTable::remove);
-                        if (isFalse(staleLinks.isEmpty())) {
-                            log.debug("Released {} links", staleLinks.size());
-                        }
-                    } catch (IllegalMonitorStateException e) {
-                        log.error("IllegalMonitorStateException while removing staleLinks from linkTable");
-                    }
-
-                    try {
-                        stalePaths.forEach(destinationTable::remove);
-                        if (isFalse(stalePaths.isEmpty())) {
-                            log.debug("Removed {} waiting path requests", stalePaths.size());
-                        }
-                    } catch (IllegalMonitorStateException e) {
-                        log.error("IllegalMonitorStateException while removing staleLinks from destinationTable");
-                    }
-
-                    staleDiscoveryPathRequests.forEach(discoveryPathRequests::remove);
-                    if (isFalse(staleDiscoveryPathRequests.isEmpty())) {
-                        log.debug("Removed {} waiting path requests", staleDiscoveryPathRequests.size());
-                    }
-
-                    staleTunnels.forEach(tunnels::remove);
-                    if (isFalse(staleTunnels.isEmpty())) {
-                        log.debug("Removed {} tunnels", staleTunnels.size());
+                        });
                     }
+                    culledInterfaces = attachedInterfaces;
 
+                    //Remove unneeded path state entries. Only paths marked by markPath* have one.
                     var i = 0;
-                    for (String destinationHash : stalePathStates) {
-                        pathStates.remove(destinationHash);
-                        i++;
+                    for (var destinationHash : pathStates.keySet()) {
+                        if (isFalse(destinationTable.containsKey(destinationHash))) {
+                            pathStates.remove(destinationHash);
+                            i++;
+                        }
                     }
 
                     if (i > 0) {
@@ -3201,14 +3420,23 @@ public final class Transport implements ExitHandler {
                         }
                     }
 
+                    //Drop the inbound queues of interfaces that no longer exist
+                    inboundPipeline.removeQueues(
+                            iface -> isFalse(interfaces.contains(iface)) && isFalse(localClientInterfaces.contains(iface))
+                    );
+                    metrics.removeInterfaces(
+                            iface -> isFalse(interfaces.contains(iface)) && isFalse(localClientInterfaces.contains(iface))
+                    );
+                    log.trace("{}", inboundPipeline);
+                    log.trace("{}", outboundQueue);
+
                     tablesLastCulled.set(Instant.now());
                 }
                 long _cullMs = System.currentTimeMillis() - _t; _t = System.currentTimeMillis();
 
                 // Expire timed blackhole entries
-                var expiredBlackholes = new LinkedList<String>();
-                var now = Instant.now();
-                for (Map.Entry<String, BlackholeEntry> bhEntry : blackholedIdentities.entrySet()) {
+                var expiredBlackholes = new LinkedList<HashKey>();
+                for (Map.Entry<HashKey, BlackholeEntry> bhEntry : blackholedIdentities.entrySet()) {
                     if (bhEntry.getValue().getUntil() != null && now.isAfter(bhEntry.getValue().getUntil())) {
                         expiredBlackholes.add(bhEntry.getKey());
                     }
@@ -3227,6 +3455,12 @@ public final class Transport implements ExitHandler {
                 }
                 long _ifaceMs = System.currentTimeMillis() - _t;
                 long _totalMs = System.currentTimeMillis() - jobsLockAcquiredAt;
+                metrics.getJobsLinks().record(_linksMs);
+                metrics.getJobsReceipts().record(_receiptsMs);
+                metrics.getJobsAnnounces().record(_announcesMs);
+                metrics.getJobsCull().record(_cullMs);
+                metrics.getJobsInterfaces().record(_ifaceMs);
+                metrics.getJobsTotal().record(_totalMs);
                 if (_totalMs > 200) {
                     log.warn("jobs() slow sections: links={}ms receipts={}ms announces={}ms cull={}ms iface={}ms total={}ms",
                             _linksMs, _receiptsMs, _announcesMs, _cullMs, _ifaceMs, _totalMs);
@@ -3240,13 +3474,9 @@ public final class Transport implements ExitHandler {
                 // leak the lock forever. Capture timing into primitives first, release the lock,
                 // then log.
                 long jobsHeldMs = System.currentTimeMillis() - jobsLockAcquiredAt;
-                try {
-                    jobsLock.unlock();
-                } catch (IllegalMonitorStateException e) {
-                    log.warn("jobsLock unlock failed (not held by current thread)", e);
-                }
+                routingLocks.unlockAll();
                 if (jobsHeldMs > 200) {
-                    log.warn("jobs() held jobsLock for {}ms (thread={})", jobsHeldMs, Thread.currentThread().getName());
+                    log.warn("jobs() held routing locks for {}ms (thread={})", jobsHeldMs, Thread.currentThread().getName());
                 }
             }
         } else {
@@ -3255,22 +3485,22 @@ public final class Transport implements ExitHandler {
 
         outgoing.forEach(Packet::send);
 
-        // Flush deferred receipt checks AFTER releasing jobsLock to prevent ABBA deadlock:
-        // checkTimeout() can fire packet delivery callback → channel.lock; if jobsLock were still
-        // held, and another thread held channel.lock spinning for jobsLock, we would deadlock.
+        // Flush deferred receipt checks AFTER releasing the routing locks to prevent ABBA deadlock:
+        // checkTimeout() can fire packet delivery callback → channel.lock; if a routing lock were still
+        // held, and another thread held channel.lock spinning for it, we would deadlock.
         for (Runnable r : deferredReceiptChecks) {
             try { r.run(); } catch (Exception e) { log.error("Error in deferred receipt check", e); }
         }
 
-        for (String destinationHashString : pathRequestList.keySet()) {
-            blockedIf = pathRequestList.get(destinationHashString);
+        for (HashKey destinationKey : pathRequestList.keySet()) {
+            blockedIf = pathRequestList.get(destinationKey);
             if (isNull(blockedIf)) {
-                requestPath(decodeHex(destinationHashString), null, null, false);
+                requestPath(destinationKey.toBytes(), null, null, false);
             } else {
                 for (ConnectionInterface anInterface : interfaces) {
                     if (isFalse(Objects.equals(anInterface, blockedIf))) {
 //                        log.debug("Transmitting path request on {}", anInterface);
-                        requestPath(decodeHex(destinationHashString), anInterface, null, false);
+                        requestPath(destinationKey.toBytes(), anInterface, null, false);
                     } else {
 //                        log.debug("Blocking path request on {}", anInterface);
                     }
@@ -3280,8 +3510,8 @@ public final class Transport implements ExitHandler {
     }
 
     public boolean markPathResponsive(byte[] destinationHash) {
-        if (destinationTable.containsKey(encodeHexString(destinationHash))) {
-            pathStates.put(encodeHexString(destinationHash), STATE_RESPONSIVE);
+        if (destinationTable.containsKey(destinationHash)) {
+            pathStates.put(destinationHash, STATE_RESPONSIVE);
             return true;
         }
 
@@ -3289,8 +3519,8 @@ public final class Transport implements ExitHandler {
     }
 
     public boolean markPathUnknownState(byte[] destinationHash) {
-        if (destinationTable.containsKey(encodeHexString(destinationHash))) {
-            pathStates.put(encodeHexString(destinationHash), STATE_UNKNOWN);
+        if (destinationTable.containsKey(destinationHash)) {
+            pathStates.put(destinationHash, STATE_UNKNOWN);
             return true;
         }
 
@@ -3298,8 +3528,8 @@ public final class Transport implements ExitHandler {
     }
 
     public boolean markPathUnresponsive(byte[] destinationHash) {
-        if (destinationTable.containsKey(encodeHexString(destinationHash))) {
-            pathStates.put(encodeHexString(destinationHash), STATE_UNRESPONSIVE);
+        if (destinationTable.containsKey(destinationHash)) {
+            pathStates.put(destinationHash, STATE_UNRESPONSIVE);
             return true;
         }
 
@@ -3307,8 +3537,8 @@ public final class Transport implements ExitHandler {
     }
 
     private boolean pathIsUnresponsive(byte[] destinationHash) {
-        if (pathStates.containsKey(encodeHexString(destinationHash))) {
-            return pathStates.get(encodeHexString(destinationHash)) == STATE_UNRESPONSIVE;
+        if (pathStates.containsKey(destinationHash)) {
+            return pathStates.get(destinationHash) == STATE_UNRESPONSIVE;
         }
 
         return false;
@@ -3327,10 +3557,11 @@ public final class Transport implements ExitHandler {
     }
 
     public boolean expirePath(byte[] destinationHash) {
-        if (destinationTable.containsKey(encodeHexString(destinationHash))) {
-            var entry = destinationTable.get(encodeHexString(destinationHash));
+        if (destinationTable.containsKey(destinationHash)) {
+            var entry = destinationTable.get(destinationHash);
             entry.setTimestamp(Instant.EPOCH);
-            tablesLastCulled.set(Instant.EPOCH);
+            destinationTable.reschedule(destinationHash);
+            pathChanged(destinationHash);
 
             return true;
         }
@@ -3347,7 +3578,7 @@ public final class Transport implements ExitHandler {
      * @param reason        optional human-readable reason
      */
     public void blackholeIdentity(byte[] identityHash, Instant until, String reason) {
-        var key = encodeHexString(identityHash);
+        var key = HashKey.of(identityHash);
         var entry = new BlackholeEntry(encodeHexString(identity.getHash()), until, reason);
         blackholedIdentities.put(key, entry);
         log.debug("Blackholed identity {}{}", key, reason != null ? " (" + reason + ")" : "");
@@ -3361,7 +3592,7 @@ public final class Transport implements ExitHandler {
      * @param identityHash  truncated identity hash (16 bytes)
      */
     public void unblackholeIdentity(byte[] identityHash) {
-        var key = encodeHexString(identityHash);
+        var key = HashKey.of(identityHash);
         if (blackholedIdentities.remove(key) != null) {
             log.debug("Removed {} from blackhole table", key);
             persistBlacklist();
@@ -3380,10 +3611,10 @@ public final class Transport implements ExitHandler {
 
         var localSource = encodeHexString(identity.getHash());
         var list = new ArrayList<Map<String, Object>>();
-        for (Map.Entry<String, BlackholeEntry> e : blackholedIdentities.entrySet()) {
+        for (Map.Entry<HashKey, BlackholeEntry> e : blackholedIdentities.entrySet()) {
             if (localSource.equals(e.getValue().getSource())) {
                 var m = new HashMap<String, Object>();
-                m.put("identity_hash", e.getKey());
+                m.put("identity_hash", e.getKey().toString());
                 m.put("source", e.getValue().getSource());
                 m.put("until", e.getValue().getUntil() != null ? e.getValue().getUntil().getEpochSecond() : null);
                 m.put("reason", e.getValue().getReason());
@@ -3413,7 +3644,7 @@ public final class Transport implements ExitHandler {
             var data = java.nio.file.Files.readAllBytes(filePath);
             var list = mapper.readValue(data, new TypeReference<List<Map<String, Object>>>() {});
             for (Map<String, Object> m : list) {
-                var key = (String) m.get("identity_hash");
+                var key = HashKey.fromHex((String) m.get("identity_hash"));
                 var source = (String) m.get("source");
                 Instant until = null;
                 if (m.get("until") instanceof Number) {
@@ -3432,19 +3663,18 @@ public final class Transport implements ExitHandler {
      * Expire all destination-table paths whose identity is currently blackholed.
      */
     private void removeBlackholedPaths() {
-        for (String destinationHashHex : destinationTable.keySet()) {
+        for (var destinationKey : destinationTable.keySet()) {
             try {
-                var destinationHashBytes = decodeHex(destinationHashHex);
+                var destinationHashBytes = destinationKey.toBytes();
                 var knownIdentity = recall(destinationHashBytes);
                 if (knownIdentity != null) {
-                    var identityHex = encodeHexString(knownIdentity.getHash());
-                    if (blackholedIdentities.containsKey(identityHex)) {
+                    if (blackholedIdentities.containsKey(knownIdentity.getHash())) {
                         expirePath(destinationHashBytes);
-                        log.debug("Expired path to blackholed identity {} (destination {})", identityHex, destinationHashHex);
+                        log.debug("Expired path to blackholed identity {} (destination {})", knownIdentity.getHexHash(), destinationKey);
                     }
                 }
             } catch (Exception e) {
-                // decodeHex or identity recall failure — skip
+                // identity recall failure — skip
             }
         }
     }
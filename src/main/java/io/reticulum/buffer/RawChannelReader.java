@@ -10,6 +10,11 @@ import java.io.InputStream;
 import java.util.ArrayDeque;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Consumer;
 
@@ -27,6 +32,22 @@ public class RawChannelReader extends InputStream {
     public static final int MAX_BUFFER_SIZE =
             Integer.getInteger("io.reticulum.buffer.maxSize", 8 * 1024 * 1024); // 8 MiB
 
+    /**
+     * Runs the ready callbacks of all readers. Each reader has at most one dispatch queued or
+     * running, so a thread is only needed per reader that is being notified right now, and
+     * idle threads are reused instead of starting one per received chunk.
+     */
+    private static final ExecutorService CALLBACK_EXECUTOR = Executors.newCachedThreadPool(callbackThreadFactory());
+
+    private static ThreadFactory callbackThreadFactory() {
+        var counter = new AtomicInteger();
+        return runnable -> {
+            var thread = new Thread(runnable, "rns-buffer-callback-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
     private final int streamId;
     private final Channel channel;
     private final ReentrantLock lock = new ReentrantLock();
@@ -49,6 +70,11 @@ public class RawChannelReader extends InputStream {
     private boolean eof;
     private boolean overflowed;
 
+    // Ready notifications are coalesced: data arriving while a dispatch is queued or running
+    // only sets notifyPending, and the next round reports everything readable by then.
+    private final AtomicBoolean notifyPending = new AtomicBoolean();
+    private final AtomicBoolean dispatching = new AtomicBoolean();
+
     public RawChannelReader(int streamId, Channel channel) {
         this.streamId = streamId;
         this.channel = channel;
@@ -113,19 +139,43 @@ public class RawChannelReader extends InputStream {
                     if (streamMessage.getEof()) {
                         eof = true;
                     }
-
-                    int readable = bufferedBytes();
-                    for (Consumer<Integer> listener : listeners) {
-                        new Thread(() -> listener.accept(readable)).start();
-                    }
                 } finally {
                     lock.unlock();
                 }
+                notifyListeners();
             }
         }
         return false;
     }
 
+    private void notifyListeners() {
+        notifyPending.set(true);
+        if (dispatching.compareAndSet(false, true)) {
+            CALLBACK_EXECUTOR.execute(this::dispatchReady);
+        }
+    }
+
+    private void dispatchReady() {
+        try {
+            while (notifyPending.getAndSet(false)) {
+                int readable = available();
+                for (Consumer<Integer> listener : listeners) {
+                    try {
+                        listener.accept(readable);
+                    } catch (Exception e) {
+                        log.error("Error while executing ready callback of stream {}", streamId, e);
+                    }
+                }
+            }
+        } finally {
+            dispatching.set(false);
+        }
+        // a notification that came in after the last round but before dispatching was cleared
+        if (notifyPending.get() && dispatching.compareAndSet(false, true)) {
+            CALLBACK_EXECUTOR.execute(this::dispatchReady);
+        }
+    }
+
     @Override
     public int read() throws IOException {
         lock.lock();
@@ -2,6 +2,7 @@ package io.reticulum.buffer;
 
 import io.reticulum.channel.Channel;
 import io.reticulum.message.StreamDataMessage;
+import io.reticulum.packet.PacketReceipt;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.compress.compressors.bzip2.BZip2CompressorOutputStream;
 
@@ -9,6 +10,12 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static java.util.Objects.nonNull;
 
 @Slf4j
 public class RawChannelWriter extends OutputStream {
@@ -27,9 +34,18 @@ public class RawChannelWriter extends OutputStream {
      */
     private static final int BZIP2_BLOCK_SIZE = 1;
 
+    /**
+     * Upper bound for {@link #flush()} waiting on the transport outbound queue.
+     */
+    private static final long FLUSH_TIMEOUT_MILLIS = 5_000;
+
     private final int streamId;
     private final Channel channel;
     private boolean eof = false;
+    /**
+     * Send of the last written chunk, queued in the transport.
+     */
+    private volatile CompletableFuture<PacketReceipt> lastSend;
 
     public RawChannelWriter(int streamId, Channel channel) {
         this.streamId = streamId;
@@ -88,15 +104,33 @@ public class RawChannelWriter extends OutputStream {
             }
 
             StreamDataMessage message = new StreamDataMessage(streamId, chunk, eof, compSuccess);
-            channel.send(message);
+            var envelope = channel.send(message);
+            if (nonNull(envelope.getPacket())) {
+                lastSend = envelope.getPacket().getPendingSend();
+            }
         } catch (IOException e) {
             log.error("Channel: Error writing buffer.", e);
         }
     }
 
+    /**
+     * Waits until the chunks written so far have left the transport outbound queue.
+     * Chunks are sent in order, so waiting for the last one is enough.
+     */
     public void flush() throws IOException {
-        log.debug("writer - flushing buffer (currenty doesn't do anything)");
-        //write(new byte[0], 0, 0);
+        var pending = lastSend;
+        if (nonNull(pending)) {
+            try {
+                pending.get(FLUSH_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while flushing channel writer", e);
+            } catch (ExecutionException e) {
+                throw new IOException("Could not send buffered data", e.getCause());
+            } catch (TimeoutException e) {
+                log.debug("writer - flush timed out after {} ms", FLUSH_TIMEOUT_MILLIS);
+            }
+        }
     }
 
     public Boolean seekable() {
@@ -4,6 +4,7 @@ import io.reticulum.constant.LinkConstant;
 import io.reticulum.link.Link;
 import io.reticulum.link.LinkStatus;
 import io.reticulum.packet.Packet;
+import io.reticulum.packet.PacketReceipt;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -37,7 +38,7 @@ public class LinkChannelOutlet {
     public Packet send(byte[] raw) {
         var packet = new Packet(link, raw, CHANNEL);
         if (link.getStatus() == LinkStatus.ACTIVE) {
-            packet.send();
+            packet.sendAsync();
         }
 
         return packet;
@@ -45,9 +46,7 @@ public class LinkChannelOutlet {
 
     public Packet resend(@NonNull final Packet packet) {
         log.debug("Resending packet {}", Hex.encodeHexString(packet.getPacketHash()));
-        if (isNull(packet.resend())) {
-            log.error("Failed to resend packet");
-        }
+        packet.resendAsync();
 
         return packet;
     }
@@ -70,6 +69,10 @@ public class LinkChannelOutlet {
     }
 
     public MessageState getPacketState(TPacket packet) {
+        // still waiting in the transport outbound queue, the receipt does not exist yet
+        if (packet instanceof Packet && ((Packet) packet).isSendPending()) {
+            return MessageState.MSGSTATE_SENT;
+        }
         if (isNull(packet.getReceipt())) {
             return MSGSTATE_FAILED;
         }
@@ -92,22 +95,33 @@ public class LinkChannelOutlet {
     }
 
     public void setPacketTimeoutCallback(@NonNull final Packet packet, final Consumer<Packet> callback, final Long timeout) {
-        if (nonNull(timeout) && nonNull(packet.getReceipt())) {
-            packet.getReceipt().setTimeout(timeout);
-        }
-
-        if (nonNull(packet.getReceipt())) {
-            packet.getReceipt().setTimeoutCallback(
-                    isNull(callback) ? null : packetReceipt -> callback.accept(packet)
-            );
-        }
+        withReceipt(packet, receipt -> {
+            if (nonNull(timeout)) {
+                receipt.setTimeout(timeout);
+            }
+            receipt.setTimeoutCallback(isNull(callback) ? null : packetReceipt -> callback.accept(packet));
+        });
     }
 
     public void setPacketDeliveredCallback(@NonNull final Packet packet, final Consumer<Packet> callback) {
-        if (nonNull(packet.getReceipt())) {
-            packet.getReceipt().setDeliveryCallback(
-                    isNull(callback) ? null : packetReceipt -> callback.accept(packet)
-            );
+        withReceipt(packet, receipt -> receipt.setDeliveryCallback(
+                isNull(callback) ? null : packetReceipt -> callback.accept(packet)
+        ));
+    }
+
+    /**
+     * Runs the action on the packet receipt, right away if it exists or once the queued packet was sent.
+     */
+    private void withReceipt(final Packet packet, final Consumer<PacketReceipt> action) {
+        var pendingSend = packet.getPendingSend();
+        if (nonNull(pendingSend)) {
+            pendingSend.thenAccept(receipt -> {
+                if (nonNull(receipt)) {
+                    action.accept(receipt);
+                }
+            });
+        } else if (nonNull(packet.getReceipt())) {
+            action.accept(packet.getReceipt());
         }
     }
 
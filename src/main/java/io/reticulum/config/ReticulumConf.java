@@ -1,6 +1,7 @@
 package io.reticulum.config;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import io.reticulum.transport.OverflowPolicy;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -35,4 +36,16 @@ public class ReticulumConf {
 
     @JsonProperty("force_shared_instance_bitrate")
     private Integer forceSharedInstanceBitrate;
+
+    @JsonProperty("inbound_workers")
+    private Integer inboundWorkers;
+
+    @JsonProperty("inbound_queue_depth")
+    private Integer inboundQueueDepth;
+
+    @JsonProperty("inbound_batch_size")
+    private Integer inboundBatchSize;
+
+    @JsonProperty("inbound_overflow_policy")
+    private OverflowPolicy inboundOverflowPolicy;
 }
@@ -77,6 +77,10 @@ public class ResourceConstant {
     public static final long PER_RETRY_DELAY = 500;
 
     public static final int WATCHDOG_MAX_SLEEP = 1_000;
+    /**
+     * milliseconds between two checks whether a queued resource can be advertised
+     */
+    public static final long ADVERTISE_RETRY_INTERVAL = 250;
 
     public static final int HASHMAP_IS_NOT_EXHAUSTED = 0x00;
 
@@ -49,15 +49,37 @@ public class TransportConstant {
     public static final long LINK_TIMEOUT = (long) (STALE_TIME * 1.25);
     public static final int REVERSE_TIMEOUT = 30 * 60;     // Reverse table entries are removed after 30 minutes
     public static final int DESTINATION_TIMEOUT = 60 * 60 * 24 * 7;   // Destination table entries are removed if unused for one week
-    public static final int MAX_RECEIPTS = 1024;   // Maximum number of receipts to keep track of
+    public static final int MAX_RECEIPTS = 256 * 1024;   // Maximum number of receipts to keep track of
     public static final int MAX_RATE_TIMESTAMPS = 16;  // Maximum number of announce timestamps to keep per destination
+    public static final int ANNOUNCE_VERDICT_CACHE_SIZE = 32 * 1024;  // Announce signature verdicts kept per cache generation
     public static final int LOCAL_CLIENT_CACHE_MAXSIZE = 512; //
+    public static final long PACKET_CACHE_MEMORY = 8 * 1024 * 1024;  // Memory budget [bytes] of recently cached packets
+    public static final long PACKET_CACHE_SEGMENT_SIZE = 16 * 1024 * 1024;  // Size [bytes] after which a new packet cache segment is started
+    public static final int PACKET_CACHE_SEGMENT_SPAN = 60 * 60;  // Age [s] after which a new packet cache segment is started
+    public static final long ROUTING_JOURNAL_MIN_COMPACTION = 4 * 1024 * 1024;  // Size [bytes] below which the routing journal is not compacted
     public static final long LINKS_CHECK_INTERVAL = 1000; //ms
     public static final long RECEIPTS_CHECK_INTERVAL = 1000; //ms
     public static final long ANNOUNCES_CHECK_INTERVAL = 1000; //ms
-    public static final int HASHLIST_MAXSIZE = 1000000;
-    public static final int MAX_PR_TAGS = 32_000;
+    /**
+     * Memory budget of the duplicate packet filter. 24 MiB spread over three generations keeps
+     * roughly 0.8 to 1.2 million packet hashes, about as many as the former hashlist held.
+     */
+    public static final long PACKET_FILTER_MAX_BYTES = 24L * 1024 * 1024;
+    public static final int PACKET_FILTER_GENERATIONS = 3;
+    public static final int PACKET_FILTER_WINDOW = 60 * 60 * 2;  // Packet hashes are remembered for at least two hours, memory budget permitting
+    public static final long PATH_REQUEST_TAG_MAX_BYTES = 2L * 1024 * 1024;  // Holds at least 32k tags per generation
+    public static final int PATH_REQUEST_TAG_GENERATIONS = 2;
+    public static final int PATH_REQUEST_TAG_WINDOW = 30 * 60;  // Path request tags are remembered for at least half an hour, memory budget permitting
     public static final long TABLES_CULL_INTERVAL = 5_000; //ms
+    public static final int METRICS_INTERVAL = 10; // Seconds each interval of the transport latency histograms lasts
+
+    /**
+     * Default capacity of the per-interface inbound queue, in frames. Can be overridden
+     * globally with {@code inbound_queue_depth} and per interface with the same key.
+     */
+    public static final int INBOUND_QUEUE_DEPTH = 1024;
+    public static final int INBOUND_BATCH_SIZE = 32;  // Maximum frames routed per routing lock acquisition
+    public static final int INBOUND_WORKERS = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
 
     /**
      * Cap on the number of most-recent random blobs kept per destination in
@@ -0,0 +1,13 @@
+package io.reticulum.identity;
+
+/**
+ * Outcome of checking the signature of an announce, see {@link IdentityKnownDestination#verifyAnnounce}.
+ */
+public enum AnnounceVerdict {
+    VALID,
+    /**
+     * The signature is valid, but the destination hash does not belong to the announced key
+     */
+    DESTINATION_MISMATCH,
+    INVALID_SIGNATURE
+}
@@ -5,6 +5,9 @@ import io.reticulum.cryptography.Fernet;
 import io.reticulum.destination.AbstractDestination;
 import io.reticulum.destination.Destination;
 import io.reticulum.packet.Packet;
+import io.reticulum.storage.entity.RatchetEntity;
+import io.reticulum.transport.HashKey;
+import io.reticulum.transport.HashKeyMap;
 import lombok.Getter;
 import lombok.NonNull;
 import lombok.Setter;
@@ -31,10 +34,10 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.security.SecureRandom;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.locks.ReentrantLock;
 
 import static io.reticulum.constant.IdentityConstant.KEYSIZE;
 import static io.reticulum.constant.IdentityConstant.NAME_HASH_LENGTH;
@@ -45,7 +48,6 @@ import static io.reticulum.utils.IdentityUtils.concatArrays;
 import static io.reticulum.utils.IdentityUtils.fullHash;
 import static io.reticulum.utils.IdentityUtils.truncatedHash;
 import static java.nio.file.StandardOpenOption.CREATE;
-import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
 import static java.nio.file.StandardOpenOption.WRITE;
 import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
@@ -79,11 +81,11 @@ public class Identity {
 
     // ── Static ratchet state ──────────────────────────────────────────────────
 
-    /** In-memory cache: hex(destinationHash) → ratchet public bytes received via announce. */
-    private static final Map<String, byte[]> knownRatchets = new ConcurrentHashMap<>();
+    /** In-memory cache: destinationHash → ratchet public bytes received via announce. */
+    private static final HashKeyMap<byte[]> knownRatchets = new HashKeyMap<>();
 
-    /** Guards file-system writes for inbound ratchets. */
-    private static final ReentrantLock ratchetPersistLock = new ReentrantLock();
+    /** Ratchets received since the last persist, by destination hash. */
+    private static final Map<HashKey, RatchetEntity> changedRatchets = new ConcurrentHashMap<>();
 
     // ── Static ratchet API ────────────────────────────────────────────────────
 
@@ -131,70 +133,88 @@ public class Identity {
 
     /**
      * Stores a ratchet public key received in an announce.
-     * Persists to {@code storagePath/ratchets/<hexhash>} asynchronously.
+     * It is persisted with the routing journal on the next persist.
      *
      * @param destinationHash the destination the ratchet belongs to
      * @param ratchetPubBytes the 32-byte public key from the announce
      */
     public static void rememberRatchet(byte[] destinationHash, byte[] ratchetPubBytes) {
-        String key = Hex.encodeHexString(destinationHash);
-        byte[] existing = knownRatchets.get(key);
+        byte[] existing = knownRatchets.get(destinationHash);
         if (java.util.Arrays.equals(existing, ratchetPubBytes)) {
             return; // already known — nothing to do
         }
 
         log.debug("Remembering ratchet {} for {}",
-                Hex.encodeHexString(getRatchetId(ratchetPubBytes)), key);
-        knownRatchets.put(key, ratchetPubBytes);
+                Hex.encodeHexString(getRatchetId(ratchetPubBytes)), Hex.encodeHexString(destinationHash));
+        knownRatchets.put(destinationHash, ratchetPubBytes);
+        changedRatchets.put(
+                HashKey.of(destinationHash),
+                RatchetEntity.builder()
+                        .destinationHash(destinationHash)
+                        .received(Instant.now().getEpochSecond())
+                        .ratchet(ratchetPubBytes)
+                        .build()
+        );
+    }
 
-        try {
-            if (!Transport.getInstance().getOwner().isConnectedToSharedInstance()) {
-                Thread persistThread = new Thread(() -> {
-                    ratchetPersistLock.lock();
-                    try {
-                        Path ratchetDir = Transport.getInstance().getOwner()
-                                .getStoragePath().resolve("ratchets");
-                        Files.createDirectories(ratchetDir);
-
-                        // Format: 8-byte big-endian epoch-seconds + 32-byte ratchet pub bytes
-                        byte[] data = ByteBuffer.allocate(8 + ratchetPubBytes.length)
-                                .putLong(Instant.now().getEpochSecond())
-                                .put(ratchetPubBytes)
-                                .array();
-
-                        Path outPath   = ratchetDir.resolve(key + ".tmp");
-                        Path finalPath = ratchetDir.resolve(key);
-                        Files.write(outPath, data, CREATE, WRITE, TRUNCATE_EXISTING);
-                        Files.move(outPath, finalPath, java.nio.file.StandardCopyOption.REPLACE_EXISTING);
-                    } catch (Exception e) {
-                        log.error("Could not persist ratchet for {} to storage.", key, e);
-                    } finally {
-                        ratchetPersistLock.unlock();
-                    }
-                });
-                persistThread.setDaemon(true);
-                persistThread.start();
+    /**
+     * @return the ratchets received since the last call, to be persisted
+     */
+    public static List<RatchetEntity> takeChangedRatchets() {
+        var changed = new ArrayList<RatchetEntity>();
+        for (var destinationHash : changedRatchets.keySet()) {
+            var ratchet = changedRatchets.remove(destinationHash);
+            if (nonNull(ratchet)) {
+                changed.add(ratchet);
             }
-        } catch (Exception e) {
-            log.debug("Skipping ratchet persistence: {}", e.getMessage());
+        }
+
+        return changed;
+    }
+
+    /**
+     * Puts back ratchets taken with {@link #takeChangedRatchets()}, after persisting them failed. A
+     * ratchet received for the same destination in the meantime is newer and is kept.
+     */
+    public static void restoreChangedRatchets(List<RatchetEntity> ratchets) {
+        for (var ratchet : ratchets) {
+            changedRatchets.putIfAbsent(HashKey.of(ratchet.getDestinationHash()), ratchet);
         }
     }
 
     /**
      * Returns the ratchet public bytes for {@code destinationHash} if known
-     * (in memory or on disk), or {@code null} if none is available or the stored
+     * (in memory or in storage), or {@code null} if none is available or the stored
      * ratchet has expired.
      *
      * @param destinationHash Identifies one specific remote peer
      * @return Current local copy of that peers' shared symmetric session
      */
     public static byte[] getRatchet(byte[] destinationHash) {
-        String key = Hex.encodeHexString(destinationHash);
-        if (knownRatchets.containsKey(key)) {
-            return knownRatchets.get(key);
+        byte[] known = knownRatchets.get(destinationHash);
+        if (known != null) {
+            return known;
+        }
+
+        var routingJournal = IdentityKnownDestination.routingJournal();
+        var stored = isNull(routingJournal) ? null : routingJournal.ratchet(destinationHash);
+        if (nonNull(stored)) {
+            if (Instant.now().getEpochSecond() < stored.getReceived() + RATCHET_EXPIRY) {
+                knownRatchets.put(destinationHash, stored.getRatchet());
+                return stored.getRatchet();
+            }
+            return null;
         }
 
-        // Try loading from disk
+        return loadLegacyRatchet(destinationHash);
+    }
+
+    /**
+     * Reads a ratchet from the file earlier versions kept per destination, and moves it to
+     * the routing journal with the next persist.
+     */
+    private static byte[] loadLegacyRatchet(byte[] destinationHash) {
+        String key = Hex.encodeHexString(destinationHash);
         try {
             Path ratchetDir = Transport.getInstance().getOwner()
                     .getStoragePath().resolve("ratchets");
@@ -205,7 +225,15 @@ public class Identity {
                     long received = ByteBuffer.wrap(data, 0, 8).getLong();
                     if (Instant.now().getEpochSecond() < received + RATCHET_EXPIRY) {
                         byte[] ratchet = subarray(data, 8, data.length);
-                        knownRatchets.put(key, ratchet);
+                        knownRatchets.put(destinationHash, ratchet);
+                        changedRatchets.putIfAbsent(
+                                HashKey.of(destinationHash),
+                                RatchetEntity.builder()
+                                        .destinationHash(destinationHash)
+                                        .received(received)
+                                        .ratchet(ratchet)
+                                        .build()
+                        );
                         return ratchet;
                     }
                 }
@@ -220,7 +248,7 @@ public class Identity {
     }
 
     /**
-     * Removes ratchet files older than {@link io.reticulum.constant.IdentityConstant#RATCHET_EXPIRY}
+     * Removes ratchet files of earlier versions older than {@link io.reticulum.constant.IdentityConstant#RATCHET_EXPIRY}
      * from the storage directory.
      */
     public static void cleanRatchets() {
@@ -5,7 +5,9 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import io.reticulum.Transport;
 import io.reticulum.destination.Destination;
 import io.reticulum.packet.Packet;
-import io.reticulum.storage.Storage;
+import io.reticulum.storage.journal.RoutingJournal;
+import io.reticulum.transport.HashKey;
+import io.reticulum.transport.HashKeyMap;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -15,8 +17,10 @@ import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.codec.binary.Hex;
 import org.apache.commons.lang3.ArrayUtils;
 
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Map;
+import java.util.List;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 import static io.reticulum.constant.IdentityConstant.KEYSIZE;
@@ -44,24 +48,87 @@ import static org.apache.commons.lang3.BooleanUtils.isFalse;
 @Slf4j
 public class IdentityKnownDestination {
 
-    static final Map<String, DestinationData> KNOWN_DESTINATIONS = new ConcurrentHashMap<>();
-
-    // TODO: Improve the storage method so we don't have to
-    // deserialize and serialize the entire table on every
-    // save, but the only changes. It might be possible to
-    // simply overwrite on exit now that every local client
-    // disconnect triggers a data persist.
-    public static void saveKnownDestinations() {
-        var start = System.currentTimeMillis();
-        log.debug("saving known destinations to storage... {}", KNOWN_DESTINATIONS.keySet().size());
-        Storage.getInstance().saveKnownDestinations(KNOWN_DESTINATIONS.values());
-        log.debug("Saved known destinations to storage in {} ms.", System.currentTimeMillis() - start);
-    }
+    /**
+     * Destinations remembered or looked up since startup; the others are read from storage
+     * on first use
+     */
+    static final HashKeyMap<DestinationData> KNOWN_DESTINATIONS = new HashKeyMap<>();
+    /**
+     * Destinations remembered since the last persist
+     */
+    private static final Set<HashKey> CHANGED = ConcurrentHashMap.newKeySet();
 
+    /**
+     * Known destinations are no longer read at startup, but one at a time when they are
+     * first asked for.
+     */
     public static void loadKnownDestinations() {
-        var destinations = Storage.getInstance().loadKnownDestinations();
-        KNOWN_DESTINATIONS.putAll(destinations);
-        log.info("Loaded {} known destination from storage", destinations.size());
+        var routingJournal = routingJournal();
+        if (nonNull(routingJournal)) {
+            log.info("{} known destinations in storage", routingJournal.snapshotKnownDestinations());
+        }
+    }
+
+    /**
+     * @return the destinations remembered since the last call, to be persisted
+     */
+    public static List<DestinationData> takeChanged() {
+        var changed = new ArrayList<DestinationData>();
+        for (var iterator = CHANGED.iterator(); iterator.hasNext(); ) {
+            var destinationHash = iterator.next();
+            // removed first, so remembering it again while persisting marks it again
+            iterator.remove();
+            var destinationData = KNOWN_DESTINATIONS.get(destinationHash);
+            if (nonNull(destinationData)) {
+                changed.add(destinationData);
+            }
+        }
+
+        return changed;
+    }
+
+    /**
+     * Marks destinations taken with {@link #takeChanged()} as changed again, after persisting them failed.
+     */
+    public static void markChanged(List<DestinationData> destinations) {
+        for (var destinationData : destinations) {
+            CHANGED.add(HashKey.fromHex(destinationData.getDestinationHash()));
+        }
+    }
+
+    /**
+     * @return the destination from memory, or from storage the first time it is asked for
+     */
+    static DestinationData knownDestination(byte[] destinationHash) {
+        var destinationData = KNOWN_DESTINATIONS.get(destinationHash);
+        if (nonNull(destinationData)) {
+            return destinationData;
+        }
+
+        var routingJournal = routingJournal();
+        var stored = isNull(routingJournal) ? null : routingJournal.knownDestination(destinationHash);
+        if (isNull(stored)) {
+            return null;
+        }
+        synchronized (KNOWN_DESTINATIONS) {
+            // remember() may have been faster
+            destinationData = KNOWN_DESTINATIONS.get(destinationHash);
+            if (isNull(destinationData)) {
+                KNOWN_DESTINATIONS.put(destinationHash, stored);
+                destinationData = stored;
+            }
+        }
+
+        return destinationData;
+    }
+
+    static RoutingJournal routingJournal() {
+        try {
+            return Transport.getInstance().getRoutingJournal();
+        } catch (IllegalStateException e) {
+            // not started, nothing is persisted
+            return null;
+        }
     }
 
     public static boolean validateAnnounce(final Packet packet) {
@@ -69,99 +136,158 @@ public class IdentityKnownDestination {
     }
 
     public static boolean validateAnnounce(final Packet packet, final  boolean onlyValidateSignature) {
-        if (packet.getPacketType() == ANNOUNCE) {
-            var destinationHash = packet.getDestinationHash();
-            var destinationHashString = Hex.encodeHexString(destinationHash);
-            var publicKey = subarray(packet.getData(), 0, KEYSIZE / 8);
-            var nameHash = subarray(packet.getData(), KEYSIZE / 8, KEYSIZE / 8 + NAME_HASH_LENGTH / 8);
-            var randomHash = subarray(packet.getData(), KEYSIZE / 8 + NAME_HASH_LENGTH / 8, KEYSIZE / 8 + NAME_HASH_LENGTH / 8 + 10);
-            byte[] ratchet = null;
-            byte[] signature = null;
-            byte[] appData = null;
+        if (packet.getPacketType() != ANNOUNCE) {
+            return false;
+        }
 
-            if (packet.getContextFlag() == FLAG_SET) {
-                ratchet = subarray(packet.getData(), KEYSIZE / 8 + NAME_HASH_LENGTH / 8 + 10, KEYSIZE / 8 + NAME_HASH_LENGTH / 8 + RATCHETSIZE / 8 + 10);
-                signature = subarray(packet.getData(), KEYSIZE / 8 + NAME_HASH_LENGTH / 8 + RATCHETSIZE / 8 + 10, KEYSIZE / 8 + NAME_HASH_LENGTH / 8 + RATCHETSIZE / 8 + SIGLENGTH / 8 + 10);
+        return validateAnnounce(packet, verifyAnnounce(packet), onlyValidateSignature);
+    }
 
-                if (packet.getData().length > KEYSIZE / 8 + NAME_HASH_LENGTH / 8 + SIGLENGTH / 8 + RATCHETSIZE / 8 + 10) {
-                    appData = subarray(packet.getData(), KEYSIZE / 8 + NAME_HASH_LENGTH / 8 + SIGLENGTH / 8 + RATCHETSIZE / 8 + 10, packet.getData().length);
-                }
-            } else {
-                signature = subarray(packet.getData(), KEYSIZE / 8 + NAME_HASH_LENGTH / 8 + 10, KEYSIZE / 8 + NAME_HASH_LENGTH / 8 + SIGLENGTH / 8 + 10);
+    /**
+     * Checks the signature of an announce and that the destination hash belongs to the
+     * announced key. Depends on nothing but the packet, so it is safe to call from any
+     * thread and its result can be reused for every copy of the announce.
+     *
+     * @return {@code null} if the packet is not an announce
+     */
+    public static AnnounceVerdict verifyAnnounce(final Packet packet) {
+        if (packet.getPacketType() != ANNOUNCE) {
+            return null;
+        }
 
-                if (packet.getData().length > KEYSIZE / 8 + NAME_HASH_LENGTH / 8 + 10 + SIGLENGTH / 8) {
-                    appData = subarray(packet.getData(), KEYSIZE / 8 + NAME_HASH_LENGTH / 8 + 10 + SIGLENGTH / 8, packet.getData().length);
-                }
-            }
+        var announce = new AnnounceData(packet);
+        byte[] signedData = concatArrays(
+                announce.destinationHash, announce.publicKey, announce.nameHash, announce.randomHash,
+                requireNonNullElse(announce.ratchet, new byte[0]), requireNonNullElse(announce.appData, new byte[0])
+        );
 
-            byte[] signedData = concatArrays(destinationHash, publicKey, nameHash, randomHash, requireNonNullElse(ratchet, new byte[0]), requireNonNullElse(appData, new byte[0]));
+        var announcedIdentity = new Identity(false);
+        announcedIdentity.loadPublicKey(announce.publicKey);
 
-            var announcedIdentity = new Identity(false);
-            announcedIdentity.loadPublicKey(publicKey);
+        if (isNull(announcedIdentity.getSigPub()) || isFalse(announcedIdentity.validate(announce.signature, signedData))) {
+            return AnnounceVerdict.INVALID_SIGNATURE;
+        }
 
-            if (nonNull(announcedIdentity.getSigPub()) && announcedIdentity.validate(signature, signedData)) {
-                if (onlyValidateSignature) {
-                    return true;
-                }
+        var hashHaterial = concatArrays(announce.nameHash, announcedIdentity.getHash());
+        var expectedHash = subarray(fullHash(hashHaterial), 0, TRUNCATED_HASHLENGTH / 8);
 
-                var hashHaterial = concatArrays(nameHash, announcedIdentity.getHash());
-                var expectedHash = subarray(fullHash(hashHaterial), 0, TRUNCATED_HASHLENGTH / 8);
-                if (Arrays.equals(destinationHash, expectedHash)) {
-                    // Check if we already have a public key for this destination
-                    // and make sure the public key is not different.
-                    if (KNOWN_DESTINATIONS.containsKey(destinationHashString)
-                            && isFalse(Arrays.equals(publicKey, KNOWN_DESTINATIONS.get(destinationHashString).getPublicKey()))) {
-                        // In reality, this should never occur, but in the odd case
-                        // that someone manages a hash collision, we reject the announce.
-                        log.error(
-                                "Received announce with valid signature and destination hash, but announced public key does not match already known public key.\n" +
-                                        "This may indicate an attempt to modify network paths, or a random hash collision. The announce was rejected."
-                        );
-
-                        return false;
-                    }
-                    remember(packet.getHash(), destinationHash, publicKey, appData, ratchet);
-
-                    var signalStr = "";
-                    if (nonNull(packet.getRssi()) || nonNull(packet.getSnr())) {
-                        var stringBuilder = new StringBuilder(" [");
-                        if (nonNull(packet.getRssi())) {
-                            stringBuilder.append("RSSI ").append(packet.getRssi()).append("dBm");
-                            if (nonNull(packet.getSnr())) {
-                                stringBuilder.append(", ");
-                            }
-                        }
-                        if (nonNull(packet.getSnr())) {
-                            stringBuilder.append("SNR ").append(packet.getSnr()).append("dB");
-                        }
-                        stringBuilder.append("]");
-
-                        signalStr = stringBuilder.toString();
-                    }
+        return Arrays.equals(announce.destinationHash, expectedHash)
+                ? AnnounceVerdict.VALID
+                : AnnounceVerdict.DESTINATION_MISMATCH;
+    }
+
+    /**
+     * Completes the validation of an announce whose signature was already checked by
+     * {@link #verifyAnnounce(Packet)}: rejects a key that differs from the one known for the
+     * destination, and remembers the announced identity.
+     */
+    public static boolean validateAnnounce(final Packet packet, final AnnounceVerdict verdict, final boolean onlyValidateSignature) {
+        if (packet.getPacketType() != ANNOUNCE || isNull(verdict)) {
+            return false;
+        }
+
+        var destinationHash = packet.getDestinationHash();
+        var destinationHashString = Hex.encodeHexString(destinationHash);
+        if (verdict == AnnounceVerdict.INVALID_SIGNATURE) {
+            log.debug("Received invalid announce for {}: Invalid signature.", destinationHashString);
+
+            return false;
+        }
+        if (onlyValidateSignature) {
+            return true;
+        }
+        if (verdict == AnnounceVerdict.DESTINATION_MISMATCH) {
+            log.debug("Received invalid announce for {}: Destination mismatch.", destinationHashString);
+
+            return false;
+        }
 
-                    if (nonNull(packet.getTransportId())){
-                        log.trace("Valid announce for {} {} hops away, received via {} on {} {}",
-                                destinationHashString, packet.getHops(), Hex.encodeHexString(packet.getTransportId()),
-                                packet.getReceivingInterface(), signalStr);
-                    } else {
-                        log.trace("Valid announce for {} {} hops away, received on {} {}",
-                                destinationHashString, packet.getHops(), packet.getReceivingInterface(), signalStr);
+        var announce = new AnnounceData(packet);
+        // Check if we already have a public key for this destination
+        // and make sure the public key is not different.
+        var knownDestination = knownDestination(destinationHash);
+        if (nonNull(knownDestination) && isFalse(Arrays.equals(announce.publicKey, knownDestination.getPublicKey()))) {
+            // In reality, this should never occur, but in the odd case
+            // that someone manages a hash collision, we reject the announce.
+            log.error(
+                    "Received announce with valid signature and destination hash, but announced public key does not match already known public key.\n" +
+                            "This may indicate an attempt to modify network paths, or a random hash collision. The announce was rejected."
+            );
+
+            return false;
+        }
+        remember(packet.getHash(), destinationHash, announce.publicKey, announce.appData, announce.ratchet);
+
+        if (log.isTraceEnabled()) {
+            var signalStr = "";
+            if (nonNull(packet.getRssi()) || nonNull(packet.getSnr())) {
+                var stringBuilder = new StringBuilder(" [");
+                if (nonNull(packet.getRssi())) {
+                    stringBuilder.append("RSSI ").append(packet.getRssi()).append("dBm");
+                    if (nonNull(packet.getSnr())) {
+                        stringBuilder.append(", ");
                     }
+                }
+                if (nonNull(packet.getSnr())) {
+                    stringBuilder.append("SNR ").append(packet.getSnr()).append("dB");
+                }
+                stringBuilder.append("]");
 
-                    return true;
-                } else {
-                    log.debug("Received invalid announce for {}: Destination mismatch.", destinationHashString);
+                signalStr = stringBuilder.toString();
+            }
+
+            if (nonNull(packet.getTransportId())) {
+                log.trace("Valid announce for {} {} hops away, received via {} on {} {}",
+                        destinationHashString, packet.getHops(), Hex.encodeHexString(packet.getTransportId()),
+                        packet.getReceivingInterface(), signalStr);
+            } else {
+                log.trace("Valid announce for {} {} hops away, received on {} {}",
+                        destinationHashString, packet.getHops(), packet.getReceivingInterface(), signalStr);
+            }
+        }
 
-                    return false;
+        return true;
+    }
+
+    /**
+     * Fields of an announce packet.
+     */
+    private static final class AnnounceData {
+        final byte[] destinationHash;
+        final byte[] publicKey;
+        final byte[] nameHash;
+        final byte[] randomHash;
+        final byte[] ratchet;
+        final byte[] signature;
+        final byte[] appData;
+
+        AnnounceData(Packet packet) {
+            var data = packet.getData();
+            destinationHash = packet.getDestinationHash();
+            publicKey = subarray(data, 0, KEYSIZE / 8);
+            nameHash = subarray(data, KEYSIZE / 8, KEYSIZE / 8 + NAME_HASH_LENGTH / 8);
+            randomHash = subarray(data, KEYSIZE / 8 + NAME_HASH_LENGTH / 8, KEYSIZE / 8 + NAME_HASH_LENGTH / 8 + 10);
+
+            if (packet.getContextFlag() == FLAG_SET) {
+                ratchet = subarray(data, KEYSIZE / 8 + NAME_HASH_LENGTH / 8 + 10, KEYSIZE / 8 + NAME_HASH_LENGTH / 8 + RATCHETSIZE / 8 + 10);
+                signature = subarray(data, KEYSIZE / 8 + NAME_HASH_LENGTH / 8 + RATCHETSIZE / 8 + 10, KEYSIZE / 8 + NAME_HASH_LENGTH / 8 + RATCHETSIZE / 8 + SIGLENGTH / 8 + 10);
+
+                if (data.length > KEYSIZE / 8 + NAME_HASH_LENGTH / 8 + SIGLENGTH / 8 + RATCHETSIZE / 8 + 10) {
+                    appData = subarray(data, KEYSIZE / 8 + NAME_HASH_LENGTH / 8 + SIGLENGTH / 8 + RATCHETSIZE / 8 + 10, data.length);
+                } else {
+                    appData = null;
                 }
             } else {
-                log.debug("Received invalid announce for {}: Invalid signature.", destinationHashString);
+                ratchet = null;
+                signature = subarray(data, KEYSIZE / 8 + NAME_HASH_LENGTH / 8 + 10, KEYSIZE / 8 + NAME_HASH_LENGTH / 8 + SIGLENGTH / 8 + 10);
 
-                return false;
+                if (data.length > KEYSIZE / 8 + NAME_HASH_LENGTH / 8 + 10 + SIGLENGTH / 8) {
+                    appData = subarray(data, KEYSIZE / 8 + NAME_HASH_LENGTH / 8 + 10 + SIGLENGTH / 8, data.length);
+                } else {
+                    appData = null;
+                }
             }
         }
-
-        return false;
     }
 
     public static void remember(@NonNull byte[] packetHash, @NonNull byte[] destinationHash, @NonNull byte[] publicKey, byte[] app_data) {
@@ -176,7 +302,10 @@ public class IdentityKnownDestination {
             );
         }
 
-        KNOWN_DESTINATIONS.put(key, new DestinationData(key, System.currentTimeMillis(), packetHash, publicKey, app_data));
+        synchronized (KNOWN_DESTINATIONS) {
+            KNOWN_DESTINATIONS.put(destinationHash, new DestinationData(key, System.currentTimeMillis(), packetHash, publicKey, app_data));
+        }
+        CHANGED.add(HashKey.of(destinationHash));
 
         if (ratchet != null) {
             Identity.rememberRatchet(destinationHash, ratchet);
@@ -191,27 +320,23 @@ public class IdentityKnownDestination {
      * or null if the destination is unknown
      */
     public static Identity recall(@NonNull byte[] destinationHash) {
-        var key = Hex.encodeHexString(destinationHash);
-        if (KNOWN_DESTINATIONS.containsKey(key)) {
-            var identityData = KNOWN_DESTINATIONS.get(key);
+        var identityData = knownDestination(destinationHash);
+        if (nonNull(identityData)) {
             var identity = new Identity(false);
             identity.loadPublicKey(identityData.getPublicKey());
             identity.setAppData(identityData.getAppData());
 
             return identity;
         } else {
-            return Transport.getInstance().getDestinations().stream()
-                    .filter(destination -> Arrays.equals(destinationHash, destination.getHash()))
-                    .map(
-                            destination -> {
-                                var identity = new Identity(false);
-                                identity.loadPublicKey(destination.getIdentity().getPublicKey());
-
-                                return identity;
-                            }
-                    )
-                    .findFirst()
-                    .orElse(null);
+            var destination = Transport.getInstance().getDestinations().find(destinationHash);
+            if (isNull(destination)) {
+                return null;
+            }
+
+            var identity = new Identity(false);
+            identity.loadPublicKey(destination.getIdentity().getPublicKey());
+
+            return identity;
         }
     }
 
@@ -222,9 +347,9 @@ public class IdentityKnownDestination {
      * @return <strong>byte[]</strong> containing app_data, or <strong>null</strong> if the destination is unknown.
      */
     public static byte[] recallAppData(@NonNull byte[] destinationHash) {
-        var key = Hex.encodeHexString(destinationHash);
+        var identityData = knownDestination(destinationHash);
 
-        return KNOWN_DESTINATIONS.containsKey(key) ? KNOWN_DESTINATIONS.get(key).getAppData() : null;
+        return nonNull(identityData) ? identityData.getAppData() : null;
     }
 
     @Data
@@ -22,12 +22,10 @@ import java.time.Duration;
 import java.time.Instant;
 import java.util.Comparator;
 import java.util.LinkedList;
-import java.util.List;
 import java.util.Map;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
-import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -42,7 +40,6 @@ import static java.math.BigInteger.ZERO;
 import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
 import static java.util.Objects.requireNonNullElse;
-import static java.util.concurrent.CompletableFuture.runAsync;
 import static java.util.stream.Collectors.toList;
 import static org.apache.commons.lang3.BooleanUtils.isFalse;
 
@@ -89,19 +86,16 @@ public abstract class AbstractConnectionInterface extends Thread implements Conn
     protected final Instant created = Instant.now();
 
     /**
-     * Rolling windows of recent outgoing/incoming announce timestamps, newest first,
-     * used only to estimate announce frequency. These MUST stay bounded: Python RNS
-     * declares them as {@code deque(maxlen=...)}, but this port used an unbounded
-     * CopyOnWriteArrayList. On a server interface the parent aggregates announces from
-     * every spawned client interface, so an untrimmed list grew without bound — driving
-     * an OutOfMemoryError (and O(n^2) array copies) on transport/server nodes. Always
-     * add via {@link #recordSentAnnounce()} / {@link #recordReceivedAnnounce()} so the
-     * cap is enforced.
+     * Rolling windows of recent outgoing/incoming announce times, used only to estimate
+     * announce frequency. These MUST stay bounded: on a server interface the parent
+     * aggregates announces from every spawned client interface, and the former unbounded
+     * lists drove an OutOfMemoryError on transport/server nodes. Always add via
+     * {@link #recordSentAnnounce()} / {@link #recordReceivedAnnounce()}.
      */
-    protected List<Instant> oaFreqDeque = new CopyOnWriteArrayList<>();
-    protected List<Instant> iaFreqDeque = new CopyOnWriteArrayList<>();
+    protected final AnnounceFrequency outgoingAnnounces = new AnnounceFrequency(FREQ_DEQUE_MAXLEN);
+    protected final AnnounceFrequency incomingAnnounces = new AnnounceFrequency(FREQ_DEQUE_MAXLEN);
 
-    /** Max entries kept in {@link #oaFreqDeque}/{@link #iaFreqDeque}. Bounds the frequency window. */
+    /** Max entries kept in {@link #outgoingAnnounces}/{@link #incomingAnnounces}. Bounds the frequency window. */
     protected static final int FREQ_DEQUE_MAXLEN = 128;
 
     @JsonAlias({"interface_mode", "mode"})
@@ -126,6 +120,21 @@ public abstract class AbstractConnectionInterface extends Thread implements Conn
     @JsonProperty("bitrate")
     protected Integer bitrate;
 
+    @JsonProperty("inbound_queue_depth")
+    protected Integer inboundQueueDepth;
+
+    /** Milliseconds a stream interface may hold written packets before flushing; 0 flushes at the end of each event loop tick. */
+    @JsonProperty("flush_max_delay")
+    protected int flushMaxDelay = 0;
+
+    /** Bytes written after which a stream interface flushes at once. */
+    @JsonProperty("flush_max_bytes")
+    protected int flushMaxBytes = 64 * 1024;
+
+    /** Bytes a stream interface buffers for a slow peer before Transport drops its outgoing packets. */
+    @JsonProperty("write_buffer_limit")
+    protected int writeBufferLimit = 1024 * 1024;
+
     @JsonProperty("announce_rate_target")
     protected Integer announceRateTarget;
 
@@ -308,23 +317,12 @@ public abstract class AbstractConnectionInterface extends Thread implements Conn
         }
     }
 
-    /** Prepend now() to the outgoing-announce window and trim it to {@link #FREQ_DEQUE_MAXLEN}. */
     protected void recordSentAnnounce() {
-        oaFreqDeque.add(0, Instant.now());
-        trimFreqDeque(oaFreqDeque);
+        outgoingAnnounces.record(System.nanoTime());
     }
 
-    /** Prepend now() to the incoming-announce window and trim it to {@link #FREQ_DEQUE_MAXLEN}. */
     protected void recordReceivedAnnounce() {
-        iaFreqDeque.add(0, Instant.now());
-        trimFreqDeque(iaFreqDeque);
-    }
-
-    private static void trimFreqDeque(List<Instant> deque) {
-        // Newest entries are prepended at index 0, so drop from the tail (oldest first).
-        while (deque.size() > FREQ_DEQUE_MAXLEN) {
-            deque.remove(deque.size() - 1);
-        }
+        incomingAnnounces.record(System.nanoTime());
     }
 
     @Override
@@ -364,7 +362,7 @@ public abstract class AbstractConnectionInterface extends Thread implements Conn
                         log.trace("Releasing held announce packet {} from {}", selectedAnnouncePacket, this);
                         icHeldRelease.set(Instant.now().plusSeconds(icHeldReleaseInterval));
                         heldAnnounces.remove(Hex.encodeHexString(selectedAnnouncePacket.getDestinationHash()));
-                        runAsync(() -> Transport.getInstance().inbound(announcePacket.getRaw(), announcePacket.getReceivingInterface()));
+                        Transport.getInstance().enqueueInbound(announcePacket.getRaw(), announcePacket.getReceivingInterface());
                     }
                 }
             }
@@ -383,36 +381,11 @@ public abstract class AbstractConnectionInterface extends Thread implements Conn
     }
 
     protected double incomingAnnounceFrequency() {
-        if (isFalse(iaFreqDeque.size() > 1)) {
-            return 0;
-        } else {
-            var dqLen = iaFreqDeque.size();
-            var deltaSum = 0L;
-            for (int i = 1; i < dqLen; i++) {
-                deltaSum += Duration.between(iaFreqDeque.get(i), iaFreqDeque.get(i - 1)).getSeconds();
-            }
-            // Was oaFreqDeque.get(dqLen - 1) — a copy-paste from outgoingAnnounceFrequency().
-            // dqLen is the INCOMING deque's size, so indexing the OUTGOING deque threw
-            // IndexOutOfBounds whenever oaFreqDeque was shorter. Use the incoming deque.
-            deltaSum += Duration.between(Instant.now(), iaFreqDeque.get(dqLen - 1)).getSeconds();
-
-            return deltaSum == 0 ? 0 : (double) 1 / deltaSum / dqLen;
-        }
+        return incomingAnnounces.perSecond(System.nanoTime());
     }
 
     protected double outgoingAnnounceFrequency() {
-        if (isFalse(oaFreqDeque.size() > 1)) {
-            return 0;
-        } else {
-            var dqLen = oaFreqDeque.size();
-            var deltaSum = 0L;
-            for (int i = 1; i < dqLen; i++) {
-                deltaSum += Duration.between(oaFreqDeque.get(i), oaFreqDeque.get(i - 1)).getSeconds();
-            }
-            deltaSum += Duration.between(Instant.now(), oaFreqDeque.get(dqLen - 1)).getSeconds();
-
-            return deltaSum == 0 ? 0 : (double) 1 / deltaSum / dqLen;
-        }
+        return outgoingAnnounces.perSecond(System.nanoTime());
     }
 
     @Override
@@ -0,0 +1,51 @@
+package io.reticulum.interfaces;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Rolling window of the most recent announce times of an interface, used to estimate its
+ * announce frequency.
+ * <p>
+ * The times are {@link System#nanoTime()} values in a fixed ring, so recording an
+ * announce neither allocates nor copies, unlike the {@code List<Instant>} deques it
+ * replaces. Like Python's {@code deque(maxlen=...)} the window is bounded: once full, the
+ * oldest time is overwritten.
+ */
+public class AnnounceFrequency {
+
+    private final long[] times;
+    private long recorded;
+
+    public AnnounceFrequency(int maxLength) {
+        this.times = new long[maxLength];
+    }
+
+    public synchronized void record(long now) {
+        times[(int) (recorded++ % times.length)] = now;
+    }
+
+    /**
+     * @return number of times in the window
+     */
+    public synchronized int size() {
+        return (int) Math.min(recorded, times.length);
+    }
+
+    /**
+     * Announces per second over the window, measured from its oldest announce to
+     * {@code now}, like {@code incoming_announce_frequency()} of the reference
+     * implementation.
+     *
+     * @return frequency, or 0 while the window holds fewer than two announces
+     */
+    public synchronized double perSecond(long now) {
+        var size = size();
+        if (size < 2) {
+            return 0;
+        }
+        var oldest = times[(int) ((recorded - size) % times.length)];
+        var elapsed = now - oldest;
+
+        return elapsed <= 0 ? 0 : size / ((double) elapsed / SECONDS.toNanos(1));
+    }
+}
@@ -1,5 +1,6 @@
 package io.reticulum.interfaces;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonSubTypes;
 import com.fasterxml.jackson.annotation.JsonSubTypes.Type;
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
@@ -108,6 +109,15 @@ public interface ConnectionInterface {
 
     Integer getBitrate();
 
+    /**
+     * Capacity of this interface's inbound queue in frames, or null to use the transport default.
+     *
+     * @return queue depth
+     */
+    default Integer getInboundQueueDepth() {
+        return null;
+    }
+
     default void detach() {
         //pass
     }
@@ -121,6 +131,17 @@ public interface ConnectionInterface {
         return false;
     }
 
+    /**
+     * Returns false while the interface has as much outgoing data buffered as it may; Transport
+     * drops packets for it until it returns true again, instead of buffering them without limit.
+     *
+     * @return boolean true|false if the interface takes another outgoing packet
+     */
+    @JsonIgnore
+    default boolean isWritable() {
+        return true;
+    }
+
     /**
      * Returns the remote target hostname/IP for client-type interfaces, or null.
      *
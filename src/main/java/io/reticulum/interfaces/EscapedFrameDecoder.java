@@ -0,0 +1,95 @@
+package io.reticulum.interfaces;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.ByteToMessageDecoder;
+import io.netty.util.ByteProcessor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+
+/**
+ * Splits the inbound stream into byte stuffed frames and emits the unescaped payload of each
+ * as a {@link ByteBuf}.
+ * <p>
+ * Delimiters and escapes are found with {@link ByteBuf#forEachByte}. A payload without escapes
+ * is emitted as a retained slice of the inbound buffer; otherwise the runs between escapes are
+ * copied into a buffer from the channel's allocator. Empty frames are skipped, and frames longer
+ * than the maximum length are dropped up to the next delimiter.
+ */
+@Slf4j
+abstract class EscapedFrameDecoder extends ByteToMessageDecoder {
+
+    private final ByteProcessor findDelimiter;
+    private final ByteProcessor findEscape;
+    private final int maxFrameLength;
+
+    private boolean discarding;
+
+    EscapedFrameDecoder(byte delimiter, byte escape, int maxFrameLength) {
+        this.findDelimiter = new ByteProcessor.IndexOfProcessor(delimiter);
+        this.findEscape = new ByteProcessor.IndexOfProcessor(escape);
+        this.maxFrameLength = maxFrameLength;
+    }
+
+    /**
+     * @return the offset of the payload in the frame, or -1 if the frame carries no payload
+     */
+    abstract int payloadOffset(ByteBuf in, int frameIndex, int frameLength);
+
+    /**
+     * @return the byte the escape sequence {@code escape, escaped} stands for
+     */
+    abstract byte unescape(byte escaped);
+
+    @Override
+    protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) {
+        while (in.isReadable()) {
+            var start = in.readerIndex();
+            var end = in.forEachByte(findDelimiter);
+            if (end < 0) {
+                if (in.readableBytes() > maxFrameLength) {
+                    log.debug("Discarding frame longer than {} bytes on {}", maxFrameLength, ctx.channel());
+                    in.skipBytes(in.readableBytes());
+                    discarding = true;
+                }
+                return;
+            }
+            in.readerIndex(end + 1);
+
+            var length = end - start;
+            if (discarding) {
+                discarding = false;
+            } else if (length > maxFrameLength) {
+                log.debug("Discarding frame of {} bytes on {}", length, ctx.channel());
+            } else if (length > 0) {
+                var offset = payloadOffset(in, start, length);
+                if (offset >= 0 && offset < length) {
+                    out.add(payload(ctx, in, start + offset, length - offset));
+                }
+            }
+        }
+    }
+
+    private ByteBuf payload(ChannelHandlerContext ctx, ByteBuf in, int index, int length) {
+        var end = index + length;
+        var next = in.forEachByte(index, length, findEscape);
+        if (next < 0) {
+            return in.retainedSlice(index, length);
+        }
+
+        var payload = ctx.alloc().buffer(length);
+        while (next >= 0) {
+            payload.writeBytes(in, index, next - index);
+            // an escape at the very end of the frame has nothing to escape and is dropped
+            if (next + 1 < end) {
+                payload.writeByte(unescape(in.getByte(next + 1)));
+            }
+            index = Math.min(next + 2, end);
+            next = index < end ? in.forEachByte(index, end - index, findEscape) : -1;
+        }
+        payload.writeBytes(in, index, end - index);
+
+        return payload;
+    }
+}
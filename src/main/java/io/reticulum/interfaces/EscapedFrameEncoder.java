@@ -0,0 +1,53 @@
+package io.reticulum.interfaces;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.MessageToByteEncoder;
+
+/**
+ * Writes each outbound packet as a byte stuffed frame straight into the outbound {@link ByteBuf}:
+ * the header, the payload with the delimiter and escape bytes escaped, and the delimiter.
+ * Runs of bytes that need no escaping are copied in bulk.
+ */
+abstract class EscapedFrameEncoder extends MessageToByteEncoder<byte[]> {
+
+    private final byte[] header;
+    private final byte delimiter;
+    private final byte escape;
+
+    EscapedFrameEncoder(byte[] header, byte delimiter, byte escape) {
+        super(byte[].class);
+        this.header = header;
+        this.delimiter = delimiter;
+        this.escape = escape;
+    }
+
+    /**
+     * @return the byte sent after the escape byte in place of {@code value}
+     */
+    abstract byte escape(byte value);
+
+    @Override
+    protected ByteBuf allocateBuffer(ChannelHandlerContext ctx, byte[] msg, boolean preferDirect) {
+        // room for a few escapes; the buffer grows if the payload needs more
+        var capacity = header.length + msg.length + (msg.length >> 4) + 2;
+        return preferDirect ? ctx.alloc().ioBuffer(capacity) : ctx.alloc().heapBuffer(capacity);
+    }
+
+    @Override
+    protected void encode(ChannelHandlerContext ctx, byte[] msg, ByteBuf out) {
+        out.writeBytes(header);
+        var from = 0;
+        for (int i = 0; i < msg.length; i++) {
+            var value = msg[i];
+            if (value == delimiter || value == escape) {
+                out.writeBytes(msg, from, i - from);
+                out.writeByte(escape);
+                out.writeByte(escape(value));
+                from = i + 1;
+            }
+        }
+        out.writeBytes(msg, from, msg.length - from);
+        out.writeByte(delimiter);
+    }
+}
@@ -0,0 +1,92 @@
+package io.reticulum.interfaces;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+import io.netty.util.concurrent.Future;
+
+import static java.util.Objects.nonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Coalesces the flushes of a channel, so that packets written close together leave in one
+ * syscall instead of one each.
+ * <p>
+ * A flush is deferred to the end of the current event loop tick, or by up to
+ * {@code maxDelayMillis} if that is positive. It happens at once when the bytes written since the
+ * last flush reach {@code maxBytes}, when the channel stops being writable and when it is closed.
+ * Must be the first handler of the pipeline, so that it counts the encoded frames.
+ */
+public class FlushCoalescingHandler extends ChannelDuplexHandler {
+
+    private final long maxDelayMillis;
+    private final int maxBytes;
+
+    // only touched on the event loop of the channel
+    private int pendingBytes;
+    private boolean flushPending;
+    private Future<?> scheduledFlush;
+
+    public FlushCoalescingHandler(long maxDelayMillis, int maxBytes) {
+        this.maxDelayMillis = maxDelayMillis;
+        this.maxBytes = maxBytes;
+    }
+
+    @Override
+    public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) {
+        if (msg instanceof ByteBuf) {
+            pendingBytes += ((ByteBuf) msg).readableBytes();
+        }
+        ctx.write(msg, promise);
+    }
+
+    @Override
+    public void flush(ChannelHandlerContext ctx) {
+        if (pendingBytes >= maxBytes || !ctx.channel().isWritable()) {
+            flushNow(ctx);
+        } else if (!flushPending) {
+            flushPending = true;
+            if (maxDelayMillis > 0) {
+                scheduledFlush = ctx.executor().schedule(() -> flushIfPending(ctx), maxDelayMillis, MILLISECONDS);
+            } else {
+                ctx.executor().execute(() -> flushIfPending(ctx));
+            }
+        }
+    }
+
+    @Override
+    public void channelWritabilityChanged(ChannelHandlerContext ctx) {
+        if (!ctx.channel().isWritable()) {
+            flushIfPending(ctx);
+        }
+        ctx.fireChannelWritabilityChanged();
+    }
+
+    @Override
+    public void close(ChannelHandlerContext ctx, ChannelPromise promise) {
+        flushIfPending(ctx);
+        ctx.close(promise);
+    }
+
+    @Override
+    public void handlerRemoved(ChannelHandlerContext ctx) {
+        flushIfPending(ctx);
+    }
+
+    private void flushIfPending(ChannelHandlerContext ctx) {
+        if (flushPending) {
+            flushNow(ctx);
+        }
+    }
+
+    private void flushNow(ChannelHandlerContext ctx) {
+        if (nonNull(scheduledFlush)) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        flushPending = false;
+        pendingBytes = 0;
+        ctx.flush();
+    }
+}
@@ -3,9 +3,7 @@ package io.reticulum.interfaces;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
+import java.util.Arrays;
 
 import static org.apache.commons.lang3.ArrayUtils.isEmpty;
 import static org.apache.commons.lang3.ArrayUtils.isNotEmpty;
@@ -17,22 +15,17 @@ public interface HDLC {
 
     default byte[] escapeHdlc(byte[] data) {
         if (isNotEmpty(data)) {
-            try (var buffer = new ByteArrayOutputStream()) {
-                for (byte aByte : data) {
-                    if (aByte == ESC) {
-                        buffer.write(ESC);
-                        buffer.write(ESC ^ ESC_MASK);
-                    } else if (aByte == FLAG) {
-                        buffer.write(ESC);
-                        buffer.write(FLAG ^ ESC_MASK);
-                    } else {
-                        buffer.write(aByte);
-                    }
+            var buffer = new byte[data.length * 2];
+            var length = 0;
+            for (byte aByte : data) {
+                if (aByte == ESC || aByte == FLAG) {
+                    buffer[length++] = ESC;
+                    buffer[length++] = (byte) (aByte ^ ESC_MASK);
+                } else {
+                    buffer[length++] = aByte;
                 }
-                return buffer.toByteArray();
-            } catch (IOException e) {
-                throw new RuntimeException(e);
             }
+            return Arrays.copyOf(buffer, length);
         }
 
         return new byte[] {};
@@ -43,33 +36,26 @@ public interface HDLC {
             return new byte[] {};
         }
 
-        try(
-                var os = new ByteArrayOutputStream();
-                var is = new ByteArrayInputStream(data)
-        ) {
-            var escape = false;
-            while (is.available() > 0) {
-                var aByte = is.read();
-                if (aByte == ESC) {
-                    escape = true;
-                } else {
-                    if (escape) {
-                        if (aByte == (FLAG ^ ESC_MASK)) {
-                            aByte = FLAG;
-                        }
-                        if (aByte == (ESC ^ ESC_MASK)) {
-                            aByte = ESC;
-                        }
-                        escape = false;
+        var buffer = new byte[data.length];
+        var length = 0;
+        var escape = false;
+        for (byte aByte : data) {
+            if (aByte == ESC) {
+                escape = true;
+            } else {
+                if (escape) {
+                    if (aByte == (FLAG ^ ESC_MASK)) {
+                        aByte = FLAG;
+                    } else if (aByte == (ESC ^ ESC_MASK)) {
+                        aByte = ESC;
                     }
-                    os.write(aByte);
+                    escape = false;
                 }
+                buffer[length++] = aByte;
             }
-
-            return os.toByteArray();
-        } catch (IOException e) {
-            throw new RuntimeException(e);
         }
+
+        return length == buffer.length ? buffer : Arrays.copyOf(buffer, length);
     }
 
     default ByteBuf[] delimitersHdlc() {
@@ -0,0 +1,30 @@
+package io.reticulum.interfaces;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * Decodes HDLC-like frames delimited by {@link HDLC#FLAG} into their unescaped payload.
+ */
+public class HDLCFrameDecoder extends EscapedFrameDecoder implements HDLC {
+
+    public HDLCFrameDecoder(int maxFrameLength) {
+        super(FLAG, ESC, maxFrameLength);
+    }
+
+    @Override
+    int payloadOffset(ByteBuf in, int frameIndex, int frameLength) {
+        return 0;
+    }
+
+    @Override
+    byte unescape(byte escaped) {
+        if (escaped == (FLAG ^ ESC_MASK)) {
+            return FLAG;
+        }
+        if (escaped == (ESC ^ ESC_MASK)) {
+            return ESC;
+        }
+
+        return escaped;
+    }
+}
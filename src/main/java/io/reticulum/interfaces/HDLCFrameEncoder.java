@@ -0,0 +1,16 @@
+package io.reticulum.interfaces;
+
+/**
+ * Encodes packets as HDLC-like frames: {@link HDLC#FLAG}, escaped payload, {@link HDLC#FLAG}.
+ */
+public class HDLCFrameEncoder extends EscapedFrameEncoder implements HDLC {
+
+    public HDLCFrameEncoder() {
+        super(new byte[] {FLAG}, FLAG, ESC);
+    }
+
+    @Override
+    byte escape(byte value) {
+        return (byte) (value ^ ESC_MASK);
+    }
+}
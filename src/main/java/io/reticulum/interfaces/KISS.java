@@ -3,9 +3,7 @@ package io.reticulum.interfaces;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
+import java.util.Arrays;
 
 import static java.util.Objects.nonNull;
 import static org.apache.commons.lang3.ArrayUtils.isEmpty;
@@ -21,27 +19,22 @@ public interface KISS {
     default byte[] escapeKiss(byte[] data) {
         var result = new byte[] {};
         if (nonNull(data) && data.length > 0) {
-            try (
-                    var is = new ByteArrayInputStream(data);
-                    var buffer = new ByteArrayOutputStream()
-            ) {
-                while (is.available() > 0) {
-                    var b = is.read();
-                    if (b == FESC) {
-                        buffer.write(FESC);
-                        buffer.write(TFESC);
-                    } else if (b == FEND) {
-                        buffer.write(FESC);
-                        buffer.write(TFEND);
-                    } else {
-                        buffer.write(b);
-                    }
+            var buffer = new byte[data.length * 2];
+            var length = 0;
+            for (byte aByte : data) {
+                var b = aByte & 0xFF;
+                if (b == FESC) {
+                    buffer[length++] = (byte) FESC;
+                    buffer[length++] = (byte) TFESC;
+                } else if (b == FEND) {
+                    buffer[length++] = (byte) FESC;
+                    buffer[length++] = (byte) TFEND;
+                } else {
+                    buffer[length++] = aByte;
                 }
-
-                result = buffer.toByteArray();
-            } catch (IOException e) {
-                throw new RuntimeException(e);
             }
+
+            result = Arrays.copyOf(buffer, length);
         }
 
         return result;
@@ -52,39 +45,32 @@ public interface KISS {
             return new byte[] {};
         }
 
-        try(
-                var os = new ByteArrayOutputStream();
-                var is = new ByteArrayInputStream(data)
-        ) {
-            var escape = false;
-            var command = CMD_UNKNOWN;
-            while (is.available() > 0) {
-                var aByte = is.read();
-                if (os.size() == 0 && command == CMD_UNKNOWN) {
-                    aByte = aByte & 0x0F;
-                    command = aByte;
-                } else if (command == CMD_DATA) {
-                    if (aByte == FESC) {
-                        escape = true;
-                    } else {
-                        if (escape) {
-                            if (aByte == TFEND) {
-                                aByte = FEND;
-                            }
-                            if (aByte == TFESC) {
-                                aByte = FESC;
-                            }
-                            escape = false;
-                        }
-                        os.write(aByte);
+        // the first byte is the command, only data frames carry a payload
+        if ((data[0] & 0x0F) != CMD_DATA) {
+            return new byte[] {};
+        }
+
+        var buffer = new byte[data.length - 1];
+        var length = 0;
+        var escape = false;
+        for (int i = 1; i < data.length; i++) {
+            var aByte = data[i] & 0xFF;
+            if (aByte == FESC) {
+                escape = true;
+            } else {
+                if (escape) {
+                    if (aByte == TFEND) {
+                        aByte = FEND;
+                    } else if (aByte == TFESC) {
+                        aByte = FESC;
                     }
+                    escape = false;
                 }
+                buffer[length++] = (byte) aByte;
             }
-
-            return os.toByteArray();
-        } catch (IOException e) {
-            throw new RuntimeException(e);
         }
+
+        return length == buffer.length ? buffer : Arrays.copyOf(buffer, length);
     }
 
     default ByteBuf[] delimitersKiss() {
@@ -0,0 +1,31 @@
+package io.reticulum.interfaces;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * Decodes KISS frames delimited by {@link KISS#FEND} into their unescaped payload. The first
+ * byte of a frame is the command; only {@link KISS#CMD_DATA} frames carry a payload.
+ */
+public class KISSFrameDecoder extends EscapedFrameDecoder implements KISS {
+
+    public KISSFrameDecoder(int maxFrameLength) {
+        super((byte) FEND, (byte) FESC, maxFrameLength);
+    }
+
+    @Override
+    int payloadOffset(ByteBuf in, int frameIndex, int frameLength) {
+        return (in.getByte(frameIndex) & 0x0F) == CMD_DATA ? 1 : -1;
+    }
+
+    @Override
+    byte unescape(byte escaped) {
+        if (escaped == (byte) TFEND) {
+            return (byte) FEND;
+        }
+        if (escaped == (byte) TFESC) {
+            return (byte) FESC;
+        }
+
+        return escaped;
+    }
+}
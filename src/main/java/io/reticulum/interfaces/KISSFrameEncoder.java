@@ -0,0 +1,17 @@
+package io.reticulum.interfaces;
+
+/**
+ * Encodes packets as KISS data frames: {@link KISS#FEND}, {@link KISS#CMD_DATA}, escaped
+ * payload, {@link KISS#FEND}.
+ */
+public class KISSFrameEncoder extends EscapedFrameEncoder implements KISS {
+
+    public KISSFrameEncoder() {
+        super(new byte[] {(byte) FEND, CMD_DATA}, (byte) FEND, (byte) FESC);
+    }
+
+    @Override
+    byte escape(byte value) {
+        return value == (byte) FEND ? (byte) TFEND : (byte) TFESC;
+    }
+}
@@ -0,0 +1,132 @@
+package io.reticulum.interfaces;
+
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.IoHandlerFactory;
+import io.netty.channel.MultiThreadIoEventLoopGroup;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollIoHandler;
+import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.epoll.EpollSocketChannel;
+import io.netty.channel.nio.NioIoHandler;
+import io.netty.channel.socket.ServerSocketChannel;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.channel.uring.IoUring;
+import io.netty.channel.uring.IoUringIoHandler;
+import io.netty.channel.uring.IoUringServerSocketChannel;
+import io.netty.channel.uring.IoUringSocketChannel;
+import lombok.experimental.UtilityClass;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Objects.isNull;
+
+/**
+ * The one Netty event loop group of the process, shared by every TCP and Backbone interface,
+ * listeners and connections alike. Connecting or reconnecting an interface registers a channel
+ * with it instead of starting threads of its own.
+ * <p>
+ * The group is created on first use with io_uring if the kernel offers it, else epoll, else
+ * NIO. {@link Epoll#isAvailable()} and {@link IoUring#isAvailable()} only check that the native
+ * library loaded, so each transport is kept only if a group can actually be created with it.
+ */
+@UtilityClass
+@Slf4j
+public class NettyTransport {
+
+    static final String THREAD_NAME_PREFIX = "rns-netty-";
+    static final int THREADS = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+    private enum Kind {
+        IO_URING, EPOLL, NIO
+    }
+
+    private static final class Holder {
+        private static final Kind KIND;
+        private static final EventLoopGroup GROUP;
+
+        static {
+            var kind = Kind.IO_URING;
+            var group = tryCreate(kind);
+            if (isNull(group)) {
+                kind = Kind.EPOLL;
+                group = tryCreate(kind);
+            }
+            if (isNull(group)) {
+                kind = Kind.NIO;
+                group = newGroup(NioIoHandler.newFactory());
+            }
+            KIND = kind;
+            GROUP = group;
+            log.debug("Netty interfaces use {} with {} threads", KIND, THREADS);
+        }
+
+        private static EventLoopGroup tryCreate(Kind kind) {
+            try {
+                if (kind == Kind.IO_URING) {
+                    return IoUring.isAvailable() ? newGroup(IoUringIoHandler.newFactory()) : null;
+                }
+                return Epoll.isAvailable() ? newGroup(EpollIoHandler.newFactory()) : null;
+            } catch (Throwable t) {
+                // also covers a native transport missing from the class path
+                log.debug("{} transport failed to initialise ({}), falling back", kind, t.getMessage());
+                return null;
+            }
+        }
+
+        private static EventLoopGroup newGroup(IoHandlerFactory factory) {
+            return new MultiThreadIoEventLoopGroup(THREADS, daemonThreadFactory(), factory);
+        }
+    }
+
+    /**
+     * Daemon threads: open connections must not keep the JVM alive on shutdown.
+     */
+    private static ThreadFactory daemonThreadFactory() {
+        var counter = new AtomicInteger();
+        return runnable -> {
+            var thread = new Thread(runnable, THREAD_NAME_PREFIX + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * @return the shared group, for both the parent and the child channels of a server
+     */
+    public static EventLoopGroup group() {
+        return Holder.GROUP;
+    }
+
+    public static Class<? extends SocketChannel> socketChannelClass() {
+        switch (Holder.KIND) {
+            case IO_URING:
+                return IoUringSocketChannel.class;
+            case EPOLL:
+                return EpollSocketChannel.class;
+            default:
+                return NioSocketChannel.class;
+        }
+    }
+
+    public static Class<? extends ServerSocketChannel> serverChannelClass() {
+        switch (Holder.KIND) {
+            case IO_URING:
+                return IoUringServerSocketChannel.class;
+            case EPOLL:
+                return EpollServerSocketChannel.class;
+            default:
+                return NioServerSocketChannel.class;
+        }
+    }
+
+    /**
+     * @return name of the transport the group uses, for logging
+     */
+    public static String transportName() {
+        return Holder.KIND.name();
+    }
+}
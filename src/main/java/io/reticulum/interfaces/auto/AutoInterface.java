@@ -14,13 +14,9 @@ import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.codec.binary.Hex;
 import org.apache.commons.collections4.CollectionUtils;
 
-import java.io.IOException;
 import java.math.BigInteger;
-import java.net.DatagramPacket;
-import java.net.DatagramSocket;
-import java.net.Inet6Address;
 import java.net.InetAddress;
-import java.net.MulticastSocket;
+import java.net.InetSocketAddress;
 import java.net.NetworkInterface;
 import java.net.SocketException;
 import java.time.Duration;
@@ -33,8 +29,6 @@ import java.util.StringJoiner;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import static io.reticulum.interfaces.auto.AutoInterfaceConstant.BITRATE_GUESS;
@@ -49,8 +43,8 @@ import static io.reticulum.utils.IdentityUtils.fullHash;
 import static java.lang.Byte.toUnsignedInt;
 import static java.lang.String.format;
 import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
-import static java.util.concurrent.Executors.newScheduledThreadPool;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.stream.Collectors.toList;
 import static lombok.AccessLevel.PRIVATE;
@@ -103,19 +97,16 @@ public class AutoInterface extends AbstractConnectionInterface implements AutoIn
 
     private List<NetworkInterface> interfaceList = new CopyOnWriteArrayList<>();
 
+    // peer addresses with the data port, so sending allocates no socket address per peer
+    @JsonIgnore
     @Setter(PRIVATE)
     @Getter(PRIVATE)
-    // Daemon threads: the discovery and listener threads below run blocking
-    // socket.receive() loops with no stop signal; as non-daemon threads they
-    // prevented the JVM from exiting on shutdown (the node "would not stop" and
-    // had to be killed). Daemon so process exit is never blocked by them.
-    private ThreadFactory defaultThreadFactory = runnable -> {
-        var thread = new Thread(runnable);
-        thread.setDaemon(true);
-        return thread;
-    };
-
-    private ScheduledExecutorService scheduledThreadPool = newScheduledThreadPool(2, defaultThreadFactory);
+    private Map<InetAddress, InetSocketAddress> peerSocketAddresses = new ConcurrentHashMap<>();
+
+    @JsonIgnore
+    @Setter(PRIVATE)
+    @Getter(PRIVATE)
+    private DatagramEngine engine;
 
     @Override
     public void launch() {
@@ -138,17 +129,25 @@ public class AutoInterface extends AbstractConnectionInterface implements AutoIn
 
     @SneakyThrows
     public void init() {
+        //сокеты данных и анонсов на всех интерфейсах обслуживает один поток
+        engine = new DatagramEngine(
+                "auto-interface-" + getInterfaceName(),
+                dataPort,
+                InetAddress.getByName(getMcastDiscoveryAddress()),
+                discoveryPort,
+                this::processIncoming,
+                this::discoveryHandler
+        );
+        engine.start();
+        updateInterfaces();
+
         //работа с анонсами
-        defaultThreadFactory.newThread(this::discoveryHandler).start();
         Scheduler.scheduleWithFixedDelaySafe(this::peerAnnounce, (long) (announceInterval * 1.2), MILLISECONDS);
 
         //обычные данные
         var peeringWait = announceInterval * 1.2;
         log.info("{}  discovering peers for {} seconds...", this.getInterfaceName(), MILLISECONDS.toSeconds((long) peeringWait));
 
-        //Запускаем udp сервера на всех интерфейсам в своих потоках для слушания соединений
-        defaultThreadFactory.newThread(this::initNetworkInterfaceServer).start();
-
         //запускаем peerJob, которая проверяет пиров, от которых давно не было анонсов
         Scheduler.scheduleWithFixedDelaySafe(this::peerJob, peerJobInterval, MILLISECONDS);
 
@@ -174,85 +173,37 @@ public class AutoInterface extends AbstractConnectionInterface implements AutoIn
         }
     }
 
-    private void initNetworkInterfaceServer() {
-        try (var socket = new DatagramSocket(dataPort)) {
-            while (true) {
-                byte[] buf = new byte[1024];
-                var packet = new DatagramPacket(buf, buf.length);
-                socket.receive(packet);
-                processIncoming(Arrays.copyOf(packet.getData(), packet.getLength()));
+    private void peerAnnounce() {
+        var engine = this.engine;
+        if (isNull(engine)) {
+            return;
+        }
+        for (NetworkInterface iface : interfaceList) {
+            var inetAddress = getInet6Address(iface);
+            if (isFalse(inetAddress.isLinkLocalAddress())) {
+                continue;
             }
-        } catch (SocketException e) {
-            log.error("SocketException when init DatagramSocket", e);
-            throw new RuntimeException(e);
-        } catch (IOException ioException) {
-            log.error("IOException when process incoming message", ioException);
+            var localAddress = getLocalIpv6Address(inetAddress);
+            var token = fullHash(
+                    concatArrays(
+                            getGroupId().getBytes(UTF_8),
+                            localAddress.getBytes(UTF_8)
+                    )
+            );
+            engine.announce(iface, token);
         }
     }
 
-    private void peerAnnounce() {
-        try (var socket = new DatagramSocket()) {
-            getLinkLocalAddresses()
-                    .forEach(
-                            inetAddress -> {
-                                var localAddress = getLocalIpv6Address((Inet6Address) inetAddress);
-                                var token = fullHash(
-                                        concatArrays(
-                                                getGroupId().getBytes(UTF_8),
-                                                localAddress.getBytes(UTF_8)
-                                        )
-                                );
-                                DatagramPacket packet = null;
-                                try {
-                                    packet = new DatagramPacket(
-                                            token,
-                                            token.length,
-                                            InetAddress.getByName(getMcastDiscoveryAddress()),
-                                            discoveryPort
-                                    );
-                                    socket.send(packet);
-                                } catch (IOException e) {
-                                    log.error("Error while send announce packet {} from address {}", packet, inetAddress, e);
-                                }
-                            }
-                    );
-        } catch (SocketException e) {
-            log.error("Can not establish DatagramSocket to send announce", e);
+    private void discoveryHandler(InetAddress peerAddress, byte[] packetData) {
+        if (getLinkLocalAddresses().contains(peerAddress)) {
+            return;
         }
-    }
-
-    @SneakyThrows
-    private void discoveryHandler() {
-        var group = InetAddress.getByName(getMcastDiscoveryAddress());
-        try (var discoverySocket = new MulticastSocket(discoveryPort)) {
-            discoverySocket.joinGroup(group);
-            var buf = new byte[1024];
-            while (true) {
-                var packet = new DatagramPacket(buf, buf.length);
-                try {
-                    discoverySocket.receive(packet);
-                    var peerAddress = packet.getAddress();
-                    if (getLinkLocalAddresses().contains(peerAddress)) {
-                        continue;
-                    }
-                    var packetData = Arrays.copyOf(packet.getData(), packet.getLength());
-                    var ipV6AddressString = new IPv6Address(packet.getAddress().getAddress()).toCompressedString();
-                    var expectedHash = fullHash(concatArrays(getGroupId().getBytes(UTF_8), ipV6AddressString.getBytes(UTF_8)));
-                    if (Arrays.equals(packetData, expectedHash)) {
-                        addPeer(peerAddress);
-                    } else {
-                        log.debug(
-                                "{} received peering packet on {} from {}, but authentication hash was incorrect.",
-                                this, discoverySocket.getNetworkInterface().getName(), ipV6AddressString
-                        );
-                    }
-                } catch (IOException e) {
-                    log.error("Error while receive multicast packet {}", packet, e);
-                }
-            }
-        } catch (IOException e) {
-            log.error("Error while init multicast socket", e);
-            throw new RuntimeException(e);
+        var ipV6AddressString = new IPv6Address(peerAddress.getAddress()).toCompressedString();
+        var expectedHash = fullHash(concatArrays(getGroupId().getBytes(UTF_8), ipV6AddressString.getBytes(UTF_8)));
+        if (Arrays.equals(packetData, expectedHash)) {
+            addPeer(peerAddress);
+        } else {
+            log.debug("{} received peering packet from {}, but authentication hash was incorrect.", this, ipV6AddressString);
         }
     }
 
@@ -261,6 +212,7 @@ public class AutoInterface extends AbstractConnectionInterface implements AutoIn
             log.debug("{} added peer {}", this, peerAddress);
         }
         peers.put(peerAddress, Instant.now());
+        peerSocketAddresses.computeIfAbsent(peerAddress, address -> new InetSocketAddress(address, dataPort));
     }
 
     @Override
@@ -272,18 +224,15 @@ public class AutoInterface extends AbstractConnectionInterface implements AutoIn
             }
             mifDeque.add(dataHash);
             rxb.updateAndGet(previous -> previous.add(BigInteger.valueOf(data.length)));
-            Transport.getInstance().inbound(data, this);
+            Transport.getInstance().enqueueInbound(data, this);
         }
     }
 
     @Override
     public void processOutgoing(byte[] data) {
-        for (InetAddress peerAddress : peers.keySet()) {
-            try (var socket = new DatagramSocket()) {
-                socket.send(new DatagramPacket(data, data.length, peerAddress, dataPort));
-            } catch (IOException e) {
-                log.error("Could not transmit on {}.", this, e);
-            }
+        var engine = this.engine;
+        if (nonNull(engine)) {
+            engine.send(data, peerSocketAddresses.values());
         }
 
         txb.updateAndGet(previous -> previous.add(BigInteger.valueOf(data.length)));
@@ -305,10 +254,22 @@ public class AutoInterface extends AbstractConnectionInterface implements AutoIn
                 .forEach(
                         peerAddress -> {
                             peers.remove(peerAddress);
+                            peerSocketAddresses.remove(peerAddress);
                             log.debug("{} removed peer {}", this, peerAddress);
                         }
                 );
 
+        updateInterfaces();
+    }
+
+    /**
+     * Opens and closes the UDP channels of network interfaces that appeared, went away or whose
+     * link-local address changed.
+     */
+    private synchronized void updateInterfaces() {
+        if (isNull(engine)) {
+            return;
+        }
         try {
             //Check that the link-local address has not changed
             var newIfaceList = networkInterfaceList(this);
@@ -317,15 +278,27 @@ public class AutoInterface extends AbstractConnectionInterface implements AutoIn
             for (NetworkInterface iface : toRemove) {
                 log.debug("Shutting down previous UDP listener for {} on {}", this, iface.getName());
                 interfaceList.remove(iface);
+                engine.removeInterface(iface);
             }
 
             var toAdd = CollectionUtils.subtract(newIfaceList, interfaceList);
             for (NetworkInterface iface : toAdd) {
                 log.debug("Starting new UDP listener for {} {}", this, getInet6Address(iface));
                 interfaceList.add(iface);
+                engine.addInterface(iface, getInet6Address(iface));
             }
         } catch (SocketException e) {
             log.error("Could not get device information while updating link-local addresses for {}.", this.getInterfaceName(), e);
         }
     }
+
+    @Override
+    public synchronized void detach() {
+        if (nonNull(engine)) {
+            log.debug("Detaching {}", this);
+            online.set(false);
+            engine.close();
+            engine = null;
+        }
+    }
 }
@@ -0,0 +1,266 @@
+package io.reticulum.interfaces.auto;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.NetworkInterface;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.MembershipKey;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import static io.reticulum.interfaces.auto.AutoInterfaceConstant.HW_MTU;
+import static java.net.StandardProtocolFamily.INET6;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * The sockets of an {@link AutoInterface}, all served by one selector thread.
+ * <p>
+ * Every network interface gets one non-blocking data channel, bound to its address and the
+ * data port. It receives data from peers and sends data and discovery announces out of that
+ * interface. One discovery channel on the discovery port joins the multicast group on every
+ * interface. Received datagrams are read in batches into one direct buffer; outgoing data is
+ * copied once into another direct buffer and sent from there to every peer.
+ */
+@Slf4j
+final class DatagramEngine implements Closeable {
+
+    /**
+     * Datagrams read from one channel before the selector looks at the others
+     */
+    private static final int RECEIVE_BATCH = 64;
+
+    private static final Object DATA = "data";
+    private static final Object DISCOVERY = "discovery";
+
+    private final int dataPort;
+    private final InetSocketAddress discoveryTarget;
+    private final Consumer<byte[]> dataHandler;
+    private final BiConsumer<InetAddress, byte[]> discoveryHandler;
+
+    private final Selector selector;
+    private final DatagramChannel discoveryChannel;
+    // keyed by interface index, which is also the scope id of the link-local addresses of peers on it
+    private final Map<Integer, DatagramChannel> dataChannels = new ConcurrentHashMap<>();
+    private final Map<Integer, MembershipKey> memberships = new ConcurrentHashMap<>();
+    // channels are registered and closed on the selector thread only
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private final ByteBuffer receiveBuffer = ByteBuffer.allocateDirect(HW_MTU);
+    private final ByteBuffer sendBuffer = ByteBuffer.allocateDirect(HW_MTU);
+    private final Thread thread;
+
+    private volatile boolean running = true;
+
+    DatagramEngine(
+            String name,
+            int dataPort,
+            InetAddress discoveryGroup,
+            int discoveryPort,
+            Consumer<byte[]> dataHandler,
+            BiConsumer<InetAddress, byte[]> discoveryHandler
+    ) throws IOException {
+        this.dataPort = dataPort;
+        this.discoveryTarget = new InetSocketAddress(discoveryGroup, discoveryPort);
+        this.dataHandler = dataHandler;
+        this.discoveryHandler = discoveryHandler;
+
+        this.selector = Selector.open();
+        this.discoveryChannel = DatagramChannel.open(INET6)
+                .setOption(StandardSocketOptions.SO_REUSEADDR, true)
+                .bind(new InetSocketAddress(discoveryPort));
+        discoveryChannel.configureBlocking(false);
+        discoveryChannel.register(selector, SelectionKey.OP_READ, DISCOVERY);
+
+        // daemon: the engine must never keep the JVM alive on shutdown
+        this.thread = new Thread(this::run, name);
+        this.thread.setDaemon(true);
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    /**
+     * Opens the data channel of the interface, bound to {@code address}, and joins the
+     * discovery group on it.
+     */
+    void addInterface(NetworkInterface iface, Inet6Address address) {
+        execute(() -> {
+            try {
+                var channel = DatagramChannel.open(INET6)
+                        .setOption(StandardSocketOptions.SO_REUSEADDR, true)
+                        .setOption(StandardSocketOptions.IP_MULTICAST_IF, iface)
+                        .bind(new InetSocketAddress(address, dataPort));
+                channel.configureBlocking(false);
+                channel.register(selector, SelectionKey.OP_READ, DATA);
+                closeChannel(dataChannels.put(iface.getIndex(), channel));
+                memberships.put(iface.getIndex(), discoveryChannel.join(discoveryTarget.getAddress(), iface));
+            } catch (IOException e) {
+                log.error("Could not open UDP channel on {} for {}", iface.getName(), address, e);
+            }
+        });
+    }
+
+    void removeInterface(NetworkInterface iface) {
+        execute(() -> {
+            var membership = memberships.remove(iface.getIndex());
+            if (nonNull(membership)) {
+                membership.drop();
+            }
+            closeChannel(dataChannels.remove(iface.getIndex()));
+        });
+    }
+
+    /**
+     * Sends a discovery announce to the multicast group out of the interface.
+     */
+    void announce(NetworkInterface iface, byte[] token) {
+        var channel = dataChannels.get(iface.getIndex());
+        if (isNull(channel)) {
+            return;
+        }
+        try {
+            channel.send(ByteBuffer.wrap(token), discoveryTarget);
+        } catch (IOException e) {
+            log.error("Error while sending announce on {}", iface.getName(), e);
+        }
+    }
+
+    /**
+     * Sends the data to every peer out of the interface the peer was discovered on.
+     *
+     * @return the number of peers the datagram was handed to the kernel for
+     */
+    int send(byte[] data, Collection<InetSocketAddress> peers) {
+        var sent = 0;
+        synchronized (sendBuffer) {
+            var buffer = data.length <= sendBuffer.capacity() ? sendBuffer.clear().put(data).flip() : ByteBuffer.wrap(data);
+            for (InetSocketAddress peer : peers) {
+                var channel = channelFor(peer.getAddress());
+                if (isNull(channel)) {
+                    continue;
+                }
+                buffer.rewind();
+                try {
+                    // a full socket buffer drops the datagram, as the network might
+                    if (channel.send(buffer, peer) > 0) {
+                        sent++;
+                    }
+                } catch (IOException e) {
+                    log.error("Could not transmit to {}", peer, e);
+                }
+            }
+        }
+
+        return sent;
+    }
+
+    private DatagramChannel channelFor(InetAddress peer) {
+        if (peer instanceof Inet6Address && ((Inet6Address) peer).getScopeId() != 0) {
+            return dataChannels.get(((Inet6Address) peer).getScopeId());
+        }
+
+        return dataChannels.values().stream().findFirst().orElse(null);
+    }
+
+    private void execute(Runnable task) {
+        tasks.add(task);
+        selector.wakeup();
+    }
+
+    private void run() {
+        try {
+            while (running) {
+                Runnable task;
+                while (nonNull(task = tasks.poll())) {
+                    task.run();
+                }
+
+                selector.select();
+                var selected = selector.selectedKeys().iterator();
+                while (selected.hasNext()) {
+                    var key = selected.next();
+                    selected.remove();
+                    if (key.isValid() && key.isReadable()) {
+                        receive((DatagramChannel) key.channel(), key.attachment() == DISCOVERY);
+                    }
+                }
+            }
+        } catch (ClosedSelectorException e) {
+            log.debug("Selector of {} closed", thread.getName());
+        } catch (IOException e) {
+            log.error("Error in selector loop of {}", thread.getName(), e);
+        } finally {
+            dataChannels.values().forEach(this::closeChannel);
+            dataChannels.clear();
+            memberships.clear();
+            closeChannel(discoveryChannel);
+            try {
+                selector.close();
+            } catch (IOException e) {
+                log.debug("Could not close selector of {}", thread.getName(), e);
+            }
+        }
+    }
+
+    private void receive(DatagramChannel channel, boolean discovery) {
+        for (int i = 0; i < RECEIVE_BATCH; i++) {
+            InetSocketAddress source;
+            byte[] data;
+            try {
+                receiveBuffer.clear();
+                source = (InetSocketAddress) channel.receive(receiveBuffer);
+                if (isNull(source)) {
+                    return;
+                }
+                receiveBuffer.flip();
+                data = new byte[receiveBuffer.remaining()];
+                receiveBuffer.get(data);
+            } catch (IOException e) {
+                log.error("Error while receiving on {}", channel, e);
+                return;
+            }
+
+            try {
+                if (discovery) {
+                    discoveryHandler.accept(source.getAddress(), data);
+                } else {
+                    dataHandler.accept(data);
+                }
+            } catch (RuntimeException e) {
+                log.error("Error while processing datagram from {}", source, e);
+            }
+        }
+    }
+
+    private void closeChannel(DatagramChannel channel) {
+        if (nonNull(channel)) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.debug("Could not close {}", channel, e);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        selector.wakeup();
+    }
+}
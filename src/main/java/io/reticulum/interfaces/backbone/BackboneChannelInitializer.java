@@ -2,13 +2,13 @@ package io.reticulum.interfaces.backbone;
 
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelInitializer;
+import io.netty.channel.WriteBufferWaterMark;
 import io.netty.channel.socket.SocketChannel;
-import io.netty.handler.codec.DelimiterBasedFrameDecoder;
-import io.netty.handler.codec.bytes.ByteArrayDecoder;
-import io.netty.handler.codec.bytes.ByteArrayEncoder;
 import io.reticulum.Transport;
 import io.reticulum.interfaces.ConnectionInterface;
-import io.reticulum.interfaces.HDLC;
+import io.reticulum.interfaces.FlushCoalescingHandler;
+import io.reticulum.interfaces.HDLCFrameDecoder;
+import io.reticulum.interfaces.HDLCFrameEncoder;
 import io.reticulum.utils.InterfaceUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -17,22 +17,28 @@ import lombok.extern.slf4j.Slf4j;
  * Netty channel initializer for Backbone TCP connections.
  *
  * <p>Used for both client-initiated connections and server-spawned connections.
- * HDLC framing with 1 MiB frame limit is configured, and a
- * {@link BackbonePacketHandler} is added to dispatch incoming frames.
+ * HDLC framing with 1 MiB frame limit is configured behind a {@link FlushCoalescingHandler},
+ * and a {@link BackbonePacketHandler} is added to dispatch incoming frames.
  */
 @Slf4j
 @RequiredArgsConstructor
-public class BackboneChannelInitializer extends ChannelInitializer<SocketChannel> implements HDLC {
+public class BackboneChannelInitializer extends ChannelInitializer<SocketChannel> {
 
     private final ConnectionInterface connectionInterface;
 
     @Override
     protected void initChannel(SocketChannel ch) {
+        var clientInterface = resolveClientInterface(ch);
+        // a slow peer makes the channel unwritable and Transport drop packets for it
+        ch.config().setWriteBufferWaterMark(new WriteBufferWaterMark(
+                clientInterface.getWriteBufferLimit() / 2,
+                clientInterface.getWriteBufferLimit()
+        ));
         ch.pipeline().addLast(
-                new DelimiterBasedFrameDecoder(BackboneServerInterface.HW_MTU, true, delimitersHdlc()),
-                new ByteArrayDecoder(),
-                new ByteArrayEncoder(),
-                new BackbonePacketHandler(resolveClientInterface(ch))
+                new FlushCoalescingHandler(clientInterface.getFlushMaxDelay(), clientInterface.getFlushMaxBytes()),
+                new HDLCFrameDecoder(BackboneServerInterface.HW_MTU),
+                new HDLCFrameEncoder(),
+                new BackbonePacketHandler(clientInterface)
         );
     }
 
@@ -68,6 +74,9 @@ public class BackboneChannelInitializer extends ChannelInitializer<SocketChannel
         spawned.setAnnounceRateGrace(serverInterface.getAnnounceRateGrace());
         spawned.setAnnounceRatePenalty(serverInterface.getAnnounceRatePenalty());
         spawned.setInterfaceMode(serverInterface.getInterfaceMode());
+        spawned.setFlushMaxDelay(serverInterface.getFlushMaxDelay());
+        spawned.setFlushMaxBytes(serverInterface.getFlushMaxBytes());
+        spawned.setWriteBufferLimit(serverInterface.getWriteBufferLimit());
         spawned.getOnline().set(true);
 
         // Copy IFAC credentials from the server interface
@@ -7,18 +7,17 @@ import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.ChannelOutboundInvoker;
-import io.netty.channel.EventLoopGroup;
 import io.reticulum.Transport;
 import io.reticulum.interfaces.AbstractConnectionInterface;
 import io.reticulum.interfaces.ConnectionInterface;
 import io.reticulum.interfaces.HDLC;
 import io.reticulum.interfaces.InterfaceMode;
+import io.reticulum.interfaces.NettyTransport;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.BooleanUtils;
 
-import java.io.ByteArrayOutputStream;
 import java.math.BigInteger;
 import java.net.InetSocketAddress;
 import java.time.Duration;
@@ -183,26 +182,22 @@ public class BackboneClientInterface extends AbstractConnectionInterface impleme
 
     @Override
     public void processIncoming(byte[] data) {
-        var processingData = unmaskHdlc(data);
-        rxb.accumulateAndGet(BigInteger.valueOf(processingData.length), BigInteger::add);
+        // frames arrive unescaped from the HDLC frame decoder of the channel pipeline
+        rxb.accumulateAndGet(BigInteger.valueOf(data.length), BigInteger::add);
 
         if (nonNull(parentInterface)) {
             parentInterface.getRxb()
-                    .accumulateAndGet(BigInteger.valueOf(processingData.length), BigInteger::add);
+                    .accumulateAndGet(BigInteger.valueOf(data.length), BigInteger::add);
         }
 
-        Transport.getInstance().inbound(processingData, this);
+        Transport.getInstance().enqueueInbound(data, this);
     }
 
     @Override
     public void processOutgoing(byte[] data) {
         log.trace("Backbone send. interface: {}", this);
         if (online.get()) {
-            try (var os = new ByteArrayOutputStream()) {
-                os.write(FLAG);
-                os.write(escapeHdlc(data));
-                os.write(FLAG);
-
+            try {
                 var maybeChannel = getInternalChannel();
                 if (maybeChannel.isEmpty()) {
                     // Channel not yet available (connecting) or temporarily inactive — drop this
@@ -211,7 +206,8 @@ public class BackboneClientInterface extends AbstractConnectionInterface impleme
                     log.debug("processOutgoing: no active channel on {}, dropping packet during reconnect", this);
                     return;
                 }
-                maybeChannel.get().writeAndFlush(os.toByteArray());
+                // the HDLC frame encoder of the channel pipeline escapes and frames the packet
+                maybeChannel.get().writeAndFlush(data);
 
                 txb.accumulateAndGet(BigInteger.valueOf(data.length), BigInteger::add);
 
@@ -226,19 +222,24 @@ public class BackboneClientInterface extends AbstractConnectionInterface impleme
         }
     }
 
+    @Override
+    public boolean isWritable() {
+        return getInternalChannel().map(Channel::isWritable).orElse(true);
+    }
+
     // ── Connection management ────────────────────────────────────────────────
 
     /**
      * Opens (or re-opens) the TCP connection.
      *
-     * <p>Uses epoll on Linux when available, falls back to NIO otherwise.
+     * <p>The connection runs on the shared {@link NettyTransport} event loops; reconnecting
+     * starts no threads.
      *
      * @param initial {@code true} for the first connection attempt (controls error verbosity)
      * @return {@code true} if the connection was established successfully
      */
     private synchronized boolean connect(final Boolean initial) throws InterruptedException {
         boolean init       = BooleanUtils.isTrue(initial);
-        EventLoopGroup workerGroup = BackboneTransport.newWorkerGroup();
 
         try {
             if (init) {
@@ -247,8 +248,8 @@ public class BackboneClientInterface extends AbstractConnectionInterface impleme
 
             var bootstrap = new Bootstrap();
             bootstrap
-                    .group(workerGroup)
-                    .channel(BackboneTransport.socketChannelClass())
+                    .group(NettyTransport.group())
+                    .channel(NettyTransport.socketChannelClass())
                     .option(ChannelOption.SO_KEEPALIVE, true)
                     .option(ChannelOption.TCP_NODELAY,  true)
                     .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout)
@@ -259,15 +260,6 @@ public class BackboneClientInterface extends AbstractConnectionInterface impleme
                             future.channel().closeFuture()
                                     .addListener((ChannelFutureListener) closeFeature -> {
                                         online.set(false);
-                                        // Always release this connection's EventLoopGroup once the
-                                        // channel closes. Previously it was shut down ONLY on the
-                                        // detached branch, so every reconnect orphaned a whole
-                                        // NioEventLoopGroup (1 epoll fd + thread). Under a reconnect
-                                        // storm this exhausted file descriptors → "Too many open
-                                        // files" (Qortal test-19 wadin: 5686 leaked groups). A
-                                        // reconnect creates a fresh group via connect(), so dropping
-                                        // the old one here is safe. Mirrors TCPClientInterface.
-                                        workerGroup.shutdownGracefully();
                                         if (isFalse(detached)) {
                                             startReconnecting();
                                         }
@@ -279,11 +271,6 @@ public class BackboneClientInterface extends AbstractConnectionInterface impleme
             log.debug("Backbone TCP connection for {} established.", this);
 
         } catch (Exception e) {
-            // Connection never became active, so its close-listener won't fire (or the connect
-            // threw before registering it) — release the EventLoopGroup here so a persistently
-            // refused gateway doesn't leak one group per attempt. shutdownGracefully() is
-            // idempotent, so a double call with the close-listener above is harmless.
-            workerGroup.shutdownGracefully();
             if (init) {
                 log.error("Initial connection for {} could not be established: {}", this, e.getMessage());
                 log.error("Leaving unconnected and retrying connection in {} seconds.", RECONNECT_WAIT);
@@ -430,7 +417,7 @@ public class BackboneClientInterface extends AbstractConnectionInterface impleme
      * <p>Deliberately does NOT call {@code ChannelFuture.sync()} — that call blocks the
      * calling thread until the TCP connect completes (up to the OS TCP-SYN timeout of
      * ~63 s on Linux).  When called from {@link #processOutgoing} inside Transport's
-     * {@code jobsLock}, blocking there starves ALL other Reticulum outbound/inbound
+     * routing lock, blocking there starves ALL other Reticulum outbound/inbound
      * operations for the full TCP-timeout duration.  Instead we snapshot the volatile
      * field and check {@code isActive()} — a non-blocking, always-instant test.
      */
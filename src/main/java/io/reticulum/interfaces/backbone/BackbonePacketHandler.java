@@ -1,11 +1,12 @@
 package io.reticulum.interfaces.backbone;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.SimpleChannelInboundHandler;
 import io.reticulum.Transport;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang3.ArrayUtils;
 
 /**
  * Netty inbound handler for Backbone TCP frames.
@@ -16,15 +17,15 @@ import org.apache.commons.lang3.ArrayUtils;
  */
 @Slf4j
 @RequiredArgsConstructor
-public class BackbonePacketHandler extends SimpleChannelInboundHandler<byte[]> {
+public class BackbonePacketHandler extends SimpleChannelInboundHandler<ByteBuf> {
 
     private final BackboneClientInterface connectionInterface;
 
     @Override
-    protected void channelRead0(ChannelHandlerContext ctx, byte[] msg) {
-        if (ArrayUtils.isNotEmpty(msg)) {
+    protected void channelRead0(ChannelHandlerContext ctx, ByteBuf msg) {
+        if (msg.isReadable()) {
             log.trace("channelRead0. context: {}, interface: {}", ctx, connectionInterface);
-            connectionInterface.processIncoming(msg);
+            connectionInterface.processIncoming(ByteBufUtil.getBytes(msg));
         }
     }
 
@@ -58,9 +59,6 @@ public class BackbonePacketHandler extends SimpleChannelInboundHandler<byte[]> {
 
     // Compatibility shim for Netty 5 API (channelRead0 → messageReceived)
     public void messageReceived(ChannelHandlerContext ctx, Object msg) {
-        byte[] message = (byte[]) msg;
-        if (ArrayUtils.isNotEmpty(message)) {
-            connectionInterface.processIncoming(message);
-        }
+        channelRead0(ctx, (ByteBuf) msg);
     }
 }
\ No newline at end of file
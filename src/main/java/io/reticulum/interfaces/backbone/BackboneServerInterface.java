@@ -5,10 +5,10 @@ import io.netty.bootstrap.ServerBootstrap;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelOption;
-import io.netty.channel.EventLoopGroup;
 import io.reticulum.interfaces.AbstractConnectionInterface;
 import io.reticulum.interfaces.HDLC;
 import io.reticulum.interfaces.InterfaceMode;
+import io.reticulum.interfaces.NettyTransport;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
@@ -28,11 +28,10 @@ import static java.util.Objects.nonNull;
  * <p>Corresponds to {@code BackboneInterface} in the Python reference implementation
  * (RNS/Interfaces/BackboneInterface.py).
  *
- * <p>On Linux, Netty's epoll transport ({@link io.netty.channel.socket.nio.NioSocketChannel} +
- * {@link io.netty.channel.epoll.EpollServerSocketChannel}) is used automatically when available, providing
- * the same scalability benefit as Python's {@code select.epoll}.  On other platforms
- * the implementation falls back to NIO ({@link io.netty.channel.nio.NioEventLoopGroup} +
- * {@link io.netty.channel.socket.nio.NioServerSocketChannel}), matching the Python fall-back to TCPServerInterface.
+ * <p>The listener and its connections run on the shared event loops of {@link NettyTransport}.
+ * On Linux these use io_uring or epoll when available, providing the same scalability benefit
+ * as Python's {@code select.epoll}; on other platforms they fall back to NIO selectors, matching
+ * the Python fall-back to TCPServerInterface.
  *
  * <p>Configuration keys (YAML):
  * <ul>
@@ -168,24 +167,15 @@ public class BackboneServerInterface extends AbstractConnectionInterface impleme
     }
 
     /**
-     * Binds and starts the TCP server.
-     *
-     * <p>Uses epoll when running on Linux (Netty's Epoll#isAvailable() is
-     * {@code true}), otherwise falls back to NIO selectors — matching the Python
-     * reference which uses {@code select.epoll} on Linux and falls back to
-     * {@code TCPServerInterface} on other platforms.
+     * Binds and starts the TCP server on the shared {@link NettyTransport} event loops.
      */
     public void startListening() throws InterruptedException {
-        EventLoopGroup bossGroup   = BackboneTransport.newBossGroup();
-        EventLoopGroup workerGroup = BackboneTransport.newWorkerGroup();
-
-        log.debug("BackboneServerInterface using {} for {}",
-                BackboneTransport.EPOLL_USABLE ? "Linux epoll" : "NIO selector", this);
+        log.debug("BackboneServerInterface using {} for {}", NettyTransport.transportName(), this);
 
         var bootstrap = new ServerBootstrap();
         bootstrap
-                .group(bossGroup, workerGroup)
-                .channel(BackboneTransport.serverChannelClass())
+                .group(NettyTransport.group())
+                .channel(NettyTransport.serverChannelClass())
                 .option(ChannelOption.SO_BACKLOG,  1024)
                 .option(ChannelOption.SO_REUSEADDR, true)
                 .childOption(ChannelOption.SO_KEEPALIVE, true)
@@ -200,8 +190,6 @@ public class BackboneServerInterface extends AbstractConnectionInterface impleme
                 .addListener((ChannelFutureListener) future ->
                         future.channel().closeFuture()
                                 .addListener((ChannelFutureListener) closeFeature -> {
-                                    bossGroup.shutdownGracefully();
-                                    workerGroup.shutdownGracefully();
                                     online.set(false);
                                 })
                 ).sync();
@@ -208,7 +208,7 @@ public class LocalClientInterface extends AbstractConnectionInterface implements
             parentInterface.getRxb().updateAndGet(previous -> previous.add(BigInteger.valueOf(data.length)));
         }
 
-        Transport.getInstance().inbound(data, this);
+        Transport.getInstance().enqueueInbound(data, this);
     }
 
     public void processOutgoing(final byte[] data) {
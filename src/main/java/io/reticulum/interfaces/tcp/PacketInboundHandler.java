@@ -1,23 +1,24 @@
 package io.reticulum.interfaces.tcp;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.SimpleChannelInboundHandler;
 import io.reticulum.Transport;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang3.ArrayUtils;
 
 @Slf4j
 @RequiredArgsConstructor
-public class PacketInboundHandler extends SimpleChannelInboundHandler<byte[]> {
+public class PacketInboundHandler extends SimpleChannelInboundHandler<ByteBuf> {
 
     private final TCPClientInterface connectionInterface;
 
     @Override
-    protected void channelRead0(ChannelHandlerContext ctx, byte[] msg) throws Exception {
-        if(ArrayUtils.isNotEmpty(msg)) {
+    protected void channelRead0(ChannelHandlerContext ctx, ByteBuf msg) {
+        if (msg.isReadable()) {
             log.trace("channelRead0. context: {}, interface: {}, message: {}", ctx, connectionInterface, msg);
-            connectionInterface.processIncoming(msg);
+            connectionInterface.processIncoming(ByteBufUtil.getBytes(msg));
         }
     }
 
@@ -47,9 +48,6 @@ public class PacketInboundHandler extends SimpleChannelInboundHandler<byte[]> {
     // implement abstract method (netty >= 4.x, channelRead renamed to messageReceived in netty 5)
     public void messageReceived(ChannelHandlerContext ctx, Object msg) {
         //log.trace("message received. context: {}, interface: {}, message: {}", ctx.name(), connectionInterface.getInterfaceName() , msg);
-        byte[] message = (byte[]) msg;
-        if(ArrayUtils.isNotEmpty(message)) {
-            connectionInterface.processIncoming(message);
-        }
+        channelRead0(ctx, (ByteBuf) msg);
     }
 }
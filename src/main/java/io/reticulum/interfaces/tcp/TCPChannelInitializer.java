@@ -2,21 +2,22 @@ package io.reticulum.interfaces.tcp;
 
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelInitializer;
+import io.netty.channel.WriteBufferWaterMark;
 import io.netty.channel.socket.SocketChannel;
-import io.netty.handler.codec.DelimiterBasedFrameDecoder;
-import io.netty.handler.codec.bytes.ByteArrayDecoder;
-import io.netty.handler.codec.bytes.ByteArrayEncoder;
 import io.reticulum.Transport;
 import io.reticulum.interfaces.ConnectionInterface;
-import io.reticulum.interfaces.HDLC;
-import io.reticulum.interfaces.KISS;
+import io.reticulum.interfaces.FlushCoalescingHandler;
+import io.reticulum.interfaces.HDLCFrameDecoder;
+import io.reticulum.interfaces.HDLCFrameEncoder;
+import io.reticulum.interfaces.KISSFrameDecoder;
+import io.reticulum.interfaces.KISSFrameEncoder;
 import io.reticulum.utils.InterfaceUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
 @RequiredArgsConstructor
-public class TCPChannelInitializer extends ChannelInitializer<SocketChannel> implements HDLC, KISS {
+public class TCPChannelInitializer extends ChannelInitializer<SocketChannel> {
 
     private static final int HW_MTU = 1064;
 
@@ -25,13 +26,19 @@ public class TCPChannelInitializer extends ChannelInitializer<SocketChannel> imp
 
     @Override
     protected void initChannel(SocketChannel ch) throws Exception {
+        var clientInterface = createInterface(ch);
+        // a slow peer makes the channel unwritable and Transport drop packets for it
+        ch.config().setWriteBufferWaterMark(new WriteBufferWaterMark(
+                clientInterface.getWriteBufferLimit() / 2,
+                clientInterface.getWriteBufferLimit()
+        ));
         ch.pipeline()
                 .addLast(
 //                        new LoggingHandler(ByteBufFormat.HEX_DUMP),
-                        new DelimiterBasedFrameDecoder(HW_MTU, true, kissFraming ? delimitersKiss() : delimitersHdlc()),
-                        new ByteArrayDecoder(),
-                        new ByteArrayEncoder(),
-                        new PacketInboundHandler(createInterface(ch))
+                        new FlushCoalescingHandler(clientInterface.getFlushMaxDelay(), clientInterface.getFlushMaxBytes()),
+                        kissFraming ? new KISSFrameDecoder(HW_MTU) : new HDLCFrameDecoder(HW_MTU),
+                        kissFraming ? new KISSFrameEncoder() : new HDLCFrameEncoder(),
+                        new PacketInboundHandler(clientInterface)
                 );
     }
 
@@ -54,6 +61,9 @@ public class TCPChannelInitializer extends ChannelInitializer<SocketChannel> imp
             spownedInterface.setAnnounceRateGrace(serverInterface.getAnnounceRateGrace());
             spownedInterface.setAnnounceRatePenalty(serverInterface.getAnnounceRatePenalty());
             spownedInterface.setInterfaceMode(serverInterface.getInterfaceMode());
+            spownedInterface.setFlushMaxDelay(serverInterface.getFlushMaxDelay());
+            spownedInterface.setFlushMaxBytes(serverInterface.getFlushMaxBytes());
+            spownedInterface.setWriteBufferLimit(serverInterface.getWriteBufferLimit());
             spownedInterface.getOnline().set(true);
 
             //Ifac
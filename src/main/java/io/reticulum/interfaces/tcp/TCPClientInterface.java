@@ -7,20 +7,17 @@ import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.ChannelOutboundInvoker;
-import io.netty.channel.EventLoopGroup;
-import io.netty.channel.nio.NioEventLoopGroup;
-import io.netty.channel.socket.nio.NioSocketChannel;
 import io.reticulum.Transport;
 import io.reticulum.interfaces.AbstractConnectionInterface;
 import io.reticulum.interfaces.HDLC;
 import io.reticulum.interfaces.InterfaceMode;
 import io.reticulum.interfaces.KISS;
+import io.reticulum.interfaces.NettyTransport;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.BooleanUtils;
 
-import java.io.ByteArrayOutputStream;
 import java.math.BigInteger;
 import java.net.InetSocketAddress;
 import java.time.Duration;
@@ -137,34 +134,24 @@ public class TCPClientInterface extends AbstractConnectionInterface implements H
 
     @Override
     public void processIncoming(byte[] data) {
-        var processingData = kissFraming ? unmaskKiss(data) : unmaskHdlc(data);
-        this.rxb.accumulateAndGet(BigInteger.valueOf(processingData.length), BigInteger::add);
+        // frames arrive unescaped from the frame decoder of the channel pipeline
+        this.rxb.accumulateAndGet(BigInteger.valueOf(data.length), BigInteger::add);
         if (nonNull(parentInterface)) {
             ((AbstractConnectionInterface) parentInterface).getRxb()
-                    .accumulateAndGet(BigInteger.valueOf(processingData.length), BigInteger::add);
+                    .accumulateAndGet(BigInteger.valueOf(data.length), BigInteger::add);
         }
 
-        Transport.getInstance().inbound(processingData, this);
+        Transport.getInstance().enqueueInbound(data, this);
     }
 
     @Override
     public void processOutgoing(byte[] data) {
         log.trace("Send packet data. interface: {}, message: {}", this, data);
         if (online.get()) {
-            try(var os = new ByteArrayOutputStream()) {
-                if (kissFraming) {
-                    os.write(FEND);
-                    os.write(CMD_DATA);
-                    os.write(escapeKiss(data));
-                    os.write(FEND);
-                } else {
-                    os.write(FLAG);
-                    os.write(escapeHdlc(data));
-                    os.write(FLAG);
-                }
-
+            try {
+                // the frame encoder of the channel pipeline escapes and frames the packet
                 getChannel()
-                        .map(ch -> ch.writeAndFlush(os.toByteArray()))
+                        .map(ch -> ch.writeAndFlush(data))
                         .orElseThrow(() -> new RuntimeException("Channel is not present."));
 
                 txb.accumulateAndGet(BigInteger.valueOf(data.length), BigInteger::add);
@@ -179,6 +166,14 @@ public class TCPClientInterface extends AbstractConnectionInterface implements H
         }
     }
 
+    @Override
+    public boolean isWritable() {
+        // no sync() here: Transport asks before every packet
+        var future = channelFuture;
+        var ch = nonNull(future) && future.isDone() ? future.channel() : channel;
+        return isNull(ch) || ch.isWritable();
+    }
+
     private void startReconnecting() {
         if (isFalse(initiator)) {
             log.error("Attempt to reconnect on a non-initiator TCP interface. This should not happen");
@@ -263,14 +258,13 @@ public class TCPClientInterface extends AbstractConnectionInterface implements H
     private synchronized boolean connect(final Boolean initial) throws InterruptedException {
         var init = BooleanUtils.isTrue(initial);
         var self = this;
-        EventLoopGroup workerGroup = new NioEventLoopGroup();
         try {
             if (init) {
                 log.debug("Establishing TCP connection for {} ...", this);
             }
             Bootstrap bootstrap = new Bootstrap();
             bootstrap
-                    .group(workerGroup).channel(NioSocketChannel.class)
+                    .group(NettyTransport.group()).channel(NettyTransport.socketChannelClass())
                     .option(ChannelOption.SO_KEEPALIVE, true)
                     .handler(new TCPChannelInitializer(self, kissFraming));
 
@@ -281,13 +275,6 @@ public class TCPClientInterface extends AbstractConnectionInterface implements H
                             .addListener((ChannelFutureListener) closeFeature -> {
                                 //Listen close detect listener
                                 online.set(false);
-                                // Always release this connection's EventLoopGroup once the
-                                // channel closes. Previously it was only shut down on the
-                                // detached path, so every reconnect leaked a whole
-                                // NioEventLoopGroup (~2×cores threads) — the nioEventLoopGroup
-                                // thread pile-up seen in Qortal test-14. A reconnect creates a
-                                // fresh group via connect(), so the old one is safe to drop.
-                                workerGroup.shutdownGracefully();
                                 if (isFalse(detached)) {
                                     startReconnecting();
                                 }
@@ -298,9 +285,6 @@ public class TCPClientInterface extends AbstractConnectionInterface implements H
             neverConnected = false;
             log.debug("TCP connection for {} established", this);
         } catch (Exception e) {
-            // Connection never became active, so its close-listener won't fire — release the
-            // EventLoopGroup here to avoid leaking it on every failed connection attempt.
-            workerGroup.shutdownGracefully();
             if (init) {
                 // Throttle logging: a persistently refused target (e.g. a down gateway) would
                 // otherwise log a full stack trace on every attempt — 25,900 stacks / 45s / 43MB
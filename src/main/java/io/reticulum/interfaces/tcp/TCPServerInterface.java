@@ -6,14 +6,12 @@ import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelOption;
-import io.netty.channel.EventLoopGroup;
-import io.netty.channel.nio.NioEventLoopGroup;
-import io.netty.channel.socket.nio.NioServerSocketChannel;
 import io.reticulum.Transport;
 import io.reticulum.interfaces.AbstractConnectionInterface;
 import io.reticulum.interfaces.HDLC;
 import io.reticulum.interfaces.InterfaceMode;
 import io.reticulum.interfaces.KISS;
+import io.reticulum.interfaces.NettyTransport;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
@@ -76,13 +74,11 @@ public class TCPServerInterface extends AbstractConnectionInterface implements H
 
     public void startListening() throws InterruptedException {
         var self = this;
-        EventLoopGroup bossGroup = new NioEventLoopGroup();
-        EventLoopGroup workerGroup = new NioEventLoopGroup();
         ServerBootstrap bootstrap = new ServerBootstrap();
         bootstrap
-                .group(bossGroup, workerGroup)
-                // Use NioserVersocketChannel as a channel for the channel to implement
-                .channel(NioServerSocketChannel.class)
+                // the listener and its connections share the event loops of all interfaces
+                .group(NettyTransport.group())
+                .channel(NettyTransport.serverChannelClass())
                 // Set the thread queue to wait for the number of connections
                 .option(ChannelOption.SO_BACKLOG, 1024)
                 // Set up to keep the activity connection status
@@ -94,9 +90,6 @@ public class TCPServerInterface extends AbstractConnectionInterface implements H
                 .addListener(
                         (ChannelFutureListener) future -> future.channel().closeFuture()
                                 .addListener((ChannelFutureListener) closeFeature -> {
-                                    // Wait until the connection is closed.
-                                    bossGroup.shutdownGracefully();
-                                    workerGroup.shutdownGracefully();
                                     online.set(false);
                                 })
                 ).sync();
@@ -107,7 +100,7 @@ public class TCPServerInterface extends AbstractConnectionInterface implements H
         var processingData = unmaskHdlc(data);
         this.rxb.accumulateAndGet(BigInteger.valueOf(processingData.length), BigInteger::add);
 
-        Transport.getInstance().inbound(processingData, this);
+        Transport.getInstance().enqueueInbound(processingData, this);
     }
 
     /**
@@ -112,7 +112,6 @@ import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
 import static java.util.concurrent.CompletableFuture.runAsync;
-import static java.util.concurrent.Executors.defaultThreadFactory;
 import static org.apache.commons.lang3.ArrayUtils.getLength;
 import static org.apache.commons.lang3.ArrayUtils.subarray;
 import static org.apache.commons.lang3.BooleanUtils.isFalse;
@@ -248,23 +247,30 @@ public class Link extends AbstractDestination {
             Transport.getInstance().registerLink(this);
             this.requestTime = Instant.now();
             startWatchdog();
-            this.packet.send();
+            this.packet.sendAsync().whenComplete((receipt, error) -> {
+                if (nonNull(error)) {
+                    linkRequestFailed();
+                } else {
+                    log.debug("Link request {}  sent to {}", linkId, destination);
+                    log.trace("Establishment timeout is {} ms  for link request {}", establishmentTimeout, linkId);
+                }
+            });
             this.hadOutbound();
+        }
+    }
 
-            if (!this.packet.isSent()) {
-                // LINKREQUEST could not be sent (e.g. jobsLock busy or no interface).
-                // The link is already in pendingLinks; leaving it there as a zombie for
-                // the full establishmentTimeout would fire expirePath() → cull cascade.
-                // Close it immediately instead.
-                log.warn("LINKREQUEST for {} could not be sent, closing link immediately to prevent zombie",
-                        Hex.encodeHexString(linkId));
-                this.status = CLOSED;
-                this.teardownReason = TIMEOUT;
-                linkClosed();
-            } else {
-                log.debug("Link request {}  sent to {}", linkId, destination);
-                log.trace("Establishment timeout is {} ms  for link request {}", establishmentTimeout, linkId);
-            }
+    /**
+     * LINKREQUEST could not be sent (e.g. no interface). The link is already in pendingLinks;
+     * leaving it there as a zombie for the full establishmentTimeout would fire expirePath()
+     * and a cull cascade. Close it immediately instead.
+     */
+    private synchronized void linkRequestFailed() {
+        if (status == PENDING) {
+            log.warn("LINKREQUEST for {} could not be sent, closing link immediately to prevent zombie",
+                    Hex.encodeHexString(linkId));
+            this.status = CLOSED;
+            this.teardownReason = TIMEOUT;
+            linkClosed();
         }
     }
 
@@ -434,7 +440,7 @@ public class Link extends AbstractDestination {
 
         var proofData = concatArrays(signature, this.pubBytes, sb);
         var proof = new Packet(this, proofData, PROOF, LRPROOF);
-        proof.send();
+        proof.sendAsync();
         this.establishmentCost.getAndAdd(proof.getRaw().length);
         this.hadOutbound();
     }
@@ -450,7 +456,7 @@ public class Link extends AbstractDestination {
         var proofData = concatArrays(packet.getPacketHash(), signature);
 
         var proof = new Packet(this, proofData, PROOF);
-        proof.send();
+        proof.sendAsync();
         this.hadOutbound();
     }
 
@@ -505,7 +511,7 @@ public class Link extends AbstractDestination {
 
                             var rttData = packer.toByteArray();
                             var rttPacket = new Packet(this, rttData, LRRTT);
-                            rttPacket.send();
+                            rttPacket.sendAsync();
 
                             this.hadOutbound();
                         }
@@ -540,7 +546,7 @@ public class Link extends AbstractDestination {
             var proofData = concatArrays(identity.getPublicKey(), signature);
 
             var proof = new Packet(this, proofData, DATA, LINKIDENTIFY);
-            proof.send();
+            proof.sendAsync();
 
             this.hadOutbound();
         }
@@ -557,7 +563,7 @@ public class Link extends AbstractDestination {
      *                         receiving the response. Progress can be accessed as a float between 0.0 and 1.0 by the
      *                         *request_receipt.progress* property.
      * @param timeout An optional timeout in seconds for the request. If *None* is supplied it will be calculated based on link RTT.
-     * @return A {@link RequestReceipt} instance if the request was sent. Or null if it was not.
+     * @return A {@link RequestReceipt} instance. If the request cannot be sent, it fails and the failed callback is called.
      */
     @SneakyThrows
     public RequestReceipt request(
@@ -581,23 +587,20 @@ public class Link extends AbstractDestination {
 
         if (packedRequest.length < MDU) {
             var requestPacket = new Packet(this, packedRequest, DATA, REQUEST);
-            var packetReceipt = requestPacket.send();
+            var sent = requestPacket.sendAsync();
+            var requestReceipt = new RequestReceipt(
+                    this,
+                    requestPacket,
+                    responseCallback,
+                    failedCallback,
+                    progressCallback,
+                    localTimeout,
+                    packedRequest.length
+            );
+            // the packet waits behind the other packets of this link, its receipt is attached once sent
+            sent.whenComplete(requestReceipt::requestSent);
 
-            if (isNull(packetReceipt)) {
-                return null;
-            } else {
-                packetReceipt.setTimeout(localTimeout);
-
-                return new RequestReceipt(
-                        this,
-                        packetReceipt,
-                        responseCallback,
-                        failedCallback,
-                        progressCallback,
-                        localTimeout,
-                        packedRequest.length
-                );
-            }
+            return requestReceipt;
         } else {
             var requestId = truncatedHash(packedRequest);
             log.debug("Sending request {} as resource.", requestId);
@@ -753,6 +756,7 @@ public class Link extends AbstractDestination {
      */
     public synchronized void teardown() {
         if (status != PENDING && status != CLOSED) {
+            // sent synchronously: once the status below is CLOSED, a queued packet would no longer be routed
             var teardownPacket = new Packet(this, this.linkId, LINKCLOSE);
             teardownPacket.send();
             this.hadOutbound();
@@ -797,6 +801,7 @@ public class Link extends AbstractDestination {
     }
 
     private synchronized void linkClosed() {
+        LinkWatchdog.getInstance().cancel(this);
         try {
             incomingResources.forEach(Resource::cancel);
             outgoingResources.forEach(Resource::cancel);
@@ -827,119 +832,111 @@ public class Link extends AbstractDestination {
         }
     }
 
+    /**
+     * Hands the link to the shared {@link LinkWatchdog}, which checks it right away and then
+     * whenever {@link #watchdog()} asks for it.
+     */
     public void startWatchdog() {
-        // Watchdog must be a daemon thread: a Link whose watchdog is non-daemon keeps the
-        // whole JVM alive after shutdown (thousands leaked in Qortal test-14), preventing a
-        // clean stop and holding network ports until the OS reaps the process on reboot.
-        var watchdogThread = defaultThreadFactory().newThread(watchdogJob());
-        watchdogThread.setDaemon(true);
-        watchdogThread.setName("RNS-LinkWatchdog");
-        watchdogThread.start();
-    }
-
-    private Runnable watchdogJob() {
-        return () -> {
-            var sleepTime = 0L;
-            var nextCheck = Instant.now();
-            while (status != CLOSED) {
-                while (watchdogLock.isLocked()) {
-                    try {
-                        Thread.sleep(Math.max(rtt, 25));
-                    } catch (InterruptedException e) {
-                        throw new RuntimeException(e);
-                    }
-                }
-
-                //var sleepTime = 0L;
-                //var nextCheck = Instant.now();
-                if (this.status != CLOSED) {
-                    // Link was initiated, but no response from destination yet
-                    switch (this.status) {
-                        case PENDING:
-                            // establishmentTimeout is in milliseconds - see its declaration.
-                            nextCheck = this.requestTime.plusMillis(this.establishmentTimeout);
-                            sleepTime = Duration.between(Instant.now(), nextCheck).toMillis();
-                            if (Instant.now().compareTo(nextCheck) >= 0) {
-                                log.info("Link establishment timed out");
-                                status = CLOSED;
-                                teardownReason = TIMEOUT;
-                                linkClosed();
-                                sleepTime = 1;
-                            }
-                            break;
-                        case HANDSHAKE:
-                            // establishmentTimeout is in milliseconds - see its declaration.
-                            nextCheck = this.requestTime.plusMillis(this.establishmentTimeout);
-                            sleepTime = Duration.between(Instant.now(), nextCheck).toMillis();
-                            if (Instant.now().compareTo(nextCheck) >= 0) {
-                                if (initiator) {
-                                    log.debug("Timeout waiting for link request proof");
-                                } else {
-                                    log.debug("Timeout waiting for RTT packet from link initiator");
-                                }
-                                status = CLOSED;
-                                teardownReason = TIMEOUT;
-                                linkClosed();
-                                sleepTime = 1;
-                            }
-                            break;
-                        case ACTIVE:
-                            Instant time;
-                            log.info("activatedAt: {}, lastInbound: {}, lastProof: {}", this.activatedAt, this.lastInbound, this.lastProof);
-                            if (nonNull(this.activatedAt) && this.activatedAt.compareTo(this.lastInbound) < 0) {
-                                time = this.activatedAt;
-                            } else {
-                                time = this.lastInbound;
-                            }
+        LinkWatchdog.getInstance().schedule(this, 0);
+    }
 
-                            var now = Instant.now();
-                            if (now.compareTo(time.plusSeconds(this.keepalive)) >= 0) {
-                                if (initiator) {
-                                    sendKeepalive();
-                                }
+    /**
+     * One pass of the watchdog: times out pending and handshaking links, sends keepalives and
+     * marks silent links stale, then closes them.
+     *
+     * @return milliseconds until the next pass, negative once the link is closed
+     */
+    long watchdog() {
+        if (status == CLOSED) {
+            return -1;
+        }
+        if (watchdogLock.isLocked()) {
+            // a packet is being received, look again shortly
+            return Math.max(rtt, LinkWatchdog.TICK_MILLIS);
+        }
 
-                                if (now.compareTo(time.plusSeconds(staleTime)) >= 0) {
-                                    sleepTime =  + Duration.ofSeconds(STALE_GRACE).plusMillis(this.rtt * this.keepaliveTimeoutFactor).toMillis();
-                                    status = STALE;
-                                } else {
-                                    sleepTime = Duration.ofSeconds(keepalive).toMillis();
-                                }
-                            } else {
-                                sleepTime = Duration.between(now, time.plusSeconds(keepalive)).toMillis();
-                            }
-                            log.info("link status: {}", this.status);
-                            break;
-                        case STALE:
-                            sleepTime = 1;
-                            status = CLOSED;
-                            teardownReason = TIMEOUT;
-                            linkClosed();
-                            break;
-                        case CLOSED:
-                            break;
+        var sleepTime = 0L;
+        Instant nextCheck;
+        // Link was initiated, but no response from destination yet
+        switch (this.status) {
+            case PENDING:
+                // establishmentTimeout is in milliseconds - see its declaration.
+                nextCheck = this.requestTime.plusMillis(this.establishmentTimeout);
+                sleepTime = Duration.between(Instant.now(), nextCheck).toMillis();
+                if (Instant.now().compareTo(nextCheck) >= 0) {
+                    log.info("Link establishment timed out");
+                    status = CLOSED;
+                    teardownReason = TIMEOUT;
+                    linkClosed();
+                    sleepTime = 1;
+                }
+                break;
+            case HANDSHAKE:
+                // establishmentTimeout is in milliseconds - see its declaration.
+                nextCheck = this.requestTime.plusMillis(this.establishmentTimeout);
+                sleepTime = Duration.between(Instant.now(), nextCheck).toMillis();
+                if (Instant.now().compareTo(nextCheck) >= 0) {
+                    if (initiator) {
+                        log.debug("Timeout waiting for link request proof");
+                    } else {
+                        log.debug("Timeout waiting for RTT packet from link initiator");
                     }
+                    status = CLOSED;
+                    teardownReason = TIMEOUT;
+                    linkClosed();
+                    sleepTime = 1;
+                }
+                break;
+            case ACTIVE:
+                Instant time;
+                log.trace("activatedAt: {}, lastInbound: {}, lastProof: {}", this.activatedAt, this.lastInbound, this.lastProof);
+                if (nonNull(this.activatedAt) && this.activatedAt.compareTo(this.lastInbound) < 0) {
+                    time = this.activatedAt;
+                } else {
+                    time = this.lastInbound;
+                }
 
-                    if (sleepTime == 0) {
-                        sleepTime = 1;
-                    } else if (sleepTime < 0) {
-                        log.error("Timing error! Tearing down link {}  now.", this);
-                        teardown();
-                        sleepTime = 100;
+                var now = Instant.now();
+                if (now.compareTo(time.plusSeconds(this.keepalive)) >= 0) {
+                    if (initiator) {
+                        sendKeepalive();
                     }
 
-                    try {
-                        Thread.sleep(sleepTime);
-                    } catch (InterruptedException e) {
-                        throw new RuntimeException(e);
+                    if (now.compareTo(time.plusSeconds(staleTime)) >= 0) {
+                        sleepTime =  + Duration.ofSeconds(STALE_GRACE).plusMillis(this.rtt * this.keepaliveTimeoutFactor).toMillis();
+                        status = STALE;
+                    } else {
+                        sleepTime = Duration.ofSeconds(keepalive).toMillis();
                     }
+                } else {
+                    sleepTime = Duration.between(now, time.plusSeconds(keepalive)).toMillis();
                 }
-            }
-        };
+                log.trace("link status: {}", this.status);
+                break;
+            case STALE:
+                sleepTime = 1;
+                status = CLOSED;
+                teardownReason = TIMEOUT;
+                linkClosed();
+                break;
+            case CLOSED:
+                break;
+        }
+
+        if (sleepTime == 0) {
+            sleepTime = 1;
+        } else if (sleepTime < 0) {
+            log.error("Timing error! Tearing down link {}  now.", this);
+            teardown();
+            sleepTime = 100;
+        }
+
+        return status == CLOSED ? -1 : sleepTime;
     }
 
     private void sendKeepalive() {
         var keepalivePacket = new Packet(this, new byte[]{(byte) 0xFF}, PacketContextType.KEEPALIVE);
-        keepalivePacket.send();
+        keepalivePacket.sendAsync();
         this.hadOutbound();
     }
 
@@ -977,7 +974,7 @@ public class Link extends AbstractDestination {
                             var packedResponse = packer.toByteArray();
 
                             if (packedResponse.length <= MDU) {
-                                new Packet(this, packedResponse, DATA, RESPONSE).send();
+                                new Packet(this, packedResponse, DATA, RESPONSE).sendAsync();
                             } else {
                                  var responseResource = new Resource(packedResponse, this, requestId, true);
                             }
@@ -1261,7 +1258,7 @@ public class Link extends AbstractDestination {
                     } else if (packet.getContext() == PacketContextType.KEEPALIVE) {
                         if (isFalse(initiator) && Arrays.equals(packet.getData(), new byte[] {(byte) 0xFF})) {
                             var keepalivePacket = new Packet(this, new byte[] {(byte) 0xFF}, PacketContextType.KEEPALIVE);
-                            keepalivePacket.send();
+                            keepalivePacket.sendAsync();
                             this.hadOutbound();
                         }
                     }
@@ -1304,8 +1301,8 @@ public class Link extends AbstractDestination {
         } finally {
             // Always release: if any packet-processing step above throws (e.g. the known
             // PacketReceipt/validateProof ClassCastException), an unreleased watchdogLock
-            // would trap this Link's watchdog in its isLocked() spin loop forever, so it
-            // could never observe status==CLOSED and would leak as a live thread.
+            // would make every watchdog pass of this Link back off forever, so it could never
+            // observe status==CLOSED and would stay in the LinkWatchdog wheel.
             watchdogLock.unlock();
         }
     }
@@ -0,0 +1,126 @@
+package io.reticulum.link;
+
+import io.reticulum.transport.TimingWheel;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+import static io.reticulum.link.LinkStatus.CLOSED;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Drives the watchdog of every link: establishment timeout, keepalive and stale detection.
+ * <p>
+ * Links wait for their next check in a {@link TimingWheel}. One ticker thread advances the
+ * wheel and hands the links that are due to a small worker pool, which runs
+ * {@link Link#watchdog()} and puts the link back with the delay it returns. The number of
+ * threads therefore does not depend on the number of links; an idle link costs one wheel
+ * entry instead of a sleeping thread of its own.
+ */
+@Slf4j
+final class LinkWatchdog {
+
+    /**
+     * Resolution of the wheel, also the shortest delay between two checks of a link.
+     */
+    static final long TICK_MILLIS = 25;
+
+    /**
+     * Delay before a link whose check threw is checked again.
+     */
+    private static final long RETRY_MILLIS = 1_000;
+
+    private static final int WORKERS = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+
+    private static final class Holder {
+        private static final LinkWatchdog INSTANCE = start();
+    }
+
+    private final TimingWheel<Link> wheel;
+    private final Executor workers;
+    private final LongSupplier clock;
+
+    LinkWatchdog(Executor workers, LongSupplier clock) {
+        this.workers = workers;
+        this.clock = clock;
+        this.wheel = new TimingWheel<>(TICK_MILLIS, clock.getAsLong());
+    }
+
+    /**
+     * The watchdog shared by all links, started with the first link that needs it.
+     */
+    static LinkWatchdog getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    private static LinkWatchdog start() {
+        // daemon threads for the same reason as the former per-link watchdog threads:
+        // they must never keep the JVM alive after shutdown
+        ExecutorService workers = Executors.newFixedThreadPool(WORKERS, daemonThreadFactory("rns-link-watchdog-worker"));
+        var watchdog = new LinkWatchdog(workers, System::currentTimeMillis);
+        ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(daemonThreadFactory("rns-link-watchdog"));
+        ticker.scheduleAtFixedRate(() -> {
+            try {
+                watchdog.tick();
+            } catch (Throwable t) {
+                // an exception would cancel the ticker and with it the watchdog of every link
+                log.error("Error while advancing the link watchdog", t);
+            }
+        }, TICK_MILLIS, TICK_MILLIS, MILLISECONDS);
+
+        return watchdog;
+    }
+
+    private static ThreadFactory daemonThreadFactory(String namePrefix) {
+        var counter = new AtomicInteger();
+        return runnable -> {
+            var thread = new Thread(runnable, namePrefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Checks the link after {@code delayMillis}, replacing a check already pending for it.
+     */
+    void schedule(Link link, long delayMillis) {
+        wheel.schedule(link, clock.getAsLong() + delayMillis);
+    }
+
+    void cancel(Link link) {
+        wheel.cancel(link);
+    }
+
+    int size() {
+        return wheel.size();
+    }
+
+    /**
+     * Hands every link whose check is due to the workers.
+     */
+    void tick() {
+        for (Link link : wheel.advance(clock.getAsLong())) {
+            workers.execute(() -> check(link));
+        }
+    }
+
+    private void check(Link link) {
+        long delay;
+        try {
+            delay = link.watchdog();
+        } catch (Exception e) {
+            log.error("Error in watchdog of link {}", link, e);
+            delay = link.getStatus() == CLOSED ? -1 : RETRY_MILLIS;
+        }
+
+        if (delay >= 0) {
+            schedule(link, delay);
+        }
+    }
+}
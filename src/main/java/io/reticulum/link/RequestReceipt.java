@@ -1,5 +1,6 @@
 package io.reticulum.link;
 
+import io.reticulum.packet.Packet;
 import io.reticulum.packet.PacketReceipt;
 import io.reticulum.packet.PacketReceiptStatus;
 import io.reticulum.resource.Resource;
@@ -19,6 +20,7 @@ import static io.reticulum.link.RequestReceiptStatus.FAILED;
 import static io.reticulum.link.RequestReceiptStatus.READY;
 import static io.reticulum.link.RequestReceiptStatus.RECEIVING;
 import static io.reticulum.link.RequestReceiptStatus.SENT;
+import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
 import static java.util.concurrent.CompletableFuture.runAsync;
 import static org.apache.commons.lang3.BooleanUtils.isFalse;
@@ -68,18 +70,19 @@ public class RequestReceipt {
         link.getPendingRequests().add(this);
     }
 
+    /**
+     * @param requestPacket packed request, its {@link PacketReceipt} is attached by {@link #requestSent}
+     */
     public RequestReceipt(
             Link link,
-            PacketReceipt packetReceipt,
+            Packet requestPacket,
             Consumer<RequestReceipt> responseCallback,
             Consumer<RequestReceipt> failedCallback,
             Consumer<RequestReceipt> progressCallback,
             long timeout,
             int requestSize
     ) {
-        this.packetReceipt = packetReceipt;
-        this.hash = packetReceipt.getTruncatedHash();
-        this.packetReceipt.setTimeoutCallback(this::requestTimedOut);
+        this.hash = requestPacket.getTruncatedHash();
         this.startedAt = Instant.now();
 
         init(link, responseCallback, failedCallback, progressCallback, timeout, requestSize);
@@ -123,6 +126,21 @@ public class RequestReceipt {
         }
     }
 
+    /**
+     * Attaches the receipt of the request packet once the transport sent it, or fails the
+     * request if the packet could not be sent.
+     */
+    public synchronized void requestSent(PacketReceipt packetReceipt, Throwable error) {
+        if (nonNull(error) || isNull(packetReceipt)) {
+            log.debug("Sending request {} failed.", Hex.encodeHexString(requestId), error);
+            requestFailed();
+        } else if (status != FAILED) {
+            this.packetReceipt = packetReceipt;
+            packetReceipt.setTimeout(timeout);
+            packetReceipt.setTimeoutCallback(this::requestTimedOut);
+        }
+    }
+
     @SneakyThrows
     private void responseTimeoutJob() {
         while (status == DELIVERED) {
@@ -135,6 +153,10 @@ public class RequestReceipt {
     }
 
     public synchronized void requestTimedOut(PacketReceipt packetReceipt) {
+        requestFailed();
+    }
+
+    private void requestFailed() {
         this.status = FAILED;
         this.concludedAt = Instant.now();
         this.link.getPendingRequests().remove(this);
@@ -143,7 +165,7 @@ public class RequestReceipt {
             try {
                 callbacks.getFailed().accept(this);
             } catch (Exception e) {
-                log.error("Error while executing request timed out callback from {}.", this, e);
+                log.error("Error while executing request failed callback from {}.", this, e);
             }
         }
     }
@@ -0,0 +1,168 @@
+package io.reticulum.metrics;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Distribution of non-negative values with fixed memory and a bounded relative error, in
+ * the manner of HdrHistogram.
+ * <p>
+ * Values below 64 have a bucket each; above that, every power of two is split into 64
+ * buckets, so a reported percentile is at most 1/64 (1.6%) above the true value. Values
+ * beyond {@link #MAX_VALUE} are counted as {@link #MAX_VALUE}. Recording is a few atomic
+ * additions and never allocates or locks.
+ * <p>
+ * Values are collected per interval: {@link #rotate()} closes the current interval and
+ * publishes its {@link Snapshot}, which is what readers see until the next rotation.
+ * Values recorded while a rotation is under way may be dropped; the lifetime count is not
+ * affected by rotation.
+ */
+public class Histogram {
+
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    /**
+     * Largest value told apart from larger ones, about 12 days in microseconds
+     */
+    public static final long MAX_VALUE = (1L << 40) - 1;
+    private static final int BUCKETS = bucketOf(MAX_VALUE) + 1;
+
+    private static final class Interval {
+        private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+        private final LongAdder count = new LongAdder();
+        private final LongAdder sum = new LongAdder();
+        private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static final class Snapshot {
+        public static final Snapshot EMPTY = new Snapshot(0, 0, 0, 0, 0, 0, 0);
+
+        private final long count;
+        private final double mean;
+        private final long p50;
+        private final long p90;
+        private final long p99;
+        private final long p999;
+        private final long max;
+
+        @Override
+        public String toString() {
+            return String.format("count=%d mean=%.1f p50=%d p90=%d p99=%d p999=%d max=%d",
+                    count, mean, p50, p90, p99, p999, max);
+        }
+    }
+
+    private final LongAdder total = new LongAdder();
+    private volatile Interval current = new Interval();
+    @Getter
+    private volatile Snapshot last = Snapshot.EMPTY;
+
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        var shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+
+        return SUB_BUCKETS + shift * SUB_BUCKETS + (int) (value >>> shift) - SUB_BUCKETS;
+    }
+
+    /**
+     * @return the largest value that falls into the bucket
+     */
+    static long highestOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        var shift = (bucket - SUB_BUCKETS) / SUB_BUCKETS;
+        var subBucket = (bucket - SUB_BUCKETS) % SUB_BUCKETS + SUB_BUCKETS;
+
+        return ((long) (subBucket + 1) << shift) - 1;
+    }
+
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        } else if (value > MAX_VALUE) {
+            value = MAX_VALUE;
+        }
+        var interval = current;
+        interval.counts.incrementAndGet(bucketOf(value));
+        interval.count.increment();
+        interval.sum.add(value);
+        interval.max.accumulate(value);
+        total.increment();
+    }
+
+    /**
+     * Records the microseconds passed since {@code startNanos}, a {@link System#nanoTime()}.
+     */
+    public void recordMicrosSince(long startNanos) {
+        record((System.nanoTime() - startNanos) / 1_000);
+    }
+
+    /**
+     * @return values recorded since the histogram was created
+     */
+    public long getTotal() {
+        return total.sum();
+    }
+
+    /**
+     * Starts a new interval and publishes the snapshot of the one that ended.
+     */
+    public Snapshot rotate() {
+        var ended = current;
+        current = new Interval();
+        last = snapshot(ended);
+
+        return last;
+    }
+
+    private static Snapshot snapshot(Interval interval) {
+        // the count of the buckets, not the adder, so the percentiles add up
+        long count = 0;
+        var counts = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = interval.counts.get(i);
+            count += counts[i];
+        }
+        if (count == 0) {
+            return Snapshot.EMPTY;
+        }
+
+        var max = interval.max.get();
+        return new Snapshot(
+                count,
+                (double) interval.sum.sum() / Math.max(1, interval.count.sum()),
+                Math.min(percentile(counts, count, 0.50), max),
+                Math.min(percentile(counts, count, 0.90), max),
+                Math.min(percentile(counts, count, 0.99), max),
+                Math.min(percentile(counts, count, 0.999), max),
+                max
+        );
+    }
+
+    private static long percentile(long[] counts, long count, double quantile) {
+        var rank = (long) Math.ceil(quantile * count);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return highestOf(i);
+            }
+        }
+
+        return MAX_VALUE;
+    }
+
+    @Override
+    public String toString() {
+        return last.toString();
+    }
+}
@@ -0,0 +1,229 @@
+package io.reticulum.metrics;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.JMException;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanOperationInfo;
+import javax.management.ObjectName;
+import javax.management.ReflectionException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.LongSupplier;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Named counters, gauges and histograms, published as one JMX MBean.
+ * <p>
+ * Every counter and gauge is a read-only {@code long} attribute of the same name. A
+ * histogram {@code h} shows as {@code h.count}, {@code h.mean}, {@code h.p50},
+ * {@code h.p90}, {@code h.p99}, {@code h.p999} and {@code h.max} of its last interval,
+ * and {@code h.total} over its lifetime. Metrics can come and go while the MBean is
+ * registered; JMX clients see them the next time they read the MBean info.
+ * <p>
+ * Nothing is computed on the recording side: gauges are read and histograms summarized
+ * only when JMX asks, or when {@link #rotate()} ends an interval.
+ */
+@Slf4j
+public class MetricsRegistry implements DynamicMBean {
+
+    private static final String[] HISTOGRAM_FIELDS = {"count", "mean", "p50", "p90", "p99", "p999", "max", "total"};
+
+    private final String description;
+    private final Map<String, Object> metrics = new ConcurrentSkipListMap<>();
+    @Getter
+    private volatile ObjectName objectName;
+
+    public MetricsRegistry(String description) {
+        this.description = description;
+    }
+
+    public Counter counter(String name) {
+        return (Counter) metrics.computeIfAbsent(name, key -> new Counter());
+    }
+
+    public Histogram histogram(String name) {
+        return (Histogram) metrics.computeIfAbsent(name, key -> new Histogram());
+    }
+
+    public void gauge(String name, LongSupplier value) {
+        metrics.put(name, value);
+    }
+
+    public void remove(String name) {
+        metrics.remove(name);
+    }
+
+    /**
+     * Ends the current interval of every histogram.
+     */
+    public void rotate() {
+        for (Object metric : metrics.values()) {
+            if (metric instanceof Histogram) {
+                ((Histogram) metric).rotate();
+            }
+        }
+    }
+
+    /**
+     * Registers the MBean with the platform MBean server, replacing whatever was registered
+     * under the name before. Failures are logged, metrics are never worth failing for.
+     */
+    public synchronized void register(String name) {
+        try {
+            var server = ManagementFactory.getPlatformMBeanServer();
+            var newName = new ObjectName(name);
+            if (server.isRegistered(newName)) {
+                server.unregisterMBean(newName);
+            }
+            server.registerMBean(this, newName);
+            objectName = newName;
+        } catch (JMException e) {
+            log.warn("Could not register metrics {}", name, e);
+        }
+    }
+
+    public synchronized void unregister() {
+        if (isNull(objectName)) {
+            return;
+        }
+        try {
+            var server = ManagementFactory.getPlatformMBeanServer();
+            if (server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+        } catch (JMException e) {
+            log.warn("Could not unregister metrics {}", objectName, e);
+        }
+        objectName = null;
+    }
+
+    /**
+     * @return current value of a counter, gauge or histogram field, {@code null} if there is
+     * no such metric
+     */
+    public Object value(String attribute) {
+        var metric = metrics.get(attribute);
+        if (metric instanceof Counter) {
+            return ((Counter) metric).get();
+        }
+        if (metric instanceof LongSupplier) {
+            return ((LongSupplier) metric).getAsLong();
+        }
+
+        var dot = attribute.lastIndexOf('.');
+        if (dot < 0) {
+            return null;
+        }
+        metric = metrics.get(attribute.substring(0, dot));
+        if (metric instanceof Histogram) {
+            var histogram = (Histogram) metric;
+            var last = histogram.getLast();
+            switch (attribute.substring(dot + 1)) {
+                case "count":
+                    return last.getCount();
+                case "mean":
+                    return last.getMean();
+                case "p50":
+                    return last.getP50();
+                case "p90":
+                    return last.getP90();
+                case "p99":
+                    return last.getP99();
+                case "p999":
+                    return last.getP999();
+                case "max":
+                    return last.getMax();
+                case "total":
+                    return histogram.getTotal();
+                default:
+                    return null;
+            }
+        }
+
+        return null;
+    }
+
+    @Override
+    public Object getAttribute(String attribute) throws AttributeNotFoundException {
+        var value = value(attribute);
+        if (isNull(value)) {
+            throw new AttributeNotFoundException(attribute);
+        }
+
+        return value;
+    }
+
+    @Override
+    public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+        throw new AttributeNotFoundException(attribute.getName() + " is read-only");
+    }
+
+    @Override
+    public AttributeList getAttributes(String[] attributes) {
+        var list = new AttributeList();
+        for (String attribute : attributes) {
+            var value = value(attribute);
+            if (nonNull(value)) {
+                list.add(new Attribute(attribute, value));
+            }
+        }
+
+        return list;
+    }
+
+    @Override
+    public AttributeList setAttributes(AttributeList attributes) {
+        return new AttributeList();
+    }
+
+    @Override
+    public Object invoke(String actionName, Object[] params, String[] signature) throws ReflectionException {
+        throw new ReflectionException(new NoSuchMethodException(actionName));
+    }
+
+    @Override
+    public MBeanInfo getMBeanInfo() {
+        List<MBeanAttributeInfo> attributes = new ArrayList<>();
+        for (Map.Entry<String, Object> entry : metrics.entrySet()) {
+            var name = entry.getKey();
+            if (entry.getValue() instanceof Histogram) {
+                for (String field : HISTOGRAM_FIELDS) {
+                    attributes.add(new MBeanAttributeInfo(
+                            name + "." + field,
+                            field.equals("mean") ? "double" : "long",
+                            field.equals("total") ? "Values recorded in total" : field + " of the last interval",
+                            true, false, false
+                    ));
+                }
+            } else {
+                attributes.add(new MBeanAttributeInfo(
+                        name,
+                        "long",
+                        entry.getValue() instanceof Counter ? "Counter" : "Gauge",
+                        true, false, false
+                ));
+            }
+        }
+
+        return new MBeanInfo(
+                getClass().getName(),
+                description,
+                attributes.toArray(new MBeanAttributeInfo[0]),
+                null,
+                new MBeanOperationInfo[0],
+                null
+        );
+    }
+}
@@ -16,13 +16,16 @@ import io.reticulum.packet.data.Flags;
 import io.reticulum.packet.data.Header;
 import io.reticulum.transport.TransportType;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NonNull;
 import lombok.SneakyThrows;
+import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
 
 import java.math.BigInteger;
 import java.time.Instant;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 import static io.reticulum.constant.ReticulumConstant.TRUNCATED_HASHLENGTH;
 import static io.reticulum.destination.DestinationType.LINK;
@@ -219,6 +222,13 @@ public class Packet implements TPacket {
     private ConnectionInterface attachedInterface = null;
     private boolean createReceipt = true;
 
+    /**
+     * Set while the packet waits in the transport outbound queue after {@link #sendAsync()}
+     */
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private volatile CompletableFuture<PacketReceipt> pendingSend;
+
     private Packet(
             AbstractDestination destination,
             byte[] data,
@@ -464,20 +474,7 @@ public class Packet implements TPacket {
      */
     public synchronized PacketReceipt send() {
         if (isFalse(sent)) {
-            if (destination.getType() == LINK) {
-                var dest = (Link) destination;
-                if (dest.getStatus() == LinkStatus.CLOSED) {
-                    throw new IllegalStateException("Attempt to transmit over a closed link");
-                } else {
-                    dest.setLastOutbound(Instant.now());
-                    dest.setTx(dest.getTx().add(ONE));
-                    dest.setTxBytes(dest.getTxBytes().add(BigInteger.valueOf(data.length)));
-                }
-            }
-
-            if (isFalse(packed)) {
-                pack();
-            }
+            prepareSend();
 
             if (Transport.getInstance().outbound(this)) {
                 return receipt;
@@ -493,6 +490,77 @@ public class Packet implements TPacket {
         return null;
     }
 
+    /**
+     * Sends the packet without waiting for the transport. The packet is packed on the calling
+     * thread and queued; the transport sends queued packets in submission order.
+     *
+     * @return future completed with the {@link PacketReceipt} (or {@code null} if <strong>createReceipt</strong>
+     * was false) once the packet was written to an interface. It completes exceptionally if no interface
+     * could process the packet.
+     * @throws IllegalStateException if the packet was already sent or the link is closed
+     */
+    public synchronized CompletableFuture<PacketReceipt> sendAsync() {
+        if (sent || isSendPending()) {
+            throw new IllegalStateException("Packet was already sent");
+        }
+        prepareSend();
+
+        return submit("No interfaces could process the outbound packet");
+    }
+
+    /**
+     * Re-sends the packet without waiting for the transport, see {@link #sendAsync()}.
+     *
+     * @throws IllegalStateException if the packet was not sent yet
+     */
+    public synchronized CompletableFuture<PacketReceipt> resendAsync() {
+        if (isFalse(sent) && isFalse(isSendPending())) {
+            throw new IllegalStateException("Packet was not sent yet");
+        }
+
+        return submit("No interfaces could process (resend) the outbound packet");
+    }
+
+    /**
+     * @return true while the packet waits in the transport outbound queue
+     */
+    public boolean isSendPending() {
+        var future = pendingSend;
+
+        return nonNull(future) && isFalse(future.isDone());
+    }
+
+    private CompletableFuture<PacketReceipt> submit(String failureMessage) {
+        var future = Transport.getInstance().outboundAsync(this)
+                .whenComplete((packetReceipt, error) -> {
+                    if (nonNull(error)) {
+                        log.error(failureMessage);
+                        sent = false;
+                        receipt = null;
+                    }
+                });
+        pendingSend = future;
+
+        return future;
+    }
+
+    private void prepareSend() {
+        if (destination.getType() == LINK) {
+            var dest = (Link) destination;
+            if (dest.getStatus() == LinkStatus.CLOSED) {
+                throw new IllegalStateException("Attempt to transmit over a closed link");
+            } else {
+                dest.setLastOutbound(Instant.now());
+                dest.setTx(dest.getTx().add(ONE));
+                dest.setTxBytes(dest.getTxBytes().add(BigInteger.valueOf(data.length)));
+            }
+        }
+
+        if (isFalse(packed)) {
+            pack();
+        }
+    }
+
     /**
      * Re-sends the packet.
      *
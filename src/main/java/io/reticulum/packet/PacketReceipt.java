@@ -6,8 +6,11 @@ import io.reticulum.destination.AbstractDestination;
 import io.reticulum.destination.Destination;
 import io.reticulum.destination.DestinationType;
 import io.reticulum.link.Link;
+import io.reticulum.transport.ReceiptRegistry;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NonNull;
+import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
 
 import java.time.Duration;
@@ -42,6 +45,12 @@ public class PacketReceipt {
     private Instant concludedAt;
     private PacketReceiptCallbacks callbacks;
     private Packet proofPacket;
+    /**
+     * Registry tracking the receipt until it is proved or times out
+     */
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private volatile ReceiptRegistry registry;
 
     public PacketReceipt(Packet packet) {
         this.hash = packet.getHash();
@@ -61,6 +70,18 @@ public class PacketReceipt {
         }
     }
 
+    /**
+     * @param timeout in milliseconds
+     */
+    public void setTimeout(long timeout) {
+        this.timeout = timeout;
+        // a shorter timeout must be picked up before the old deadline passes
+        var tracker = registry;
+        if (nonNull(tracker)) {
+            tracker.reschedule(this);
+        }
+    }
+
     public synchronized boolean validateProofPacket(@NonNull final Packet proofPacket) {
         if (proofPacket.getDestinationType() == DestinationType.LINK) {
             // proofPacket.getDestination() can be null if the link was torn down
@@ -1,28 +1,201 @@
 package io.reticulum.packet.data;
 
-import com.igormaznitsa.jbbp.io.JBBPBitInputStream;
-import com.igormaznitsa.jbbp.io.JBBPBitOutputStream;
+import io.reticulum.packet.PacketContextType;
 import lombok.NonNull;
-import lombok.SneakyThrows;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.NoSuchElementException;
+import java.util.Objects;
 
+import static io.reticulum.packet.HeaderType.HEADER_2;
+import static java.util.Objects.isNull;
+
+/**
+ * Reads and writes the wire format of a {@link DataPacket}: flags, hops, the IFAC if the IFAC
+ * flag is set, one or two addresses, context and data.
+ * <p>
+ * The codec works on byte arrays and {@link ByteBuffer}s at an offset, without streams;
+ * writing into a buffer of the caller allocates nothing. The bytes are the same as those of the
+ * JBBP mapping of {@link DataPacket}, {@link Header} and {@link Flags}.
+ */
 public class DataPacketConverter {
 
-    @SneakyThrows
+    private static final int HEADER_LENGTH = 2;
+    private static final int ADDRESS_LENGTH = 16;
+
+    private static final PacketContextType[] CONTEXTS = new PacketContextType[256];
+
+    static {
+        for (PacketContextType context : PacketContextType.values()) {
+            CONTEXTS[context.getValue() & 0xFF] = context;
+        }
+    }
+
     public static DataPacket fromBytes(@NonNull byte[] packet) {
-        try (var bais = new ByteArrayInputStream(packet)) {
-            return new DataPacket().read(new JBBPBitInputStream(bais));
+        return fromBytes(packet, 0, packet.length);
+    }
+
+    /**
+     * Reads the packet from {@code length} bytes of {@code buffer} starting at {@code offset}.
+     */
+    public static DataPacket fromBytes(@NonNull byte[] buffer, int offset, int length) {
+        Objects.checkFromIndexSize(offset, length, buffer.length);
+        var end = offset + length;
+        var dataPacket = new DataPacket();
+
+        var flags = Flags.fromByte(buffer[require(offset, HEADER_LENGTH, end)]);
+        var header = new Header(dataPacket);
+        header.setFlags(flags);
+        header.setHops(buffer[offset + 1]);
+        dataPacket.setHeader(header);
+        var position = offset + HEADER_LENGTH;
+
+        if (flags.isAccessCodes()) {
+            var ifac = new byte[DataPacket.assrtExprNotNeg(dataPacket.getIfac_size())];
+            System.arraycopy(buffer, require(position, ifac.length, end), ifac, 0, ifac.length);
+            dataPacket.setIfac(ifac);
+            position += ifac.length;
+        }
+
+        var addresses = new Addresses(dataPacket);
+        addresses.setHash1(copy(buffer, position, ADDRESS_LENGTH, end));
+        position += ADDRESS_LENGTH;
+        if (flags.getHeaderType() == HEADER_2) {
+            addresses.setHash2(copy(buffer, position, ADDRESS_LENGTH, end));
+            position += ADDRESS_LENGTH;
         }
+        dataPacket.setAddresses(addresses);
+
+        dataPacket.setContext(context(buffer[require(position, 1, end)]));
+        position++;
+        dataPacket.setData(copy(buffer, position, end - position, end));
+
+        return dataPacket;
+    }
+
+    /**
+     * Reads the packet from the remaining bytes of {@code buffer} and advances its position past them.
+     */
+    public static DataPacket fromBytes(@NonNull ByteBuffer buffer) {
+        var length = buffer.remaining();
+        DataPacket dataPacket;
+        if (buffer.hasArray()) {
+            dataPacket = fromBytes(buffer.array(), buffer.arrayOffset() + buffer.position(), length);
+        } else {
+            var packet = new byte[length];
+            buffer.duplicate().get(packet);
+            dataPacket = fromBytes(packet, 0, length);
+        }
+        buffer.position(buffer.position() + length);
+
+        return dataPacket;
     }
 
-    @SneakyThrows
     public static byte[] toBytes(@NonNull DataPacket dataPacket) {
-        try (var baos = new ByteArrayOutputStream()) {
-            dataPacket.write(new JBBPBitOutputStream(baos));
+        var packet = new byte[size(dataPacket)];
+        toBytes(dataPacket, packet, 0);
+
+        return packet;
+    }
+
+    /**
+     * Writes the packet into {@code buffer} at {@code offset}.
+     *
+     * @return the number of bytes written, {@link #size(DataPacket)}
+     */
+    public static int toBytes(@NonNull DataPacket dataPacket, @NonNull byte[] buffer, int offset) {
+        var size = size(dataPacket);
+        Objects.checkFromIndexSize(offset, size, buffer.length);
+        var flags = dataPacket.getHeader().getFlags();
+
+        buffer[offset] = flags.toByte();
+        buffer[offset + 1] = dataPacket.getHeader().getHops();
+        var position = offset + HEADER_LENGTH;
+        if (flags.isAccessCodes()) {
+            var ifac = dataPacket.getIfac();
+            System.arraycopy(ifac, 0, buffer, position, ifac.length);
+            position += ifac.length;
+        }
+        var addresses = dataPacket.getAddresses();
+        System.arraycopy(addresses.getHash1(), 0, buffer, position, ADDRESS_LENGTH);
+        position += ADDRESS_LENGTH;
+        if (flags.getHeaderType() == HEADER_2) {
+            System.arraycopy(addresses.getHash2(), 0, buffer, position, ADDRESS_LENGTH);
+            position += ADDRESS_LENGTH;
+        }
+        buffer[position++] = dataPacket.getContext().getValue();
+        var data = dataPacket.getData();
+        System.arraycopy(data, 0, buffer, position, data.length);
+
+        return size;
+    }
+
+    /**
+     * Writes the packet at the position of {@code buffer} and advances the position past it.
+     */
+    public static void toBytes(@NonNull DataPacket dataPacket, @NonNull ByteBuffer buffer) {
+        var size = size(dataPacket);
+        if (buffer.remaining() < size) {
+            throw new BufferOverflowException();
+        }
+        if (buffer.hasArray()) {
+            toBytes(dataPacket, buffer.array(), buffer.arrayOffset() + buffer.position());
+            buffer.position(buffer.position() + size);
+            return;
+        }
+
+        var flags = dataPacket.getHeader().getFlags();
+        buffer.put(flags.toByte());
+        buffer.put(dataPacket.getHeader().getHops());
+        if (flags.isAccessCodes()) {
+            buffer.put(dataPacket.getIfac());
+        }
+        buffer.put(dataPacket.getAddresses().getHash1(), 0, ADDRESS_LENGTH);
+        if (flags.getHeaderType() == HEADER_2) {
+            buffer.put(dataPacket.getAddresses().getHash2(), 0, ADDRESS_LENGTH);
+        }
+        buffer.put(dataPacket.getContext().getValue());
+        buffer.put(dataPacket.getData());
+    }
 
-            return baos.toByteArray();
+    /**
+     * @return the number of bytes the packet takes on the wire
+     */
+    public static int size(@NonNull DataPacket dataPacket) {
+        var flags = dataPacket.getHeader().getFlags();
+        var addresses = flags.getHeaderType() == HEADER_2 ? 2 : 1;
+
+        return HEADER_LENGTH
+                + (flags.isAccessCodes() ? dataPacket.getIfac().length : 0)
+                + addresses * ADDRESS_LENGTH
+                + 1
+                + dataPacket.getData().length;
+    }
+
+    private static int require(int position, int length, int end) {
+        if (end - position < length) {
+            throw new IllegalArgumentException(String.format(
+                    "Packet truncated: %s bytes needed at offset %s, %s left", length, position, end - position
+            ));
         }
+
+        return position;
+    }
+
+    private static byte[] copy(byte[] buffer, int position, int length, int end) {
+        var copy = new byte[length];
+        System.arraycopy(buffer, require(position, length, end), copy, 0, length);
+
+        return copy;
+    }
+
+    private static PacketContextType context(byte value) {
+        var context = CONTEXTS[value & 0xFF];
+        if (isNull(context)) {
+            throw new NoSuchElementException("Unknown packet context " + (value & 0xFF));
+        }
+
+        return context;
     }
 }
@@ -13,13 +13,44 @@ import io.reticulum.packet.ContextType;
 import io.reticulum.transport.TransportType;
 import lombok.Data;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 
+/**
+ * The first header byte, from the lowest bit up: packet type (2 bits), destination type (2),
+ * propagation type (1), context flag (1), header type (1) and IFAC flag (1).
+ * {@link #toByte()} and {@link #fromByte(byte)} work on the byte directly, with the same bits as
+ * {@link #write(JBBPBitOutputStream)} and {@link #read(JBBPBitInputStream)}.
+ */
 @Data
 public class Flags {
 
+    // enum constants by the value of their field, so decoding a byte needs no lookup stream
+    private static final PacketType[] PACKET_TYPES = new PacketType[4];
+    private static final DestinationType[] DESTINATION_TYPES = new DestinationType[4];
+    private static final TransportType[] PROPAGATION_TYPES = new TransportType[2];
+    private static final ContextType[] CONTEXT_TYPES = new ContextType[2];
+    private static final HeaderType[] HEADER_TYPES = new HeaderType[2];
+
+    static {
+        for (PacketType type : PacketType.values()) {
+            PACKET_TYPES[type.getValue()] = type;
+        }
+        for (DestinationType type : DestinationType.values()) {
+            DESTINATION_TYPES[type.getValue()] = type;
+        }
+        for (TransportType type : TransportType.values()) {
+            if (type.getValue() < PROPAGATION_TYPES.length) {
+                PROPAGATION_TYPES[type.getValue()] = type;
+            }
+        }
+        for (ContextType type : ContextType.values()) {
+            CONTEXT_TYPES[type.getValue()] = type;
+        }
+        for (HeaderType type : HeaderType.values()) {
+            HEADER_TYPES[type.getValue()] = type;
+        }
+    }
+
     @Bin(name = "packettype", type = BinType.BIT, bitNumber = JBBPBitNumber.BITS_2, byteOrder = JBBPByteOrder.BIG_ENDIAN, order = 5)
     private PacketType packetType;
 
@@ -64,22 +95,23 @@ public class Flags {
     }
 
     public byte toByte() {
-        try (var baos = new ByteArrayOutputStream()) {
-            write(new JBBPBitOutputStream(baos));
-
-            return baos.toByteArray()[0];
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
+        return (byte) ((accessCodes ? 0x80 : 0)
+                | (headerType.getValue() & 0b1) << 6
+                | (contextType.getValue() & 0b1) << 5
+                | (propagationType.getValue() & 0b1) << 4
+                | (destinationType.getValue() & 0b11) << 2
+                | (packetType.getValue() & 0b11));
     }
 
     public static Flags fromByte(final byte flags) {
-        try (var baos = new ByteArrayOutputStream()) {
-            baos.write(flags);
-
-            return new Flags().read(new JBBPBitInputStream(new ByteArrayInputStream(baos.toByteArray())));
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
+        var result = new Flags();
+        result.packetType = PACKET_TYPES[flags & 0b11];
+        result.destinationType = DESTINATION_TYPES[(flags >> 2) & 0b11];
+        result.propagationType = PROPAGATION_TYPES[(flags >> 4) & 0b1];
+        result.contextType = CONTEXT_TYPES[(flags >> 5) & 0b1];
+        result.headerType = HEADER_TYPES[(flags >> 6) & 0b1];
+        result.accessCodes = (flags & 0x80) != 0;
+
+        return result;
     }
 }
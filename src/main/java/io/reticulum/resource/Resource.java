@@ -38,6 +38,7 @@ import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Consumer;
 
 import static io.reticulum.constant.IdentityConstant.HASHLENGTH;
+import static io.reticulum.constant.ResourceConstant.ADVERTISE_RETRY_INTERVAL;
 import static io.reticulum.constant.ResourceConstant.AUTO_COMPRESS_MAX_SIZE;
 import static io.reticulum.constant.ResourceConstant.COLLISION_GUARD_SIZE;
 import static io.reticulum.constant.ResourceConstant.FAST_RATE_THRESHOLD;
@@ -87,7 +88,6 @@ import static java.nio.file.StandardOpenOption.CREATE;
 import static java.nio.file.StandardOpenOption.WRITE;
 import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
-import static java.util.concurrent.Executors.defaultThreadFactory;
 import static java.util.stream.Collectors.toList;
 import static org.apache.commons.compress.compressors.CompressorStreamFactory.BZIP2;
 import static org.apache.commons.lang3.ArrayUtils.add;
@@ -109,7 +109,6 @@ import static org.msgpack.value.ValueFactory.newInteger;
 public class Resource {
 
     private final Lock assambleLock = new ReentrantLock();
-    private final Lock watchdogLock = new ReentrantLock();
     private final Lock receiveLock = new ReentrantLock();
     private File inputFile;
     private Link link;
@@ -145,7 +144,6 @@ public class Resource {
     private boolean initiator;
     private boolean hasMetadata;
     private volatile boolean waitingForHmu;
-    private volatile boolean receivingPart;
     private boolean hmuRetryOk;
 
     private int segmentIndex;
@@ -512,7 +510,7 @@ public class Resource {
             var adv = ResourceAdvertisement.unpack(advertisementPacket.getPlaintext());
             if (nonNull(adv)) {
                 var rclPacket = new Packet(advertisementPacket.getLink(), adv.getHash(), RESOURCE_RCL);
-                rclPacket.send();
+                rclPacket.sendAsync();
             }
         } catch (Exception e) {
             log.error("Could not send resource reject packet", e);
@@ -568,136 +566,165 @@ public class Resource {
      * the resource advertisement it will begin transferring.
      */
     private void advertise() {
-        defaultThreadFactory().newThread(this::advertiseJob).start();
+        ResourceScheduler.schedule(this::advertiseJob, 0);
     }
 
-    @SneakyThrows
-    private synchronized void watchdogJob() {
-        this.watchdogJobId++;
-        var thisJobId = this.watchdogJobId;
-
-        while(status.getValue() < ASSEMBLING.getValue() && thisJobId == watchdogJobId) {
-            if (watchdogLock.tryLock()) {
-                var sleepTime = 0L;
-
-                if (status == ADVERTISED) {
-                    sleepTime = Duration.between(Instant.now(), advSent.minusMillis(timeout)).toMillis();
-                    if (sleepTime < 0) {
-                        if (retriesLeft <= 0) {
-                            log.debug("Resource transfer timeout after sending advertisement");
-                            cancel();
-                            sleepTime = 1;
-                        } else {
-                            try {
-                                log.debug("No part requests received, retrying resource advertisement...");
-                                retriesLeft--;
-                                advertisementPacket = new Packet(link, new ResourceAdvertisement(this).pack(), RESOURCE_ADV);
-                                advertisementPacket.send();
-                                lastActivity = Instant.now();
-                                advSent = lastActivity;
-                                sleepTime = 1;
-                            } catch (Exception e) {
-                                log.error("Could not resend advertisement packet, cancelling resource");
-                                cancel();
-                            }
-                        }
+    /**
+     * Starts a new watchdog for the resource; a watchdog started earlier stops at its next pass.
+     */
+    public synchronized void watchdogJobStart() {
+        var jobId = ++this.watchdogJobId;
+        ResourceScheduler.schedule(() -> watchdogJob(jobId), 0);
+    }
+
+    private synchronized void watchdogJob(int jobId) {
+        if (jobId == this.watchdogJobId) {
+            var delay = watchdog();
+            if (delay >= 0) {
+                ResourceScheduler.schedule(() -> watchdogJob(jobId), delay);
+            }
+        }
+    }
+
+    /**
+     * One pass of the watchdog: retries the advertisement, part requests and the proof query,
+     * and cancels the transfer when it runs out of retries.
+     *
+     * @return milliseconds until the next pass, negative once the transfer is being assembled or over
+     */
+    synchronized long watchdog() {
+        if (status.getValue() >= ASSEMBLING.getValue()) {
+            return -1;
+        }
+
+        var sleepTime = 0L;
+
+        if (status == ADVERTISED) {
+            sleepTime = Duration.between(Instant.now(), advSent.minusMillis(timeout)).toMillis();
+            if (sleepTime < 0) {
+                if (retriesLeft <= 0) {
+                    log.debug("Resource transfer timeout after sending advertisement");
+                    cancel();
+                    sleepTime = 1;
+                } else {
+                    try {
+                        log.debug("No part requests received, retrying resource advertisement...");
+                        retriesLeft--;
+                        advertisementPacket = new Packet(link, new ResourceAdvertisement(this).pack(), RESOURCE_ADV);
+                        advertisementPacket.sendAsync();
+                        lastActivity = Instant.now();
+                        advSent = lastActivity;
+                        sleepTime = 1;
+                    } catch (Exception e) {
+                        log.error("Could not resend advertisement packet, cancelling resource");
+                        cancel();
                     }
-                } else if (status == TRANSFERRING) {
-                    if (isFalse(initiator)) {
-                        var rtt = Objects.requireNonNullElseGet(this.rtt, () -> this.link.getRtt());
-                        var windowRemaining = this.outstandingParts.get();
-
-                        var retriesUsed = this.maxRetries - this.retriesLeft;
-                        var extraWait = retriesUsed * PER_RETRY_DELAY;
-                        sleepTime = Duration.between(
-                                Instant.now(),
-                                this.lastActivity
-                                        .plusMillis(rtt * (this.partTimeoutFactor + windowRemaining))
-                                        .plusMillis((long) (RETRY_GRACE_TIME + extraWait))
-                        ).toMillis();
-
-                        if (sleepTime < 0) {
-                            if (retriesLeft > 0) {
-                                log.debug("Timed out waiting for {} part{}, requesting retry", outstandingParts.get(), outstandingParts.get() == 1 ? "" : "s");
-                                if (this.window > this.windowMin) {
-                                    this.window--;
-                                    if (this.windowMax > this.windowMin) {
-                                        this.windowMax--;
-                                        if ((this.windowMax - this.window) > (this.windowFlexibility - 1)) {
-                                            this.windowMax--;
-                                        }
-                                    }
-                                }
+                }
+            }
+        } else if (status == TRANSFERRING) {
+            if (isFalse(initiator)) {
+                var rtt = Objects.requireNonNullElseGet(this.rtt, () -> this.link.getRtt());
+                var windowRemaining = this.outstandingParts.get();
+
+                var retriesUsed = this.maxRetries - this.retriesLeft;
+                var extraWait = retriesUsed * PER_RETRY_DELAY;
+                sleepTime = Duration.between(
+                        Instant.now(),
+                        this.lastActivity
+                                .plusMillis(rtt * (this.partTimeoutFactor + windowRemaining))
+                                .plusMillis((long) (RETRY_GRACE_TIME + extraWait))
+                ).toMillis();
 
-                                sleepTime = 1;
-                                this.retriesLeft--;
-                                this.waitingForHmu = false;
-                                requestNext();
-                            } else {
-                                cancel();
-                                sleepTime = 1;
+                if (sleepTime < 0) {
+                    if (retriesLeft > 0) {
+                        log.debug("Timed out waiting for {} part{}, requesting retry", outstandingParts.get(), outstandingParts.get() == 1 ? "" : "s");
+                        if (this.window > this.windowMin) {
+                            this.window--;
+                            if (this.windowMax > this.windowMin) {
+                                this.windowMax--;
+                                if ((this.windowMax - this.window) > (this.windowFlexibility - 1)) {
+                                    this.windowMax--;
+                                }
                             }
                         }
+
+                        sleepTime = 1;
+                        this.retriesLeft--;
+                        this.waitingForHmu = false;
+                        requestNext();
                     } else {
-                        var maxExtraWait = 0L;
-                        for (int r = 0; r < MAX_RETRIES; r++) {
-                            maxExtraWait += (r + 1) * PER_RETRY_DELAY;
-                        }
-                        var maxWait = this.rtt * this.timeoutFactor * this.maxRetries + this.senderGraceTime + maxExtraWait;
-                        sleepTime = Duration.between(Instant.now(), this.lastActivity.plusMillis(maxWait)).toMillis();
-                        if (sleepTime < 0) {
-                            log.debug("Resource timed out waiting for part requests");
-                            cancel();
-                            sleepTime = 1;
-                        }
-                    }
-                } else if (status == AWAITING_PROOF) {
-                    sleepTime = Duration.between(
-                            Instant.now(),
-                            this.lastPartSent.plusMillis(this.rtt * this.timeoutFactor + this.senderGraceTime)
-                    ).toMillis();
-                    if (sleepTime < 0) {
-                        if (this.retriesLeft <= 0) {
-                            log.debug("Resource timed out waiting for proof");
-                            cancel();
-                            sleepTime = 1;
-                        } else {
-                            log.debug("All parts sent, but no resource proof received, querying network cache...");
-                            this.retriesLeft--;
-                            var expectedData = concatArrays(this.hash, this.expectedProof);
-                            var expectedProofPacket = new Packet(link, expectedData, PROOF, RESOURCE_PRF);
-                            expectedProofPacket.pack();
-                            Transport.getInstance().cacheRequest(expectedProofPacket.getHash(), link);
-                            this.lastPartSent = Instant.now();
-                            sleepTime = 1;
-                        }
+                        cancel();
+                        sleepTime = 1;
                     }
                 }
-
-                if (sleepTime == 0) {
-                    log.warn("Warning! Link watchdog sleep time of 0!");
+            } else {
+                var maxExtraWait = 0L;
+                for (int r = 0; r < MAX_RETRIES; r++) {
+                    maxExtraWait += (r + 1) * PER_RETRY_DELAY;
                 }
+                var maxWait = this.rtt * this.timeoutFactor * this.maxRetries + this.senderGraceTime + maxExtraWait;
+                sleepTime = Duration.between(Instant.now(), this.lastActivity.plusMillis(maxWait)).toMillis();
                 if (sleepTime < 0) {
-                    log.error("Timing error, cancelling resource transfer.");
+                    log.debug("Resource timed out waiting for part requests");
                     cancel();
+                    sleepTime = 1;
                 }
-                if (sleepTime > 0) {
-                    Thread.sleep(Math.min(sleepTime, WATCHDOG_MAX_SLEEP));
+            }
+        } else if (status == AWAITING_PROOF) {
+            sleepTime = Duration.between(
+                    Instant.now(),
+                    this.lastPartSent.plusMillis(this.rtt * this.timeoutFactor + this.senderGraceTime)
+            ).toMillis();
+            if (sleepTime < 0) {
+                if (this.retriesLeft <= 0) {
+                    log.debug("Resource timed out waiting for proof");
+                    cancel();
+                    sleepTime = 1;
+                } else {
+                    log.debug("All parts sent, but no resource proof received, querying network cache...");
+                    this.retriesLeft--;
+                    var expectedData = concatArrays(this.hash, this.expectedProof);
+                    var expectedProofPacket = new Packet(link, expectedData, PROOF, RESOURCE_PRF);
+                    expectedProofPacket.pack();
+                    Transport.getInstance().cacheRequest(expectedProofPacket.getHash(), link);
+                    this.lastPartSent = Instant.now();
+                    sleepTime = 1;
                 }
             }
         }
+
+        if (sleepTime == 0) {
+            log.warn("Warning! Link watchdog sleep time of 0!");
+        }
+        if (sleepTime < 0) {
+            log.error("Timing error, cancelling resource transfer.");
+            cancel();
+        }
+        if (status.getValue() >= ASSEMBLING.getValue()) {
+            return -1;
+        }
+
+        return Math.min(Math.max(sleepTime, 1), WATCHDOG_MAX_SLEEP);
     }
 
+    /**
+     * Sends the advertisement once the link has no other outgoing resource; until then the
+     * resource stays QUEUED and the job is run again after {@code ADVERTISE_RETRY_INTERVAL}.
+     */
     @SneakyThrows
     private synchronized void advertiseJob() {
-        this.advertisementPacket = new Packet(link, new ResourceAdvertisement(this).pack(), RESOURCE_ADV);
-        while (isFalse(link.readyForNewResource())) {
+        if (status == FAILED) {
+            return;
+        }
+        if (isFalse(link.readyForNewResource())) {
             this.status = QUEUED;
-            Thread.sleep(250);
+            ResourceScheduler.schedule(this::advertiseJob, ADVERTISE_RETRY_INTERVAL);
+            return;
         }
 
+        this.advertisementPacket = new Packet(link, new ResourceAdvertisement(this).pack(), RESOURCE_ADV);
         try {
-            advertisementPacket.send();
+            advertisementPacket.sendAsync();
             lastActivity = Instant.now();
             advSent = lastActivity;
             rtt = 0L;
@@ -776,7 +803,7 @@ public class Resource {
                 var proof = IdentityUtils.fullHash(concatArrays(this.data, this.hash));
                 var proofData = concatArrays(this.hash, proof);
                 var proofPacket = new Packet(link, proofData, PROOF, RESOURCE_PRF);
-                proofPacket.send();
+                proofPacket.sendAsync();
             } catch (Exception e) {
                 log.error("Could not send proof packet, cancelling resource", e);
                 cancel();
@@ -813,7 +840,6 @@ public class Resource {
     public synchronized void receivePart(@NonNull final Packet packet) {
         if (receiveLock.tryLock()) {
             try {
-                this.receivingPart = true;
                 this.lastActivity = Instant.now();
                 this.retriesLeft = this.maxRetries;
 
@@ -844,7 +870,9 @@ public class Resource {
                             }
                         }
                     }
-                } else if (isFalse(this.status == FAILED)) {
+                }
+
+                if (isFalse(this.status == FAILED)) {
                     this.status = TRANSFERRING;
                     var partData = packet.getData();
                     var partHash = getMapHash(partData);
@@ -882,8 +910,6 @@ public class Resource {
                         i++;
                     }
 
-                    this.receivingPart = false;
-
                     if (this.receivedCount == this.totalParts && assambleLock.tryLock()) {
                         assemble();
                     } else if (this.outstandingParts.get() == 0) {
@@ -916,8 +942,6 @@ public class Resource {
 
                         requestNext();
                     }
-                } else {
-                    this.receivingPart = false;
                 }
             } finally {
                 receiveLock.unlock();
@@ -928,12 +952,19 @@ public class Resource {
     /**
      * Called on incoming resource to send a request for more data
      */
-    @SneakyThrows
     private void requestNext() {
-        while (this.receivingPart) {
-            //sleep
+        // waits for a part that is being received; receiveLock is reentrant, so
+        // receivePart() itself can request the next parts
+        receiveLock.lock();
+        try {
+            sendPartRequest();
+        } finally {
+            receiveLock.unlock();
         }
+    }
 
+    @SneakyThrows
+    private void sendPartRequest() {
         if (isFalse(status == FAILED)) {
             if (isFalse(this.waitingForHmu)) {
                 this.outstandingParts.set(0);
@@ -976,7 +1007,7 @@ public class Resource {
                 var requestPacket = new Packet(link, requestData, RESOURCE_REQ);
 
                 try {
-                    requestPacket.send();
+                    requestPacket.sendAsync();
                     this.lastActivity = Instant.now();
                     this.reqSent = lastActivity;
                     this.reqResp = null;
@@ -1026,11 +1057,11 @@ public class Resource {
 
             for (Packet part : requestedParts) {
                 try {
-                    if (isFalse(part.isSent())) {
-                        part.send();
+                    if (isFalse(part.isSent()) && isFalse(part.isSendPending())) {
+                        part.sendAsync();
                         this.sentParts++;
                     } else {
-                        part.resend();
+                        part.resendAsync();
                     }
 
                     this.lastActivity = Instant.now();
@@ -1077,7 +1108,7 @@ public class Resource {
                     packer.packValue(newArray(newInteger(segment), newBinary(hashMap)));
                     var hmu = concatArrays(this.hash, packer.toByteArray());
                     var hmuPacket = new Packet(link, hmu, RESOURCE_HMU);
-                    hmuPacket.send();
+                    hmuPacket.sendAsync();
                     this.lastActivity = Instant.now();
                 } catch (Exception ex) {
                     log.error("Could not send resource HMU packet, cancelling resource", ex);
@@ -1109,7 +1140,7 @@ public class Resource {
                 if (link.getStatus() == LinkStatus.ACTIVE) {
                     try {
                         var cancelPacket = new Packet(link, hash, RESOURCE_ICL);
-                        cancelPacket.send();
+                        cancelPacket.sendAsync();
                     } catch (Exception e) {
                         log.error("Could not send resource cancel packet.", e);
                     }
@@ -1170,8 +1201,4 @@ public class Resource {
     public String toString() {
         return String.format("<%s/%s>", Hex.encodeHexString(this.hash), Hex.encodeHexString(this.link.getLinkId()));
     }
-
-    public void watchdogJobStart() {
-        defaultThreadFactory().newThread(this::watchdogJob).start();
-    }
 }
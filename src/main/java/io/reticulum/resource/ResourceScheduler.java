@@ -0,0 +1,50 @@
+package io.reticulum.resource;
+
+import lombok.experimental.UtilityClass;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.concurrent.Executors.newScheduledThreadPool;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Runs the advertise and watchdog jobs of all resources on a few shared threads.
+ * <p>
+ * A job does one step and schedules its next step itself, so a resource waiting for the link
+ * to become free or for its next timeout holds no thread. The thread count is fixed no matter
+ * how many transfers run.
+ */
+@UtilityClass
+@Slf4j
+class ResourceScheduler {
+
+    static final String THREAD_NAME_PREFIX = "rns-resource-";
+    private static final int THREADS = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+
+    private static final ScheduledExecutorService executor = newScheduledThreadPool(THREADS, daemonThreadFactory());
+
+    /**
+     * Daemon threads: pending transfers must not keep the JVM alive on shutdown.
+     */
+    private static ThreadFactory daemonThreadFactory() {
+        var counter = new AtomicInteger();
+        return runnable -> {
+            var thread = new Thread(runnable, THREAD_NAME_PREFIX + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    static void schedule(Runnable job, long delayMillis) {
+        executor.schedule(() -> {
+            try {
+                job.run();
+            } catch (Throwable t) {
+                log.error("Error while executing resource job", t);
+            }
+        }, delayMillis, MILLISECONDS);
+    }
+}
@@ -19,17 +19,14 @@ import lombok.AccessLevel;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.collections4.CollectionUtils;
 import org.dizitart.no2.Nitrite;
 import org.dizitart.no2.common.mapper.SimpleNitriteMapper;
-import org.dizitart.no2.exceptions.NitriteException;
 import org.dizitart.no2.mvstore.MVStoreModule;
 
 import java.nio.file.Path;
 import java.util.Collection;
 import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 
@@ -56,15 +53,6 @@ public final class Storage {
 
     private final Nitrite db;
 
-    /**
-     * Latched once the packet cache is observed to be unavailable (e.g. the
-     * underlying Nitrite/MVStore was closed after a disk-full write failure).
-     * Used to log a single WARN instead of one per inbound packet — without
-     * this guard a stuck store has been observed to spam thousands of
-     * identical stack traces in {@code Transport.pathRequestHandler}.
-     */
-    private final AtomicBoolean packetCacheUnavailableLogged = new AtomicBoolean(false);
-
     public static Storage getInstance() {
         if (STORAGE == null) {
             throw new IllegalStateException("You have to call start method first to init storage instance");
@@ -127,13 +115,6 @@ public final class Storage {
         );
     }
 
-    public void saveKnownDestinations(final Collection<DestinationData> knownDestinations) {
-        if (CollectionUtils.isNotEmpty(knownDestinations)) {
-            var repo = db.getRepository(new DestinationDataDecorator());
-            doInTransactionWithoutResult(__ -> knownDestinations.forEach(destinationData -> repo.update(destinationData, true)));
-        }
-    }
-
     public Map<String, DestinationData> loadKnownDestinations() {
         return db.getRepository(new DestinationDataDecorator()).find()
                 .toList()
@@ -153,71 +134,44 @@ public final class Storage {
         doInTransactionWithoutResult(__ -> db.getRepository(PacketHash.class).clear());
     }
 
-    public void saveDestinationTables(Collection<DestinationTable> destinationTables) {
-        if (CollectionUtils.isNotEmpty(destinationTables)) {
-            var repo = db.getRepository(DestinationTable.class);
-            doInTransactionWithoutResult(__ -> destinationTables.forEach(destinationTable -> repo.update(destinationTable, true)));
-        }
-    }
-
     public Collection<DestinationTable> getDestinationTables() {
         return db.getRepository(DestinationTable.class).find().toList();
     }
 
-    public void savePacketCache(@NonNull final PacketCache packetCache) {
-        try {
-            doInTransactionWithoutResult(__ -> {
-                var repo = db.getRepository(PacketCache.class);
-                repo.update(packetCache, true);
-            });
-        } catch (NitriteException e) {
-            // Packet cache is optional: if the underlying store is closed (e.g.
-            // disk-full write failure earlier), continue without caching rather
-            // than propagating to per-packet error sites.
-            logPacketCacheUnavailable(e);
-        }
-    }
-
-    public PacketCache getPacketCache(@NonNull final String packetHash) {
-        try {
-            return db.getRepository(PacketCache.class)
-                    .getById(packetHash);
-        } catch (NitriteException e) {
-            // Treat a closed/unavailable store as a cache miss. Caller already
-            // handles null gracefully (Transport.getCachedPacket returns null →
-            // path request continues without cached reply).
-            logPacketCacheUnavailable(e);
-            return null;
-        }
-    }
-
-    private void logPacketCacheUnavailable(NitriteException e) {
-        if (packetCacheUnavailableLogged.compareAndSet(false, true)) {
-            log.warn("Packet cache unavailable ({}: {}). Continuing without cache; further "
-                            + "occurrences logged at DEBUG only.",
-                    e.getClass().getSimpleName(), e.getMessage());
-        } else {
-            log.debug("Packet cache still unavailable: {}", e.getMessage());
-        }
-    }
-
+    /**
+     * Drops the legacy packet cache collection. Packets are cached in the segment log of
+     * {@link io.reticulum.storage.cache.PacketCache} now, one document and transaction per
+     * packet was too slow to be enabled.
+     */
     public void cleanPacketCache() {
         doInTransactionWithoutResult(__ -> {
             db.getRepository(PacketCache.class).clear();
         });
     }
 
-    public void saveTunnelTable(Collection<TunnelEntity> tunnels) {
-        if (CollectionUtils.isNotEmpty(tunnels)) {
-            var repo = db.getRepository(TunnelEntity.class);
-            doInTransactionWithoutResult(__ -> tunnels.forEach(tunnelEntity -> repo.update(tunnelEntity, true)));
-        }
-    }
-
     public Collection<TunnelEntity> getTunnelTables() {
         return db.getRepository(TunnelEntity.class).find().toList();
     }
 
+    /**
+     * Drops the path and tunnel table collections. Both tables are persisted in the
+     * {@link io.reticulum.storage.journal.RoutingJournal} now, which writes only changed
+     * entries instead of upserting the whole table on every persist.
+     */
+    public void dropRoutingTables() {
+        doInTransactionWithoutResult(__ -> {
+            db.getRepository(DestinationTable.class).clear();
+            db.getRepository(TunnelEntity.class).clear();
+        });
+    }
+
+    /**
+     * Drops known destinations saved by earlier versions, which keep them in the routing journal now.
+     */
+    public void dropKnownDestinations() {
+        doInTransactionWithoutResult(__ -> db.getRepository(new DestinationDataDecorator()).clear());
+    }
+
     private <Result> Result doInTransaction(Supplier<Result> supplier) {
         try (var session = db.createSession()) {
             try(var transaction = session.beginTransaction()) {
@@ -0,0 +1,38 @@
+package io.reticulum.storage.cache;
+
+import io.reticulum.packet.Packet;
+
+import static io.reticulum.packet.PacketContextType.RESOURCE_PRF;
+import static io.reticulum.packet.PacketType.ANNOUNCE;
+
+/**
+ * Decides which packets seen by Transport go into the packet cache. Packets that must be
+ * cached regardless, like the announces of saved paths, bypass the policy.
+ */
+@FunctionalInterface
+public interface CachePolicy {
+
+    /**
+     * Announces, so path requests can be answered and paths restored from the cache.
+     */
+    CachePolicy ANNOUNCES = packet -> packet.getPacketType() == ANNOUNCE;
+
+    /**
+     * Resource proofs, so lost proofs can be recovered with a cache request.
+     */
+    CachePolicy RESOURCE_PROOFS = packet -> packet.getContext() == RESOURCE_PRF;
+
+    CachePolicy NONE = packet -> false;
+
+    CachePolicy DEFAULT = ANNOUNCES.or(RESOURCE_PROOFS);
+
+    boolean shouldCache(Packet packet);
+
+    default CachePolicy or(CachePolicy other) {
+        return packet -> shouldCache(packet) || other.shouldCache(packet);
+    }
+
+    default CachePolicy and(CachePolicy other) {
+        return packet -> shouldCache(packet) && other.shouldCache(packet);
+    }
+}
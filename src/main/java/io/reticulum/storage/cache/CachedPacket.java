@@ -0,0 +1,38 @@
+package io.reticulum.storage.cache;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.isNull;
+
+/**
+ * A packet in the packet cache, stored exactly as it arrived over its interface.
+ */
+@Getter
+@RequiredArgsConstructor
+public class CachedPacket {
+
+    /**
+     * Rough per-entry cost of the object, its arrays and the LRU node, counted against
+     * the memory budget next to the payload.
+     */
+    static final int OVERHEAD_BYTES = 96;
+
+    private final byte[] raw;
+    /**
+     * Name of the interface the packet was received on, or {@code null} for local packets
+     */
+    private final String interfaceName;
+    /**
+     * Epoch milliseconds
+     */
+    private final long cachedAt;
+
+    /**
+     * @return bytes charged against the memory budget of the cache
+     */
+    public int footprint() {
+        return OVERHEAD_BYTES + raw.length + (isNull(interfaceName) ? 0 : interfaceName.getBytes(UTF_8).length);
+    }
+}
@@ -0,0 +1,234 @@
+package io.reticulum.storage.cache;
+
+import io.reticulum.packet.Packet;
+import io.reticulum.transport.HashKey;
+import io.reticulum.transport.HashKeyMap;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static org.apache.commons.lang3.BooleanUtils.isFalse;
+
+/**
+ * Packet cache of Transport: recently cached packets in a byte-budgeted {@link PacketLru},
+ * all cached packets in a {@link PacketLog} on disk.
+ * <p>
+ * {@link #put} only touches memory and never blocks on the disk, it is called from the
+ * inbound path under the routing lock. A single writer thread appends queued packets to
+ * the log in batches; until a packet is written it is served from the write queue.
+ * {@link #get} reads memory first, then the log, without any database transaction.
+ * <p>
+ * If the log cannot be opened the cache keeps working in memory only.
+ */
+@Slf4j
+public class PacketCache implements Closeable {
+
+    /**
+     * Packets waiting for the writer beyond this number are not written to the disk
+     */
+    private static final int MAX_PENDING_WRITES = 16 * 1024;
+
+    private final PacketLru memory;
+    private final PacketLog disk;
+    private final long retentionMillis;
+
+    private final HashKeyMap<CachedPacket> pending = new HashKeyMap<>();
+    private final Queue<HashKey> writeQueue = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean writerScheduled = new AtomicBoolean();
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+        var thread = new Thread(r, "packet-cache-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Decides which packets seen by Transport are cached
+     */
+    @Getter
+    @Setter
+    @NonNull
+    private volatile CachePolicy policy = CachePolicy.DEFAULT;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    /**
+     * @param directory     segment directory of the log
+     * @param memoryBytes   memory budget of the LRU
+     * @param segmentBytes  size after which a new log segment is started
+     * @param segmentSpan   age after which a new log segment is started
+     * @param retention     time after which a segment that is no longer written is deleted
+     */
+    public PacketCache(Path directory, long memoryBytes, long segmentBytes, Duration segmentSpan, Duration retention) {
+        this.memory = new PacketLru(memoryBytes);
+        this.retentionMillis = retention.toMillis();
+
+        PacketLog opened = null;
+        try {
+            opened = new PacketLog(directory, segmentBytes, segmentSpan.toMillis());
+            log.debug("Opened packet cache in {} with {} packets", directory, opened.size());
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not open packet cache in {}, caching packets in memory only", directory, e);
+        }
+        this.disk = opened;
+    }
+
+    /**
+     * @return true if the packet passes the cache policy
+     */
+    public boolean shouldCache(Packet packet) {
+        return policy.shouldCache(packet);
+    }
+
+    /**
+     * Caches the packet exactly as it arrived over its interface, regardless of the policy.
+     */
+    public void put(@NonNull Packet packet) {
+        var raw = packet.getRaw();
+        if (isNull(raw)) {
+            return;
+        }
+        var interfaceName = nonNull(packet.getReceivingInterface()) ? packet.getReceivingInterface().getInterfaceName() : null;
+        var key = HashKey.of(packet.getHash());
+        var cached = new CachedPacket(raw, interfaceName, System.currentTimeMillis());
+        memory.put(key, cached);
+
+        if (isNull(disk) || disk.isInCurrentSegment(key)) {
+            return;
+        }
+        if (pending.size() >= MAX_PENDING_WRITES) {
+            dropped.increment();
+            return;
+        }
+        if (isNull(pending.put(key, cached))) {
+            writeQueue.offer(key);
+        }
+        if (writerScheduled.compareAndSet(false, true)) {
+            try {
+                writer.execute(this::writePending);
+            } catch (RuntimeException e) {
+                // writer already shut down
+                writerScheduled.set(false);
+            }
+        }
+    }
+
+    private void writePending() {
+        try {
+            HashKey key;
+            while ((key = writeQueue.poll()) != null) {
+                var cached = pending.get(key);
+                if (isNull(cached)) {
+                    continue;
+                }
+                try {
+                    disk.append(key, cached);
+                } catch (IOException e) {
+                    log.debug("Could not write packet {} to the packet cache", key, e);
+                }
+                pending.remove(key);
+            }
+        } finally {
+            writerScheduled.set(false);
+        }
+        // a producer may have queued a packet after the last poll but before the flag was reset
+        if (isFalse(writeQueue.isEmpty()) && writerScheduled.compareAndSet(false, true)) {
+            writePending();
+        }
+    }
+
+    /**
+     * @param packetHash full or truncated packet hash
+     * @return the cached packet, or {@code null}
+     */
+    public CachedPacket get(byte[] packetHash) {
+        var key = HashKey.of(packetHash);
+        var cached = memory.get(key);
+        if (isNull(cached)) {
+            cached = pending.get(key);
+        }
+        if (isNull(cached) && nonNull(disk)) {
+            try {
+                cached = disk.read(key);
+            } catch (IOException e) {
+                log.debug("Could not read packet {} from the packet cache", key, e);
+            }
+            if (nonNull(cached)) {
+                memory.put(key, cached);
+            }
+        }
+
+        if (isNull(cached)) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+
+        return cached;
+    }
+
+    /**
+     * Deletes log segments older than the retention period.
+     */
+    public void expire() {
+        if (nonNull(disk)) {
+            disk.expire(System.currentTimeMillis() - retentionMillis);
+        }
+    }
+
+    /**
+     * Writes queued packets and forces the log to the disk.
+     */
+    public void flush() {
+        if (isNull(disk)) {
+            return;
+        }
+        try {
+            if (isFalse(writer.isShutdown())) {
+                // the writer runs tasks in order, so this returns once the queue is written
+                writer.submit(() -> {}).get(5, TimeUnit.SECONDS);
+            }
+            disk.flush();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("Could not flush the packet cache", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        flush();
+        writer.shutdown();
+        if (nonNull(disk)) {
+            try {
+                disk.close();
+            } catch (IOException e) {
+                log.warn("Could not close the packet cache", e);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("PacketCache[memory=%d packets/%d bytes disk=%s hits=%d misses=%d dropped=%d]",
+                memory.size(), memory.bytes(), isNull(disk) ? "off" : disk.size() + " packets in " + disk.segmentCount() + " segments",
+                hits.sum(), misses.sum(), dropped.sum());
+    }
+}
@@ -0,0 +1,413 @@
+package io.reticulum.storage.cache;
+
+import io.reticulum.transport.HashKey;
+import io.reticulum.transport.HashKeyMap;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.Objects.isNull;
+import static org.apache.commons.lang3.BooleanUtils.isFalse;
+
+/**
+ * Append-only on-disk packet store.
+ * <p>
+ * Packets are appended to the current segment file; a new segment is started once the
+ * current one reaches its size limit or time span. An in-memory index maps each packet
+ * hash to the segment and offset of its latest record, so a lookup is one positional
+ * read without any database transaction. Segments are never rewritten: expiry deletes
+ * whole segments whose last write is older than the retention period, and a packet that
+ * must outlive its segment is simply appended again.
+ * <p>
+ * Record layout: body length (int), CRC32 of the body (int), then the body: truncated
+ * packet hash (16 bytes), cache time (long, epoch ms), interface name length (short, -1
+ * for none), interface name (UTF-8), raw packet. On open, segments are scanned to
+ * rebuild the index, and a torn record at the end of a segment is cut off.
+ */
+@Slf4j
+public class PacketLog implements Closeable {
+
+    private static final String SUFFIX = ".seg";
+    private static final Pattern SEGMENT_NAME = Pattern.compile("(\\d+)\\" + SUFFIX);
+    private static final int HEADER_BYTES = 8;
+    private static final int MAX_RECORD_BYTES = 64 * 1024;
+    private static final long MAX_SEGMENT_BYTES = 1L << 30;
+
+    private final Path directory;
+    private final long segmentBytes;
+    private final long segmentSpanMillis;
+    private final ConcurrentSkipListMap<Integer, Segment> segments = new ConcurrentSkipListMap<>();
+    /**
+     * Packet hash to {@code segment id << 32 | offset} of its latest record
+     */
+    private final HashKeyMap<Long> index = new HashKeyMap<>();
+
+    private volatile Segment current;
+    private volatile boolean closed;
+
+    private static final class Segment {
+        final int id;
+        final Path path;
+        final long createdAt;
+        volatile FileChannel channel;
+        volatile long size;
+        volatile long lastWriteAt;
+
+        Segment(int id, Path path, FileChannel channel, long createdAt) {
+            this.id = id;
+            this.path = path;
+            this.channel = channel;
+            this.createdAt = createdAt;
+        }
+    }
+
+    /**
+     * @param directory         segment directory, created if missing
+     * @param segmentBytes      size after which a new segment is started
+     * @param segmentSpanMillis age after which a new segment is started
+     */
+    public PacketLog(Path directory, long segmentBytes, long segmentSpanMillis) throws IOException {
+        if (segmentBytes < 1 || segmentBytes > MAX_SEGMENT_BYTES) {
+            throw new IllegalArgumentException("Segment size must be between 1 byte and 1 GiB: " + segmentBytes);
+        }
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.segmentSpanMillis = segmentSpanMillis;
+
+        Files.createDirectories(directory);
+        var lastId = 0;
+        for (var path : segmentFiles()) {
+            var id = segmentId(path);
+            var segment = new Segment(id, path, FileChannel.open(path, READ, WRITE), System.currentTimeMillis());
+            segment.lastWriteAt = Files.getLastModifiedTime(path).toMillis();
+            scan(segment);
+            lastId = Math.max(lastId, id);
+            if (segment.size == 0) {
+                segment.channel.close();
+                Files.delete(path);
+                continue;
+            }
+            segments.put(id, segment);
+        }
+        current = newSegment(lastId + 1);
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (var stream = Files.list(directory)) {
+            return stream
+                    .filter(path -> SEGMENT_NAME.matcher(path.getFileName().toString()).matches())
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static int segmentId(Path path) {
+        var matcher = SEGMENT_NAME.matcher(path.getFileName().toString());
+        if (matcher.matches()) {
+            return Integer.parseInt(matcher.group(1));
+        }
+
+        throw new IllegalArgumentException("Not a segment file: " + path);
+    }
+
+    private static long location(int segmentId, long offset) {
+        return ((long) segmentId << 32) | offset;
+    }
+
+    private static int segmentOf(long location) {
+        return (int) (location >>> 32);
+    }
+
+    private static long offsetOf(long location) {
+        return location & 0xFFFFFFFFL;
+    }
+
+    private Segment newSegment(int id) throws IOException {
+        var path = directory.resolve(String.format("%010d%s", id, SUFFIX));
+        var now = System.currentTimeMillis();
+        var segment = new Segment(id, path, FileChannel.open(path, CREATE, READ, WRITE), now);
+        segment.size = segment.channel.size();
+        segment.lastWriteAt = now;
+        segments.put(id, segment);
+
+        return segment;
+    }
+
+    /**
+     * Indexes the records of a segment and cuts off a torn or corrupt tail.
+     */
+    private void scan(Segment segment) throws IOException {
+        var channel = segment.channel;
+        var fileSize = channel.size();
+        var header = ByteBuffer.allocate(HEADER_BYTES);
+        long position = 0;
+        while (position + HEADER_BYTES <= fileSize) {
+            header.clear();
+            readFully(channel, header, position);
+            header.flip();
+            var length = header.getInt();
+            var crc = header.getInt();
+            if (length < HashKey.LENGTH + 10 || length > MAX_RECORD_BYTES || position + HEADER_BYTES + length > fileSize) {
+                break;
+            }
+            var body = ByteBuffer.allocate(length);
+            readFully(channel, body, position + HEADER_BYTES);
+            if (crc != crc(body.array())) {
+                break;
+            }
+            var key = new byte[HashKey.LENGTH];
+            body.flip();
+            body.get(key);
+            index.put(key, location(segment.id, position));
+            position += HEADER_BYTES + length;
+        }
+
+        if (position < fileSize) {
+            log.warn("Packet cache segment {} is damaged after {} of {} bytes, cutting it off", segment.path, position, fileSize);
+            channel.truncate(position);
+        }
+        segment.size = position;
+    }
+
+    private static int crc(byte[] body) {
+        var crc = new CRC32();
+        crc.update(body);
+
+        return (int) crc.getValue();
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            var read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new IOException("Unexpected end of packet cache segment");
+            }
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, position + buffer.position());
+        }
+    }
+
+    /**
+     * Appends the packet and points the index at the new record.
+     */
+    public synchronized void append(HashKey key, CachedPacket packet) throws IOException {
+        if (closed) {
+            return;
+        }
+        var name = isNull(packet.getInterfaceName()) ? null : packet.getInterfaceName().getBytes(UTF_8);
+        var length = HashKey.LENGTH + Long.BYTES + Short.BYTES + (isNull(name) ? 0 : name.length) + packet.getRaw().length;
+        if (length > MAX_RECORD_BYTES) {
+            log.debug("Packet {} is too large for the packet cache ({} bytes)", key, length);
+            return;
+        }
+
+        var now = System.currentTimeMillis();
+        if (current.size >= segmentBytes || now - current.createdAt >= segmentSpanMillis) {
+            current.channel.force(false);
+            current = newSegment(current.id + 1);
+        }
+
+        var body = ByteBuffer.allocate(length);
+        body.put(key.toBytes());
+        body.putLong(packet.getCachedAt());
+        if (isNull(name)) {
+            body.putShort((short) -1);
+        } else {
+            body.putShort((short) name.length);
+            body.put(name);
+        }
+        body.put(packet.getRaw());
+
+        var record = ByteBuffer.allocate(HEADER_BYTES + length);
+        record.putInt(length);
+        record.putInt(crc(body.array()));
+        record.put(body.array());
+        record.flip();
+
+        var position = current.size;
+        writeFully(current.channel, record, position);
+        current.size = position + record.limit();
+        current.lastWriteAt = now;
+        index.put(key, location(current.id, position));
+    }
+
+    /**
+     * @return true if the latest record of the packet is in the segment currently written
+     */
+    public boolean isInCurrentSegment(HashKey key) {
+        var location = index.get(key);
+
+        return location != null && segmentOf(location) == current.id;
+    }
+
+    public boolean contains(HashKey key) {
+        return index.containsKey(key);
+    }
+
+    /**
+     * @return the cached packet, or {@code null} if it is not in the log
+     */
+    public CachedPacket read(HashKey key) throws IOException {
+        var location = index.get(key);
+        if (isNull(location)) {
+            return null;
+        }
+        var segment = segments.get(segmentOf(location));
+        if (isNull(segment)) {
+            return null;
+        }
+
+        var offset = offsetOf(location);
+        ByteBuffer body;
+        try {
+            body = readRecord(segment, offset);
+        } catch (ClosedChannelException e) {
+            // an interrupted reader closes the channel for everyone, open it again
+            if (isNull(reopen(segment))) {
+                return null;
+            }
+            body = readRecord(segment, offset);
+        }
+        if (isNull(body)) {
+            return null;
+        }
+
+        var storedKey = new byte[HashKey.LENGTH];
+        body.get(storedKey);
+        if (isFalse(key.matches(storedKey))) {
+            return null;
+        }
+        var cachedAt = body.getLong();
+        var nameLength = body.getShort();
+        String interfaceName = null;
+        if (nameLength >= 0) {
+            var name = new byte[nameLength];
+            body.get(name);
+            interfaceName = new String(name, UTF_8);
+        }
+        var raw = new byte[body.remaining()];
+        body.get(raw);
+
+        return new CachedPacket(raw, interfaceName, cachedAt);
+    }
+
+    private ByteBuffer readRecord(Segment segment, long offset) throws IOException {
+        var channel = segment.channel;
+        var header = ByteBuffer.allocate(HEADER_BYTES);
+        readFully(channel, header, offset);
+        header.flip();
+        var length = header.getInt();
+        var crc = header.getInt();
+        if (length < HashKey.LENGTH + 10 || length > MAX_RECORD_BYTES) {
+            return null;
+        }
+        var body = ByteBuffer.allocate(length);
+        readFully(channel, body, offset + HEADER_BYTES);
+        if (crc != crc(body.array())) {
+            log.warn("Corrupt record in packet cache segment {} at {}", segment.path, offset);
+            return null;
+        }
+        body.flip();
+
+        return body;
+    }
+
+    private synchronized FileChannel reopen(Segment segment) throws IOException {
+        if (closed || segments.get(segment.id) != segment) {
+            return null;
+        }
+        if (isFalse(segment.channel.isOpen())) {
+            segment.channel = FileChannel.open(segment.path, READ, WRITE);
+        }
+
+        return segment.channel;
+    }
+
+    /**
+     * Deletes segments last written before {@code cutoffMillis}, except the current one.
+     *
+     * @return number of packets dropped from the index
+     */
+    public synchronized int expire(long cutoffMillis) {
+        var expired = new HashSet<Integer>();
+        for (var segment : segments.values()) {
+            if (segment != current && segment.lastWriteAt < cutoffMillis) {
+                segments.remove(segment.id);
+                expired.add(segment.id);
+                try {
+                    segment.channel.close();
+                    Files.deleteIfExists(segment.path);
+                } catch (IOException e) {
+                    log.warn("Could not delete packet cache segment {}", segment.path, e);
+                }
+            }
+        }
+        if (expired.isEmpty()) {
+            return 0;
+        }
+
+        var dropped = new ArrayList<HashKey>();
+        index.forEach((key, location) -> {
+            if (expired.contains(segmentOf(location))) {
+                dropped.add(key);
+            }
+        });
+        dropped.forEach(index::remove);
+        log.debug("Expired {} packet cache segments holding {} packets", expired.size(), dropped.size());
+
+        return dropped.size();
+    }
+
+    /**
+     * Writes the current segment through to the disk.
+     */
+    public synchronized void flush() throws IOException {
+        if (isFalse(closed)) {
+            current.channel.force(false);
+        }
+    }
+
+    /**
+     * @return number of packets in the index
+     */
+    public int size() {
+        return index.size();
+    }
+
+    public int segmentCount() {
+        return segments.size();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        current.channel.force(false);
+        for (var segment : segments.values()) {
+            segment.channel.close();
+        }
+    }
+}
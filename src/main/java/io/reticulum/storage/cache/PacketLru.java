@@ -0,0 +1,99 @@
+package io.reticulum.storage.cache;
+
+import io.reticulum.transport.HashKey;
+
+import java.util.LinkedHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static java.util.Objects.nonNull;
+
+/**
+ * Least recently used packets, bounded by their size in bytes rather than their count:
+ * a few large resource proofs must not push out thousands of announces.
+ */
+public class PacketLru {
+
+    private final long budgetBytes;
+    private final LinkedHashMap<HashKey, CachedPacket> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private final ReentrantLock lock = new ReentrantLock();
+    private long bytes;
+    private long evicted;
+
+    public PacketLru(long budgetBytes) {
+        this.budgetBytes = budgetBytes;
+    }
+
+    public void put(HashKey key, CachedPacket packet) {
+        var footprint = packet.footprint();
+        if (footprint > budgetBytes) {
+            return;
+        }
+
+        lock.lock();
+        try {
+            var old = entries.put(key, packet);
+            if (nonNull(old)) {
+                bytes -= old.footprint();
+            }
+            bytes += footprint;
+
+            var iterator = entries.values().iterator();
+            while (bytes > budgetBytes && iterator.hasNext()) {
+                bytes -= iterator.next().footprint();
+                iterator.remove();
+                evicted++;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Also marks the packet as recently used.
+     */
+    public CachedPacket get(HashKey key) {
+        lock.lock();
+        try {
+            return entries.get(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long bytes() {
+        lock.lock();
+        try {
+            return bytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long evicted() {
+        lock.lock();
+        try {
+            return evicted;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void clear() {
+        lock.lock();
+        try {
+            entries.clear();
+            bytes = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
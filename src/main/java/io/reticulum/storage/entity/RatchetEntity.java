@@ -0,0 +1,12 @@
+package io.reticulum.storage.entity;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class RatchetEntity {
+    private byte[] destinationHash;
+    private long received; // epoch seconds
+    private byte[] ratchet;
+}
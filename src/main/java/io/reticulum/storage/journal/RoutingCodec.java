@@ -0,0 +1,189 @@
+package io.reticulum.storage.journal;
+
+import io.reticulum.identity.IdentityKnownDestination.DestinationData;
+import io.reticulum.storage.entity.DestinationTable;
+import io.reticulum.storage.entity.HopEntity;
+import io.reticulum.storage.entity.RatchetEntity;
+import io.reticulum.storage.entity.TunnelEntity;
+import org.apache.commons.codec.DecoderException;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static org.apache.commons.codec.binary.Hex.decodeHex;
+import static org.apache.commons.codec.binary.Hex.encodeHexString;
+
+/**
+ * Binary form of path and tunnel table entries, known destinations and ratchets. Every
+ * entry starts with its key, so records can be indexed without decoding them.
+ * <p>
+ * Byte arrays are written as length (int, -1 for {@code null}) and bytes, instants as
+ * epoch milliseconds ({@link Long#MIN_VALUE} for {@code null}). Destination hashes are
+ * written as raw bytes rather than the hex strings the entities carry.
+ */
+final class RoutingCodec {
+
+    private static final long NO_INSTANT = Long.MIN_VALUE;
+
+    private RoutingCodec() {
+    }
+
+    static void writePath(DataOutput out, DestinationTable path) throws IOException {
+        writeHex(out, path.getDestinationHash());
+        writeHop(out, path.getHop());
+    }
+
+    static DestinationTable readPath(DataInput in) throws IOException {
+        return DestinationTable.builder()
+                .destinationHash(readHex(in))
+                .hop(readHop(in))
+                .build();
+    }
+
+    static void writeTunnel(DataOutput out, TunnelEntity tunnel) throws IOException {
+        writeBytes(out, tunnel.getTunnelId());
+        writeBytes(out, tunnel.getInterfaceHash());
+        writeInstant(out, tunnel.getExpires());
+        var paths = tunnel.getTunnelPaths();
+        out.writeInt(isNull(paths) ? 0 : paths.size());
+        if (isNull(paths)) {
+            return;
+        }
+        for (var path : paths.entrySet()) {
+            writeHex(out, path.getKey());
+            writeHop(out, path.getValue());
+        }
+    }
+
+    static TunnelEntity readTunnel(DataInput in) throws IOException {
+        var tunnelId = readBytes(in);
+        var interfaceHash = readBytes(in);
+        var expires = readInstant(in);
+        var count = in.readInt();
+        var paths = new HashMap<String, HopEntity>(count * 2);
+        for (int i = 0; i < count; i++) {
+            paths.put(readHex(in), readHop(in));
+        }
+
+        return TunnelEntity.builder()
+                .tunnelIdHex(encodeHexString(tunnelId))
+                .tunnelId(tunnelId)
+                .interfaceHash(interfaceHash)
+                .expires(expires)
+                .tunnelPaths(paths)
+                .build();
+    }
+
+    static void writeKnownDestination(DataOutput out, DestinationData destination) throws IOException {
+        writeHex(out, destination.getDestinationHash());
+        out.writeLong(destination.getTimestamp());
+        writeBytes(out, destination.getPackageHash());
+        writeBytes(out, destination.getPublicKey());
+        writeBytes(out, destination.getAppData());
+    }
+
+    static DestinationData readKnownDestination(DataInput in) throws IOException {
+        return new DestinationData(readHex(in), in.readLong(), readBytes(in), readBytes(in), readBytes(in));
+    }
+
+    static void writeRatchet(DataOutput out, RatchetEntity ratchet) throws IOException {
+        writeBytes(out, ratchet.getDestinationHash());
+        out.writeLong(ratchet.getReceived());
+        writeBytes(out, ratchet.getRatchet());
+    }
+
+    static RatchetEntity readRatchet(DataInput in) throws IOException {
+        return RatchetEntity.builder()
+                .destinationHash(readBytes(in))
+                .received(in.readLong())
+                .ratchet(readBytes(in))
+                .build();
+    }
+
+    static void writeHop(DataOutput out, HopEntity hop) throws IOException {
+        writeInstant(out, hop.getTimestamp());
+        writeBytes(out, hop.getVia());
+        out.writeInt(hop.getHops());
+        writeInstant(out, hop.getExpires());
+        var randomBlobs = hop.getRandomBlobs();
+        out.writeInt(isNull(randomBlobs) ? -1 : randomBlobs.size());
+        if (nonNull(randomBlobs)) {
+            for (var randomBlob : randomBlobs) {
+                writeBytes(out, randomBlob);
+            }
+        }
+        writeBytes(out, hop.getInterfaceHash());
+        writeBytes(out, hop.getPacketHash());
+    }
+
+    static HopEntity readHop(DataInput in) throws IOException {
+        var builder = HopEntity.builder()
+                .timestamp(readInstant(in))
+                .via(readBytes(in))
+                .hops(in.readInt())
+                .expires(readInstant(in));
+        var count = in.readInt();
+        if (count >= 0) {
+            var randomBlobs = new ArrayList<byte[]>(count);
+            for (int i = 0; i < count; i++) {
+                randomBlobs.add(readBytes(in));
+            }
+            builder.randomBlobs(randomBlobs);
+        }
+
+        return builder
+                .interfaceHash(readBytes(in))
+                .packetHash(readBytes(in))
+                .build();
+    }
+
+    static void writeBytes(DataOutput out, byte[] bytes) throws IOException {
+        if (isNull(bytes)) {
+            out.writeInt(-1);
+        } else {
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    static byte[] readBytes(DataInput in) throws IOException {
+        var length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        var bytes = new byte[length];
+        in.readFully(bytes);
+
+        return bytes;
+    }
+
+    private static void writeHex(DataOutput out, String hex) throws IOException {
+        byte[] bytes;
+        try {
+            bytes = isNull(hex) ? null : decodeHex(hex);
+        } catch (DecoderException e) {
+            throw new IOException("Invalid hash " + hex, e);
+        }
+        writeBytes(out, bytes);
+    }
+
+    private static String readHex(DataInput in) throws IOException {
+        var bytes = readBytes(in);
+        return isNull(bytes) ? null : encodeHexString(bytes);
+    }
+
+    private static void writeInstant(DataOutput out, Instant instant) throws IOException {
+        out.writeLong(isNull(instant) ? NO_INSTANT : instant.toEpochMilli());
+    }
+
+    private static Instant readInstant(DataInput in) throws IOException {
+        var millis = in.readLong();
+        return millis == NO_INSTANT ? null : Instant.ofEpochMilli(millis);
+    }
+}
@@ -0,0 +1,586 @@
+package io.reticulum.storage.journal;
+
+import io.reticulum.identity.IdentityKnownDestination.DestinationData;
+import io.reticulum.storage.entity.DestinationTable;
+import io.reticulum.storage.entity.RatchetEntity;
+import io.reticulum.storage.entity.TunnelEntity;
+import io.reticulum.storage.snapshot.Snapshot;
+import io.reticulum.storage.snapshot.SnapshotWriter;
+import io.reticulum.transport.HashKey;
+import io.reticulum.transport.HashKeyMap;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+import static io.reticulum.constant.IdentityConstant.RATCHET_EXPIRY;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static org.apache.commons.lang3.BooleanUtils.isFalse;
+
+/**
+ * Write-behind persistence of the path and tunnel tables, known destinations and ratchets.
+ * <p>
+ * Callers remember which entries changed since the last persist and hand only those to
+ * {@link #commit(Batch)}, which appends one record per change to the journal: the entry as
+ * it is now, or its removal. The cost of a persist therefore depends on the churn, not on
+ * the size of the tables. Once the journal outgrows the snapshot (and a minimum size), both
+ * are folded into a new {@link Snapshot} holding one record per live entry, and the journal
+ * starts over.
+ * <p>
+ * The snapshot is memory-mapped and never read as a whole: opening the journal maps it and
+ * indexes the journal records written since (without decoding them), and
+ * {@link #path(byte[])}, {@link #knownDestination(byte[])} and {@link #ratchet(byte[])}
+ * look an entry up in the journal first and in the snapshot second. Startup time depends
+ * on the journal, not on the number of entries.
+ * <p>
+ * The journal starts with a magic number and a format version, followed by records: body
+ * length (int), CRC32 of the body (int), body. The body is a record type followed by the
+ * entry in the form of {@link RoutingCodec}; snapshot records are the same bodies without
+ * the type. A torn record at the end of the journal is cut off. A snapshot in the streamed
+ * journal format of version 1 is read like a journal and rewritten on open.
+ */
+@Slf4j
+public class RoutingJournal implements Closeable {
+
+    static final String SNAPSHOT_FILE = "routing.snapshot";
+    static final String JOURNAL_FILE = "routing.journal";
+
+    private static final int MAGIC = 0x524e524a;
+    private static final int VERSION = 1;
+    private static final int FILE_HEADER_BYTES = 8;
+    private static final int MAX_RECORD_BYTES = 16 * 1024 * 1024;
+
+    private static final byte PATH = 1;
+    private static final byte PATH_REMOVED = 2;
+    private static final byte TUNNEL = 3;
+    private static final byte TUNNEL_REMOVED = 4;
+    private static final byte KNOWN_DESTINATION = 5;
+    private static final byte RATCHET = 6;
+
+    // snapshot sections, also the index of the journal overlays
+    private static final int PATHS = 0;
+    private static final int TUNNELS = 1;
+    private static final int KNOWN_DESTINATIONS = 2;
+    private static final int RATCHETS = 3;
+    private static final int SECTIONS = 4;
+
+    /**
+     * Overlay value of an entry removed since the snapshot
+     */
+    private static final byte[] REMOVED = new byte[0];
+
+    private final Path snapshotFile;
+    private final Path journalFile;
+    private final long minCompactionBytes;
+    private final FileChannel journal;
+    /**
+     * Snapshot and journal entries since, swapped as a whole on compaction so lookups
+     * never see one without the other
+     */
+    private volatile State state;
+    private long journalBytes;
+    private long records;
+    private int compactions;
+
+    private static final class State {
+        final Snapshot snapshot;
+        final List<HashKeyMap<byte[]>> overlays = new ArrayList<>(SECTIONS);
+
+        State(Snapshot snapshot) {
+            this.snapshot = snapshot;
+            for (int i = 0; i < SECTIONS; i++) {
+                overlays.add(new HashKeyMap<>());
+            }
+        }
+
+        Snapshot.Section section(int section) {
+            return isNull(snapshot) ? null : snapshot.section(section);
+        }
+    }
+
+    /**
+     * @param directory          directory of the snapshot and the journal
+     * @param minCompactionBytes journal size below which it is never compacted
+     */
+    public RoutingJournal(Path directory, long minCompactionBytes) throws IOException {
+        Files.createDirectories(directory);
+        this.snapshotFile = directory.resolve(SNAPSHOT_FILE);
+        this.journalFile = directory.resolve(JOURNAL_FILE);
+        this.minCompactionBytes = minCompactionBytes;
+        this.journal = FileChannel.open(journalFile, CREATE, READ, WRITE);
+        this.journalBytes = journal.size();
+
+        var legacySnapshot = false;
+        Snapshot snapshot = null;
+        if (Files.exists(snapshotFile)) {
+            var header = Snapshot.readHeader(snapshotFile);
+            if (Snapshot.isSnapshot(header)) {
+                snapshot = Snapshot.open(snapshotFile);
+            } else if (header == ((long) MAGIC << 32 | VERSION)) {
+                legacySnapshot = true;
+            } else {
+                log.warn("Routing snapshot {} has an unknown format, ignoring it", snapshotFile);
+            }
+        }
+        this.state = new State(snapshot);
+        if (legacySnapshot) {
+            replay(snapshotFile, state);
+        }
+
+        var validBytes = journalBytes < FILE_HEADER_BYTES ? -1 : replay(journalFile, state);
+        if (validBytes < 0) {
+            if (journalBytes > 0) {
+                log.warn("Routing journal {} has an unknown format, starting over", journalFile);
+            }
+            resetJournal();
+        } else if (validBytes < journalBytes) {
+            log.warn("Cutting off {} bytes of a torn record at the end of {}", journalBytes - validBytes, journalFile);
+            journal.truncate(validBytes);
+            journalBytes = validBytes;
+        }
+
+        if (legacySnapshot) {
+            log.info("Converting routing snapshot {} to version {}", snapshotFile, Snapshot.VERSION);
+            compact();
+        }
+    }
+
+    /**
+     * Changes to append with one write
+     */
+    public static class Batch {
+        private final ByteArrayOutputStream records = new ByteArrayOutputStream();
+        private final DataOutputStream recordsOut = new DataOutputStream(records);
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        private final DataOutputStream bodyOut = new DataOutputStream(body);
+        private final CRC32 crc = new CRC32();
+        private final List<Change> changes = new ArrayList<>();
+
+        public void putPath(DestinationTable path) throws IOException {
+            begin(PATH);
+            RoutingCodec.writePath(bodyOut, path);
+            end(PATHS, HashKey.fromHex(path.getDestinationHash()), false);
+        }
+
+        public void removePath(byte[] destinationHash) throws IOException {
+            begin(PATH_REMOVED);
+            RoutingCodec.writeBytes(bodyOut, destinationHash);
+            end(PATHS, HashKey.of(destinationHash), true);
+        }
+
+        public void putTunnel(TunnelEntity tunnel) throws IOException {
+            begin(TUNNEL);
+            RoutingCodec.writeTunnel(bodyOut, tunnel);
+            end(TUNNELS, HashKey.of(tunnel.getTunnelId()), false);
+        }
+
+        public void removeTunnel(byte[] tunnelId) throws IOException {
+            begin(TUNNEL_REMOVED);
+            RoutingCodec.writeBytes(bodyOut, tunnelId);
+            end(TUNNELS, HashKey.of(tunnelId), true);
+        }
+
+        public void putKnownDestination(DestinationData destination) throws IOException {
+            begin(KNOWN_DESTINATION);
+            RoutingCodec.writeKnownDestination(bodyOut, destination);
+            end(KNOWN_DESTINATIONS, HashKey.fromHex(destination.getDestinationHash()), false);
+        }
+
+        public void putRatchet(RatchetEntity ratchet) throws IOException {
+            begin(RATCHET);
+            RoutingCodec.writeRatchet(bodyOut, ratchet);
+            end(RATCHETS, HashKey.of(ratchet.getDestinationHash()), false);
+        }
+
+        private void begin(byte type) throws IOException {
+            body.reset();
+            bodyOut.writeByte(type);
+        }
+
+        private void end(int section, HashKey key, boolean removed) throws IOException {
+            var bytes = body.toByteArray();
+            writeRecord(recordsOut, bytes, crc);
+            changes.add(new Change(section, key, removed ? REMOVED : Arrays.copyOfRange(bytes, 1, bytes.length)));
+        }
+
+        public int size() {
+            return changes.size();
+        }
+
+        public boolean isEmpty() {
+            return changes.isEmpty();
+        }
+    }
+
+    private static final class Change {
+        final int section;
+        final HashKey key;
+        final byte[] entry;
+
+        Change(int section, HashKey key, byte[] entry) {
+            this.section = section;
+            this.key = key;
+            this.entry = entry;
+        }
+    }
+
+    public Batch batch() {
+        return new Batch();
+    }
+
+    private static void writeRecord(DataOutputStream out, byte[] body, CRC32 crc) throws IOException {
+        crc.reset();
+        crc.update(body);
+        out.writeInt(body.length);
+        out.writeInt((int) crc.getValue());
+        out.write(body);
+    }
+
+    /**
+     * Appends the batch and forces it to the disk, then compacts if the journal grew past
+     * the snapshot.
+     */
+    public synchronized void commit(Batch batch) throws IOException {
+        if (batch.isEmpty()) {
+            return;
+        }
+        var buffer = ByteBuffer.wrap(batch.records.toByteArray());
+        while (buffer.hasRemaining()) {
+            journalBytes += journal.write(buffer, journalBytes);
+        }
+        journal.force(false);
+        records += batch.size();
+
+        var current = state;
+        for (var change : batch.changes) {
+            current.overlays.get(change.section).put(change.key, change.entry);
+        }
+
+        if (journalBytes > Math.max(minCompactionBytes, snapshotBytes(current))) {
+            compact();
+        }
+    }
+
+    /**
+     * @return the stored path to the destination, or {@code null}
+     */
+    public DestinationTable path(byte[] destinationHash) {
+        return read(PATHS, destinationHash, RoutingCodec::readPath);
+    }
+
+    /**
+     * Hands every stored path to {@code action}, decoding one at a time.
+     */
+    public void forEachPath(Consumer<DestinationTable> action) {
+        forEach(PATHS, RoutingCodec::readPath, action);
+    }
+
+    public List<TunnelEntity> tunnels() {
+        var tunnels = new ArrayList<TunnelEntity>();
+        forEach(TUNNELS, RoutingCodec::readTunnel, tunnels::add);
+
+        return tunnels;
+    }
+
+    /**
+     * @return the stored identity of the destination, or {@code null}
+     */
+    public DestinationData knownDestination(byte[] destinationHash) {
+        return read(KNOWN_DESTINATIONS, destinationHash, RoutingCodec::readKnownDestination);
+    }
+
+    /**
+     * @return the stored ratchet of the destination, or {@code null}; it may have expired
+     */
+    public RatchetEntity ratchet(byte[] destinationHash) {
+        return read(RATCHETS, destinationHash, RoutingCodec::readRatchet);
+    }
+
+    /**
+     * @return true if nothing was ever stored
+     */
+    public boolean isEmpty() {
+        var current = state;
+        for (int i = 0; i < SECTIONS; i++) {
+            var section = current.section(i);
+            if (isFalse(current.overlays.get(i).isEmpty()) || (nonNull(section) && section.size() > 0)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * @return number of known destinations in the snapshot, without those journaled since
+     */
+    public int snapshotKnownDestinations() {
+        var section = state.section(KNOWN_DESTINATIONS);
+        return isNull(section) ? 0 : section.size();
+    }
+
+    /**
+     * @return number of paths in the snapshot, without those journaled since
+     */
+    public int snapshotPaths() {
+        var section = state.section(PATHS);
+        return isNull(section) ? 0 : section.size();
+    }
+
+    private interface Reader<T> {
+        T read(DataInput in) throws IOException;
+    }
+
+    private <T> T read(int section, byte[] key, Reader<T> reader) {
+        var current = state;
+        var entry = current.overlays.get(section).get(key);
+        if (entry == REMOVED) {
+            return null;
+        }
+        if (isNull(entry)) {
+            var snapshotSection = current.section(section);
+            var record = isNull(snapshotSection) ? null : snapshotSection.get(key);
+            if (isNull(record)) {
+                return null;
+            }
+            entry = new byte[record.remaining()];
+            record.get(entry);
+        }
+
+        return decode(entry, reader);
+    }
+
+    private <T> void forEach(int section, Reader<T> reader, Consumer<T> action) {
+        var current = state;
+        var overlay = current.overlays.get(section);
+        var snapshotSection = current.section(section);
+        if (nonNull(snapshotSection)) {
+            for (int i = 0; i < snapshotSection.size(); i++) {
+                var key = snapshotSection.key(i);
+                var record = snapshotSection.record(i);
+                if (nonNull(record) && isFalse(overlay.containsKey(key))) {
+                    var entry = new byte[record.remaining()];
+                    record.get(entry);
+                    accept(decode(entry, reader), action);
+                }
+            }
+        }
+        for (var entry : overlay.values()) {
+            if (entry != REMOVED) {
+                accept(decode(entry, reader), action);
+            }
+        }
+    }
+
+    private static <T> void accept(T value, Consumer<T> action) {
+        if (nonNull(value)) {
+            action.accept(value);
+        }
+    }
+
+    private static <T> T decode(byte[] entry, Reader<T> reader) {
+        try {
+            return reader.read(new DataInputStream(new ByteArrayInputStream(entry)));
+        } catch (IOException e) {
+            log.warn("Skipping routing record that can not be decoded", e);
+            return null;
+        }
+    }
+
+    /**
+     * Folds snapshot and journal into a new snapshot and empties the journal. Ratchets that
+     * expired are left out.
+     */
+    public synchronized void compact() throws IOException {
+        var start = System.currentTimeMillis();
+        var current = state;
+        var now = Instant.now().getEpochSecond();
+        try (var writer = new SnapshotWriter(snapshotFile, SECTIONS)) {
+            for (int section = 0; section < SECTIONS; section++) {
+                writer.beginSection(section);
+                var overlay = current.overlays.get(section);
+                var changed = new ArrayList<>(overlay.keySet());
+                Collections.sort(changed);
+                var next = 0;
+
+                // both are in key order, an entry of the journal replaces the one of the snapshot
+                var snapshotSection = current.section(section);
+                var size = isNull(snapshotSection) ? 0 : snapshotSection.size();
+                for (int i = 0; i < size; i++) {
+                    var key = snapshotSection.key(i);
+                    while (next < changed.size() && changed.get(next).compareTo(key) < 0) {
+                        add(writer, section, changed.get(next), ByteBuffer.wrap(overlay.get(changed.get(next))), now);
+                        next++;
+                    }
+                    if (next < changed.size() && changed.get(next).equals(key)) {
+                        continue;
+                    }
+                    var record = snapshotSection.record(i);
+                    if (nonNull(record)) {
+                        add(writer, section, key, record, now);
+                    }
+                }
+                for (; next < changed.size(); next++) {
+                    add(writer, section, changed.get(next), ByteBuffer.wrap(overlay.get(changed.get(next))), now);
+                }
+            }
+            writer.commit();
+        }
+
+        // the new snapshot holds everything journaled so far
+        state = new State(Snapshot.open(snapshotFile));
+        resetJournal();
+        compactions++;
+        log.debug("Compacted routing journal into {} paths and {} known destinations ({} bytes) in {} ms",
+                snapshotPaths(), snapshotKnownDestinations(), snapshotBytes(state), System.currentTimeMillis() - start);
+    }
+
+    private static void add(SnapshotWriter writer, int section, HashKey key, ByteBuffer entry, long now) throws IOException {
+        if (entry.remaining() == 0) {
+            // removed
+            return;
+        }
+        if (section == RATCHETS) {
+            // destination hash first, the time it was received next
+            var received = entry.getLong(entry.position() + Integer.BYTES + entry.getInt(entry.position()));
+            if (now >= received + RATCHET_EXPIRY) {
+                return;
+            }
+        }
+        writer.add(key, entry);
+    }
+
+    private static long snapshotBytes(State state) {
+        return isNull(state.snapshot) ? 0 : state.snapshot.bytes();
+    }
+
+    private void resetJournal() throws IOException {
+        journal.truncate(0);
+        var header = ByteBuffer.allocate(FILE_HEADER_BYTES).putInt(MAGIC).putInt(VERSION).flip();
+        while (header.hasRemaining()) {
+            journal.write(header, header.position());
+        }
+        journal.force(true);
+        journalBytes = FILE_HEADER_BYTES;
+    }
+
+    /**
+     * Indexes the records of a journal file in the overlays of the state.
+     *
+     * @return offset after the last intact record, or -1 if the file has an unknown format
+     */
+    private static long replay(Path file, State state) throws IOException {
+        try (var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 64 * 1024))) {
+            try {
+                if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                    return -1;
+                }
+            } catch (EOFException e) {
+                return -1;
+            }
+
+            long offset = FILE_HEADER_BYTES;
+            var crc = new CRC32();
+            while (true) {
+                byte[] body;
+                try {
+                    var length = in.readInt();
+                    var checksum = in.readInt();
+                    if (length <= 0 || length > MAX_RECORD_BYTES) {
+                        return offset;
+                    }
+                    body = new byte[length];
+                    in.readFully(body);
+                    crc.reset();
+                    crc.update(body);
+                    if ((int) crc.getValue() != checksum) {
+                        return offset;
+                    }
+                } catch (EOFException e) {
+                    return offset;
+                }
+
+                apply(body, state);
+                offset += 8 + body.length;
+            }
+        }
+    }
+
+    private static void apply(byte[] body, State state) {
+        var type = body[0];
+        int section;
+        switch (type) {
+            case PATH:
+            case PATH_REMOVED:
+                section = PATHS;
+                break;
+            case TUNNEL:
+            case TUNNEL_REMOVED:
+                section = TUNNELS;
+                break;
+            case KNOWN_DESTINATION:
+                section = KNOWN_DESTINATIONS;
+                break;
+            case RATCHET:
+                section = RATCHETS;
+                break;
+            default:
+                log.debug("Skipping routing journal record of unknown type {}", type);
+                return;
+        }
+
+        // every entry starts with its key
+        var keyLength = body.length < 5 ? -1 : ByteBuffer.wrap(body).getInt(1);
+        if (keyLength < 0 || 5 + keyLength > body.length) {
+            return;
+        }
+        var key = HashKey.of(Arrays.copyOfRange(body, 5, 5 + keyLength));
+        var removed = type == PATH_REMOVED || type == TUNNEL_REMOVED;
+        state.overlays.get(section).put(key, removed ? REMOVED : Arrays.copyOfRange(body, 1, body.length));
+    }
+
+    public synchronized long getJournalBytes() {
+        return journalBytes;
+    }
+
+    public synchronized int getCompactions() {
+        return compactions;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (isFalse(journal.isOpen())) {
+            return;
+        }
+        journal.force(true);
+        journal.close();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("RoutingJournal[journal=%d bytes snapshot=%d bytes records=%d compactions=%d]",
+                journalBytes, snapshotBytes(state), records, compactions);
+    }
+}
@@ -0,0 +1,231 @@
+package io.reticulum.storage.snapshot;
+
+import io.reticulum.transport.HashKey;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.zip.CRC32;
+
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.util.Objects.nonNull;
+
+/**
+ * Read-only, memory-mapped file of records keyed by {@link HashKey}, grouped in sections.
+ * <p>
+ * Opening a snapshot maps its sections and reads nothing else, so it takes the same time
+ * for ten records as for ten million. Every section keeps its index sorted by key, and
+ * {@link Section#get(byte[])} is a binary search over the mapped index: a record is read
+ * (and its checksum verified) only when it is asked for.
+ * <p>
+ * Layout, all numbers big-endian:
+ * <pre>
+ * header     magic (int), version (int), section count (int), reserved (int)
+ * directory  per section: id (int), record count (int), index offset (long),
+ *            data offset (long), data length (long)
+ * section    records, back to back, followed by the index: per record key (16 bytes),
+ *            offset in the data (long), length (int), CRC32 of the record (int)
+ * </pre>
+ * Files are written by {@link SnapshotWriter}.
+ */
+@Slf4j
+public class Snapshot {
+
+    static final int MAGIC = 0x524e5353;
+    /**
+     * Version 1 was the streamed record format of the first routing journal
+     */
+    public static final int VERSION = 2;
+    static final int HEADER_BYTES = 16;
+    static final int DIRECTORY_ENTRY_BYTES = 32;
+    static final int INDEX_ENTRY_BYTES = 32;
+
+    private static final Section EMPTY = new Section(0, ByteBuffer.allocate(0), ByteBuffer.allocate(0));
+
+    private final Map<Integer, Section> sections;
+    private final long bytes;
+
+    private Snapshot(Map<Integer, Section> sections, long bytes) {
+        this.sections = sections;
+        this.bytes = bytes;
+    }
+
+    /**
+     * @return the magic number and version at the start of a file, or -1 if it is shorter
+     * than that, for telling formats apart before opening
+     */
+    public static long readHeader(Path file) throws IOException {
+        try (var channel = FileChannel.open(file, READ)) {
+            var header = ByteBuffer.allocate(Long.BYTES);
+            while (header.hasRemaining()) {
+                if (channel.read(header, header.position()) < 0) {
+                    return -1;
+                }
+            }
+
+            return header.getLong(0);
+        }
+    }
+
+    public static boolean isSnapshot(long header) {
+        return header == ((long) MAGIC << 32 | VERSION);
+    }
+
+    /**
+     * Maps the file; nothing but the header and the directory is read.
+     *
+     * @throws IOException if the file is not a snapshot of this version
+     */
+    public static Snapshot open(Path file) throws IOException {
+        try (var channel = FileChannel.open(file, READ)) {
+            var size = channel.size();
+            var header = ByteBuffer.allocate(HEADER_BYTES);
+            channel.read(header, 0);
+            header.flip();
+            if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC || header.getInt() != VERSION) {
+                throw new IOException(file + " is not a snapshot of version " + VERSION);
+            }
+            var sectionCount = header.getInt();
+
+            var directory = ByteBuffer.allocate(sectionCount * DIRECTORY_ENTRY_BYTES);
+            channel.read(directory, HEADER_BYTES);
+            directory.flip();
+            if (directory.remaining() < sectionCount * DIRECTORY_ENTRY_BYTES) {
+                throw new IOException(file + " is truncated");
+            }
+
+            var sections = new HashMap<Integer, Section>();
+            for (int i = 0; i < sectionCount; i++) {
+                var id = directory.getInt();
+                var count = directory.getInt();
+                var indexOffset = directory.getLong();
+                var dataOffset = directory.getLong();
+                var dataLength = directory.getLong();
+                var indexLength = (long) count * INDEX_ENTRY_BYTES;
+                if (indexOffset + indexLength > size || dataOffset + dataLength > size
+                        || indexLength > Integer.MAX_VALUE || dataLength > Integer.MAX_VALUE) {
+                    throw new IOException(file + " has an invalid section " + id);
+                }
+                sections.put(id, new Section(
+                        count,
+                        channel.map(READ_ONLY, indexOffset, indexLength),
+                        channel.map(READ_ONLY, dataOffset, dataLength)
+                ));
+            }
+
+            return new Snapshot(sections, size);
+        }
+    }
+
+    /**
+     * @return the section, empty if the snapshot has none with this id
+     */
+    public Section section(int id) {
+        return sections.getOrDefault(id, EMPTY);
+    }
+
+    public long bytes() {
+        return bytes;
+    }
+
+    public static class Section {
+        private final int count;
+        private final ByteBuffer index;
+        private final ByteBuffer data;
+
+        Section(int count, ByteBuffer index, ByteBuffer data) {
+            this.count = count;
+            this.index = index;
+            this.data = data;
+        }
+
+        public int size() {
+            return count;
+        }
+
+        /**
+         * @param key full or truncated hash, compared by its first 16 bytes
+         * @return read-only view of the record, or {@code null}
+         */
+        public ByteBuffer get(byte[] key) {
+            var wrapped = ByteBuffer.wrap(HashKey.of(key).toBytes());
+            var hi = wrapped.getLong(0);
+            var lo = wrapped.getLong(Long.BYTES);
+
+            var low = 0;
+            var high = count - 1;
+            while (low <= high) {
+                var middle = (low + high) >>> 1;
+                var at = middle * INDEX_ENTRY_BYTES;
+                var c = Long.compareUnsigned(index.getLong(at), hi);
+                if (c == 0) {
+                    c = Long.compareUnsigned(index.getLong(at + Long.BYTES), lo);
+                }
+                if (c < 0) {
+                    low = middle + 1;
+                } else if (c > 0) {
+                    high = middle - 1;
+                } else {
+                    return record(middle);
+                }
+            }
+
+            return null;
+        }
+
+        /**
+         * Hands every record to {@code action} in key order. Records failing their
+         * checksum are skipped.
+         */
+        public void forEach(BiConsumer<HashKey, ByteBuffer> action) {
+            for (int i = 0; i < count; i++) {
+                var record = record(i);
+                if (nonNull(record)) {
+                    action.accept(key(i), record);
+                }
+            }
+        }
+
+        /**
+         * @return key of the i-th record in key order
+         */
+        public HashKey key(int i) {
+            var key = new byte[HashKey.LENGTH];
+            index.duplicate().position(i * INDEX_ENTRY_BYTES).get(key);
+
+            return HashKey.of(key);
+        }
+
+        /**
+         * @return read-only view of the i-th record in key order, or {@code null} if it fails
+         * its checksum
+         */
+        public ByteBuffer record(int i) {
+            var at = i * INDEX_ENTRY_BYTES;
+            var offset = (int) index.getLong(at + 2 * Long.BYTES);
+            var length = index.getInt(at + 3 * Long.BYTES);
+            var checksum = index.getInt(at + 3 * Long.BYTES + Integer.BYTES);
+            var record = data.duplicate().position(offset).limit(offset + length).slice();
+
+            var crc = new CRC32();
+            crc.update(record.duplicate());
+            if ((int) crc.getValue() != checksum) {
+                log.warn("Skipping snapshot record {} with a bad checksum", i);
+                return null;
+            }
+
+            return record.asReadOnlyBuffer();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Snapshot[sections=%d bytes=%d]", sections.size(), bytes);
+    }
+}
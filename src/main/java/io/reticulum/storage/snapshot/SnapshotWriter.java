@@ -0,0 +1,189 @@
+package io.reticulum.storage.snapshot;
+
+import io.reticulum.transport.HashKey;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+import static io.reticulum.storage.snapshot.Snapshot.DIRECTORY_ENTRY_BYTES;
+import static io.reticulum.storage.snapshot.Snapshot.HEADER_BYTES;
+import static io.reticulum.storage.snapshot.Snapshot.INDEX_ENTRY_BYTES;
+import static io.reticulum.storage.snapshot.Snapshot.MAGIC;
+import static io.reticulum.storage.snapshot.Snapshot.VERSION;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.Objects.nonNull;
+import static org.apache.commons.lang3.BooleanUtils.isFalse;
+
+/**
+ * Writes a {@link Snapshot} to a temporary file and moves it into place on
+ * {@link #commit()}, so readers of the previous snapshot are never disturbed.
+ * <p>
+ * Records are streamed to the file as they are added; only the index of the current
+ * section (32 bytes per record, in primitive arrays) is kept in memory. Keys must be added
+ * in ascending order within a section.
+ */
+public class SnapshotWriter implements Closeable {
+
+    private static final int INITIAL_ENTRIES = 1024;
+
+    private final Path target;
+    private final Path temporary;
+    private final FileChannel channel;
+    private final DataOutputStream out;
+    private final int sectionCount;
+    private final ByteBuffer directory;
+    private final CRC32 crc = new CRC32();
+    private long position;
+    private int sections;
+    private boolean committed;
+
+    // index of the current section
+    private int sectionId = -1;
+    private long dataOffset;
+    private int count;
+    private long[] his = new long[INITIAL_ENTRIES];
+    private long[] los = new long[INITIAL_ENTRIES];
+    private long[] offsets = new long[INITIAL_ENTRIES];
+    private int[] lengths = new int[INITIAL_ENTRIES];
+    private int[] crcs = new int[INITIAL_ENTRIES];
+    private HashKey previous;
+
+    /**
+     * @param sectionCount number of sections that will be written
+     */
+    public SnapshotWriter(Path target, int sectionCount) throws IOException {
+        this.target = target;
+        this.temporary = target.resolveSibling(target.getFileName() + ".tmp");
+        this.sectionCount = sectionCount;
+        this.channel = FileChannel.open(temporary, CREATE, WRITE, TRUNCATE_EXISTING);
+        this.out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 64 * 1024));
+        this.directory = ByteBuffer.allocate(sectionCount * DIRECTORY_ENTRY_BYTES);
+
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(sectionCount);
+        out.writeInt(0);
+        // the directory is filled in on commit
+        out.write(new byte[directory.capacity()]);
+        position = HEADER_BYTES + directory.capacity();
+    }
+
+    public void beginSection(int id) throws IOException {
+        endSection();
+        if (sections == sectionCount) {
+            throw new IllegalStateException("All " + sectionCount + " sections are written");
+        }
+        sectionId = id;
+        dataOffset = position;
+        count = 0;
+        previous = null;
+    }
+
+    public void add(HashKey key, byte[] record) throws IOException {
+        add(key, ByteBuffer.wrap(record));
+    }
+
+    public void add(HashKey key, ByteBuffer record) throws IOException {
+        if (sectionId < 0) {
+            throw new IllegalStateException("No section started");
+        }
+        if (nonNull(previous) && key.compareTo(previous) <= 0) {
+            throw new IllegalArgumentException("Key " + key + " is not above " + previous);
+        }
+        previous = key;
+
+        if (count == his.length) {
+            var capacity = count * 2;
+            his = Arrays.copyOf(his, capacity);
+            los = Arrays.copyOf(los, capacity);
+            offsets = Arrays.copyOf(offsets, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+            crcs = Arrays.copyOf(crcs, capacity);
+        }
+        var bytes = ByteBuffer.wrap(key.toBytes());
+        var length = record.remaining();
+        crc.reset();
+        crc.update(record.duplicate());
+        his[count] = bytes.getLong(0);
+        los[count] = bytes.getLong(Long.BYTES);
+        offsets[count] = position - dataOffset;
+        lengths[count] = length;
+        crcs[count] = (int) crc.getValue();
+        count++;
+
+        if (record.hasArray()) {
+            out.write(record.array(), record.arrayOffset() + record.position(), length);
+        } else {
+            var copy = new byte[length];
+            record.duplicate().get(copy);
+            out.write(copy);
+        }
+        position += length;
+    }
+
+    private void endSection() throws IOException {
+        if (sectionId < 0) {
+            return;
+        }
+        var indexOffset = position;
+        for (int i = 0; i < count; i++) {
+            out.writeLong(his[i]);
+            out.writeLong(los[i]);
+            out.writeLong(offsets[i]);
+            out.writeInt(lengths[i]);
+            out.writeInt(crcs[i]);
+        }
+        position += (long) count * INDEX_ENTRY_BYTES;
+
+        directory.putInt(sectionId)
+                .putInt(count)
+                .putLong(indexOffset)
+                .putLong(dataOffset)
+                .putLong(indexOffset - dataOffset);
+        sections++;
+        sectionId = -1;
+    }
+
+    /**
+     * Completes the file and replaces the previous snapshot with it.
+     */
+    public void commit() throws IOException {
+        endSection();
+        if (sections != sectionCount) {
+            throw new IllegalStateException(sections + " of " + sectionCount + " sections written");
+        }
+        out.flush();
+        directory.flip();
+        var at = (long) HEADER_BYTES;
+        while (directory.hasRemaining()) {
+            at += channel.write(directory, at);
+        }
+        channel.force(true);
+        channel.close();
+        Files.move(temporary, target, REPLACE_EXISTING, ATOMIC_MOVE);
+        committed = true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel.isOpen()) {
+            channel.close();
+        }
+        if (isFalse(committed)) {
+            Files.deleteIfExists(temporary);
+        }
+    }
+}
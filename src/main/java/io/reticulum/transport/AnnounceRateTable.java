@@ -0,0 +1,186 @@
+package io.reticulum.transport;
+
+import java.util.Arrays;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Announce rate of every destination heard on an interface with an announce rate target.
+ * <p>
+ * Replaces the former {@code RateEntry} objects, which kept {@code Instant}s and a list of
+ * recent timestamps per destination and allocated for every announce while the routing
+ * lock was held. All entries live in one {@code long[]} slab: a fixed number of
+ * {@link System#nanoTime()} fields per destination, followed by a ring of the most recent
+ * announce times. The destination index stores the slot number, and slots of removed
+ * destinations are reused, so recording an announce of a known destination does not
+ * allocate.
+ * <p>
+ * The rate rules are the ones of the reference implementation: an announce that arrives
+ * less than the rate target after the last accepted one is a violation, an announce that
+ * keeps the rate forgives one. Once the violations exceed the grace, announces are blocked
+ * until the rate target plus the penalty have passed since the last accepted announce.
+ */
+public class AnnounceRateTable {
+
+    private static final int LAST = 0;
+    private static final int BLOCKED_UNTIL = 1;
+    private static final int VIOLATIONS = 2;
+    private static final int RECORDED = 3;
+    private static final int TIMESTAMPS = 4;
+
+    private static final int INITIAL_SLOTS = 64;
+
+    private final HashKeyMap<Integer> index = new HashKeyMap<>();
+    private final int maxTimestamps;
+    private final int stride;
+
+    private long[] slab;
+    private int[] freeSlots = new int[INITIAL_SLOTS];
+    private int freeCount;
+    private int usedSlots;
+
+    /**
+     * @param maxTimestamps number of recent announce times kept per destination
+     */
+    public AnnounceRateTable(int maxTimestamps) {
+        this.maxTimestamps = maxTimestamps;
+        this.stride = TIMESTAMPS + maxTimestamps;
+        this.slab = new long[INITIAL_SLOTS * stride];
+    }
+
+    /**
+     * Records an announce of the destination and applies the rate rules to it. The first
+     * announce of a destination is never blocked.
+     *
+     * @param now         {@link System#nanoTime()} of the announce
+     * @param rateTarget  seconds that should pass between announces
+     * @param rateGrace   violations allowed before the rate target is enforced
+     * @param ratePenalty seconds added to the rate target once it is enforced
+     * @return true if the announce exceeds the rate and must not be rebroadcast
+     */
+    public synchronized boolean record(byte[] destinationHash, long now, int rateTarget, int rateGrace, int ratePenalty) {
+        var slot = index.get(destinationHash);
+        if (isNull(slot)) {
+            var base = allocate(destinationHash) * stride;
+            slab[base + LAST] = now;
+            slab[base + BLOCKED_UNTIL] = now - 1;
+            slab[base + VIOLATIONS] = 0;
+            slab[base + RECORDED] = 0;
+            addTimestamp(base, now);
+
+            return false;
+        }
+
+        var base = slot * stride;
+        addTimestamp(base, now);
+
+        if (now - slab[base + BLOCKED_UNTIL] <= 0) {
+            return true;
+        }
+
+        var last = slab[base + LAST];
+        if (NANOSECONDS.toSeconds(now - last) < rateTarget) {
+            slab[base + VIOLATIONS]++;
+        } else {
+            slab[base + VIOLATIONS] = Math.max(0, slab[base + VIOLATIONS] - 1);
+        }
+
+        if (slab[base + VIOLATIONS] > rateGrace) {
+            slab[base + BLOCKED_UNTIL] = last + SECONDS.toNanos((long) rateTarget + ratePenalty);
+            return true;
+        }
+        slab[base + LAST] = now;
+
+        return false;
+    }
+
+    private void addTimestamp(int base, long now) {
+        var recorded = slab[base + RECORDED]++;
+        slab[base + TIMESTAMPS + (int) (recorded % maxTimestamps)] = now;
+    }
+
+    private int allocate(byte[] destinationHash) {
+        int slot;
+        if (freeCount > 0) {
+            slot = freeSlots[--freeCount];
+        } else {
+            slot = usedSlots++;
+            if (usedSlots * stride > slab.length) {
+                slab = Arrays.copyOf(slab, slab.length * 2);
+            }
+        }
+        index.put(destinationHash, slot);
+
+        return slot;
+    }
+
+    /**
+     * Forgets the rate of a destination, for example when its path is removed.
+     */
+    public synchronized void remove(byte[] destinationHash) {
+        release(index.remove(destinationHash));
+    }
+
+    public synchronized void remove(HashKey destinationHash) {
+        release(index.remove(destinationHash));
+    }
+
+    private void release(Integer slot) {
+        if (nonNull(slot)) {
+            if (freeCount == freeSlots.length) {
+                freeSlots = Arrays.copyOf(freeSlots, freeSlots.length * 2);
+            }
+            freeSlots[freeCount++] = slot;
+        }
+    }
+
+    /**
+     * @return the {@link System#nanoTime()} of the most recent announces of the destination,
+     * oldest first, or an empty array if the destination is not in the table
+     */
+    public synchronized long[] timestamps(byte[] destinationHash) {
+        var slot = index.get(destinationHash);
+        if (isNull(slot)) {
+            return new long[0];
+        }
+        var base = slot * stride;
+        var recorded = slab[base + RECORDED];
+        var count = (int) Math.min(recorded, maxTimestamps);
+        var timestamps = new long[count];
+        for (int i = 0; i < count; i++) {
+            timestamps[i] = slab[base + TIMESTAMPS + (int) ((recorded - count + i) % maxTimestamps)];
+        }
+
+        return timestamps;
+    }
+
+    /**
+     * @return number of violations of the destination, or 0 if it is not in the table
+     */
+    public synchronized int violations(byte[] destinationHash) {
+        var slot = index.get(destinationHash);
+        return isNull(slot) ? 0 : (int) slab[slot * stride + VIOLATIONS];
+    }
+
+    public boolean contains(byte[] destinationHash) {
+        return index.containsKey(destinationHash);
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    public synchronized void clear() {
+        index.clear();
+        freeCount = 0;
+        usedSlots = 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("AnnounceRateTable[destinations=%d]", size());
+    }
+}
@@ -0,0 +1,170 @@
+package io.reticulum.transport;
+
+import io.reticulum.identity.AnnounceVerdict;
+import io.reticulum.packet.ContextType;
+import io.reticulum.packet.Packet;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import static io.reticulum.packet.PacketType.ANNOUNCE;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Checks announce signatures before the routing lock is taken.
+ * <p>
+ * Ed25519 verification is the most expensive step of routing an announce. Inbound batches
+ * hand their announces to {@link #verify(List)}, which checks them in parallel on a
+ * fork-join pool while no lock is held. The verdicts are cached by packet hash, so
+ * {@link #verdictFor(Packet)} under the lock is a lookup, and an announce arriving on
+ * several interfaces, or rebroadcast by several neighbours, is verified once. The packet
+ * hash covers the signed announce data but not the hop count or transport header, so
+ * every copy of an announce has the same verdict. It does not cover the context flag
+ * either, which decides whether the data carries a ratchet, so a verdict is only reused
+ * for a packet with the same flag.
+ * <p>
+ * The cache keeps two generations of {@code generationSize} verdicts; when the current
+ * one is full, the older one is dropped.
+ */
+@Slf4j
+public class AnnounceVerifier {
+
+    private final Function<Packet, AnnounceVerdict> verifier;
+    private final ForkJoinPool pool;
+    private final int generationSize;
+
+    private volatile HashKeyMap<Verdict> current = new HashKeyMap<>();
+    private volatile HashKeyMap<Verdict> previous = new HashKeyMap<>();
+
+    private final LongAdder verified = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+
+    private static final class Verdict {
+        final AnnounceVerdict verdict;
+        final ContextType contextFlag;
+
+        Verdict(AnnounceVerdict verdict, ContextType contextFlag) {
+            this.verdict = verdict;
+            this.contextFlag = contextFlag;
+        }
+    }
+
+    /**
+     * @param verifier       checks one announce, must be thread-safe
+     * @param parallelism    number of verification threads
+     * @param generationSize verdicts per cache generation
+     */
+    public AnnounceVerifier(Function<Packet, AnnounceVerdict> verifier, int parallelism, int generationSize) {
+        this.verifier = verifier;
+        this.pool = new ForkJoinPool(parallelism);
+        this.generationSize = generationSize;
+    }
+
+    /**
+     * Verifies the announces of a batch that have no verdict yet. Returns once all of them
+     * are verified; a single announce is verified on the calling thread.
+     */
+    public void verify(List<Packet> packets) {
+        List<Packet> unverified = null;
+        for (var packet : packets) {
+            if (packet.getPacketType() == ANNOUNCE && isNull(cached(packet))) {
+                if (isNull(unverified)) {
+                    unverified = new ArrayList<>();
+                }
+                unverified.add(packet);
+            }
+        }
+        if (isNull(unverified)) {
+            return;
+        }
+
+        if (unverified.size() == 1) {
+            verifyAndCache(unverified.get(0));
+        } else {
+            var batch = unverified;
+            pool.submit(() -> batch.parallelStream().forEach(this::verifyAndCache)).join();
+        }
+    }
+
+    /**
+     * @return the verdict for an announce, verified now if it was not verified before;
+     * {@code null} for other packets
+     */
+    public AnnounceVerdict verdictFor(Packet packet) {
+        if (packet.getPacketType() != ANNOUNCE) {
+            return null;
+        }
+        var verdict = cached(packet);
+        if (nonNull(verdict)) {
+            cacheHits.increment();
+            return verdict;
+        }
+
+        return verifyAndCache(packet);
+    }
+
+    private AnnounceVerdict cached(Packet packet) {
+        var hash = packet.getHash();
+        var verdict = current.get(hash);
+        if (isNull(verdict)) {
+            verdict = previous.get(hash);
+        }
+
+        return nonNull(verdict) && verdict.contextFlag == packet.getContextFlag() ? verdict.verdict : null;
+    }
+
+    private AnnounceVerdict verifyAndCache(Packet packet) {
+        AnnounceVerdict verdict;
+        try {
+            verdict = verifier.apply(packet);
+        } catch (Exception e) {
+            log.debug("Could not verify announce {}", packet, e);
+            verdict = AnnounceVerdict.INVALID_SIGNATURE;
+        }
+        verified.increment();
+        if (nonNull(verdict)) {
+            remember(packet.getHash(), new Verdict(verdict, packet.getContextFlag()));
+        }
+
+        return verdict;
+    }
+
+    private void remember(byte[] hash, Verdict verdict) {
+        var generation = current;
+        if (generation.size() >= generationSize) {
+            synchronized (this) {
+                if (current.size() >= generationSize) {
+                    previous = current;
+                    current = new HashKeyMap<>(generationSize);
+                }
+                generation = current;
+            }
+        }
+        generation.put(hash, verdict);
+    }
+
+    /**
+     * @return number of signature verifications performed
+     */
+    public long getVerified() {
+        return verified.sum();
+    }
+
+    /**
+     * @return number of verdicts served from the cache under the routing lock
+     */
+    public long getCacheHits() {
+        return cacheHits.sum();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("AnnounceVerifier[verified=%d cacheHits=%d cached=%d]",
+                getVerified(), getCacheHits(), current.size() + previous.size());
+    }
+}
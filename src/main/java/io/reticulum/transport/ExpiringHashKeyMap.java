@@ -0,0 +1,175 @@
+package io.reticulum.transport;
+
+import java.time.Instant;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * {@link HashKeyMap} whose entries register their deadline in a {@link TimingWheel} when
+ * they are put, so expired entries can be found without walking the table.
+ * <p>
+ * Deadlines are read from the values with the given function. Entries whose deadline
+ * moves later while they are in the map (a path being used, a link entry being
+ * validated) need no extra call: when the old deadline comes due, {@link #expire} reads
+ * the deadline again and reschedules the entry. Only changes that bring a deadline
+ * forward need {@link #reschedule(byte[])}.
+ * <p>
+ * Updates are safe without an outside lock: every put, remove and reschedule changes the
+ * map and the wheel together. Reads stay lock-free.
+ */
+public class ExpiringHashKeyMap<V> extends HashKeyMap<V> {
+
+    private final Function<V, Instant> deadline;
+    private final TimingWheel<HashKey> wheel;
+    /**
+     * Held while an entry and its place in the wheel change together, so concurrent puts and
+     * removes of the same key cannot leave an entry without a wheel node or the other way round
+     */
+    private final ReentrantLock updates = new ReentrantLock();
+
+    /**
+     * @param tickMillis resolution of the expiry, usually the transport job interval
+     * @param deadline   expiry time of a value
+     */
+    public ExpiringHashKeyMap(long tickMillis, Function<V, Instant> deadline) {
+        this.deadline = deadline;
+        this.wheel = new TimingWheel<>(tickMillis, System.currentTimeMillis());
+    }
+
+    @Override
+    public V put(byte[] hash, V value) {
+        return put(HashKey.of(hash), value);
+    }
+
+    @Override
+    public V put(HashKey key, V value) {
+        updates.lock();
+        try {
+            var old = super.put(key, value);
+            schedule(key, value);
+
+            return old;
+        } finally {
+            updates.unlock();
+        }
+    }
+
+    @Override
+    public V remove(byte[] hash) {
+        updates.lock();
+        try {
+            var old = super.remove(hash);
+            if (nonNull(old)) {
+                wheel.cancel(HashKey.of(hash));
+            }
+
+            return old;
+        } finally {
+            updates.unlock();
+        }
+    }
+
+    @Override
+    public V remove(Object key) {
+        updates.lock();
+        try {
+            var old = super.remove(key);
+            if (nonNull(old)) {
+                wheel.cancel((HashKey) key);
+            }
+
+            return old;
+        } finally {
+            updates.unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        updates.lock();
+        try {
+            super.clear();
+            wheel.clear();
+        } finally {
+            updates.unlock();
+        }
+    }
+
+    /**
+     * Reads the deadline of the entry again, needed when it moved forward.
+     */
+    public void reschedule(byte[] hash) {
+        var key = HashKey.of(hash);
+        updates.lock();
+        try {
+            var value = get(key);
+            if (nonNull(value)) {
+                schedule(key, value);
+            }
+        } finally {
+            updates.unlock();
+        }
+    }
+
+    private void schedule(HashKey key, V value) {
+        var expires = deadline.apply(value);
+        wheel.schedule(key, isNull(expires) ? 0 : expires.toEpochMilli());
+    }
+
+    /**
+     * Hands every entry whose deadline has passed to {@code onExpired}. The handler decides
+     * whether to remove the entry; entries it keeps are scheduled again with their
+     * current deadline. The handler runs without the update lock and may modify the map.
+     *
+     * @return number of entries handed to the handler
+     */
+    public int expire(Instant now, BiConsumer<HashKey, V> onExpired) {
+        var nowMillis = now.toEpochMilli();
+        var expired = 0;
+        for (var key : wheel.advance(nowMillis)) {
+            V value;
+            updates.lock();
+            try {
+                value = get(key);
+                if (isNull(value)) {
+                    continue;
+                }
+                var expires = deadline.apply(value);
+                if (nonNull(expires) && expires.toEpochMilli() > nowMillis) {
+                    // the deadline moved since the entry was scheduled
+                    schedule(key, value);
+                    continue;
+                }
+            } finally {
+                updates.unlock();
+            }
+
+            onExpired.accept(key, value);
+            expired++;
+
+            updates.lock();
+            try {
+                var current = get(key);
+                if (nonNull(current)) {
+                    schedule(key, current);
+                }
+            } finally {
+                updates.unlock();
+            }
+        }
+
+        return expired;
+    }
+
+    /**
+     * @return number of entries waiting in the wheel, equal to {@link #size()} outside of
+     * {@link #expire}
+     */
+    public int scheduled() {
+        return wheel.size();
+    }
+}
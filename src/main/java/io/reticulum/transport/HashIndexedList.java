@@ -0,0 +1,193 @@
+package io.reticulum.transport;
+
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import static java.util.Objects.isNull;
+
+/**
+ * Copy-on-write list that keeps an index from element hash to element.
+ * <p>
+ * Behaves like the {@link CopyOnWriteArrayList} it wraps: reads and iteration work on a
+ * snapshot and never block, which is what the many callers adding and removing
+ * interfaces or destinations through the list expect. After every modification the
+ * index is rebuilt from the new contents, so {@link #find(byte[])} is a single lookup and
+ * always agrees with the list, whoever modified it. Modifications are rare compared to
+ * lookups, and the list already copies itself on every write.
+ * <p>
+ * If several elements share a hash, the index returns the first one in list order, like
+ * the linear searches it replaces.
+ */
+public class HashIndexedList<V> extends AbstractList<V> implements RandomAccess {
+
+    private final CopyOnWriteArrayList<V> list = new CopyOnWriteArrayList<>();
+    private final Function<V, byte[]> hashOf;
+    private volatile HashKeyMap<V> index = new HashKeyMap<>();
+
+    /**
+     * @param hashOf hash of an element, must not change while the element is in the list
+     */
+    public HashIndexedList(Function<V, byte[]> hashOf) {
+        this.hashOf = hashOf;
+    }
+
+    /**
+     * @return the first element with this hash, or {@code null}
+     */
+    public V find(byte[] hash) {
+        return isNull(hash) ? null : index.get(hash);
+    }
+
+    /**
+     * Called with a snapshot of the list after every modification, while modifications are
+     * blocked. Subclasses maintaining further indexes override this and call super.
+     */
+    protected void reindex(List<V> snapshot) {
+        var rebuilt = new HashKeyMap<V>(snapshot.size());
+        for (var element : snapshot) {
+            var hash = hashOf.apply(element);
+            if (isNull(hash) || rebuilt.containsKey(hash)) {
+                continue;
+            }
+            rebuilt.put(hash, element);
+        }
+        index = rebuilt;
+    }
+
+    private void reindex() {
+        reindex(List.copyOf(list));
+    }
+
+    @Override
+    public V get(int i) {
+        return list.get(i);
+    }
+
+    @Override
+    public int size() {
+        return list.size();
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return list.contains(o);
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        return list.indexOf(o);
+    }
+
+    @Override
+    public Iterator<V> iterator() {
+        return list.iterator();
+    }
+
+    @Override
+    public Spliterator<V> spliterator() {
+        return list.spliterator();
+    }
+
+    @Override
+    public Object[] toArray() {
+        return list.toArray();
+    }
+
+    @Override
+    public <T> T[] toArray(T[] a) {
+        return list.toArray(a);
+    }
+
+    @Override
+    public synchronized boolean add(V element) {
+        list.add(element);
+        reindex();
+
+        return true;
+    }
+
+    @Override
+    public synchronized void add(int i, V element) {
+        list.add(i, element);
+        reindex();
+    }
+
+    @Override
+    public synchronized V set(int i, V element) {
+        var old = list.set(i, element);
+        reindex();
+
+        return old;
+    }
+
+    @Override
+    public synchronized V remove(int i) {
+        var old = list.remove(i);
+        reindex();
+
+        return old;
+    }
+
+    @Override
+    public synchronized boolean remove(Object o) {
+        var removed = list.remove(o);
+        if (removed) {
+            reindex();
+        }
+
+        return removed;
+    }
+
+    @Override
+    public synchronized boolean addAll(Collection<? extends V> c) {
+        var added = list.addAll(c);
+        if (added) {
+            reindex();
+        }
+
+        return added;
+    }
+
+    @Override
+    public synchronized boolean removeAll(Collection<?> c) {
+        var removed = list.removeAll(c);
+        if (removed) {
+            reindex();
+        }
+
+        return removed;
+    }
+
+    @Override
+    public synchronized boolean retainAll(Collection<?> c) {
+        var removed = list.retainAll(c);
+        if (removed) {
+            reindex();
+        }
+
+        return removed;
+    }
+
+    @Override
+    public synchronized boolean removeIf(Predicate<? super V> filter) {
+        var removed = list.removeIf(filter);
+        if (removed) {
+            reindex();
+        }
+
+        return removed;
+    }
+
+    @Override
+    public synchronized void clear() {
+        list.clear();
+        reindex();
+    }
+}
@@ -0,0 +1,132 @@
+package io.reticulum.transport;
+
+import org.apache.commons.codec.DecoderException;
+
+import static org.apache.commons.codec.binary.Hex.decodeHex;
+import static org.apache.commons.codec.binary.Hex.encodeHexString;
+
+/**
+ * Immutable routing table key built from the first 16 bytes (the truncated hash length)
+ * of a destination hash, link id, packet hash or tunnel id.
+ * <p>
+ * Replaces the hex strings that were previously used as table keys. A key is two
+ * {@code long}s and a cached hash code, and comparing it never allocates. Longer inputs,
+ * such as full packet hashes or 32 byte tunnel ids, are truncated; shorter inputs are
+ * padded with zeros.
+ */
+public final class HashKey implements Comparable<HashKey> {
+
+    public static final int LENGTH = 16;
+
+    private final long hi;
+    private final long lo;
+    private final int hash;
+
+    private HashKey(long hi, long lo) {
+        this.hi = hi;
+        this.lo = lo;
+        this.hash = mix(hi, lo);
+    }
+
+    public static HashKey of(byte[] hash) {
+        return new HashKey(hi(hash), lo(hash));
+    }
+
+    static HashKey of(long hi, long lo) {
+        return new HashKey(hi, lo);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the string is not valid hex
+     */
+    public static HashKey fromHex(String hex) {
+        try {
+            return of(decodeHex(hex));
+        } catch (DecoderException e) {
+            throw new IllegalArgumentException("Invalid hash " + hex, e);
+        }
+    }
+
+    public byte[] toBytes() {
+        var bytes = new byte[LENGTH];
+        for (int i = 0; i < Long.BYTES; i++) {
+            bytes[i] = (byte) (hi >>> (56 - 8 * i));
+            bytes[i + Long.BYTES] = (byte) (lo >>> (56 - 8 * i));
+        }
+
+        return bytes;
+    }
+
+    /**
+     * @return true if the leading 16 bytes of {@code hash} equal this key
+     */
+    public boolean matches(byte[] hash) {
+        return hi == hi(hash) && lo == lo(hash);
+    }
+
+    long hi() {
+        return hi;
+    }
+
+    long lo() {
+        return lo;
+    }
+
+    static long hi(byte[] hash) {
+        return readLong(hash, 0);
+    }
+
+    static long lo(byte[] hash) {
+        return readLong(hash, Long.BYTES);
+    }
+
+    static int mix(long hi, long lo) {
+        var h = hi * 0x9E3779B97F4A7C15L + lo;
+        h ^= h >>> 32;
+        h *= 0xD6E8FEB86659FD93L;
+
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private static long readLong(byte[] bytes, int offset) {
+        long value = 0;
+        for (int i = offset; i < offset + Long.BYTES; i++) {
+            value = (value << 8) | (i < bytes.length ? bytes[i] & 0xff : 0);
+        }
+
+        return value;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o instanceof HashKey) {
+            var other = (HashKey) o;
+            return hi == other.hi && lo == other.lo;
+        }
+
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public int compareTo(HashKey o) {
+        var c = Long.compareUnsigned(hi, o.hi);
+
+        return c != 0 ? c : Long.compareUnsigned(lo, o.lo);
+    }
+
+    /**
+     * @return the key as lowercase hex, the same format the tables used before
+     */
+    @Override
+    public String toString() {
+        return encodeHexString(toBytes());
+    }
+}
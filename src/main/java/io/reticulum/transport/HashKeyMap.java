@@ -0,0 +1,335 @@
+package io.reticulum.transport;
+
+import java.security.SecureRandom;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.BiConsumer;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Thread-safe open-addressing map keyed by {@link HashKey}.
+ * <p>
+ * Keys are stored inline as two {@code long}s per slot next to a parallel value array, so
+ * an entry costs about 24 bytes of table space instead of a {@code ConcurrentHashMap} node
+ * plus a 32 character hex string. Lookups take the raw hash as {@code byte[]} and neither
+ * encode nor allocate.
+ * <p>
+ * Reads are optimistic ({@link StampedLock}) and only fall back to a read lock if a write
+ * happened concurrently. Writes take the write lock. Like {@code ConcurrentHashMap} it
+ * does not accept {@code null} values, and iteration works on a snapshot, so entries may
+ * be removed while iterating. Compound operations inherited from {@link Map} are not
+ * atomic; Transport performs those under the routing lock of the destination.
+ */
+public class HashKeyMap<V> extends AbstractMap<HashKey, V> {
+
+    private static final int MIN_CAPACITY = 16;
+    private static final double MAX_LOAD = 0.6;
+
+    private final StampedLock lock = new StampedLock();
+    private final long seed = new SecureRandom().nextLong();
+    private volatile Table table;
+    private volatile int size;
+
+    public HashKeyMap() {
+        this(MIN_CAPACITY);
+    }
+
+    public HashKeyMap(int expectedSize) {
+        this.table = new Table(capacityFor(expectedSize));
+    }
+
+    public HashKeyMap(Map<HashKey, ? extends V> map) {
+        this(map.size());
+        putAll(map);
+    }
+
+    /**
+     * Holds keys and values together so a reader always sees arrays of matching length.
+     */
+    private static final class Table {
+        final long[] keys;
+        final Object[] values;
+        final int mask;
+
+        Table(int capacity) {
+            keys = new long[capacity << 1];
+            values = new Object[capacity];
+            mask = capacity - 1;
+        }
+    }
+
+    private static int capacityFor(int expectedSize) {
+        var capacity = MIN_CAPACITY;
+        while (capacity * MAX_LOAD < expectedSize) {
+            capacity <<= 1;
+        }
+
+        return capacity;
+    }
+
+    private int index(long hi, long lo, int mask) {
+        return HashKey.mix(hi ^ seed, lo) & mask;
+    }
+
+    /**
+     * @return slot index of the key, or {@code -1 - freeSlot} if it is absent
+     */
+    private int find(Table t, long hi, long lo) {
+        var slot = index(hi, lo, t.mask);
+        for (int probe = 0; probe <= t.mask; probe++) {
+            if (isNull(t.values[slot])) {
+                return -1 - slot;
+            }
+            if (t.keys[slot << 1] == hi && t.keys[(slot << 1) + 1] == lo) {
+                return slot;
+            }
+            slot = (slot + 1) & t.mask;
+        }
+
+        return -1 - t.values.length;
+    }
+
+    @SuppressWarnings("unchecked")
+    private V read(long hi, long lo) {
+        var stamp = lock.tryOptimisticRead();
+        var t = table;
+        var slot = find(t, hi, lo);
+        var value = slot >= 0 ? t.values[slot] : null;
+        if (lock.validate(stamp)) {
+            return (V) value;
+        }
+
+        stamp = lock.readLock();
+        try {
+            t = table;
+            slot = find(t, hi, lo);
+            return slot >= 0 ? (V) t.values[slot] : null;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private V write(long hi, long lo, V value) {
+        requireNonNull(value, "HashKeyMap does not accept null values");
+        var stamp = lock.writeLock();
+        try {
+            var t = table;
+            var slot = find(t, hi, lo);
+            if (slot >= 0) {
+                var old = (V) t.values[slot];
+                t.values[slot] = value;
+                return old;
+            }
+            if (size + 1 > t.values.length * MAX_LOAD) {
+                t = resize(t);
+                slot = find(t, hi, lo);
+            }
+            slot = -1 - slot;
+            t.keys[slot << 1] = hi;
+            t.keys[(slot << 1) + 1] = lo;
+            t.values[slot] = value;
+            size++;
+
+            return null;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private V delete(long hi, long lo) {
+        var stamp = lock.writeLock();
+        try {
+            var t = table;
+            var slot = find(t, hi, lo);
+            if (slot < 0) {
+                return null;
+            }
+            var old = (V) t.values[slot];
+            shiftBack(t, slot);
+            size--;
+
+            return old;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Backward shift deletion for linear probing, so no tombstones are needed.
+     */
+    private void shiftBack(Table t, int free) {
+        var next = (free + 1) & t.mask;
+        while (t.values[next] != null) {
+            var home = index(t.keys[next << 1], t.keys[(next << 1) + 1], t.mask);
+            // move the entry back if its home slot is not in (free, next]
+            if (((next - home) & t.mask) >= ((next - free) & t.mask)) {
+                t.keys[free << 1] = t.keys[next << 1];
+                t.keys[(free << 1) + 1] = t.keys[(next << 1) + 1];
+                t.values[free] = t.values[next];
+                free = next;
+            }
+            next = (next + 1) & t.mask;
+        }
+        t.values[free] = null;
+        t.keys[free << 1] = 0;
+        t.keys[(free << 1) + 1] = 0;
+    }
+
+    private Table resize(Table old) {
+        var t = new Table(old.values.length << 1);
+        for (int i = 0; i < old.values.length; i++) {
+            if (old.values[i] != null) {
+                var hi = old.keys[i << 1];
+                var lo = old.keys[(i << 1) + 1];
+                var slot = -1 - find(t, hi, lo);
+                t.keys[slot << 1] = hi;
+                t.keys[(slot << 1) + 1] = lo;
+                t.values[slot] = old.values[i];
+            }
+        }
+        table = t;
+
+        return t;
+    }
+
+    public V get(byte[] hash) {
+        return read(HashKey.hi(hash), HashKey.lo(hash));
+    }
+
+    public boolean containsKey(byte[] hash) {
+        return get(hash) != null;
+    }
+
+    public V put(byte[] hash, V value) {
+        return write(HashKey.hi(hash), HashKey.lo(hash), value);
+    }
+
+    public V remove(byte[] hash) {
+        return delete(HashKey.hi(hash), HashKey.lo(hash));
+    }
+
+    @Override
+    public V get(Object key) {
+        if (key instanceof HashKey) {
+            var k = (HashKey) key;
+            return read(k.hi(), k.lo());
+        }
+
+        return null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public V put(HashKey key, V value) {
+        return write(key.hi(), key.lo(), value);
+    }
+
+    @Override
+    public V remove(Object key) {
+        if (key instanceof HashKey) {
+            var k = (HashKey) key;
+            return delete(k.hi(), k.lo());
+        }
+
+        return null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        var stamp = lock.writeLock();
+        try {
+            table = new Table(MIN_CAPACITY);
+            size = 0;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super HashKey, ? super V> action) {
+        for (var entry : snapshot()) {
+            action.accept(entry.getKey(), entry.getValue());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private ArrayList<Entry<HashKey, V>> snapshot() {
+        var stamp = lock.readLock();
+        try {
+            var t = table;
+            var entries = new ArrayList<Entry<HashKey, V>>(size);
+            for (int i = 0; i < t.values.length; i++) {
+                if (t.values[i] != null) {
+                    entries.add(new SimpleImmutableEntry<>(
+                            HashKey.of(t.keys[i << 1], t.keys[(i << 1) + 1]), (V) t.values[i]
+                    ));
+                }
+            }
+
+            return entries;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public Set<Entry<HashKey, V>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<HashKey, V>> iterator() {
+                var it = snapshot().iterator();
+                return new Iterator<>() {
+                    private Entry<HashKey, V> last;
+
+                    @Override
+                    public boolean hasNext() {
+                        return it.hasNext();
+                    }
+
+                    @Override
+                    public Entry<HashKey, V> next() {
+                        last = it.next();
+                        return last;
+                    }
+
+                    @Override
+                    public void remove() {
+                        if (isNull(last)) {
+                            throw new IllegalStateException();
+                        }
+                        HashKeyMap.this.remove(last.getKey());
+                        last = null;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return HashKeyMap.this.size();
+            }
+
+            @Override
+            public void clear() {
+                HashKeyMap.this.clear();
+            }
+        };
+    }
+}
@@ -0,0 +1,232 @@
+package io.reticulum.transport;
+
+import io.reticulum.interfaces.ConnectionInterface;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+
+import static java.util.Objects.nonNull;
+import static org.apache.commons.lang3.BooleanUtils.isFalse;
+
+/**
+ * Staged receive path between the interfaces and {@code Transport}.
+ * <p>
+ * Interface threads (Netty event loops, AutoInterface and local socket readers) only put
+ * raw frames into a bounded {@link InboundQueue} per interface and return to reading.
+ * A small pool of transport workers takes queues that have frames from a shared ready
+ * queue, drains up to {@code batchSize} frames and hands them to Transport in one call,
+ * so the routing lock is taken once per batch instead of once per packet.
+ * <p>
+ * A queue is handed to one worker at a time and goes to the back of the ready queue when
+ * it still has frames after its batch, so a busy interface cannot starve the others.
+ */
+@Slf4j
+public class InboundPipeline {
+
+    private final Map<ConnectionInterface, InboundQueue> queues = new ConcurrentHashMap<>();
+    private final BlockingQueue<InboundQueue> ready = new LinkedBlockingQueue<>();
+    private final List<Thread> workers = new CopyOnWriteArrayList<>();
+    private final BiConsumer<ConnectionInterface, List<byte[]>> consumer;
+
+    @Getter
+    private final int workerCount;
+    @Getter
+    private final int queueDepth;
+    @Getter
+    private final int batchSize;
+    @Getter
+    private final OverflowPolicy overflowPolicy;
+
+    private volatile boolean running;
+
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder frames = new LongAdder();
+    private final LongAdder processingNanos = new LongAdder();
+    private final LongAccumulator maxProcessingNanos = new LongAccumulator(Math::max, 0);
+
+    /**
+     * @param consumer       receives each drained batch together with its interface
+     * @param workerCount    number of transport worker threads
+     * @param queueDepth     default capacity of a per-interface queue
+     * @param batchSize      maximum frames handed over per call
+     * @param overflowPolicy what to drop when a queue is full
+     */
+    public InboundPipeline(
+            BiConsumer<ConnectionInterface, List<byte[]>> consumer,
+            int workerCount,
+            int queueDepth,
+            int batchSize,
+            OverflowPolicy overflowPolicy
+    ) {
+        this.consumer = consumer;
+        this.workerCount = Math.max(1, workerCount);
+        this.queueDepth = Math.max(1, queueDepth);
+        this.batchSize = Math.max(1, batchSize);
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        for (int i = 0; i < workerCount; i++) {
+            var worker = new Thread(this::work, "transport-inbound-" + i);
+            worker.setDaemon(true);
+            workers.add(worker);
+            worker.start();
+        }
+        log.debug("Inbound pipeline started with {} workers, queue depth {}, batch size {}, overflow policy {}",
+                workerCount, queueDepth, batchSize, overflowPolicy);
+    }
+
+    public synchronized void stop() {
+        running = false;
+        workers.forEach(Thread::interrupt);
+        workers.clear();
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Queues a received frame. Never blocks the calling interface thread.
+     *
+     * @return false if a frame was dropped because the interface queue was full
+     */
+    public boolean enqueue(ConnectionInterface iface, byte[] frame) {
+        var queue = queues.computeIfAbsent(iface, this::newQueue);
+        var accepted = queue.offer(frame);
+        if (queue.scheduled.compareAndSet(false, true)) {
+            ready.add(queue);
+        }
+        if (isFalse(accepted)) {
+            log.trace("Inbound queue of {} is full, dropped a frame ({})", iface, overflowPolicy);
+        }
+
+        return accepted;
+    }
+
+    private InboundQueue newQueue(ConnectionInterface iface) {
+        var depth = nonNull(iface) && nonNull(iface.getInboundQueueDepth()) && iface.getInboundQueueDepth() > 0
+                ? iface.getInboundQueueDepth()
+                : queueDepth;
+
+        return new InboundQueue(iface, depth, overflowPolicy);
+    }
+
+    private void work() {
+        var batch = new ArrayList<byte[]>(batchSize);
+        while (running) {
+            InboundQueue queue;
+            try {
+                queue = ready.poll(100, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            if (queue == null) {
+                continue;
+            }
+
+            batch.clear();
+            try {
+                if (queue.drainTo(batch, batchSize) > 0) {
+                    var start = System.nanoTime();
+                    consumer.accept(queue.getAnInterface(), batch);
+                    var elapsed = System.nanoTime() - start;
+                    batches.increment();
+                    frames.add(batch.size());
+                    processingNanos.add(elapsed);
+                    maxProcessingNanos.accumulate(elapsed);
+                }
+            } catch (Exception e) {
+                log.error("Error while processing inbound batch from {}", queue.getAnInterface(), e);
+            } finally {
+                // Release the queue, then re-check: a frame offered after the drain saw the
+                // queue as scheduled and did not put it back on the ready queue.
+                queue.scheduled.set(false);
+                if (isFalse(queue.isEmpty()) && queue.scheduled.compareAndSet(false, true)) {
+                    ready.add(queue);
+                }
+            }
+        }
+    }
+
+    /**
+     * Drops the queues of interfaces that are gone, once they are drained.
+     */
+    public void removeQueues(Predicate<ConnectionInterface> detached) {
+        queues.entrySet().removeIf(entry -> detached.test(entry.getKey()) && entry.getValue().isEmpty());
+    }
+
+    public Collection<InboundQueue> getQueues() {
+        return queues.values();
+    }
+
+    /**
+     * @return number of interface queues waiting for a worker
+     */
+    public int getReadyDepth() {
+        return ready.size();
+    }
+
+    /**
+     * @return frames waiting in all interface queues
+     */
+    public int getQueuedFrames() {
+        return queues.values().stream().mapToInt(InboundQueue::size).sum();
+    }
+
+    public long getDroppedFrames() {
+        return queues.values().stream().mapToLong(InboundQueue::getDropped).sum();
+    }
+
+    public long getBatches() {
+        return batches.sum();
+    }
+
+    public long getProcessedFrames() {
+        return frames.sum();
+    }
+
+    public double getMeanBatchSize() {
+        var count = batches.sum();
+
+        return count == 0 ? 0 : (double) frames.sum() / count;
+    }
+
+    /**
+     * @return mean time Transport spent on one batch, in microseconds
+     */
+    public double getMeanBatchMicros() {
+        var count = batches.sum();
+
+        return count == 0 ? 0 : processingNanos.sum() / 1_000.0 / count;
+    }
+
+    public double getMaxBatchMicros() {
+        return maxProcessingNanos.get() / 1_000.0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("InboundPipeline[workers=%d queued=%d ready=%d dropped=%d batches=%d meanBatch=%.1f meanBatchTime=%.1fus maxBatchTime=%.1fus]",
+                workerCount, getQueuedFrames(), getReadyDepth(), getDroppedFrames(), getBatches(),
+                getMeanBatchSize(), getMeanBatchMicros(), getMaxBatchMicros());
+    }
+}
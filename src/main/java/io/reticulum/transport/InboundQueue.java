@@ -0,0 +1,171 @@
+package io.reticulum.transport;
+
+import io.reticulum.interfaces.ConnectionInterface;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded ring buffer of raw frames received on one interface.
+ * <p>
+ * Interface threads only {@link #offer(byte[])} into it; a transport worker drains it in
+ * batches. At most one worker drains a queue at a time, which keeps the frames of one
+ * interface in arrival order.
+ */
+public class InboundQueue {
+
+    @Getter
+    private final ConnectionInterface anInterface;
+    @Getter
+    private final int capacity;
+    @Getter
+    private final OverflowPolicy overflowPolicy;
+
+    private final byte[][] frames;
+    private final long[] enqueuedAt;
+    private final ReentrantLock lock = new ReentrantLock();
+    private int head;
+    private int size;
+
+    /**
+     * Set while the queue is waiting for, or being drained by, a worker.
+     */
+    final AtomicBoolean scheduled = new AtomicBoolean();
+
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder dequeued = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final LongAccumulator maxWaitNanos = new LongAccumulator(Math::max, 0);
+    private final LongAccumulator maxDepth = new LongAccumulator(Math::max, 0);
+
+    public InboundQueue(ConnectionInterface anInterface, int capacity, OverflowPolicy overflowPolicy) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Inbound queue capacity must be positive: " + capacity);
+        }
+        this.anInterface = anInterface;
+        this.capacity = capacity;
+        this.overflowPolicy = overflowPolicy;
+        this.frames = new byte[capacity][];
+        this.enqueuedAt = new long[capacity];
+    }
+
+    /**
+     * @return false if a frame had to be dropped, either this one or the oldest queued one
+     */
+    public boolean offer(byte[] frame) {
+        var now = System.nanoTime();
+        var accepted = true;
+        int depth;
+        lock.lock();
+        try {
+            if (size == capacity) {
+                if (overflowPolicy == OverflowPolicy.DROP_NEWEST) {
+                    dropped.increment();
+                    return false;
+                }
+                frames[head] = null;
+                head = (head + 1) % capacity;
+                size--;
+                dropped.increment();
+                accepted = false;
+            }
+            var tail = (head + size) % capacity;
+            frames[tail] = frame;
+            enqueuedAt[tail] = now;
+            depth = ++size;
+        } finally {
+            lock.unlock();
+        }
+        enqueued.increment();
+        maxDepth.accumulate(depth);
+
+        return accepted;
+    }
+
+    /**
+     * Moves up to {@code max} frames into {@code batch}, oldest first.
+     *
+     * @return number of frames moved
+     */
+    public int drainTo(List<byte[]> batch, int max) {
+        var now = System.nanoTime();
+        long waited = 0;
+        long maxWaited = 0;
+        int count = 0;
+        lock.lock();
+        try {
+            while (size > 0 && count < max) {
+                batch.add(frames[head]);
+                var wait = now - enqueuedAt[head];
+                waited += wait;
+                maxWaited = Math.max(maxWaited, wait);
+                frames[head] = null;
+                head = (head + 1) % capacity;
+                size--;
+                count++;
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (count > 0) {
+            dequeued.add(count);
+            waitNanos.add(waited);
+            maxWaitNanos.accumulate(maxWaited);
+        }
+
+        return count;
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public long getEnqueued() {
+        return enqueued.sum();
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    public long getDequeued() {
+        return dequeued.sum();
+    }
+
+    public long getMaxDepth() {
+        return maxDepth.get();
+    }
+
+    /**
+     * @return mean time a frame spent in this queue, in microseconds
+     */
+    public double getMeanWaitMicros() {
+        var count = dequeued.sum();
+
+        return count == 0 ? 0 : waitNanos.sum() / 1_000.0 / count;
+    }
+
+    public double getMaxWaitMicros() {
+        return maxWaitNanos.get() / 1_000.0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("InboundQueue[%s depth=%d/%d enqueued=%d dropped=%d meanWait=%.1fus maxWait=%.1fus]",
+                anInterface, size(), capacity, getEnqueued(), getDropped(), getMeanWaitMicros(), getMaxWaitMicros());
+    }
+}
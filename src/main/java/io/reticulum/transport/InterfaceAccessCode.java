@@ -0,0 +1,119 @@
+package io.reticulum.transport;
+
+import io.reticulum.interfaces.ConnectionInterface;
+import io.reticulum.packet.data.DataPacketConverter;
+import lombok.experimental.UtilityClass;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.ArrayUtils;
+import org.bouncycastle.crypto.digests.SHA256Digest;
+import org.bouncycastle.crypto.generators.HKDFBytesGenerator;
+import org.bouncycastle.crypto.params.HKDFParameters;
+
+import java.util.Arrays;
+
+import static io.reticulum.utils.IdentityUtils.concatArrays;
+import static org.apache.commons.lang3.ArrayUtils.getLength;
+import static org.apache.commons.lang3.ArrayUtils.subarray;
+
+/**
+ * Interface access codes (IFAC): packets on an interface with a network name or passphrase
+ * carry a signature-derived code and are masked with a key stretched from it, so only
+ * nodes knowing the interface key can read or inject packets.
+ */
+@Slf4j
+@UtilityClass
+public class InterfaceAccessCode {
+
+    /**
+     * Adds the access code of the interface to an outgoing packet and masks it.
+     *
+     * @param iface interface with IFAC enabled
+     */
+    public static byte[] mask(final ConnectionInterface iface, final byte[] raw) {
+        //Calculate packet access code
+        var signed = iface.getIdentity().sign(raw);
+        var ifac = subarray(signed, signed.length - iface.getIfacSize(), signed.length);
+
+        //Generate mask
+        var hkdf = new HKDFBytesGenerator(new SHA256Digest());
+        hkdf.init(new HKDFParameters(ifac, iface.getIfacKey(), new byte[0]));
+        var mask = new byte[getLength(raw) + iface.getIfacSize()];
+        hkdf.generateBytes(mask, 0, mask.length);
+
+        //Set IFAC flag
+        var dataPacket = DataPacketConverter.fromBytes(raw);
+        dataPacket.getHeader().getFlags().setAccessCodes(true);
+        dataPacket.setIfac(ifac);
+
+        var newRaw = DataPacketConverter.toBytes(dataPacket);
+        var maskedRaw = new byte[newRaw.length];
+        for (int i = 0; i < newRaw.length; i++) {
+            if (i == 0) {
+                //Mask first header byte, but make sure the IFAC flag is still set
+                maskedRaw[i] = (byte) (newRaw[i] ^ mask[i] | 0x80);
+            } else if (i == 1 || i > iface.getIfacSize() + 1) {
+                //Mask second header byte and payload
+                maskedRaw[i] = (byte) (newRaw[i] ^ mask[i]);
+            } else {
+                //Don't mask the IFAC itself
+                maskedRaw[i] = newRaw[i];
+            }
+        }
+
+        return maskedRaw;
+    }
+
+    /**
+     * Unmasks a packet received on the interface and checks its access code.
+     *
+     * @param iface interface with IFAC enabled
+     * @return the packet without access code, or {@code null} if it has none or a wrong one
+     */
+    public static byte[] unmask(final ConnectionInterface iface, final byte[] raw) {
+        //Check that IFAC flag is set
+        if ((raw[0] & 0x80) != 0x80) {
+            //If the IFAC flag is not set, but should be, drop the packet.
+            log.trace("The IFAC flag is not set, but should be, drop the packet: {}, iface: {}", raw, iface);
+            return null;
+        }
+        if (getLength(raw) <= 2 + iface.getIfacSize()) {
+            return null;
+        }
+
+        //Extract IFAC
+        var ifac = subarray(raw, 2, 2 + iface.getIfacSize());
+
+        //Generate mask
+        var hkdf = new HKDFBytesGenerator(new SHA256Digest());
+        hkdf.init(new HKDFParameters(ifac, iface.getIfacKey(), new byte[0]));
+        var mask = new byte[getLength(raw)];
+        hkdf.generateBytes(mask, 0, mask.length);
+
+        //Unmask payload
+        var i = 0;
+        var unmaskedRaw = new byte[0];
+        for (byte b : raw) {
+            if (i <= 1 || i > iface.getIfacSize() + 1) {
+                //Unmask header bytes and payload
+                unmaskedRaw = ArrayUtils.add(unmaskedRaw, (byte) (b ^ mask[i]));
+            } else {
+                //Don't unmask IFAC itself
+                unmaskedRaw = ArrayUtils.add(unmaskedRaw, b);
+            }
+            i++;
+        }
+
+        //Unset IFAC flag
+        var newHeader = new byte[]{(byte) (unmaskedRaw[0] & 0x7f), unmaskedRaw[1]};
+
+        //Re-assemble packet
+        var newRaw = concatArrays(newHeader, subarray(unmaskedRaw, 2 + iface.getIfacSize(), unmaskedRaw.length));
+
+        //Calculate expected IFAC
+        var signed = iface.getIdentity().sign(newRaw);
+        var expectedIfac = subarray(signed, signed.length - iface.getIfacSize(), signed.length);
+
+        //Check it
+        return Arrays.equals(ifac, expectedIfac) ? newRaw : null;
+    }
+}
@@ -0,0 +1,46 @@
+package io.reticulum.transport;
+
+import io.reticulum.interfaces.ConnectionInterface;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * The attached interfaces, indexed by interface hash and by interface name.
+ * <p>
+ * {@link ConnectionInterface#getHash()} hashes the interface name on every call, so the
+ * index also saves a SHA-256 per interface whenever a table entry is resolved back to its
+ * interface.
+ */
+public class InterfaceList extends HashIndexedList<ConnectionInterface> {
+
+    private volatile Map<String, ConnectionInterface> byName = Map.of();
+
+    public InterfaceList() {
+        super(ConnectionInterface::getHash);
+    }
+
+    /**
+     * @return the first interface with this name, or {@code null}
+     */
+    public ConnectionInterface findByName(String interfaceName) {
+        return isNull(interfaceName) ? null : byName.get(interfaceName);
+    }
+
+    @Override
+    protected void reindex(List<ConnectionInterface> snapshot) {
+        super.reindex(snapshot);
+
+        var rebuilt = new HashMap<String, ConnectionInterface>();
+        for (var iface : snapshot) {
+            if (nonNull(iface.getInterfaceName())) {
+                rebuilt.putIfAbsent(iface.getInterfaceName(), iface);
+            }
+        }
+        byName = Map.copyOf(rebuilt);
+    }
+}
@@ -0,0 +1,115 @@
+package io.reticulum.transport;
+
+import io.reticulum.link.Link;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static io.reticulum.link.LinkStatus.CLOSED;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Local links by link ID: links this node initiated that are still being established
+ * (pending), and established or incoming links (active).
+ * <p>
+ * Lookups are lock-free; registering, activating and removing are serialized so a link is
+ * never in both tables. A link ID identifies one link: a second link registered under the
+ * ID of a link that is not closed yet is ignored, like the first match of the former list
+ * searches won.
+ */
+@Slf4j
+public class LinkRegistry {
+
+    private final HashKeyMap<Link> pending = new HashKeyMap<>();
+    private final HashKeyMap<Link> active = new HashKeyMap<>();
+
+    public synchronized void register(Link link) {
+        var table = link.isInitiator() ? pending : active;
+        var existing = table.get(link.getLinkId());
+        if (nonNull(existing) && existing != link && existing.getStatus() != CLOSED) {
+            log.warn("Link {} is already registered, ignoring the duplicate", link);
+            return;
+        }
+        table.put(link.getLinkId(), link);
+    }
+
+    /**
+     * Moves the link from the pending to the active table.
+     *
+     * @return false if the link was not pending
+     */
+    public synchronized boolean activate(Link link) {
+        if (pending.get(link.getLinkId()) != link) {
+            return false;
+        }
+        pending.remove(link.getLinkId());
+        active.put(link.getLinkId(), link);
+
+        return true;
+    }
+
+    public boolean isPending(Link link) {
+        return pending.get(link.getLinkId()) == link;
+    }
+
+    public Link getPending(byte[] linkId) {
+        return isNull(linkId) ? null : pending.get(linkId);
+    }
+
+    public Link getActive(byte[] linkId) {
+        return isNull(linkId) ? null : active.get(linkId);
+    }
+
+    /**
+     * @return snapshot of the pending links
+     */
+    public Collection<Link> pendingLinks() {
+        return List.copyOf(pending.values());
+    }
+
+    /**
+     * @return snapshot of the active links
+     */
+    public Collection<Link> activeLinks() {
+        return List.copyOf(active.values());
+    }
+
+    public synchronized void removePending(Link link) {
+        if (pending.get(link.getLinkId()) == link) {
+            pending.remove(link.getLinkId());
+        }
+    }
+
+    /**
+     * Drops closed links from the active table.
+     *
+     * @return the links that were dropped
+     */
+    public synchronized List<Link> removeClosedActive() {
+        var closed = new ArrayList<Link>();
+        for (var link : active.values()) {
+            if (link.getStatus() == CLOSED) {
+                active.remove(link.getLinkId());
+                closed.add(link);
+            }
+        }
+
+        return closed;
+    }
+
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    public int activeCount() {
+        return active.size();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("LinkRegistry[pending=%d active=%d]", pendingCount(), activeCount());
+    }
+}
@@ -0,0 +1,229 @@
+package io.reticulum.transport;
+
+import io.reticulum.packet.Packet;
+import io.reticulum.packet.PacketReceipt;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Predicate;
+
+import static org.apache.commons.lang3.BooleanUtils.isFalse;
+
+/**
+ * Non-blocking submission path for outgoing packets.
+ * <p>
+ * Any number of threads put packets into a lock-free queue and get a future back right
+ * away. A single {@code transport-outbound} thread takes them out in submission order and
+ * hands them to {@code Transport.outbound}, so only this thread ever waits for a routing
+ * lock. Packets submitted by one thread, such as the packets of one link or channel, are
+ * sent in the order they were submitted.
+ * <p>
+ * The future completes with the packet receipt (which is {@code null} for packets that do
+ * not generate one) once the packet has been written to an interface, or exceptionally if
+ * no interface could send it.
+ * <p>
+ * The queue is bounded. When the drainer falls {@code capacity} packets behind, further
+ * submissions fail at once instead of piling up, the same as a packet no interface took;
+ * senders that must not lose packets retry on the failed future. Submissions also fail
+ * while the queue is not running.
+ */
+@Slf4j
+public class OutboundQueue {
+
+    public static final int DEFAULT_CAPACITY = 4096;
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final Queue<Submission> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final int capacity;
+    private final Predicate<Packet> sender;
+
+    private volatile Thread drainer;
+    private volatile boolean running;
+    private volatile boolean parked;
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * @param sender routes and transmits a packet, returning false if no interface took it
+     */
+    public OutboundQueue(Predicate<Packet> sender) {
+        this(sender, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param sender   routes and transmits a packet, returning false if no interface took it
+     * @param capacity packets that may wait to be sent
+     */
+    public OutboundQueue(Predicate<Packet> sender, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Outbound queue capacity must be positive: " + capacity);
+        }
+        this.sender = sender;
+        this.capacity = capacity;
+    }
+
+    private static final class Submission {
+        final Packet packet;
+        final CompletableFuture<PacketReceipt> future = new CompletableFuture<>();
+
+        Submission(Packet packet) {
+            this.packet = packet;
+        }
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        var thread = new Thread(this::drain, "transport-outbound");
+        thread.setDaemon(true);
+        drainer = thread;
+        thread.start();
+    }
+
+    /**
+     * Stops the drainer once the packets already submitted have been sent.
+     */
+    public synchronized void stop() {
+        if (isFalse(running)) {
+            return;
+        }
+        running = false;
+        var thread = drainer;
+        LockSupport.unpark(thread);
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        drainer = null;
+
+        failQueued();
+    }
+
+    private void failQueued() {
+        Submission submission;
+        while ((submission = poll()) != null) {
+            failed.increment();
+            submission.future.completeExceptionally(new IllegalStateException("Transport is stopped"));
+        }
+    }
+
+    private Submission poll() {
+        var submission = queue.poll();
+        if (submission != null) {
+            queued.decrementAndGet();
+        }
+
+        return submission;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Queues the packet for sending. Never blocks.
+     *
+     * @return future that has already failed if the queue is full or not running
+     */
+    public CompletableFuture<PacketReceipt> submit(Packet packet) {
+        if (isFalse(running)) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Transport is stopped"));
+        }
+        if (queued.incrementAndGet() > capacity) {
+            queued.decrementAndGet();
+            rejected.increment();
+            return CompletableFuture.failedFuture(new IllegalStateException("Outbound queue is full"));
+        }
+
+        var submission = new Submission(packet);
+        submitted.increment();
+        queue.offer(submission);
+        if (isFalse(running)) {
+            // stopped meanwhile; the drainer may be gone, nobody else would complete it
+            failQueued();
+        } else if (parked) {
+            LockSupport.unpark(drainer);
+        }
+
+        return submission.future;
+    }
+
+    private void drain() {
+        while (running || isFalse(queue.isEmpty())) {
+            var submission = poll();
+            if (submission == null) {
+                parked = true;
+                // re-check after publishing the flag, a producer may have missed it
+                if (queue.isEmpty() && running) {
+                    LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                }
+                parked = false;
+                continue;
+            }
+            send(submission);
+        }
+    }
+
+    private void send(Submission submission) {
+        try {
+            if (sender.test(submission.packet)) {
+                sent.increment();
+                submission.future.complete(submission.packet.getReceipt());
+            } else {
+                failed.increment();
+                submission.future.completeExceptionally(
+                        new IllegalStateException("No interfaces could process the outbound packet")
+                );
+            }
+        } catch (Exception e) {
+            failed.increment();
+            submission.future.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * @return packets waiting to be sent
+     */
+    public long getDepth() {
+        return submitted.sum() - sent.sum() - failed.sum();
+    }
+
+    public long getSubmitted() {
+        return submitted.sum();
+    }
+
+    public long getSent() {
+        return sent.sum();
+    }
+
+    public long getFailed() {
+        return failed.sum();
+    }
+
+    /**
+     * @return packets not accepted because the queue was full
+     */
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("OutboundQueue[depth=%d submitted=%d sent=%d failed=%d rejected=%d]",
+                getDepth(), getSubmitted(), getSent(), getFailed(), getRejected());
+    }
+}
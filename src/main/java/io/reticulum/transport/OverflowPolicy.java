@@ -0,0 +1,37 @@
+package io.reticulum.transport;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * What an {@link InboundQueue} does with a frame that arrives while it is full.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum OverflowPolicy {
+
+    /**
+     * Drop the arriving frame, keeping what is already queued.
+     */
+    DROP_NEWEST(List.of("drop_newest", "newest", "tail")),
+    /**
+     * Evict the oldest queued frame to make room, favouring fresh traffic.
+     */
+    DROP_OLDEST(List.of("drop_oldest", "oldest", "head")),
+    ;
+
+    private final List<String> aliases;
+
+    @JsonCreator
+    public static OverflowPolicy parseName(@NonNull String policyName) {
+        return Arrays.stream(OverflowPolicy.values())
+                .filter(policy -> policy.getAliases().contains(policyName.strip().toLowerCase()))
+                .findFirst()
+                .orElseThrow();
+    }
+}
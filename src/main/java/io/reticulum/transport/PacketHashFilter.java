@@ -0,0 +1,321 @@
+package io.reticulum.transport;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Duplicate packet filter with a fixed memory budget.
+ * <p>
+ * Replaces the former {@code Map<String, byte[]>} packet hashlist, which cost well over
+ * 150 bytes per entry and was wiped completely once it passed its maximum size. Right
+ * after such a wipe every duplicate was forwarded again, which showed up as announce and
+ * data storms on busy transport nodes.
+ * <p>
+ * The filter keeps a small ring of generations. Each generation is an open-addressing set
+ * of the leading 128 bits of the packet hash, stored as two {@code long}s per slot. New
+ * hashes always go into the current generation. When the current generation is full, or
+ * older than {@code window / (generations - 1)}, the oldest generation is cleared and
+ * becomes the current one. A hash is therefore remembered for at least {@code window}
+ * unless traffic fills the whole budget earlier, and only the oldest part of the window
+ * is forgotten at a time.
+ * <p>
+ * Probe positions are mixed with a per-instance random seed, so remote peers cannot
+ * craft packet hashes that cluster in one region of the table.
+ */
+@Slf4j
+public class PacketHashFilter {
+
+    private static final int SLOT_BYTES = 2 * Long.BYTES;
+    private static final double MAX_LOAD = 0.75;
+
+    private final Generation[] generations;
+    private final int slotsPerGeneration;
+    private final int maxEntriesPerGeneration;
+    private final long rotateAfterNanos;
+    private final long seed = new SecureRandom().nextLong();
+    private final LongSupplier nanoClock;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private int current;
+
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder rotations = new LongAdder();
+
+    /**
+     * @param generations number of generations, at least 2
+     * @param maxBytes    memory budget for all generations together
+     * @param window      minimum time a packet hash is remembered
+     */
+    public PacketHashFilter(int generations, long maxBytes, Duration window) {
+        this(generations, maxBytes, window, System::nanoTime);
+    }
+
+    PacketHashFilter(int generations, long maxBytes, Duration window, LongSupplier nanoClock) {
+        if (generations < 2) {
+            throw new IllegalArgumentException("PacketHashFilter needs at least two generations");
+        }
+        var slots = maxBytes / generations / SLOT_BYTES;
+        if (slots < 2) {
+            throw new IllegalArgumentException("PacketHashFilter memory budget is too small: " + maxBytes);
+        }
+
+        this.slotsPerGeneration = Integer.highestOneBit((int) Math.min(slots, 1 << 30));
+        this.maxEntriesPerGeneration = Math.max(1, (int) (slotsPerGeneration * MAX_LOAD));
+        this.rotateAfterNanos = Math.max(1, window.toNanos() / (generations - 1));
+        this.nanoClock = nanoClock;
+        this.generations = new Generation[generations];
+        for (int i = 0; i < generations; i++) {
+            this.generations[i] = new Generation();
+        }
+        this.generations[current].start(nanoClock.getAsLong());
+    }
+
+    /**
+     * @return true if the packet hash was seen within the filter window
+     */
+    public boolean contains(byte[] packetHash) {
+        var hi = hi(packetHash);
+        var lo = lo(packetHash);
+        var index = index(hi, lo);
+
+        lookups.increment();
+        lock.readLock().lock();
+        try {
+            for (int i = 0; i < generations.length; i++) {
+                if (generations[i].contains(hi, lo, index)) {
+                    hits.increment();
+                    return true;
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return false;
+    }
+
+    /**
+     * Remembers the packet hash in the current generation, rotating first if it is full or expired.
+     */
+    public void add(byte[] packetHash) {
+        var hi = hi(packetHash);
+        var lo = lo(packetHash);
+        var index = index(hi, lo);
+
+        lock.writeLock().lock();
+        try {
+            rotateIfNeeded(nanoClock.getAsLong());
+            if (generations[current].size >= maxEntriesPerGeneration) {
+                rotate(nanoClock.getAsLong());
+            }
+            generations[current].add(hi, lo, index);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drops generations that have aged out of the window. Called periodically from the
+     * transport jobs so that an idle node forgets old hashes as well.
+     */
+    public void expire() {
+        lock.writeLock().lock();
+        try {
+            rotateIfNeeded(nanoClock.getAsLong());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            for (var generation : generations) {
+                generation.clear();
+            }
+            generations[current].start(nanoClock.getAsLong());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return number of packet hashes currently remembered
+     */
+    public long size() {
+        lock.readLock().lock();
+        try {
+            long size = 0;
+            for (var generation : generations) {
+                size += generation.size;
+            }
+
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return maximum number of packet hashes the filter can hold
+     */
+    public long capacity() {
+        return (long) maxEntriesPerGeneration * generations.length;
+    }
+
+    /**
+     * @return fill ratio of the filter, between 0 and 1
+     */
+    public double occupancy() {
+        return (double) size() / capacity();
+    }
+
+    /**
+     * @return share of {@link #contains(byte[])} calls that found a duplicate
+     */
+    public double hitRate() {
+        var total = lookups.sum();
+
+        return total == 0 ? 0 : (double) hits.sum() / total;
+    }
+
+    public long getLookups() {
+        return lookups.sum();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getRotations() {
+        return rotations.sum();
+    }
+
+    /**
+     * @return bytes allocated for all generations once every generation is in use
+     */
+    public long memoryBudget() {
+        return (long) slotsPerGeneration * SLOT_BYTES * generations.length;
+    }
+
+    private void rotateIfNeeded(long now) {
+        var elapsed = now - generations[current].createdAt;
+        if (elapsed < rotateAfterNanos) {
+            return;
+        }
+        var steps = Math.min(generations.length, elapsed / rotateAfterNanos);
+        for (int i = 0; i < steps; i++) {
+            rotate(now);
+        }
+    }
+
+    private void rotate(long now) {
+        current = (current + 1) % generations.length;
+        var dropped = generations[current].size;
+        generations[current].clear();
+        generations[current].start(now);
+        rotations.increment();
+
+        log.debug("Packet filter rotated, dropped {} hashes, {} remembered, hit rate {}",
+                dropped, size(), String.format("%.3f", hitRate()));
+    }
+
+    private int index(long hi, long lo) {
+        var h = (hi ^ seed) * 0x9E3779B97F4A7C15L + lo;
+        h ^= h >>> 32;
+        h *= 0xD6E8FEB86659FD93L;
+        h ^= h >>> 32;
+
+        return (int) h;
+    }
+
+    private static long hi(byte[] hash) {
+        return readLong(hash, 0);
+    }
+
+    /**
+     * An all-zero slot marks an empty position, so a key of all zeros is stored as {@code (0, 1)}.
+     */
+    private static long lo(byte[] hash) {
+        var lo = readLong(hash, Long.BYTES);
+
+        return lo == 0 && readLong(hash, 0) == 0 ? 1 : lo;
+    }
+
+    private static long readLong(byte[] bytes, int offset) {
+        long value = 0;
+        for (int i = offset; i < offset + Long.BYTES; i++) {
+            value = (value << 8) | (i < bytes.length ? bytes[i] & 0xff : 0);
+        }
+
+        return value;
+    }
+
+    private class Generation {
+        /**
+         * Pairs of (hi, lo). Allocated on first use, then reused across rotations.
+         */
+        private long[] keys;
+        private int size;
+        private long createdAt;
+
+        void start(long now) {
+            createdAt = now;
+        }
+
+        boolean contains(long hi, long lo, int index) {
+            if (size == 0) {
+                return false;
+            }
+            var mask = slotsPerGeneration - 1;
+            for (int probe = 0; probe < slotsPerGeneration; probe++) {
+                var slot = ((index + probe) & mask) << 1;
+                var slotHi = keys[slot];
+                var slotLo = keys[slot + 1];
+                if (slotHi == hi && slotLo == lo) {
+                    return true;
+                }
+                if (slotHi == 0 && slotLo == 0) {
+                    return false;
+                }
+            }
+
+            return false;
+        }
+
+        void add(long hi, long lo, int index) {
+            if (keys == null) {
+                keys = new long[slotsPerGeneration << 1];
+            }
+            var mask = slotsPerGeneration - 1;
+            for (int probe = 0; probe < slotsPerGeneration; probe++) {
+                var slot = ((index + probe) & mask) << 1;
+                var slotHi = keys[slot];
+                var slotLo = keys[slot + 1];
+                if (slotHi == hi && slotLo == lo) {
+                    return;
+                }
+                if (slotHi == 0 && slotLo == 0) {
+                    keys[slot] = hi;
+                    keys[slot + 1] = lo;
+                    size++;
+                    return;
+                }
+            }
+        }
+
+        void clear() {
+            if (keys != null && size > 0) {
+                Arrays.fill(keys, 0);
+            }
+            size = 0;
+        }
+    }
+}
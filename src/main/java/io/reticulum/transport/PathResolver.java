@@ -0,0 +1,186 @@
+package io.reticulum.transport;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static org.apache.commons.lang3.BooleanUtils.isFalse;
+
+/**
+ * Path resolutions in flight, one per destination.
+ * <p>
+ * Everyone who needs a path to the same unknown destination, be it the application, a
+ * link or a local client, attaches to one resolution, and only the first sends a path
+ * request. The resolution completes when a path is learned ({@link #resolved}), or fails
+ * with a {@link TimeoutException} when its deadline passes; the next caller then starts a
+ * new one. Each caller gets its own copy of the shared future with its own timeout, so
+ * one caller giving up or cancelling does not affect the others.
+ * <p>
+ * It also remembers when a path was last requested for each destination, for throttling
+ * automated requests, and forgets it once that no longer matters.
+ */
+@Slf4j
+public class PathResolver {
+
+    private static final class Resolution {
+        private final CompletableFuture<Hops> future = new CompletableFuture<>();
+        private volatile Instant deadline;
+
+        private Resolution(Instant deadline) {
+            this.deadline = deadline;
+        }
+    }
+
+    private static final class Request {
+        private final Instant requested;
+        private final Instant forgetAt;
+
+        private Request(Instant requested, Instant forgetAt) {
+            this.requested = requested;
+            this.forgetAt = forgetAt;
+        }
+    }
+
+    private final ExpiringHashKeyMap<Resolution> inFlight;
+    private final ExpiringHashKeyMap<Request> lastRequests;
+    private final Duration requestMemory;
+    private long coalesced;
+
+    /**
+     * @param tickMillis    resolution of the expiry, usually the transport job interval
+     * @param requestMemory how long the time of the last request for a destination is kept
+     */
+    public PathResolver(long tickMillis, Duration requestMemory) {
+        this.inFlight = new ExpiringHashKeyMap<>(tickMillis, resolution -> resolution.deadline);
+        this.lastRequests = new ExpiringHashKeyMap<>(tickMillis, request -> request.forgetAt);
+        this.requestMemory = requestMemory;
+    }
+
+    /**
+     * Attaches to the resolution in flight for the destination, or starts one and runs
+     * {@code request} to send the path request. The request runs outside of any lock.
+     *
+     * @param timeout how long this caller waits; extends the shared resolution if needed
+     * @return future completed with the path, or failed with a {@link TimeoutException}
+     */
+    public CompletableFuture<Hops> resolve(byte[] destinationHash, Duration timeout, Runnable request) {
+        var deadline = Instant.now().plus(timeout);
+        Resolution resolution;
+        var started = false;
+        synchronized (this) {
+            resolution = inFlight.get(destinationHash);
+            if (isNull(resolution) || resolution.future.isDone()) {
+                resolution = new Resolution(deadline);
+                inFlight.put(destinationHash, resolution);
+                started = true;
+            } else {
+                coalesced++;
+                if (deadline.isAfter(resolution.deadline)) {
+                    // a later deadline is picked up when the earlier one comes due
+                    resolution.deadline = deadline;
+                }
+            }
+        }
+
+        if (started) {
+            request.run();
+        }
+
+        return resolution.future.copy().orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return true if a resolution for the destination is in flight
+     */
+    public boolean isResolving(byte[] destinationHash) {
+        var resolution = inFlight.get(destinationHash);
+        return nonNull(resolution) && isFalse(resolution.future.isDone());
+    }
+
+    /**
+     * Completes the resolution in flight for the destination, if any.
+     */
+    public void resolved(byte[] destinationHash, Hops hops) {
+        if (inFlight.isEmpty()) {
+            return;
+        }
+        Resolution resolution;
+        synchronized (this) {
+            // under the same lock as resolve(), or a resolution it starts meanwhile could lose
+            // its place in the wheel and never expire
+            resolution = inFlight.remove(destinationHash);
+        }
+        if (nonNull(resolution)) {
+            resolution.future.complete(hops);
+        }
+    }
+
+    /**
+     * Records that a path request for the destination was sent now.
+     */
+    public void requested(byte[] destinationHash) {
+        var now = Instant.now();
+        lastRequests.put(destinationHash, new Request(now, now.plus(requestMemory)));
+    }
+
+    /**
+     * @return when a path to the destination was last requested, {@link Instant#EPOCH} if
+     * not recently
+     */
+    public Instant lastRequest(byte[] destinationHash) {
+        var request = lastRequests.get(destinationHash);
+        return isNull(request) ? Instant.EPOCH : request.requested;
+    }
+
+    /**
+     * Fails the resolutions whose deadline passed and forgets old requests.
+     *
+     * @return number of resolutions that timed out
+     */
+    public int expire(Instant now) {
+        lastRequests.expire(now, (key, request) -> lastRequests.remove(key));
+
+        var timedOut = new ArrayList<Map.Entry<HashKey, Resolution>>();
+        synchronized (this) {
+            inFlight.expire(now, (key, resolution) -> {
+                inFlight.remove(key);
+                timedOut.add(Map.entry(key, resolution));
+            });
+        }
+
+        // the callers' callbacks run outside of the lock
+        for (var entry : timedOut) {
+            entry.getValue().future.completeExceptionally(new TimeoutException("No path to " + entry.getKey()));
+            log.trace("Path resolution for {} timed out", entry.getKey());
+        }
+
+        return timedOut.size();
+    }
+
+    public int size() {
+        return inFlight.size();
+    }
+
+    /**
+     * @return number of resolutions waiting for their deadline, equal to {@link #size()}
+     */
+    public int scheduled() {
+        return inFlight.scheduled();
+    }
+
+    /**
+     * @return number of callers that attached to a resolution in flight instead of
+     * requesting the path again
+     */
+    public synchronized long getCoalesced() {
+        return coalesced;
+    }
+}
@@ -0,0 +1,220 @@
+package io.reticulum.transport;
+
+import io.reticulum.packet.PacketReceipt;
+import io.reticulum.packet.PacketReceiptStatus;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static java.util.Objects.isNull;
+import static org.apache.commons.codec.binary.Hex.encodeHexString;
+import static org.apache.commons.lang3.BooleanUtils.isFalse;
+
+/**
+ * In-flight {@link PacketReceipt}s, indexed by truncated packet hash and ordered by deadline.
+ * <p>
+ * Replaces the former {@code CopyOnWriteArrayList} of receipts, which was capped at 1024
+ * entries, copied itself on every add and remove, was walked completely once a second
+ * for timeouts and once per received proof.
+ * <p>
+ * A proof carries the hash of the packet it proves (explicit proof) or is addressed to the
+ * truncated packet hash (implicit proof), so the matching receipts are found with one
+ * lookup. Timeouts come from an {@link ExpiringHashKeyMap}, so a jobs tick only touches
+ * receipts that time out. Usually one receipt exists per hash; a resent packet gets a
+ * second receipt under the same hash, and both are kept like before.
+ */
+@Slf4j
+public class ReceiptRegistry {
+
+    private static final PacketReceipt[] EMPTY = new PacketReceipt[0];
+
+    private final ExpiringHashKeyMap<PacketReceipt[]> receipts;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final int maxReceipts;
+    private final AtomicInteger size = new AtomicInteger();
+    private final LongAdder culled = new LongAdder();
+
+    /**
+     * @param tickMillis  resolution of the timeout checks
+     * @param maxReceipts number of receipts kept before new ones are culled right away
+     */
+    public ReceiptRegistry(long tickMillis, int maxReceipts) {
+        this.receipts = new ExpiringHashKeyMap<>(tickMillis, ReceiptRegistry::earliestDeadline);
+        this.maxReceipts = maxReceipts;
+    }
+
+    private static Instant deadline(PacketReceipt receipt) {
+        return receipt.getSentAt().plusMillis(receipt.getTimeout());
+    }
+
+    private static Instant earliestDeadline(PacketReceipt[] entries) {
+        Instant earliest = null;
+        for (var receipt : entries) {
+            if (receipt.getStatus() != PacketReceiptStatus.SENT) {
+                // concluded, drop it on the next tick
+                return Instant.EPOCH;
+            }
+            var deadline = deadline(receipt);
+            if (isNull(earliest) || deadline.isBefore(earliest)) {
+                earliest = deadline;
+            }
+        }
+
+        return isNull(earliest) ? Instant.EPOCH : earliest;
+    }
+
+    /**
+     * Starts tracking the receipt. Once the registry holds {@code maxReceipts} receipts, new
+     * ones are culled: their timeout is set to -1, so they time out with the next tick and
+     * {@link PacketReceipt#checkTimeout()} marks them as culled.
+     *
+     * @return false if the receipt was culled
+     */
+    public boolean add(PacketReceipt receipt) {
+        var accepted = size.get() < maxReceipts;
+        if (isFalse(accepted)) {
+            culled.increment();
+            receipt.setTimeout(-1);
+            log.debug("Receipt registry is full ({} receipts), culling receipt {}", maxReceipts, encodeHexString(receipt.getHash()));
+        }
+
+        var key = HashKey.of(receipt.getTruncatedHash());
+        lock.lock();
+        try {
+            var entries = receipts.get(key);
+            if (isNull(entries)) {
+                receipts.put(key, new PacketReceipt[]{receipt});
+            } else {
+                var grown = Arrays.copyOf(entries, entries.length + 1);
+                grown[entries.length] = receipt;
+                receipts.put(key, grown);
+            }
+            size.incrementAndGet();
+            receipt.setRegistry(this);
+        } finally {
+            lock.unlock();
+        }
+
+        return accepted;
+    }
+
+    public boolean remove(PacketReceipt receipt) {
+        var key = HashKey.of(receipt.getTruncatedHash());
+        lock.lock();
+        try {
+            var entries = receipts.get(key);
+            if (isNull(entries)) {
+                return false;
+            }
+            var remaining = without(entries, receipt);
+            if (remaining.length == entries.length) {
+                return false;
+            }
+            if (remaining.length == 0) {
+                receipts.remove(key);
+            } else {
+                receipts.put(key, remaining);
+            }
+            size.decrementAndGet();
+            receipt.setRegistry(null);
+
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static PacketReceipt[] without(PacketReceipt[] entries, PacketReceipt receipt) {
+        for (int i = 0; i < entries.length; i++) {
+            if (entries[i] == receipt) {
+                var remaining = new PacketReceipt[entries.length - 1];
+                System.arraycopy(entries, 0, remaining, 0, i);
+                System.arraycopy(entries, i + 1, remaining, i, entries.length - i - 1);
+                return remaining;
+            }
+        }
+
+        return entries;
+    }
+
+    /**
+     * @param hash full or truncated packet hash
+     * @return receipts waiting for a proof of that packet, never null
+     */
+    public PacketReceipt[] get(byte[] hash) {
+        var entries = receipts.get(hash);
+
+        return isNull(entries) ? EMPTY : entries;
+    }
+
+    /**
+     * Called when the timeout of a tracked receipt changed.
+     */
+    public void reschedule(PacketReceipt receipt) {
+        receipts.reschedule(receipt.getTruncatedHash());
+    }
+
+    /**
+     * Stops tracking receipts that timed out or were concluded.
+     *
+     * @return the receipts that timed out, their {@link PacketReceipt#checkTimeout()} still has to run
+     */
+    public List<PacketReceipt> expire(Instant now) {
+        var timedOut = new ArrayList<PacketReceipt>();
+        receipts.expire(now, (key, entries) -> {
+            lock.lock();
+            try {
+                var current = receipts.get(key);
+                if (isNull(current)) {
+                    return;
+                }
+                var keep = new ArrayList<PacketReceipt>(current.length);
+                for (var receipt : current) {
+                    if (receipt.getStatus() != PacketReceiptStatus.SENT) {
+                        receipt.setRegistry(null);
+                    } else if (isFalse(deadline(receipt).isBefore(now))) {
+                        keep.add(receipt);
+                    } else {
+                        timedOut.add(receipt);
+                        receipt.setRegistry(null);
+                    }
+                }
+                size.addAndGet(keep.size() - current.length);
+                if (keep.isEmpty()) {
+                    receipts.remove(key);
+                } else if (keep.size() < current.length) {
+                    receipts.put(key, keep.toArray(EMPTY));
+                }
+            } finally {
+                lock.unlock();
+            }
+        });
+
+        return timedOut;
+    }
+
+    /**
+     * @return number of tracked receipts
+     */
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * @return receipts that were not tracked because the registry was full
+     */
+    public long getCulled() {
+        return culled.sum();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ReceiptRegistry[receipts=%d hashes=%d culled=%d]", size(), receipts.size(), getCulled());
+    }
+}
@@ -0,0 +1,147 @@
+package io.reticulum.transport;
+
+import lombok.Getter;
+
+import java.util.BitSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.apache.commons.lang3.BooleanUtils.isFalse;
+
+/**
+ * A fixed set of fair locks ("shards") that partitions the Transport routing state
+ * by destination or link hash.
+ * <p>
+ * {@code inbound()} and {@code outbound()} only take the shard that owns the packet's
+ * destination hash, so packets for unrelated destinations are routed concurrently on
+ * different threads. Maintenance work that walks every table ({@code jobs()}) takes all
+ * shards, always in ascending index order.
+ * <p>
+ * The routing tables themselves stay {@link java.util.concurrent.ConcurrentHashMap}s, so
+ * single lookups are safe from any shard. The shard lock serialises the read-modify-write
+ * sequences that belong to one destination (path replacement, random blob checks,
+ * announce retransmission bookkeeping and so on).
+ */
+public class ShardedLock {
+
+    private static final int MAX_SHARDS = 64;
+
+    private final ReentrantLock[] locks;
+    private final int mask;
+    @Getter
+    private final int shards;
+
+    public ShardedLock(int shards) {
+        this.shards = Integer.highestOneBit(Math.max(1, Math.min(MAX_SHARDS, shards) * 2 - 1));
+        this.mask = this.shards - 1;
+        this.locks = new ReentrantLock[this.shards];
+        for (int i = 0; i < this.shards; i++) {
+            locks[i] = new ReentrantLock(true);
+        }
+    }
+
+    /**
+     * @return four shards per available processor, rounded to a power of two and capped at {@value #MAX_SHARDS}
+     */
+    public static int defaultShards() {
+        return Runtime.getRuntime().availableProcessors() * 4;
+    }
+
+    /**
+     * Reticulum hashes are truncated SHA-256 digests, so the leading bytes are already
+     * uniformly distributed and can be used as the shard index directly.
+     *
+     * @param hash destination hash, link id or any other routing key
+     * @return shard index for the given hash
+     */
+    public int shardOf(byte[] hash) {
+        if (hash == null || hash.length < 4) {
+            return 0;
+        }
+        var h = (hash[0] & 0xff) << 24 | (hash[1] & 0xff) << 16 | (hash[2] & 0xff) << 8 | (hash[3] & 0xff);
+
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    public ReentrantLock forHash(byte[] hash) {
+        return locks[shardOf(hash)];
+    }
+
+    /**
+     * Acquires every shard in index order. If the deadline passes before all shards
+     * are held, the shards taken so far are released again and {@code false} is returned.
+     */
+    public boolean lockAll(long timeout, TimeUnit unit) throws InterruptedException {
+        var deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (int i = 0; i < shards; i++) {
+            var acquired = false;
+            try {
+                acquired = locks[i].tryLock(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } finally {
+                if (isFalse(acquired)) {
+                    unlockFirst(i);
+                }
+            }
+            if (isFalse(acquired)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Acquires the given shards in index order, so batches locking overlapping shard sets
+     * cannot deadlock each other. Each shard is requested with {@code tryLock(2ms)} in a
+     * loop: that enters the fair queue and keeps {@code outbound()} callers from being
+     * starved, where a plain {@code tryLock()} would barge past waiting threads.
+     *
+     * @throws InterruptedException if interrupted while waiting; no shard is held then
+     */
+    public void lockShards(BitSet shardSet) throws InterruptedException {
+        for (int i = shardSet.nextSetBit(0); i >= 0; i = shardSet.nextSetBit(i + 1)) {
+            try {
+                while (isFalse(locks[i].tryLock(2, TimeUnit.MILLISECONDS))) {
+                    if (Thread.currentThread().isInterrupted()) {
+                        throw new InterruptedException();
+                    }
+                }
+            } catch (InterruptedException e) {
+                unlockShards(shardSet);
+                throw e;
+            }
+        }
+    }
+
+    public void unlockShards(BitSet shardSet) {
+        for (int i = shardSet.nextSetBit(0); i >= 0; i = shardSet.nextSetBit(i + 1)) {
+            if (locks[i].isHeldByCurrentThread()) {
+                locks[i].unlock();
+            }
+        }
+    }
+
+    public void unlockAll() {
+        unlockFirst(shards);
+    }
+
+    private void unlockFirst(int count) {
+        for (int i = count - 1; i >= 0; i--) {
+            if (locks[i].isHeldByCurrentThread()) {
+                locks[i].unlock();
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        var sb = new StringBuilder("ShardedLock[shards=").append(shards);
+        for (int i = 0; i < shards; i++) {
+            if (locks[i].isLocked()) {
+                sb.append(", ").append(i).append('=').append(locks[i]);
+            }
+        }
+
+        return sb.append(']').toString();
+    }
+}
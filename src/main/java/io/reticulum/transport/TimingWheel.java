@@ -0,0 +1,235 @@
+package io.reticulum.transport;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Hierarchical timing wheel that tracks one deadline per key.
+ * <p>
+ * The wheel has {@value #LEVELS} levels of {@value #SLOTS} slots. A slot on level 0 spans
+ * one tick, a slot on level {@code n} spans {@code 64^n} ticks. A deadline is put on the
+ * lowest level whose range covers it; when the wheel reaches a slot on a higher level,
+ * its keys move down to the finer levels. Scheduling, rescheduling and cancelling are
+ * O(1), and {@link #advance(long)} only touches keys whose slot comes due, so the cost of
+ * a tick depends on the number of expirations and not on the number of keys.
+ * <p>
+ * With the transport job interval of 250 ms as tick the wheel covers about 48 days.
+ * Deadlines further out are parked in the last slot and placed again when it comes due.
+ */
+public class TimingWheel<K> {
+
+    private static final int BITS = 6;
+    private static final int SLOTS = 1 << BITS;
+    private static final int MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+    private static final long RANGE = 1L << (BITS * LEVELS);
+
+    private final long tickMillis;
+    private final Node<K>[][] slots;
+    private final Map<K, Node<K>> nodes = new HashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private long currentTick;
+
+    private static final class Node<K> {
+        final K key;
+        long deadlineTick;
+        int level = -1;
+        int slot;
+        Node<K> prev;
+        Node<K> next;
+
+        Node(K key) {
+            this.key = key;
+        }
+    }
+
+    /**
+     * @param tickMillis resolution of the wheel
+     * @param nowMillis  current time, the wheel starts there
+     */
+    @SuppressWarnings("unchecked")
+    public TimingWheel(long tickMillis, long nowMillis) {
+        if (tickMillis < 1) {
+            throw new IllegalArgumentException("Tick must be at least 1 ms: " + tickMillis);
+        }
+        this.tickMillis = tickMillis;
+        this.currentTick = nowMillis / tickMillis;
+        this.slots = new Node[LEVELS][SLOTS];
+    }
+
+    /**
+     * Sets the deadline of the key, replacing an earlier one. Deadlines in the past
+     * expire with the next tick.
+     */
+    public void schedule(K key, long deadlineMillis) {
+        // round up, a key must never expire before its deadline
+        var deadlineTick = Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis);
+        lock.lock();
+        try {
+            var node = nodes.get(key);
+            if (isNull(node)) {
+                node = new Node<>(key);
+                nodes.put(key, node);
+            } else if (node.deadlineTick == deadlineTick) {
+                return;
+            } else {
+                unlink(node);
+            }
+            node.deadlineTick = deadlineTick;
+            place(node, Math.max(deadlineTick, currentTick + 1));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean cancel(K key) {
+        lock.lock();
+        try {
+            var node = nodes.remove(key);
+            if (isNull(node)) {
+                return false;
+            }
+            unlink(node);
+
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean contains(K key) {
+        lock.lock();
+        try {
+            return nodes.containsKey(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return nodes.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void clear() {
+        lock.lock();
+        try {
+            nodes.clear();
+            for (var level : slots) {
+                Arrays.fill(level, null);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Moves the wheel forward to {@code nowMillis}.
+     *
+     * @return the keys whose deadline has passed, ordered by tick; they are no longer scheduled
+     */
+    public List<K> advance(long nowMillis) {
+        var targetTick = nowMillis / tickMillis;
+        var expired = new ArrayList<K>();
+        lock.lock();
+        try {
+            while (currentTick < targetTick) {
+                currentTick++;
+                // move keys down from coarser levels whose slot starts at this tick
+                for (int level = LEVELS - 1; level > 0; level--) {
+                    if ((currentTick & ((1L << (BITS * level)) - 1)) == 0) {
+                        cascade(level, (int) ((currentTick >>> (BITS * level)) & MASK));
+                    }
+                }
+                expire((int) (currentTick & MASK), expired);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        return expired;
+    }
+
+    private void expire(int slot, List<K> expired) {
+        var node = slots[0][slot];
+        slots[0][slot] = null;
+        while (nonNull(node)) {
+            var next = node.next;
+            node.prev = null;
+            node.next = null;
+            node.level = -1;
+            if (node.deadlineTick <= currentTick) {
+                nodes.remove(node.key);
+                expired.add(node.key);
+            } else {
+                // not due yet, only possible for a deadline rounded into this slot
+                place(node, node.deadlineTick);
+            }
+            node = next;
+        }
+    }
+
+    private void cascade(int level, int slot) {
+        var node = slots[level][slot];
+        slots[level][slot] = null;
+        while (nonNull(node)) {
+            var next = node.next;
+            node.prev = null;
+            node.next = null;
+            node.level = -1;
+            place(node, Math.max(node.deadlineTick, currentTick));
+            node = next;
+        }
+    }
+
+    private void place(Node<K> node, long tick) {
+        var delta = tick - currentTick;
+        if (delta >= RANGE) {
+            tick = currentTick + RANGE - 1;
+            delta = RANGE - 1;
+        }
+        var level = 0;
+        while (delta >= (1L << (BITS * (level + 1)))) {
+            level++;
+        }
+        var slot = (int) ((tick >>> (BITS * level)) & MASK);
+
+        node.level = level;
+        node.slot = slot;
+        node.prev = null;
+        node.next = slots[level][slot];
+        if (nonNull(node.next)) {
+            node.next.prev = node;
+        }
+        slots[level][slot] = node;
+    }
+
+    private void unlink(Node<K> node) {
+        if (node.level < 0) {
+            return;
+        }
+        if (nonNull(node.prev)) {
+            node.prev.next = node.next;
+        } else {
+            slots[node.level][node.slot] = node.next;
+        }
+        if (nonNull(node.next)) {
+            node.next.prev = node.prev;
+        }
+        node.prev = null;
+        node.next = null;
+        node.level = -1;
+    }
+}
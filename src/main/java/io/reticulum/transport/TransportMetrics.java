@@ -0,0 +1,210 @@
+package io.reticulum.transport;
+
+import io.reticulum.interfaces.ConnectionInterface;
+import io.reticulum.metrics.Counter;
+import io.reticulum.metrics.Histogram;
+import io.reticulum.metrics.MetricsRegistry;
+import io.reticulum.packet.PacketType;
+import lombok.Getter;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+
+import static java.util.Objects.isNull;
+
+/**
+ * Hot-path metrics of {@code Transport}, published over JMX as
+ * {@code io.reticulum:type=Transport} and {@code io.reticulum:type=Interfaces}.
+ * <p>
+ * Latencies are histograms in microseconds, named {@code *.micros}; the phases of
+ * {@code jobs()} are in milliseconds, named {@code *.millis}. Table sizes are gauges read
+ * when JMX asks. Interface traffic is counted per interface as {@code <name>.rxPackets},
+ * {@code .rxBytes}, {@code .txPackets}, {@code .txBytes} and {@code .txDropped}, the packets
+ * dropped because the interface was not writable.
+ */
+public class TransportMetrics {
+
+    public static final String TRANSPORT_NAME = "io.reticulum:type=Transport";
+    public static final String INTERFACES_NAME = "io.reticulum:type=Interfaces";
+
+    private final MetricsRegistry transport = new MetricsRegistry("Reticulum transport");
+    private final MetricsRegistry interfaces = new MetricsRegistry("Reticulum interface traffic");
+    private final Duration interval;
+    private volatile Instant rotatedAt = Instant.now();
+
+    private final Map<PacketType, Histogram> inbound = new EnumMap<>(PacketType.class);
+    private final Map<PacketType, Histogram> outbound = new EnumMap<>(PacketType.class);
+    private final Map<ConnectionInterface, Traffic> traffic = new ConcurrentHashMap<>();
+
+    @Getter
+    private final Histogram inboundLockWait = transport.histogram("inbound.lockWait.micros");
+    @Getter
+    private final Histogram inboundLockHold = transport.histogram("inbound.lockHold.micros");
+    @Getter
+    private final Histogram outboundLockWait = transport.histogram("outbound.lockWait.micros");
+    @Getter
+    private final Histogram outboundLockHold = transport.histogram("outbound.lockHold.micros");
+    @Getter
+    private final Histogram jobsLockWait = transport.histogram("jobs.lockWait.micros");
+    @Getter
+    private final Histogram jobsLinks = transport.histogram("jobs.links.millis");
+    @Getter
+    private final Histogram jobsReceipts = transport.histogram("jobs.receipts.millis");
+    @Getter
+    private final Histogram jobsAnnounces = transport.histogram("jobs.announces.millis");
+    @Getter
+    private final Histogram jobsCull = transport.histogram("jobs.cull.millis");
+    @Getter
+    private final Histogram jobsInterfaces = transport.histogram("jobs.interfaces.millis");
+    @Getter
+    private final Histogram jobsTotal = transport.histogram("jobs.total.millis");
+
+    private final class Traffic {
+        private final String name;
+        private final Counter rxPackets;
+        private final Counter rxBytes;
+        private final Counter txPackets;
+        private final Counter txBytes;
+        private final Counter txDropped;
+
+        private Traffic(String name) {
+            this.name = name;
+            this.rxPackets = interfaces.counter(name + ".rxPackets");
+            this.rxBytes = interfaces.counter(name + ".rxBytes");
+            this.txPackets = interfaces.counter(name + ".txPackets");
+            this.txBytes = interfaces.counter(name + ".txBytes");
+            this.txDropped = interfaces.counter(name + ".txDropped");
+        }
+    }
+
+    /**
+     * @param interval how long each histogram interval lasts
+     */
+    public TransportMetrics(Duration interval) {
+        this.interval = interval;
+        for (PacketType type : PacketType.values()) {
+            inbound.put(type, transport.histogram("inbound." + type + ".micros"));
+            outbound.put(type, transport.histogram("outbound." + type + ".micros"));
+        }
+    }
+
+    /**
+     * @return time spent processing one inbound packet of the type, under the routing lock
+     */
+    public Histogram inbound(PacketType type) {
+        return inbound.get(type);
+    }
+
+    /**
+     * @return time {@code outbound()} takes for a packet of the type, lock wait included
+     */
+    public Histogram outbound(PacketType type) {
+        return outbound.get(type);
+    }
+
+    public void gauge(String name, LongSupplier value) {
+        transport.gauge(name, value);
+    }
+
+    public void received(ConnectionInterface iface, int bytes) {
+        var counters = traffic(iface);
+        if (isNull(counters)) {
+            return;
+        }
+        counters.rxPackets.increment();
+        counters.rxBytes.add(bytes);
+    }
+
+    public void transmitted(ConnectionInterface iface, int bytes) {
+        var counters = traffic(iface);
+        if (isNull(counters)) {
+            return;
+        }
+        counters.txPackets.increment();
+        counters.txBytes.add(bytes);
+    }
+
+    public void dropped(ConnectionInterface iface) {
+        var counters = traffic(iface);
+        if (isNull(counters)) {
+            return;
+        }
+        counters.txDropped.increment();
+    }
+
+    private Traffic traffic(ConnectionInterface iface) {
+        if (isNull(iface)) {
+            return null;
+        }
+        var counters = traffic.get(iface);
+        if (isNull(counters)) {
+            counters = traffic.computeIfAbsent(iface, key -> new Traffic(String.valueOf(key.getInterfaceName())));
+        }
+
+        return counters;
+    }
+
+    /**
+     * Drops the traffic counters of interfaces that are gone.
+     */
+    public void removeInterfaces(Predicate<ConnectionInterface> detached) {
+        var removed = new HashSet<String>();
+        traffic.entrySet().removeIf(entry -> {
+            if (detached.test(entry.getKey())) {
+                removed.add(entry.getValue().name);
+                return true;
+            }
+            return false;
+        });
+        // another interface may have the same name and still be counting
+        traffic.values().forEach(counters -> removed.remove(counters.name));
+        for (String name : removed) {
+            interfaces.remove(name + ".rxPackets");
+            interfaces.remove(name + ".rxBytes");
+            interfaces.remove(name + ".txPackets");
+            interfaces.remove(name + ".txBytes");
+            interfaces.remove(name + ".txDropped");
+        }
+    }
+
+    /**
+     * Ends the histogram interval once it has lasted long enough; called from the job loop.
+     */
+    public void rotate(Instant now) {
+        if (now.isBefore(rotatedAt.plus(interval))) {
+            return;
+        }
+        rotatedAt = now;
+        transport.rotate();
+    }
+
+    public void register() {
+        transport.register(TRANSPORT_NAME);
+        interfaces.register(INTERFACES_NAME);
+    }
+
+    public void unregister() {
+        transport.unregister();
+        interfaces.unregister();
+    }
+
+    /**
+     * @return registry behind {@code io.reticulum:type=Transport}
+     */
+    public MetricsRegistry getRegistry() {
+        return transport;
+    }
+
+    /**
+     * @return registry behind {@code io.reticulum:type=Interfaces}
+     */
+    public MetricsRegistry getInterfaceRegistry() {
+        return interfaces;
+    }
+}
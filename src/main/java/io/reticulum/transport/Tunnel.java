@@ -12,7 +12,7 @@ import java.util.Map;
 public class Tunnel {
     private byte[] tunnelId; //0
     private ConnectionInterface anInterface; // 1
-    private Map<String, Hops> tunnelPaths; //2
+    private Map<HashKey, Hops> tunnelPaths; //2
     private Instant expires; //3
 
     public ConnectionInterface getInterface() {
@@ -1,6 +1,5 @@
 package io.reticulum.utils;
 
-import io.reticulum.Transport;
 import lombok.NoArgsConstructor;
 
 import java.io.ByteArrayOutputStream;
@@ -8,7 +7,6 @@ import java.io.IOException;
 import java.security.SecureRandom;
 
 import static io.reticulum.constant.ReticulumConstant.TRUNCATED_HASHLENGTH;
-import static io.reticulum.identity.IdentityKnownDestination.saveKnownDestinations;
 import static lombok.AccessLevel.PRIVATE;
 import static org.apache.commons.codec.digest.DigestUtils.getSha256Digest;
 import static org.apache.commons.lang3.ArrayUtils.subarray;
@@ -39,16 +37,6 @@ public class IdentityUtils {
         return truncatedHash(SecureRandom.getSeed(TRUNCATED_HASHLENGTH / 8));
     }
 
-    public static void persistData() {
-        if (Transport.getInstance().getOwner().isConnectedToSharedInstance()) {
-            saveKnownDestinations();
-        }
-    }
-
-    public static void exitHandler() {
-        persistData();
-    }
-
     public static byte[] concatArrays(byte[]... arrays) {
         try (var os = new ByteArrayOutputStream()) {
             for (byte[] array : arrays) {
@@ -74,8 +74,6 @@ public class ResourceUtils {
             resource.setHashmapHeight(new AtomicInteger(0));
             resource.setWaitingForHmu(false);
 
-            resource.setReceivingPart(false);
-
             resource.setConsecutiveCompletedHeight(0);
 
             if (isFalse(resource.getLink().hasIncomingResource(resource))) {
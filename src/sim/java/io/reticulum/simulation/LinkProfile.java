@@ -0,0 +1,43 @@
+package io.reticulum.simulation;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Duration;
+
+/**
+ * Properties of a {@link VirtualWire}, the same in both directions.
+ */
+@Value
+@Builder(toBuilder = true)
+public class LinkProfile {
+
+    /**
+     * Bits per second each direction can carry; frames queue behind each other.
+     */
+    @Builder.Default
+    long bitrate = 10_000_000;
+
+    /**
+     * Propagation delay added to every frame after it has been serialized.
+     */
+    @Builder.Default
+    Duration latency = Duration.ofMillis(5);
+
+    /**
+     * Probability in [0, 1] that a frame is lost.
+     */
+    @Builder.Default
+    double loss = 0;
+
+    public static LinkProfile defaults() {
+        return LinkProfile.builder().build();
+    }
+
+    /**
+     * @return nanoseconds it takes to put a frame of the given size on the wire
+     */
+    long serializationNanos(int bytes) {
+        return bytes * 8L * 1_000_000_000L / bitrate;
+    }
+}
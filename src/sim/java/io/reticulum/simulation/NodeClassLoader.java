@@ -0,0 +1,70 @@
+package io.reticulum.simulation;
+
+import io.reticulum.Transport;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+
+import static java.util.Objects.isNull;
+
+/**
+ * Loads the stack's classes again for every node, so static state ({@code Transport.getInstance()},
+ * {@code Storage}, the scheduler, known destinations) exists once per node instead of once per JVM.
+ * <p>
+ * Classes of {@code io.reticulum} and of the node side of the harness
+ * ({@code io.reticulum.simulation.node}) are looked up here first; the rest of the harness and
+ * all libraries come from the parent, so they are shared and nodes can exchange frames through
+ * {@link VirtualPort}.
+ */
+final class NodeClassLoader extends URLClassLoader {
+
+    private static final String STACK_PACKAGE = "io.reticulum.";
+    private static final String HARNESS_PACKAGE = "io.reticulum.simulation.";
+    private static final String NODE_PACKAGE = "io.reticulum.simulation.node.";
+
+    static {
+        registerAsParallelCapable();
+    }
+
+    NodeClassLoader(String nodeName, ClassLoader parent) {
+        super(nodeName, new URL[]{
+                locationOf(Transport.class),
+                locationOf(NodeClassLoader.class)
+        }, parent);
+    }
+
+    @Override
+    protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+        if (isShared(name)) {
+            return super.loadClass(name, resolve);
+        }
+
+        synchronized (getClassLoadingLock(name)) {
+            var loaded = findLoadedClass(name);
+            if (isNull(loaded)) {
+                try {
+                    loaded = findClass(name);
+                } catch (ClassNotFoundException e) {
+                    loaded = super.loadClass(name, false);
+                }
+            }
+            if (resolve) {
+                resolveClass(loaded);
+            }
+
+            return loaded;
+        }
+    }
+
+    private static boolean isShared(String name) {
+        if (name.startsWith(NODE_PACKAGE)) {
+            return false;
+        }
+
+        return name.startsWith(HARNESS_PACKAGE) || !name.startsWith(STACK_PACKAGE);
+    }
+
+    private static URL locationOf(Class<?> type) {
+        return type.getProtectionDomain().getCodeSource().getLocation();
+    }
+}
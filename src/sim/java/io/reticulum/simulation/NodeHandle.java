@@ -0,0 +1,52 @@
+package io.reticulum.simulation;
+
+/**
+ * What the harness can do with a node running in its own {@link NodeClassLoader}. Only JDK
+ * types and shared harness types appear here, because the node's {@code Transport},
+ * {@code Destination} etc. are different classes than the harness would see.
+ */
+public interface NodeHandle extends AutoCloseable {
+
+    String getName();
+
+    /**
+     * Adds an interface to the node that sends and receives through the port.
+     */
+    void attach(VirtualPort port);
+
+    /**
+     * Creates a SINGLE destination with a new identity and announces it.
+     *
+     * @return hash of the destination
+     */
+    byte[] announce(String aspect);
+
+    boolean hasPath(byte[] destinationHash);
+
+    /**
+     * @return entries in the path table
+     */
+    int getPathCount();
+
+    /**
+     * @return estimated bytes held by the path table: entries, keys, expiry bookkeeping and the
+     * announce packets the entries keep
+     */
+    long getPathTableBytes();
+
+    /**
+     * @return frames received on all interfaces of the node
+     */
+    long getRxPackets();
+
+    /**
+     * @return frames sent on all interfaces of the node
+     */
+    long getTxPackets();
+
+    /**
+     * Detaches the interfaces and stops the node.
+     */
+    @Override
+    void close();
+}
@@ -0,0 +1,253 @@
+package io.reticulum.simulation;
+
+import lombok.Builder;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Starts a {@link VirtualNetwork}, lets nodes announce one destination each and waits until
+ * every node has a path to every destination.
+ * <p>
+ * From the command line, e.g. {@code mvn -Psimulation test-compile exec:exec
+ * -Dsim.args="--nodes 500 --topology mesh --degree 4 --latency 20 --loss 0.01"}; see
+ * {@link #main(String[])} for all options. Every node loads the stack's classes again, so give
+ * large runs enough heap and metaspace.
+ */
+@Slf4j
+@Builder
+public class Simulation {
+
+    private static final Duration POLL_INTERVAL = Duration.ofMillis(100);
+
+    @Builder.Default
+    private final int nodes = 10;
+    @Builder.Default
+    private final Topology topology = Topology.line();
+    @Builder.Default
+    private final LinkProfile profile = LinkProfile.defaults();
+    /**
+     * How many nodes announce a destination, the first ones; all nodes if not set
+     */
+    private final Integer announcers;
+    @Builder.Default
+    private final Duration timeout = Duration.ofMinutes(5);
+    /**
+     * Where nodes keep their configuration and storage; a temporary directory if not set
+     */
+    private final Path workDir;
+
+    public SimulationReport run() throws IOException, InterruptedException {
+        var directory = nonNull(workDir) ? workDir : Files.createTempDirectory("jreticulum-sim");
+        try (var network = new VirtualNetwork(directory)) {
+            var names = new ArrayList<String>(nodes);
+            for (int i = 0; i < nodes; i++) {
+                names.add("node" + i);
+                network.addNode(names.get(i));
+            }
+            topology.build(network, names, profile);
+            log.info("Started {} nodes with {} wires in {}", nodes, network.getWires().size(), directory);
+
+            return measure(network);
+        }
+    }
+
+    private SimulationReport measure(VirtualNetwork network) throws InterruptedException {
+        var nodeList = network.getNodes();
+        var count = nodeList.size();
+        var announcing = isNull(announcers) ? count : Math.min(announcers, count);
+        var heapBefore = usedHeapAfterGc();
+        var rxBefore = new long[count];
+        var txBefore = new long[count];
+        for (int i = 0; i < count; i++) {
+            rxBefore[i] = nodeList.get(i).getRxPackets();
+            txBefore[i] = nodeList.get(i).getTxPackets();
+        }
+
+        var started = System.nanoTime();
+        var destinations = new byte[announcing][];
+        for (int i = 0; i < announcing; i++) {
+            destinations[i] = nodeList.get(i).announce(nodeList.get(i).getName());
+        }
+
+        // per node, how many destinations it still lacks a path to; a node's own destination doesn't count
+        var missing = new int[count];
+        var known = new boolean[count][announcing];
+        var convergence = new Duration[count];
+        for (int i = 0; i < count; i++) {
+            missing[i] = i < announcing ? announcing - 1 : announcing;
+            if (i < announcing) {
+                known[i][i] = true;
+            }
+        }
+        var unconverged = count;
+        var deadline = started + timeout.toNanos();
+        while (unconverged > 0 && System.nanoTime() < deadline) {
+            for (int i = 0; i < count; i++) {
+                if (nonNull(convergence[i])) {
+                    continue;
+                }
+                for (int d = 0; d < announcing; d++) {
+                    if (!known[i][d] && nodeList.get(i).hasPath(destinations[d])) {
+                        known[i][d] = true;
+                        missing[i]--;
+                    }
+                }
+                if (missing[i] == 0) {
+                    convergence[i] = Duration.ofNanos(System.nanoTime() - started);
+                    unconverged--;
+                }
+            }
+            if (unconverged > 0) {
+                Thread.sleep(POLL_INTERVAL.toMillis());
+            }
+        }
+        var duration = Duration.ofNanos(System.nanoTime() - started);
+        var seconds = Math.max(duration.toNanos() / 1e9, 1e-9);
+
+        var paths = new int[count];
+        var pathTableBytes = new long[count];
+        for (int i = 0; i < count; i++) {
+            paths[i] = nodeList.get(i).getPathCount();
+            pathTableBytes[i] = nodeList.get(i).getPathTableBytes();
+        }
+        var heapGrowth = Math.max(0, usedHeapAfterGc() - heapBefore);
+
+        var report = SimulationReport.builder()
+                .nodes(count)
+                .wires(network.getWires().size())
+                .destinations(announcing)
+                .duration(duration)
+                .convergence(unconverged == 0 ? maxOf(convergence) : null)
+                .heapGrowthBytes(heapGrowth)
+                .framesDelivered(network.getWires().stream().mapToLong(VirtualWire::getDelivered).sum())
+                .framesLost(network.getWires().stream().mapToLong(VirtualWire::getLost).sum());
+        for (int i = 0; i < count; i++) {
+            var node = nodeList.get(i);
+            var rx = node.getRxPackets() - rxBefore[i];
+            var tx = node.getTxPackets() - txBefore[i];
+            report.nodeReport(SimulationReport.NodeReport.builder()
+                    .name(node.getName())
+                    .convergence(convergence[i])
+                    .paths(paths[i])
+                    .pathTableBytes(pathTableBytes[i])
+                    .rxPackets(rx)
+                    .txPackets(tx)
+                    .rxPerSecond(rx / seconds)
+                    .txPerSecond(tx / seconds)
+                    .build());
+        }
+
+        return report.build();
+    }
+
+    private static Duration maxOf(Duration[] durations) {
+        var max = Duration.ZERO;
+        for (Duration duration : durations) {
+            if (duration.compareTo(max) > 0) {
+                max = duration;
+            }
+        }
+
+        return max;
+    }
+
+    private static long usedHeapAfterGc() throws InterruptedException {
+        var memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    /**
+     * Options, all optional:
+     * <pre>
+     * --nodes N            number of nodes (10)
+     * --topology T         line, ring, star, grid or mesh (line)
+     * --columns N          row length of a grid (10)
+     * --degree N           average wires per node of a mesh (4)
+     * --seed N             seed of the mesh (1)
+     * --bitrate BPS        bits per second of every wire (10000000)
+     * --latency MS         latency of every wire in milliseconds (5)
+     * --loss P             frame loss probability of every wire (0)
+     * --announcers N       nodes that announce a destination (all)
+     * --timeout S          seconds to wait for convergence (300)
+     * --dir PATH           work directory (temporary)
+     * --csv PATH           also write per-node results as CSV
+     * </pre>
+     */
+    public static void main(String[] args) throws Exception {
+        var options = parse(args);
+
+        var profile = LinkProfile.builder()
+                .bitrate(Long.parseLong(options.getOrDefault("bitrate", "10000000")))
+                .latency(Duration.ofMillis(Long.parseLong(options.getOrDefault("latency", "5"))))
+                .loss(Double.parseDouble(options.getOrDefault("loss", "0")))
+                .build();
+
+        var simulation = Simulation.builder()
+                .nodes(Integer.parseInt(options.getOrDefault("nodes", "10")))
+                .topology(topology(options))
+                .profile(profile)
+                .announcers(options.containsKey("announcers") ? Integer.parseInt(options.get("announcers")) : null)
+                .timeout(Duration.ofSeconds(Long.parseLong(options.getOrDefault("timeout", "300"))))
+                .workDir(options.containsKey("dir") ? Path.of(options.get("dir")) : null)
+                .build();
+
+        var report = simulation.run();
+        report.print(System.out);
+        if (options.containsKey("csv")) {
+            try (var writer = Files.newBufferedWriter(Path.of(options.get("csv")), UTF_8)) {
+                report.writeCsv(writer);
+            }
+        }
+        System.exit(0);
+    }
+
+    private static Topology topology(Map<String, String> options) {
+        var name = options.getOrDefault("topology", "line");
+        switch (name) {
+            case "line":
+                return Topology.line();
+            case "ring":
+                return Topology.ring();
+            case "star":
+                return Topology.star();
+            case "grid":
+                return Topology.grid(Integer.parseInt(options.getOrDefault("columns", "10")));
+            case "mesh":
+                return Topology.randomMesh(
+                        Integer.parseInt(options.getOrDefault("degree", "4")),
+                        Long.parseLong(options.getOrDefault("seed", "1"))
+                );
+            default:
+                throw new IllegalArgumentException("Unknown topology " + name);
+        }
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i < args.length; i += 2) {
+            if (!args[i].startsWith("--") || i + 1 >= args.length) {
+                throw new IllegalArgumentException("Expected --option value, got " + args[i]);
+            }
+            options.put(args[i].substring(2), args[i + 1]);
+        }
+
+        return options;
+    }
+}
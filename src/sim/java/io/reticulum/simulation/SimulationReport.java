@@ -0,0 +1,116 @@
+package io.reticulum.simulation;
+
+import lombok.Builder;
+import lombok.Singular;
+import lombok.Value;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Outcome of a {@link Simulation} run.
+ * <p>
+ * Path table bytes are measured per node by walking its path table, see
+ * {@link NodeHandle#getPathTableBytes()}. Heap growth covers the whole JVM over the run,
+ * including packet hash filters, identities and everything else the nodes allocated and kept.
+ */
+@Value
+@Builder
+public class SimulationReport {
+
+    int nodes;
+    int wires;
+    int destinations;
+    Duration duration;
+    /**
+     * When the last node knew a path to every destination, {@code null} if some never did
+     */
+    Duration convergence;
+    long heapGrowthBytes;
+    long framesDelivered;
+    long framesLost;
+    @Singular
+    List<NodeReport> nodeReports;
+
+    @Value
+    @Builder
+    public static class NodeReport {
+        String name;
+        /**
+         * Since the announces were sent, {@code null} if the node did not converge
+         */
+        Duration convergence;
+        int paths;
+        long pathTableBytes;
+        long rxPackets;
+        long txPackets;
+        double rxPerSecond;
+        double txPerSecond;
+    }
+
+    public long getConvergedNodes() {
+        return nodeReports.stream().filter(report -> nonNull(report.getConvergence())).count();
+    }
+
+    public void print(PrintStream out) {
+        out.printf("nodes %d, wires %d, destinations %d, run %d ms%n", nodes, wires, destinations, duration.toMillis());
+        out.printf(
+                "announce convergence: %s, %d of %d nodes converged%n",
+                isNull(convergence) ? "not reached" : convergence.toMillis() + " ms",
+                getConvergedNodes(),
+                nodes
+        );
+        printDistribution(out, "node convergence ms", report -> isNull(report.getConvergence())
+                ? Double.NaN
+                : report.getConvergence().toMillis());
+        printDistribution(out, "paths per node", NodeReport::getPaths);
+        printDistribution(out, "path table bytes per node", NodeReport::getPathTableBytes);
+        printDistribution(out, "rx packets/s per node", NodeReport::getRxPerSecond);
+        printDistribution(out, "tx packets/s per node", NodeReport::getTxPerSecond);
+        out.printf("heap growth %d bytes, frames delivered %d, lost %d%n", heapGrowthBytes, framesDelivered, framesLost);
+    }
+
+    public void writeCsv(Writer writer) throws IOException {
+        writer.write("node,convergence_ms,paths,path_table_bytes,rx_packets,tx_packets,rx_per_second,tx_per_second\n");
+        for (NodeReport report : nodeReports) {
+            writer.write(String.format(
+                    "%s,%s,%d,%d,%d,%d,%.1f,%.1f%n",
+                    report.getName(),
+                    isNull(report.getConvergence()) ? "" : report.getConvergence().toMillis(),
+                    report.getPaths(),
+                    report.getPathTableBytes(),
+                    report.getRxPackets(),
+                    report.getTxPackets(),
+                    report.getRxPerSecond(),
+                    report.getTxPerSecond()
+            ));
+        }
+    }
+
+    private void printDistribution(PrintStream out, String label, ToDoubleFunction<NodeReport> metric) {
+        var values = nodeReports.stream()
+                .mapToDouble(metric)
+                .filter(value -> !Double.isNaN(value))
+                .sorted()
+                .toArray();
+        if (values.length == 0) {
+            out.printf("%s: -%n", label);
+            return;
+        }
+        out.printf(
+                "%s: min %.1f, median %.1f, p90 %.1f, max %.1f%n",
+                label,
+                values[0],
+                values[values.length / 2],
+                values[Math.min(values.length - 1, (int) (values.length * 0.9))],
+                values[values.length - 1]
+        );
+    }
+}
@@ -0,0 +1,97 @@
+package io.reticulum.simulation;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Decides which nodes of a {@link VirtualNetwork} are wired to each other.
+ */
+@FunctionalInterface
+public interface Topology {
+
+    /**
+     * Connects the named nodes, which already exist in the network.
+     */
+    void build(VirtualNetwork network, List<String> nodes, LinkProfile profile);
+
+    /**
+     * Every node to the next one; the longest paths for the number of nodes.
+     */
+    static Topology line() {
+        return (network, nodes, profile) -> {
+            for (int i = 1; i < nodes.size(); i++) {
+                network.connect(nodes.get(i - 1), nodes.get(i), profile);
+            }
+        };
+    }
+
+    static Topology ring() {
+        return (network, nodes, profile) -> {
+            line().build(network, nodes, profile);
+            if (nodes.size() > 2) {
+                network.connect(nodes.get(nodes.size() - 1), nodes.get(0), profile);
+            }
+        };
+    }
+
+    /**
+     * The first node is a hub connected to every other one.
+     */
+    static Topology star() {
+        return (network, nodes, profile) -> {
+            for (int i = 1; i < nodes.size(); i++) {
+                network.connect(nodes.get(0), nodes.get(i), profile);
+            }
+        };
+    }
+
+    /**
+     * Nodes in rows of {@code columns}, each connected to its right and lower neighbour.
+     */
+    static Topology grid(int columns) {
+        if (columns < 1) {
+            throw new IllegalArgumentException("A grid needs at least one column");
+        }
+        return (network, nodes, profile) -> {
+            for (int i = 0; i < nodes.size(); i++) {
+                if ((i + 1) % columns != 0 && i + 1 < nodes.size()) {
+                    network.connect(nodes.get(i), nodes.get(i + 1), profile);
+                }
+                if (i + columns < nodes.size()) {
+                    network.connect(nodes.get(i), nodes.get(i + columns), profile);
+                }
+            }
+        };
+    }
+
+    /**
+     * A connected random graph with an average of about {@code degree} wires per node: a
+     * random spanning tree first, then random extra wires. The same seed gives the same graph.
+     */
+    static Topology randomMesh(int degree, long seed) {
+        return (network, nodes, profile) -> {
+            var random = new Random(seed);
+            Set<Long> edges = new HashSet<>();
+            for (int i = 1; i < nodes.size(); i++) {
+                var j = random.nextInt(i);
+                edges.add(edge(i, j));
+                network.connect(nodes.get(j), nodes.get(i), profile);
+            }
+
+            var wanted = Math.min((long) nodes.size() * degree / 2, (long) nodes.size() * (nodes.size() - 1) / 2);
+            while (edges.size() < wanted) {
+                var i = random.nextInt(nodes.size());
+                var j = random.nextInt(nodes.size());
+                if (i != j && edges.add(edge(i, j))) {
+                    network.connect(nodes.get(i), nodes.get(j), profile);
+                }
+            }
+        };
+    }
+
+    private static long edge(int i, int j) {
+        return ((long) Math.min(i, j) << 32) | Math.max(i, j);
+    }
+}
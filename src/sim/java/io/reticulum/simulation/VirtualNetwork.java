@@ -0,0 +1,128 @@
+package io.reticulum.simulation;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Objects.isNull;
+
+/**
+ * Nodes in one JVM, each in its own {@link NodeClassLoader}, connected by {@link VirtualWire}s.
+ * <p>
+ * Every node keeps its configuration and storage in a directory of its own below the work
+ * directory. Frames of all wires are delivered by one shared scheduler.
+ */
+@Slf4j
+public class VirtualNetwork implements AutoCloseable {
+
+    private static final String NODE_CLASS = "io.reticulum.simulation.node.SimulatedNode";
+
+    @Getter
+    private final Path workDir;
+    private final ScheduledExecutorService wireScheduler;
+    private final Map<String, NodeHandle> nodes = new LinkedHashMap<>();
+    private final List<VirtualWire> wires = new ArrayList<>();
+
+    public VirtualNetwork(Path workDir) {
+        this.workDir = workDir;
+        var threadCount = new AtomicInteger();
+        this.wireScheduler = Executors.newScheduledThreadPool(
+                Math.max(2, Runtime.getRuntime().availableProcessors()),
+                runnable -> {
+                    var thread = new Thread(runnable, "virtual-wire-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+        );
+    }
+
+    /**
+     * Starts a node. The stack is initialised with the node's class loader as context class
+     * loader, so threads it starts belong to the node as well.
+     */
+    public synchronized NodeHandle addNode(String name) {
+        if (nodes.containsKey(name)) {
+            throw new IllegalArgumentException("Node " + name + " already exists");
+        }
+
+        var loader = new NodeClassLoader(name, getClass().getClassLoader());
+        var thread = Thread.currentThread();
+        var contextLoader = thread.getContextClassLoader();
+        thread.setContextClassLoader(loader);
+        try {
+            var configDir = Files.createDirectories(workDir.resolve(name));
+            var node = (NodeHandle) loader.loadClass(NODE_CLASS)
+                    .getConstructor(String.class, Path.class)
+                    .newInstance(name, configDir);
+            nodes.put(name, node);
+
+            return node;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InvocationTargetException e) {
+            throw new IllegalStateException("Could not start node " + name, e.getCause());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not start node " + name, e);
+        } finally {
+            thread.setContextClassLoader(contextLoader);
+        }
+    }
+
+    /**
+     * Connects two nodes with a new wire; each gets an interface for its end.
+     */
+    public synchronized VirtualWire connect(String nameA, String nameB, LinkProfile profile) {
+        var nodeA = node(nameA);
+        var nodeB = node(nameB);
+
+        var wire = new VirtualWire(nameA, nameB, profile, wireScheduler);
+        wires.add(wire);
+        nodeA.attach(wire.getA());
+        nodeB.attach(wire.getB());
+
+        return wire;
+    }
+
+    public synchronized NodeHandle node(String name) {
+        var node = nodes.get(name);
+        if (isNull(node)) {
+            throw new IllegalArgumentException("No node " + name);
+        }
+
+        return node;
+    }
+
+    public synchronized List<NodeHandle> getNodes() {
+        return Collections.unmodifiableList(new ArrayList<>(nodes.values()));
+    }
+
+    public synchronized List<VirtualWire> getWires() {
+        return Collections.unmodifiableList(new ArrayList<>(wires));
+    }
+
+    @Override
+    public synchronized void close() {
+        for (NodeHandle node : nodes.values()) {
+            try {
+                node.close();
+            } catch (RuntimeException e) {
+                log.warn("Could not stop node {}", node.getName(), e);
+            }
+        }
+        nodes.clear();
+        wireScheduler.shutdownNow();
+    }
+}
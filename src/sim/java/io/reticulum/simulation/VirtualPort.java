@@ -0,0 +1,55 @@
+package io.reticulum.simulation;
+
+import lombok.Getter;
+
+import java.util.function.Consumer;
+
+import static java.util.Objects.nonNull;
+
+/**
+ * One end of a {@link VirtualWire}, handed to a node to attach an interface to.
+ * <p>
+ * Only JDK types cross this class, so nodes loaded by their own {@link NodeClassLoader}
+ * can use it.
+ */
+public final class VirtualPort {
+
+    @Getter
+    private final String name;
+    private final VirtualWire wire;
+    private volatile Consumer<byte[]> receiver;
+
+    VirtualPort(String name, VirtualWire wire) {
+        this.name = name;
+        this.wire = wire;
+    }
+
+    /**
+     * Sets where frames arriving at this end are delivered to.
+     */
+    public void connect(Consumer<byte[]> receiver) {
+        this.receiver = receiver;
+    }
+
+    public void disconnect() {
+        this.receiver = null;
+    }
+
+    /**
+     * Puts a frame on the wire towards the other end. Never blocks.
+     */
+    public void send(byte[] frame) {
+        wire.transmit(this, frame);
+    }
+
+    public long getBitrate() {
+        return wire.getProfile().getBitrate();
+    }
+
+    void deliver(byte[] frame) {
+        var current = receiver;
+        if (nonNull(current)) {
+            current.accept(frame);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package io.reticulum.simulation;
+
+import lombok.Getter;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Full-duplex in-memory link between two {@link VirtualPort}s.
+ * <p>
+ * Each direction is a queue: a frame starts serializing when the previous one is done, takes
+ * {@code size / bitrate} on the wire and arrives {@link LinkProfile#getLatency() latency}
+ * later. Lost frames are dropped before they occupy the wire.
+ */
+public final class VirtualWire {
+
+    @Getter
+    private final LinkProfile profile;
+    @Getter
+    private final VirtualPort a;
+    @Getter
+    private final VirtualPort b;
+    private final ScheduledExecutorService scheduler;
+
+    private final AtomicLong busyUntilAtoB = new AtomicLong();
+    private final AtomicLong busyUntilBtoA = new AtomicLong();
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder lost = new LongAdder();
+
+    VirtualWire(String nameA, String nameB, LinkProfile profile, ScheduledExecutorService scheduler) {
+        this.profile = profile;
+        this.scheduler = scheduler;
+        this.a = new VirtualPort(nameA + "->" + nameB, this);
+        this.b = new VirtualPort(nameB + "->" + nameA, this);
+    }
+
+    void transmit(VirtualPort from, byte[] frame) {
+        if (profile.getLoss() > 0 && ThreadLocalRandom.current().nextDouble() < profile.getLoss()) {
+            lost.increment();
+            return;
+        }
+
+        var to = from == a ? b : a;
+        var busyUntil = from == a ? busyUntilAtoB : busyUntilBtoA;
+        var copy = frame.clone();
+        var now = System.nanoTime();
+        var serialization = profile.serializationNanos(copy.length);
+        var serialized = busyUntil.accumulateAndGet(now, (until, start) -> Math.max(until, start) + serialization);
+
+        scheduler.schedule(
+                () -> {
+                    delivered.increment();
+                    to.deliver(copy);
+                },
+                serialized - now + profile.getLatency().toNanos(),
+                NANOSECONDS
+        );
+    }
+
+    public long getDelivered() {
+        return delivered.sum();
+    }
+
+    public long getLost() {
+        return lost.sum();
+    }
+}
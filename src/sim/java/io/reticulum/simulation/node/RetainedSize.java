@@ -0,0 +1,204 @@
+package io.reticulum.simulation.node;
+
+import io.reticulum.Transport;
+import io.reticulum.destination.AbstractDestination;
+import io.reticulum.identity.Identity;
+import io.reticulum.interfaces.ConnectionInterface;
+import io.reticulum.packet.PacketReceipt;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.util.Objects.nonNull;
+
+/**
+ * Estimates the bytes a table holds: the table object and everything reachable from it, except
+ * objects it only refers to that the node keeps anyway, such as interfaces, destinations,
+ * identities and the transport itself.
+ * <p>
+ * Sizes follow the 64-bit HotSpot layout with compressed references: a 12 byte object header,
+ * 16 bytes for an array, 4 byte references and 8 byte alignment. Fields of JDK classes cannot be
+ * read without {@code --add-opens}, so those objects count their own fields, collections also
+ * their elements, and maps their entry nodes.
+ */
+class RetainedSize {
+
+    private static final int HEADER = 12;
+    private static final int ARRAY_HEADER = 16;
+    private static final int REFERENCE = 4;
+    private static final int MAP_NODE = 32;
+
+    private static final Map<Class<?>, Layout> LAYOUTS = new ConcurrentHashMap<>();
+
+    private static final class Layout {
+        final long shallowSize;
+        final List<Field> references;
+        /**
+         * Whether all fields declared by the class itself can be read; those of superclasses are
+         * at most caches, such as the key set of an {@code AbstractMap}
+         */
+        final boolean readable;
+
+        Layout(long shallowSize, List<Field> references, boolean readable) {
+            this.shallowSize = shallowSize;
+            this.references = references;
+            this.readable = readable;
+        }
+    }
+
+    private RetainedSize() {
+    }
+
+    static long of(Object root) {
+        var seen = new IdentityHashMap<Object, Boolean>();
+        var pending = new ArrayDeque<Object>();
+        pending.push(root);
+        var total = 0L;
+        while (!pending.isEmpty()) {
+            var object = pending.pop();
+            if (nonNull(seen.put(object, Boolean.TRUE))) {
+                continue;
+            }
+            var type = object.getClass();
+            if (type.isArray()) {
+                total += arraySize(object);
+                if (!type.getComponentType().isPrimitive()) {
+                    for (int i = 0, length = Array.getLength(object); i < length; i++) {
+                        push(pending, Array.get(object, i));
+                    }
+                }
+                continue;
+            }
+
+            var layout = LAYOUTS.computeIfAbsent(type, RetainedSize::layout);
+            total += layout.shallowSize;
+            for (Field field : layout.references) {
+                push(pending, read(field, object));
+            }
+            if (layout.readable) {
+                continue;
+            }
+            if (object instanceof Map) {
+                var size = ((Map<?, ?>) object).size();
+                total += size * MAP_NODE + align(ARRAY_HEADER + (long) tableCapacity(size) * REFERENCE);
+                elements(((Map<?, ?>) object).keySet(), pending);
+                elements(((Map<?, ?>) object).values(), pending);
+            } else if (object instanceof Collection) {
+                var size = ((Collection<?>) object).size();
+                total += align(ARRAY_HEADER + (long) size * REFERENCE);
+                elements((Collection<?>) object, pending);
+            }
+        }
+
+        return total;
+    }
+
+    private static void push(ArrayDeque<Object> pending, Object value) {
+        if (nonNull(value) && !isShared(value)) {
+            pending.push(value);
+        }
+    }
+
+    /**
+     * Objects the node keeps regardless of the table.
+     */
+    private static boolean isShared(Object value) {
+        var type = value.getClass();
+        return value instanceof ConnectionInterface
+                || value instanceof AbstractDestination
+                || value instanceof Identity
+                || value instanceof PacketReceipt
+                || value instanceof Transport
+                || value instanceof Enum
+                || value instanceof Class
+                || value instanceof ClassLoader
+                || value instanceof Thread
+                || type.isSynthetic()
+                || type.getName().contains("$$Lambda");
+    }
+
+    private static void elements(Collection<?> collection, ArrayDeque<Object> pending) {
+        try {
+            for (Object element : collection) {
+                push(pending, element);
+            }
+        } catch (ConcurrentModificationException e) {
+            // the node changed it meanwhile; the elements seen so far have to do
+        }
+    }
+
+    private static Object read(Field field, Object object) {
+        try {
+            return field.get(object);
+        } catch (IllegalAccessException e) {
+            return null;
+        }
+    }
+
+    private static Layout layout(Class<?> type) {
+        var size = (long) HEADER;
+        var references = new ArrayList<Field>();
+        var readable = true;
+        for (Class<?> current = type; nonNull(current); current = current.getSuperclass()) {
+            for (Field field : current.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers())) {
+                    continue;
+                }
+                size += fieldSize(field.getType());
+                if (!field.getType().isPrimitive()) {
+                    if (field.trySetAccessible()) {
+                        references.add(field);
+                    } else if (current == type) {
+                        readable = false;
+                    }
+                }
+            }
+        }
+
+        return new Layout(align(size), references, readable);
+    }
+
+    private static long arraySize(Object array) {
+        var component = array.getClass().getComponentType();
+        return align(ARRAY_HEADER + (long) Array.getLength(array) * fieldSize(component));
+    }
+
+    private static int fieldSize(Class<?> type) {
+        if (type == long.class || type == double.class) {
+            return 8;
+        }
+        if (type == int.class || type == float.class) {
+            return 4;
+        }
+        if (type == short.class || type == char.class) {
+            return 2;
+        }
+        if (type == byte.class || type == boolean.class) {
+            return 1;
+        }
+
+        return REFERENCE;
+    }
+
+    private static int tableCapacity(int size) {
+        var capacity = 16;
+        while (capacity * 0.75 < size) {
+            capacity <<= 1;
+        }
+
+        return capacity;
+    }
+
+    private static long align(long size) {
+        return (size + 7) & ~7L;
+    }
+}
@@ -0,0 +1,105 @@
+package io.reticulum.simulation.node;
+
+import io.reticulum.Reticulum;
+import io.reticulum.Transport;
+import io.reticulum.destination.Destination;
+import io.reticulum.identity.Identity;
+import io.reticulum.simulation.NodeHandle;
+import io.reticulum.simulation.VirtualPort;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static io.reticulum.constant.ReticulumConstant.CONFIG_FILE_NAME;
+import static io.reticulum.destination.DestinationType.SINGLE;
+import static io.reticulum.destination.Direction.IN;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * A Reticulum instance as the harness runs it: transport enabled, no shared instance and no
+ * configured interfaces, only the {@link VirtualInterface}s the topology attaches.
+ * <p>
+ * Must be loaded by the node's own class loader; every class of the stack it touches is then
+ * private to this node.
+ */
+@Slf4j
+public class SimulatedNode implements NodeHandle {
+
+    private static final String APP_NAME = "simulation";
+    private static final String CONFIG =
+            "reticulum:\n" +
+            "  enable_transport: true\n" +
+            "  share_instance: false\n" +
+            "  panic_on_interface_error: false\n" +
+            "  inbound_workers: 1\n";
+
+    @Getter
+    private final String name;
+    private final Reticulum reticulum;
+    private final Transport transport;
+    private final List<VirtualInterface> interfaces = new CopyOnWriteArrayList<>();
+    private final List<Destination> destinations = new CopyOnWriteArrayList<>();
+
+    public SimulatedNode(String name, Path configDir) throws IOException {
+        this.name = name;
+        Files.createDirectories(configDir);
+        Files.writeString(configDir.resolve(CONFIG_FILE_NAME), CONFIG, UTF_8);
+
+        this.reticulum = new Reticulum(configDir.toString());
+        this.transport = Transport.getInstance();
+    }
+
+    @Override
+    public void attach(VirtualPort port) {
+        var iface = new VirtualInterface(port);
+        interfaces.add(iface);
+        transport.getInterfaces().add(iface);
+        iface.launch();
+    }
+
+    @Override
+    public byte[] announce(String aspect) {
+        var destination = new Destination(new Identity(), IN, SINGLE, APP_NAME, aspect);
+        destinations.add(destination);
+        destination.announce();
+
+        return destination.getHash();
+    }
+
+    @Override
+    public boolean hasPath(byte[] destinationHash) {
+        return transport.hasPath(destinationHash);
+    }
+
+    @Override
+    public int getPathCount() {
+        return transport.getDestinationTable().size();
+    }
+
+    @Override
+    public long getPathTableBytes() {
+        return RetainedSize.of(transport.getDestinationTable());
+    }
+
+    @Override
+    public long getRxPackets() {
+        return interfaces.stream().mapToLong(VirtualInterface::getRxPackets).sum();
+    }
+
+    @Override
+    public long getTxPackets() {
+        return interfaces.stream().mapToLong(VirtualInterface::getTxPackets).sum();
+    }
+
+    @Override
+    public void close() {
+        log.debug("Stopping simulated node {}", name);
+        transport.detachInterfaces();
+        reticulum.exitHandler();
+    }
+}
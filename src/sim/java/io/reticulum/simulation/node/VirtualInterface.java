@@ -0,0 +1,74 @@
+package io.reticulum.simulation.node;
+
+import io.reticulum.Transport;
+import io.reticulum.interfaces.AbstractConnectionInterface;
+import io.reticulum.interfaces.InterfaceMode;
+import io.reticulum.simulation.VirtualPort;
+
+import java.math.BigInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.apache.commons.lang3.BooleanUtils.isFalse;
+
+/**
+ * Interface of a simulated node, sending and receiving whole frames through a
+ * {@link VirtualPort}; no framing is needed on an in-memory wire.
+ */
+public class VirtualInterface extends AbstractConnectionInterface {
+
+    private final VirtualPort port;
+    private final LongAdder rxPackets = new LongAdder();
+    private final LongAdder txPackets = new LongAdder();
+
+    public VirtualInterface(VirtualPort port) {
+        super();
+        this.port = port;
+        this.interfaceName = port.getName();
+        this.IN = true;
+        this.OUT = true;
+        this.enabled = true;
+        this.interfaceMode = InterfaceMode.MODE_FULL;
+        this.bitrate = (int) Math.min(Integer.MAX_VALUE, port.getBitrate());
+    }
+
+    @Override
+    public void launch() {
+        port.connect(this::processIncoming);
+        online.set(true);
+    }
+
+    @Override
+    public void detach() {
+        online.set(false);
+        port.disconnect();
+    }
+
+    @Override
+    public void processIncoming(byte[] data) {
+        if (isFalse(online.get())) {
+            return;
+        }
+        rxPackets.increment();
+        rxb.accumulateAndGet(BigInteger.valueOf(data.length), BigInteger::add);
+
+        Transport.getInstance().enqueueInbound(data, this);
+    }
+
+    @Override
+    public void processOutgoing(byte[] data) {
+        if (isFalse(online.get())) {
+            return;
+        }
+        port.send(data);
+        txPackets.increment();
+        txb.accumulateAndGet(BigInteger.valueOf(data.length), BigInteger::add);
+    }
+
+    public long getRxPackets() {
+        return rxPackets.sum();
+    }
+
+    public long getTxPackets() {
+        return txPackets.sum();
+    }
+}
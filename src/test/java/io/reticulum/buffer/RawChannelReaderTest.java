@@ -0,0 +1,81 @@
+package io.reticulum.buffer;
+
+import io.reticulum.channel.Channel;
+import io.reticulum.channel.MessageCallbackType;
+import io.reticulum.message.StreamDataMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class RawChannelReaderTest {
+
+    private static final int STREAM_ID = 7;
+
+    private RawChannelReader reader;
+    private MessageCallbackType handler;
+
+    @BeforeEach
+    void setUp() {
+        var channel = mock(Channel.class);
+        reader = new RawChannelReader(STREAM_ID, channel);
+        var captor = ArgumentCaptor.forClass(MessageCallbackType.class);
+        verify(channel).addMessageHandler(captor.capture());
+        handler = captor.getValue();
+    }
+
+    private void receive(int length, boolean eof) {
+        handler.apply(new StreamDataMessage(STREAM_ID, new byte[length], eof, false));
+    }
+
+    @Test
+    void coalescesNotificationsWhileCallbackRuns() throws InterruptedException {
+        List<Integer> reported = new CopyOnWriteArrayList<>();
+        var firstCallback = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        var done = new CountDownLatch(1);
+        reader.addReadyCallback(readable -> {
+            reported.add(readable);
+            if (reported.size() == 1) {
+                firstCallback.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            } else if (readable == 60) {
+                done.countDown();
+            }
+        });
+
+        receive(10, false);
+        assertTrue(firstCallback.await(5, SECONDS));
+        receive(20, false);
+        receive(30, false);
+        release.countDown();
+
+        assertTrue(done.await(5, SECONDS));
+        assertEquals(List.of(10, 60), reported);
+    }
+
+    @Test
+    void reportsEofWithoutData() throws InterruptedException, IOException {
+        var notified = new CountDownLatch(1);
+        reader.addReadyCallback(readable -> notified.countDown());
+
+        receive(0, true);
+
+        assertTrue(notified.await(5, SECONDS));
+        assertEquals(-1, reader.read());
+    }
+}
@@ -2,8 +2,6 @@ package io.reticulum.identity;
 
 import io.reticulum.Reticulum;
 import io.reticulum.Transport;
-import io.reticulum.identity.IdentityKnownDestination.DestinationData;
-import org.apache.commons.codec.binary.Hex;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -16,12 +14,15 @@ import org.mockito.quality.Strictness;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.Map;
 
+import static io.reticulum.constant.IdentityConstant.KEYSIZE;
 import static io.reticulum.identity.IdentityKnownDestination.KNOWN_DESTINATIONS;
+import static org.apache.commons.codec.binary.Hex.encodeHexString;
 import static org.apache.commons.lang3.SystemUtils.getJavaIoTmpDir;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.when;
 
@@ -50,37 +51,49 @@ class IdentityKnownDestinationTest {
 
     @Test
     void saveKnownDestinations() {
-        var key = Hex.encodeHexString(new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16});
-        var map = Map.of(
-                key,
-                new DestinationData(key, System.currentTimeMillis(), new byte[]{1}, new byte[]{2}, new byte[]{3})
-        );
-        IdentityKnownDestination.KNOWN_DESTINATIONS.putAll(map);
-        IdentityKnownDestination.saveKnownDestinations();
+        var hash = new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16};
+        var publicKey = new byte[KEYSIZE / 8];
+        publicKey[0] = 2;
+        IdentityKnownDestination.remember(new byte[]{1}, hash, publicKey, new byte[]{3});
+        transport.persistData();
 
         KNOWN_DESTINATIONS.clear();
         assertTrue(KNOWN_DESTINATIONS.isEmpty());
 
         IdentityKnownDestination.loadKnownDestinations();
 
-        assertEquals(map, KNOWN_DESTINATIONS);
+        assertArrayEquals(new byte[]{3}, IdentityKnownDestination.recallAppData(hash));
+        assertArrayEquals(publicKey, KNOWN_DESTINATIONS.get(hash).getPublicKey());
+    }
+
+    @Test
+    void markChangedAfterFailedSave() {
+        var hash = new byte[]{7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7};
+        IdentityKnownDestination.remember(new byte[]{1}, hash, new byte[KEYSIZE / 8], null);
+        var taken = IdentityKnownDestination.takeChanged();
+        assertTrue(taken.stream().anyMatch(data -> data.getDestinationHash().equals(encodeHexString(hash))));
+        assertTrue(IdentityKnownDestination.takeChanged().isEmpty());
+
+        IdentityKnownDestination.markChanged(taken);
+
+        assertEquals(taken.size(), IdentityKnownDestination.takeChanged().size());
     }
 
     @Test
     void loadKnownDestinations() {
-        var key = Hex.encodeHexString(new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16});
-        var map = Map.of(
-                key,
-                new DestinationData(key, System.currentTimeMillis(), new byte[]{1}, new byte[]{2}, new byte[]{3})
-        );
-        IdentityKnownDestination.KNOWN_DESTINATIONS.putAll(map);
-        IdentityKnownDestination.saveKnownDestinations();
+        var hash = new byte[]{16, 15, 14, 13, 12, 11, 10, 9, 8, 7, 6, 5, 4, 3, 2, 1};
+        var publicKey = new byte[KEYSIZE / 8];
+        IdentityKnownDestination.remember(new byte[]{1}, hash, publicKey, null);
+        transport.persistData();
 
         KNOWN_DESTINATIONS.clear();
         assertTrue(KNOWN_DESTINATIONS.isEmpty());
 
         assertDoesNotThrow(IdentityKnownDestination::loadKnownDestinations);
+        // read from storage on first use
+        assertTrue(KNOWN_DESTINATIONS.isEmpty());
 
-        assertEquals(map, KNOWN_DESTINATIONS);
+        assertNotNull(IdentityKnownDestination.recall(hash));
+        assertEquals(1, KNOWN_DESTINATIONS.size());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,112 @@
+package io.reticulum.interfaces;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Writes and flushes go through the pipeline: those of {@link EmbeddedChannel} itself, and any write reaching
+ * its transport, also run the pending tasks, which would end the tick early.
+ */
+class FlushCoalescingHandlerTest {
+
+    private EmbeddedChannel channel;
+    private int flushes;
+
+    @AfterEach
+    void tearDown() {
+        channel.finishAndReleaseAll();
+    }
+
+    private void open(long maxDelayMillis, int maxBytes) {
+        channel = new EmbeddedChannel(
+                new ChannelOutboundHandlerAdapter() {
+                    @Override
+                    public void flush(ChannelHandlerContext ctx) {
+                        flushes++;
+                        ctx.flush();
+                    }
+                },
+                new FlushCoalescingHandler(maxDelayMillis, maxBytes)
+        );
+    }
+
+    private void write(int length) {
+        channel.pipeline().write(Unpooled.wrappedBuffer(new byte[length]));
+    }
+
+    private void flush() {
+        channel.pipeline().flush();
+    }
+
+    private int readOutboundBytes() {
+        var total = 0;
+        ByteBuf buffer;
+        while ((buffer = channel.readOutbound()) != null) {
+            total += buffer.readableBytes();
+            buffer.release();
+        }
+
+        return total;
+    }
+
+    @Test
+    void flushesOnceAtEndOfTick() {
+        open(0, 1024);
+
+        write(10);
+        write(20);
+        flush();
+        flush();
+        assertNull(channel.readOutbound());
+
+        channel.runPendingTasks();
+        assertEquals(30, readOutboundBytes());
+        assertEquals(1, flushes);
+    }
+
+    @Test
+    void flushesAtOnceWhenMaxBytesReached() {
+        open(50, 16);
+
+        write(10);
+        write(10);
+        flush();
+
+        assertEquals(20, readOutboundBytes());
+        assertEquals(1, flushes);
+    }
+
+    @Test
+    void flushesAfterMaxDelay() {
+        open(5, 1024);
+
+        write(10);
+        flush();
+        channel.runPendingTasks();
+        assertNull(channel.readOutbound());
+
+        channel.advanceTimeBy(5, MILLISECONDS);
+        channel.runPendingTasks();
+        assertEquals(10, readOutboundBytes());
+    }
+
+    @Test
+    void flushesPendingWritesOnClose() {
+        open(50, 1024);
+
+        write(10);
+        flush();
+        channel.close();
+
+        assertEquals(10, readOutboundBytes());
+    }
+}
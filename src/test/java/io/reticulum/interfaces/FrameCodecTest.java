@@ -0,0 +1,112 @@
+package io.reticulum.interfaces;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.apache.commons.codec.binary.Hex;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FrameCodecTest implements HDLC, KISS {
+
+    private static final byte[] PACKET = {0x01, FLAG, 0x02, ESC, (byte) FEND, (byte) FESC, 0x03};
+
+    private static byte[] encode(EmbeddedChannel channel, byte[] packet) {
+        channel.writeOutbound(packet);
+        ByteBuf frame = channel.readOutbound();
+        try {
+            return ByteBufUtil.getBytes(frame);
+        } finally {
+            frame.release();
+        }
+    }
+
+    private static List<byte[]> decode(EmbeddedChannel channel, byte[]... chunks) {
+        for (byte[] chunk : chunks) {
+            channel.writeInbound(Unpooled.wrappedBuffer(chunk));
+        }
+        List<byte[]> packets = new ArrayList<>();
+        ByteBuf packet;
+        while ((packet = channel.readInbound()) != null) {
+            packets.add(ByteBufUtil.getBytes(packet));
+            packet.release();
+        }
+
+        return packets;
+    }
+
+    @Test
+    void hdlcEncodeMatchesEscapeHdlc() {
+        var channel = new EmbeddedChannel(new HDLCFrameEncoder());
+
+        assertEquals(
+                "7e" + Hex.encodeHexString(escapeHdlc(PACKET)) + "7e",
+                Hex.encodeHexString(encode(channel, PACKET))
+        );
+    }
+
+    @Test
+    void hdlcRoundTripAcrossChunks() {
+        var encoder = new EmbeddedChannel(new HDLCFrameEncoder());
+        var frame = encode(encoder, PACKET);
+        var plain = encode(encoder, new byte[] {0x10, 0x11});
+        var decoder = new EmbeddedChannel(new HDLCFrameDecoder(64));
+
+        var packets = decode(
+                decoder,
+                new byte[] {frame[0], frame[1], frame[2]},
+                Arrays.copyOfRange(frame, 3, frame.length),
+                plain
+        );
+
+        assertEquals(2, packets.size());
+        assertArrayEquals(PACKET, packets.get(0));
+        assertArrayEquals(new byte[] {0x10, 0x11}, packets.get(1));
+    }
+
+    @Test
+    void hdlcDropsFramesLongerThanMaximum() {
+        var decoder = new EmbeddedChannel(new HDLCFrameDecoder(4));
+
+        var packets = decode(
+                decoder,
+                new byte[] {FLAG, 1, 2, 3, 4, 5},
+                new byte[] {6, 7, FLAG, 8, 9, FLAG}
+        );
+
+        assertEquals(1, packets.size());
+        assertArrayEquals(new byte[] {8, 9}, packets.get(0));
+    }
+
+    @Test
+    void kissRoundTrip() {
+        var encoder = new EmbeddedChannel(new KISSFrameEncoder());
+        var frame = encode(encoder, PACKET);
+        var decoder = new EmbeddedChannel(new KISSFrameDecoder(64));
+
+        assertEquals(
+                "c000" + Hex.encodeHexString(escapeKiss(PACKET)) + "c0",
+                Hex.encodeHexString(frame)
+        );
+        var packets = decode(decoder, frame);
+        assertEquals(1, packets.size());
+        assertArrayEquals(PACKET, packets.get(0));
+    }
+
+    @Test
+    void kissSkipsNonDataFrames() {
+        var decoder = new EmbeddedChannel(new KISSFrameDecoder(64));
+
+        var packets = decode(decoder, new byte[] {(byte) FEND, 0x01, 0x05, (byte) FEND, (byte) FEND, 0x00, 0x06, (byte) FEND});
+
+        assertEquals(1, packets.size());
+        assertArrayEquals(new byte[] {0x06}, packets.get(0));
+    }
+}
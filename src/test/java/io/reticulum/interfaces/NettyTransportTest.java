@@ -0,0 +1,55 @@
+package io.reticulum.interfaces;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NettyTransportTest {
+
+    private static long nettyThreads() {
+        return Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.getName().startsWith(NettyTransport.THREAD_NAME_PREFIX))
+                .count();
+    }
+
+    @Test
+    void connectionsShareOneGroup() throws InterruptedException {
+        assertSame(NettyTransport.group(), NettyTransport.group());
+
+        var server = new ServerBootstrap()
+                .group(NettyTransport.group())
+                .channel(NettyTransport.serverChannelClass())
+                .childHandler(new ChannelInboundHandlerAdapter())
+                .bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0))
+                .sync()
+                .channel();
+        List<Channel> clients = new ArrayList<>();
+        try {
+            for (int i = 0; i < 3 * NettyTransport.THREADS; i++) {
+                clients.add(new Bootstrap()
+                        .group(NettyTransport.group())
+                        .channel(NettyTransport.socketChannelClass())
+                        .handler(new ChannelInboundHandlerAdapter())
+                        .connect(server.localAddress())
+                        .sync()
+                        .channel());
+            }
+
+            assertTrue(clients.stream().allMatch(Channel::isActive));
+            assertTrue(nettyThreads() <= NettyTransport.THREADS);
+        } finally {
+            clients.forEach(Channel::close);
+            server.close().sync();
+        }
+    }
+}
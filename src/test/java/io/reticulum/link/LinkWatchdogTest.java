@@ -0,0 +1,74 @@
+package io.reticulum.link;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static io.reticulum.link.LinkStatus.ACTIVE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LinkWatchdogTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000);
+    private final LinkWatchdog watchdog = new LinkWatchdog(Runnable::run, clock::get);
+
+    private void advance(long millis) {
+        clock.addAndGet(millis);
+        watchdog.tick();
+    }
+
+    @Test
+    void checksWhenDueAndReschedules() {
+        var link = mock(Link.class);
+        when(link.watchdog()).thenReturn(1_000L);
+        watchdog.schedule(link, 500);
+
+        advance(475);
+        verify(link, never()).watchdog();
+
+        advance(25);
+        verify(link, times(1)).watchdog();
+        assertEquals(1, watchdog.size());
+
+        advance(1_000);
+        verify(link, times(2)).watchdog();
+    }
+
+    @Test
+    void dropsClosedLinks() {
+        var link = mock(Link.class);
+        when(link.watchdog()).thenReturn(-1L);
+        watchdog.schedule(link, 0);
+
+        advance(LinkWatchdog.TICK_MILLIS);
+        verify(link, times(1)).watchdog();
+        assertEquals(0, watchdog.size());
+    }
+
+    @Test
+    void retriesAfterFailedCheck() {
+        var link = mock(Link.class);
+        when(link.watchdog()).thenThrow(new IllegalStateException("test"));
+        when(link.getStatus()).thenReturn(ACTIVE);
+        watchdog.schedule(link, 0);
+
+        advance(LinkWatchdog.TICK_MILLIS);
+        assertEquals(1, watchdog.size());
+    }
+
+    @Test
+    void cancel() {
+        var link = mock(Link.class);
+        watchdog.schedule(link, 100);
+        watchdog.cancel(link);
+
+        advance(1_000);
+        verify(link, never()).watchdog();
+        assertEquals(0, watchdog.size());
+    }
+}
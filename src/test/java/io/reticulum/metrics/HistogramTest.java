@@ -0,0 +1,50 @@
+package io.reticulum.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HistogramTest {
+
+    @Test
+    void bucketsCoverEveryValue() {
+        for (long value = 0; value < 1_000_000; value++) {
+            var bucket = Histogram.bucketOf(value);
+            assertTrue(Histogram.highestOf(bucket) >= value);
+            if (bucket > 0) {
+                assertTrue(Histogram.highestOf(bucket - 1) < value);
+            }
+        }
+        assertEquals(Histogram.MAX_VALUE, Histogram.highestOf(Histogram.bucketOf(Histogram.MAX_VALUE)));
+    }
+
+    @Test
+    void percentilesOfTheLastInterval() {
+        var histogram = new Histogram();
+        for (int value = 1; value <= 10_000; value++) {
+            histogram.record(value);
+        }
+        assertEquals(0, histogram.getLast().getCount());
+
+        var snapshot = histogram.rotate();
+        assertEquals(10_000, snapshot.getCount());
+        assertEquals(5_000.5, snapshot.getMean(), 0.001);
+        assertEquals(10_000, snapshot.getMax());
+        assertWithin(5_000, snapshot.getP50());
+        assertWithin(9_000, snapshot.getP90());
+        assertWithin(9_900, snapshot.getP99());
+        assertWithin(9_990, snapshot.getP999());
+
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE);
+        snapshot = histogram.rotate();
+        assertEquals(2, snapshot.getCount());
+        assertEquals(Histogram.MAX_VALUE, snapshot.getMax());
+        assertEquals(10_002, histogram.getTotal());
+    }
+
+    private static void assertWithin(long expected, long actual) {
+        assertTrue(actual >= expected && actual <= expected + expected / 64, expected + " vs " + actual);
+    }
+}
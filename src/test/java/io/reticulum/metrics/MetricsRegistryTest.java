@@ -0,0 +1,48 @@
+package io.reticulum.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MetricsRegistryTest {
+
+    private static final String NAME = "io.reticulum.test:type=MetricsRegistryTest";
+
+    @Test
+    void publishesMetricsOverJmx() throws Exception {
+        var registry = new MetricsRegistry("test");
+        var size = new AtomicLong(3);
+        registry.counter("packets").add(5);
+        registry.gauge("size", size::get);
+        registry.histogram("latency.micros").record(42);
+        registry.rotate();
+
+        registry.register(NAME);
+        // registering again replaces the first registration
+        registry.register(NAME);
+        try {
+            var server = ManagementFactory.getPlatformMBeanServer();
+            var name = new ObjectName(NAME);
+            size.set(7);
+            assertEquals(5L, server.getAttribute(name, "packets"));
+            assertEquals(7L, server.getAttribute(name, "size"));
+            assertEquals(1L, server.getAttribute(name, "latency.micros.count"));
+            assertEquals(42L, server.getAttribute(name, "latency.micros.p99"));
+            assertEquals(1L, server.getAttribute(name, "latency.micros.total"));
+
+            var attributes = Arrays.stream(server.getMBeanInfo(name).getAttributes())
+                    .map(attribute -> attribute.getName());
+            assertTrue(attributes.anyMatch("latency.micros.p999"::equals));
+        } finally {
+            registry.unregister();
+        }
+        assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(new ObjectName(NAME)));
+    }
+}
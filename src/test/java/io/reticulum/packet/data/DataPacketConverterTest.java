@@ -1,5 +1,7 @@
 package io.reticulum.packet.data;
 
+import com.igormaznitsa.jbbp.io.JBBPBitInputStream;
+import com.igormaznitsa.jbbp.io.JBBPBitOutputStream;
 import com.igormaznitsa.jbbp.utils.JBBPUtils;
 import io.reticulum.destination.DestinationType;
 import io.reticulum.packet.ContextType;
@@ -12,10 +14,19 @@ import org.apache.commons.codec.DecoderException;
 import org.apache.commons.codec.binary.Hex;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
 import static io.reticulum.packet.PacketType.ANNOUNCE;
 import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class DataPacketConverterTest {
@@ -60,4 +71,102 @@ class DataPacketConverterTest {
         assertEquals(ANNOUNCE, dataPacket.getHeader().getFlags().getPacketType());
         assertNull(dataPacket.getIfac());
     }
-}
\ No newline at end of file
+
+    private static byte[] jbbpWrite(DataPacket dataPacket) throws IOException {
+        var os = new ByteArrayOutputStream();
+        var out = new JBBPBitOutputStream(os);
+        dataPacket.write(out);
+        out.flush();
+
+        return os.toByteArray();
+    }
+
+    private static DataPacket jbbpRead(byte[] raw) throws IOException {
+        return new DataPacket().read(new JBBPBitInputStream(new ByteArrayInputStream(raw)));
+    }
+
+    private static byte[] randomPacket(Random random) {
+        var flags = (byte) random.nextInt(256);
+        var addresses = (flags & 0x40) != 0 ? 2 : 1;
+        var contexts = PacketContextType.values();
+        var raw = new byte[2 + addresses * 16 + 1 + random.nextInt(500)];
+        random.nextBytes(raw);
+        raw[0] = flags;
+        raw[2 + addresses * 16] = contexts[random.nextInt(contexts.length)].getValue();
+
+        return raw;
+    }
+
+    @Test
+    void flagsMatchJbbpForEveryByte() throws IOException {
+        for (int value = 0; value < 256; value++) {
+            var jbbp = new Flags().read(new JBBPBitInputStream(new ByteArrayInputStream(new byte[] {(byte) value})));
+            var flags = Flags.fromByte((byte) value);
+
+            assertEquals(jbbp, flags);
+            assertEquals((byte) value, flags.toByte());
+        }
+    }
+
+    @Test
+    void roundTripMatchesJbbp() throws IOException {
+        var random = new Random(42);
+        for (int i = 0; i < 10_000; i++) {
+            var raw = randomPacket(random);
+
+            var dataPacket = DataPacketConverter.fromBytes(raw);
+            var jbbp = jbbpRead(raw);
+
+            assertEquals(jbbp.getHeader().getFlags(), dataPacket.getHeader().getFlags());
+            assertEquals(jbbp.getHeader().getHops(), dataPacket.getHeader().getHops());
+            assertArrayEquals(jbbp.getIfac(), dataPacket.getIfac());
+            assertArrayEquals(jbbp.getAddresses().getHash1(), dataPacket.getAddresses().getHash1());
+            assertArrayEquals(jbbp.getAddresses().getHash2(), dataPacket.getAddresses().getHash2());
+            assertEquals(jbbp.getContext(), dataPacket.getContext());
+            assertArrayEquals(jbbp.getData(), dataPacket.getData());
+
+            assertArrayEquals(raw, DataPacketConverter.toBytes(dataPacket));
+            assertArrayEquals(jbbpWrite(dataPacket), DataPacketConverter.toBytes(dataPacket));
+        }
+    }
+
+    @Test
+    void writesIfacLikeJbbp() throws IOException {
+        var random = new Random(7);
+        for (int i = 0; i < 1_000; i++) {
+            var dataPacket = DataPacketConverter.fromBytes(randomPacket(random));
+            var ifac = new byte[1 + random.nextInt(64)];
+            random.nextBytes(ifac);
+            dataPacket.getHeader().getFlags().setAccessCodes(true);
+            dataPacket.setIfac(ifac);
+
+            assertArrayEquals(jbbpWrite(dataPacket), DataPacketConverter.toBytes(dataPacket));
+        }
+    }
+
+    @Test
+    void readsAndWritesAtOffset() {
+        var random = new Random(1);
+        var raw = randomPacket(random);
+        var dataPacket = DataPacketConverter.fromBytes(raw);
+
+        var buffer = new byte[raw.length + 10];
+        assertEquals(raw.length, DataPacketConverter.toBytes(dataPacket, buffer, 7));
+        assertArrayEquals(raw, Arrays.copyOfRange(buffer, 7, 7 + raw.length));
+        assertArrayEquals(raw, DataPacketConverter.toBytes(DataPacketConverter.fromBytes(buffer, 7, raw.length)));
+
+        var direct = ByteBuffer.allocateDirect(raw.length + 3);
+        direct.position(3);
+        DataPacketConverter.toBytes(dataPacket, direct);
+        assertEquals(0, direct.remaining());
+        direct.position(3);
+        assertArrayEquals(raw, DataPacketConverter.toBytes(DataPacketConverter.fromBytes(direct)));
+    }
+
+    @Test
+    void rejectsTruncatedPacket() {
+        var raw = randomPacket(new Random(3));
+
+        assertThrows(IllegalArgumentException.class, () -> DataPacketConverter.fromBytes(raw, 0, 10));
+    }
+}
@@ -0,0 +1,103 @@
+package io.reticulum.storage.cache;
+
+import io.reticulum.transport.HashKey;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+import static java.nio.file.StandardOpenOption.APPEND;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PacketLogTest {
+
+    private static final long HOUR = 60 * 60 * 1000;
+
+    @TempDir
+    Path directory;
+
+    private static HashKey key(int seed) {
+        var hash = new byte[32];
+        Arrays.fill(hash, (byte) seed);
+        return HashKey.of(hash);
+    }
+
+    private static CachedPacket packet(int seed, String interfaceName) {
+        var raw = new byte[100 + seed];
+        Arrays.fill(raw, (byte) seed);
+        return new CachedPacket(raw, interfaceName, 1_000L * seed);
+    }
+
+    @Test
+    void readsWhatWasAppended() throws Exception {
+        try (var log = new PacketLog(directory, 1024 * 1024, HOUR)) {
+            log.append(key(1), packet(1, "Default Interface"));
+            log.append(key(2), packet(2, null));
+
+            var first = log.read(key(1));
+            assertArrayEquals(packet(1, null).getRaw(), first.getRaw());
+            assertEquals("Default Interface", first.getInterfaceName());
+            assertEquals(1_000L, first.getCachedAt());
+            assertNull(log.read(key(2)).getInterfaceName());
+            assertNull(log.read(key(3)));
+        }
+    }
+
+    @Test
+    void rebuildsIndexAndCutsTornTailOnOpen() throws Exception {
+        try (var log = new PacketLog(directory, 1024 * 1024, HOUR)) {
+            log.append(key(1), packet(1, "a"));
+            log.append(key(2), packet(2, "b"));
+        }
+        var segment = Files.list(directory).collect(Collectors.toList()).get(0);
+        var size = Files.size(segment);
+        try (var channel = FileChannel.open(segment, APPEND)) {
+            // a record header promising more bytes than were written
+            channel.write(ByteBuffer.allocate(8).putInt(500).putInt(0).flip());
+        }
+
+        try (var log = new PacketLog(directory, 1024 * 1024, HOUR)) {
+            assertEquals(2, log.size());
+            assertEquals("b", log.read(key(2)).getInterfaceName());
+            assertEquals(size, Files.size(segment));
+        }
+    }
+
+    @Test
+    void rollsSegmentsAndExpiresOldOnes() throws Exception {
+        try (var log = new PacketLog(directory, 200, HOUR)) {
+            log.append(key(1), packet(1, null));
+            log.append(key(2), packet(2, null));
+            log.append(key(3), packet(3, null));
+            assertTrue(log.segmentCount() >= 2);
+
+            log.expire(System.currentTimeMillis() + 1);
+
+            assertEquals(1, log.segmentCount());
+            assertNull(log.read(key(1)));
+            assertArrayEquals(packet(3, null).getRaw(), log.read(key(3)).getRaw());
+        }
+    }
+
+    @Test
+    void lruKeepsWithinByteBudget() {
+        var budget = 4 * packet(1, null).footprint();
+        var lru = new PacketLru(budget);
+        for (int i = 0; i < 10; i++) {
+            lru.put(key(i), packet(1, null));
+        }
+
+        assertEquals(4, lru.size());
+        assertTrue(lru.bytes() <= budget);
+        assertNull(lru.get(key(0)));
+        assertArrayEquals(packet(1, null).getRaw(), lru.get(key(9)).getRaw());
+    }
+}
@@ -0,0 +1,178 @@
+package io.reticulum.storage.journal;
+
+import io.reticulum.identity.IdentityKnownDestination.DestinationData;
+import io.reticulum.storage.entity.DestinationTable;
+import io.reticulum.storage.entity.HopEntity;
+import io.reticulum.storage.entity.RatchetEntity;
+import io.reticulum.storage.entity.TunnelEntity;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static io.reticulum.constant.IdentityConstant.RATCHET_EXPIRY;
+import static java.nio.file.StandardOpenOption.APPEND;
+import static org.apache.commons.codec.binary.Hex.encodeHexString;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RoutingJournalTest {
+
+    @TempDir
+    Path directory;
+
+    private static byte[] hash(int seed) {
+        var hash = new byte[16];
+        Arrays.fill(hash, (byte) seed);
+        return hash;
+    }
+
+    private static HopEntity hop(int hops) {
+        return HopEntity.builder()
+                .timestamp(Instant.ofEpochMilli(1_000L * hops))
+                .via(hash(100 + hops))
+                .hops(hops)
+                .expires(Instant.ofEpochMilli(2_000L * hops))
+                .randomBlobs(List.of(new byte[]{1, 2, 3}, new byte[]{4, 5}))
+                .interfaceHash(hash(200))
+                .packetHash(new byte[32])
+                .build();
+    }
+
+    private static DestinationTable path(int seed, int hops) {
+        return DestinationTable.builder()
+                .destinationHash(encodeHexString(hash(seed)))
+                .hop(hop(hops))
+                .build();
+    }
+
+    private static List<DestinationTable> paths(RoutingJournal journal) {
+        var paths = new ArrayList<DestinationTable>();
+        journal.forEachPath(paths::add);
+        return paths;
+    }
+
+    @Test
+    void replaysPutsAndRemovals() throws Exception {
+        try (var journal = new RoutingJournal(directory, 1024 * 1024)) {
+            var batch = journal.batch();
+            batch.putPath(path(1, 1));
+            batch.putPath(path(2, 2));
+            batch.putPath(path(1, 3));
+            batch.putTunnel(TunnelEntity.builder()
+                    .tunnelId(new byte[32])
+                    .expires(Instant.ofEpochMilli(5_000))
+                    .tunnelPaths(Map.of(encodeHexString(hash(3)), hop(4)))
+                    .build());
+            journal.commit(batch);
+
+            batch = journal.batch();
+            batch.removePath(hash(2));
+            journal.commit(batch);
+        }
+
+        try (var journal = new RoutingJournal(directory, 1024 * 1024)) {
+            assertEquals(1, paths(journal).size());
+            assertNull(journal.path(hash(2)));
+            var path = journal.path(hash(1));
+            assertEquals(encodeHexString(hash(1)), path.getDestinationHash());
+            assertEquals(3, path.getHop().getHops());
+            assertEquals(Instant.ofEpochMilli(6_000), path.getHop().getExpires());
+            assertArrayEquals(new byte[]{4, 5}, path.getHop().getRandomBlobs().get(1));
+
+            var tunnel = journal.tunnels().get(0);
+            assertArrayEquals(new byte[32], tunnel.getTunnelId());
+            assertEquals(4, tunnel.getTunnelPaths().get(encodeHexString(hash(3))).getHops());
+        }
+    }
+
+    @Test
+    void cutsTornRecordAndKeepsAppending() throws Exception {
+        try (var journal = new RoutingJournal(directory, 1024 * 1024)) {
+            var batch = journal.batch();
+            batch.putPath(path(1, 1));
+            journal.commit(batch);
+        }
+        try (var channel = FileChannel.open(directory.resolve(RoutingJournal.JOURNAL_FILE), APPEND)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0, 0, 1, 0, 42}));
+        }
+
+        try (var journal = new RoutingJournal(directory, 1024 * 1024)) {
+            assertEquals(1, paths(journal).size());
+            var batch = journal.batch();
+            batch.putPath(path(2, 1));
+            journal.commit(batch);
+        }
+        try (var journal = new RoutingJournal(directory, 1024 * 1024)) {
+            assertEquals(2, paths(journal).size());
+        }
+    }
+
+    @Test
+    void compactsOnceJournalOutgrowsSnapshot() throws Exception {
+        try (var journal = new RoutingJournal(directory, 4 * 1024)) {
+            for (int round = 0; round < 50; round++) {
+                var batch = journal.batch();
+                for (int i = 0; i < 10; i++) {
+                    batch.putPath(path(i, round));
+                }
+                journal.commit(batch);
+            }
+            assertTrue(journal.getCompactions() > 0);
+            assertTrue(journal.getJournalBytes() <= 4 * 1024 + 2048);
+        }
+
+        assertTrue(Files.exists(directory.resolve(RoutingJournal.SNAPSHOT_FILE)));
+        try (var journal = new RoutingJournal(directory, 4 * 1024)) {
+            var paths = paths(journal);
+            assertEquals(10, paths.size());
+            paths.forEach(path -> assertEquals(49, path.getHop().getHops()));
+        }
+    }
+
+    @Test
+    void looksUpSnapshotAndJournalAndDropsExpiredRatchets() throws Exception {
+        var now = Instant.now().getEpochSecond();
+        try (var journal = new RoutingJournal(directory, 1024 * 1024)) {
+            var batch = journal.batch();
+            batch.putPath(path(1, 1));
+            batch.putKnownDestination(new DestinationData(encodeHexString(hash(2)), 42, new byte[]{1}, new byte[]{2}, null));
+            batch.putRatchet(RatchetEntity.builder().destinationHash(hash(3)).received(now).ratchet(new byte[]{3}).build());
+            batch.putRatchet(RatchetEntity.builder().destinationHash(hash(4)).received(now - RATCHET_EXPIRY).ratchet(new byte[]{4}).build());
+            journal.commit(batch);
+            journal.compact();
+
+            // journaled after the snapshot
+            batch = journal.batch();
+            batch.putPath(path(1, 5));
+            batch.putPath(path(5, 1));
+            journal.commit(batch);
+        }
+
+        try (var journal = new RoutingJournal(directory, 1024 * 1024)) {
+            assertEquals(1, journal.snapshotPaths());
+            assertEquals(5, journal.path(hash(1)).getHop().getHops());
+            assertEquals(1, journal.path(hash(5)).getHop().getHops());
+            assertEquals(2, paths(journal).size());
+
+            var destination = journal.knownDestination(hash(2));
+            assertEquals(42, destination.getTimestamp());
+            assertArrayEquals(new byte[]{2}, destination.getPublicKey());
+            assertNull(destination.getAppData());
+
+            assertArrayEquals(new byte[]{3}, journal.ratchet(hash(3)).getRatchet());
+            assertNull(journal.ratchet(hash(4)));
+            assertNull(journal.knownDestination(hash(9)));
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package io.reticulum.storage.snapshot;
+
+import io.reticulum.transport.HashKey;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static java.nio.file.StandardOpenOption.WRITE;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SnapshotTest {
+
+    @TempDir
+    Path directory;
+
+    private static byte[] bytes(ByteBuffer buffer) {
+        var bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    @Test
+    void findsEveryRecordOfEverySection() throws IOException {
+        var random = new Random(7);
+        var records = new TreeMap<HashKey, byte[]>();
+        for (int i = 0; i < 5_000; i++) {
+            var hash = new byte[HashKey.LENGTH];
+            random.nextBytes(hash);
+            var record = new byte[random.nextInt(64)];
+            random.nextBytes(record);
+            records.put(HashKey.of(hash), record);
+        }
+
+        var file = directory.resolve("test.snapshot");
+        try (var writer = new SnapshotWriter(file, 2)) {
+            writer.beginSection(1);
+            for (var entry : records.entrySet()) {
+                writer.add(entry.getKey(), entry.getValue());
+            }
+            writer.beginSection(2);
+            writer.commit();
+        }
+        assertFalse(Files.exists(directory.resolve("test.snapshot.tmp")));
+
+        var snapshot = Snapshot.open(file);
+        var section = snapshot.section(1);
+        assertEquals(records.size(), section.size());
+        for (var entry : records.entrySet()) {
+            assertArrayEquals(entry.getValue(), bytes(section.get(entry.getKey().toBytes())));
+        }
+        assertNull(section.get(new byte[HashKey.LENGTH]));
+        assertEquals(0, snapshot.section(2).size());
+        assertEquals(0, snapshot.section(3).size());
+
+        var keys = new ArrayList<HashKey>();
+        section.forEach((key, record) -> keys.add(key));
+        assertEquals(new ArrayList<>(records.keySet()), keys);
+    }
+
+    @Test
+    void rejectsKeysOutOfOrder() throws IOException {
+        try (var writer = new SnapshotWriter(directory.resolve("test.snapshot"), 1)) {
+            writer.beginSection(1);
+            writer.add(HashKey.of(new byte[]{2}), new byte[]{1});
+            assertThrows(IllegalArgumentException.class, () -> writer.add(HashKey.of(new byte[]{1}), new byte[]{1}));
+        }
+        assertFalse(Files.exists(directory.resolve("test.snapshot")));
+    }
+
+    @Test
+    void skipsCorruptRecord() throws IOException {
+        var file = directory.resolve("test.snapshot");
+        try (var writer = new SnapshotWriter(file, 1)) {
+            writer.beginSection(1);
+            writer.add(HashKey.of(new byte[]{1}), new byte[]{1, 2, 3, 4});
+            writer.commit();
+        }
+        // the only record starts right after the header and the directory
+        try (var channel = FileChannel.open(file, WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{9}), Snapshot.HEADER_BYTES + Snapshot.DIRECTORY_ENTRY_BYTES);
+        }
+
+        assertNull(Snapshot.open(file).section(1).get(new byte[]{1}));
+    }
+}
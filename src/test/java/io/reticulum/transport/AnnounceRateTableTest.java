@@ -0,0 +1,83 @@
+package io.reticulum.transport;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AnnounceRateTableTest {
+
+    private static final int TARGET = 60;
+    private static final int GRACE = 2;
+    private static final int PENALTY = 120;
+
+    private static byte[] hash(int seed) {
+        var hash = new byte[16];
+        Arrays.fill(hash, (byte) seed);
+        return hash;
+    }
+
+    private static long seconds(long seconds) {
+        return SECONDS.toNanos(seconds);
+    }
+
+    @Test
+    void blocksAfterGraceUntilPenaltyPassed() {
+        var table = new AnnounceRateTable(16);
+        var destination = hash(1);
+
+        assertFalse(table.record(destination, seconds(1000), TARGET, GRACE, PENALTY));
+        // two violations are within the grace
+        assertFalse(table.record(destination, seconds(1010), TARGET, GRACE, PENALTY));
+        assertFalse(table.record(destination, seconds(1020), TARGET, GRACE, PENALTY));
+        assertEquals(2, table.violations(destination));
+
+        // the third one blocks until last accepted (1020) + target + penalty
+        assertTrue(table.record(destination, seconds(1030), TARGET, GRACE, PENALTY));
+        assertTrue(table.record(destination, seconds(1020 + TARGET + PENALTY), TARGET, GRACE, PENALTY));
+
+        // after the block a slow announce forgives one violation and is within the grace again
+        assertFalse(table.record(destination, seconds(1020 + TARGET + PENALTY + 1), TARGET, GRACE, PENALTY));
+        assertEquals(2, table.violations(destination));
+    }
+
+    @Test
+    void announcesWithinTargetForgiveViolations() {
+        var table = new AnnounceRateTable(16);
+        var destination = hash(2);
+
+        table.record(destination, seconds(0), TARGET, GRACE, PENALTY);
+        table.record(destination, seconds(10), TARGET, GRACE, PENALTY);
+        assertEquals(1, table.violations(destination));
+
+        assertFalse(table.record(destination, seconds(10 + TARGET), TARGET, GRACE, PENALTY));
+        assertEquals(0, table.violations(destination));
+    }
+
+    @Test
+    void keepsMostRecentTimestampsAndReusesSlots() {
+        var table = new AnnounceRateTable(4);
+        for (int i = 0; i < 100; i++) {
+            table.record(hash(i), seconds(i), TARGET, GRACE, PENALTY);
+        }
+        for (int i = 0; i < 6; i++) {
+            table.record(hash(3), seconds(100 + i), TARGET, GRACE, PENALTY);
+        }
+        assertArrayEquals(new long[]{seconds(102), seconds(103), seconds(104), seconds(105)}, table.timestamps(hash(3)));
+
+        table.remove(hash(3));
+        assertEquals(99, table.size());
+        assertEquals(0, table.timestamps(hash(3)).length);
+
+        // a new destination gets the released slot with fresh state
+        table.record(hash(200), seconds(500), TARGET, GRACE, PENALTY);
+        assertArrayEquals(new long[]{seconds(500)}, table.timestamps(hash(200)));
+        assertEquals(0, table.violations(hash(200)));
+        assertArrayEquals(new long[]{seconds(4)}, table.timestamps(hash(4)));
+    }
+}
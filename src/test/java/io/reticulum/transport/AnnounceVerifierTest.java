@@ -0,0 +1,74 @@
+package io.reticulum.transport;
+
+import io.reticulum.identity.AnnounceVerdict;
+import io.reticulum.packet.ContextType;
+import io.reticulum.packet.Packet;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.reticulum.packet.PacketType.ANNOUNCE;
+import static io.reticulum.packet.PacketType.DATA;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AnnounceVerifierTest {
+
+    private static Packet packet(int seed, ContextType contextFlag) {
+        var hash = new byte[32];
+        Arrays.fill(hash, (byte) seed);
+        var packet = mock(Packet.class);
+        when(packet.getPacketType()).thenReturn(ANNOUNCE);
+        when(packet.getHash()).thenReturn(hash);
+        when(packet.getContextFlag()).thenReturn(contextFlag);
+        return packet;
+    }
+
+    @Test
+    void verifiesEachAnnounceOnce() {
+        var calls = new AtomicInteger();
+        var verifier = new AnnounceVerifier(packet -> {
+            calls.incrementAndGet();
+            return AnnounceVerdict.VALID;
+        }, 4, 1024);
+
+        var batch = new ArrayList<Packet>();
+        for (int i = 0; i < 50; i++) {
+            batch.add(packet(i, ContextType.FLAG_UNSET));
+        }
+        verifier.verify(batch);
+        assertEquals(50, calls.get());
+
+        // copies received on other interfaces
+        verifier.verify(List.of(packet(1, ContextType.FLAG_UNSET), packet(2, ContextType.FLAG_UNSET)));
+        assertEquals(AnnounceVerdict.VALID, verifier.verdictFor(packet(3, ContextType.FLAG_UNSET)));
+        assertEquals(50, calls.get());
+    }
+
+    @Test
+    void doesNotReuseVerdictForOtherContextFlag() {
+        var verifier = new AnnounceVerifier(
+                packet -> packet.getContextFlag() == ContextType.FLAG_SET ? AnnounceVerdict.INVALID_SIGNATURE : AnnounceVerdict.VALID,
+                2, 1024
+        );
+
+        assertEquals(AnnounceVerdict.VALID, verifier.verdictFor(packet(1, ContextType.FLAG_UNSET)));
+        assertEquals(AnnounceVerdict.INVALID_SIGNATURE, verifier.verdictFor(packet(1, ContextType.FLAG_SET)));
+    }
+
+    @Test
+    void ignoresOtherPackets() {
+        var verifier = new AnnounceVerifier(packet -> AnnounceVerdict.VALID, 2, 1024);
+        var data = mock(Packet.class);
+        when(data.getPacketType()).thenReturn(DATA);
+
+        verifier.verify(List.of(data));
+        assertNull(verifier.verdictFor(data));
+        assertEquals(0, verifier.getVerified());
+    }
+}
@@ -0,0 +1,71 @@
+package io.reticulum.transport;
+
+import io.reticulum.interfaces.ConnectionInterface;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class HashIndexedListTest {
+
+    private static byte[] hash(int seed) {
+        var hash = new byte[16];
+        Arrays.fill(hash, (byte) seed);
+        return hash;
+    }
+
+    @Test
+    void indexFollowsModifications() {
+        var list = new HashIndexedList<byte[]>(element -> element);
+        var first = hash(1);
+        var second = hash(2);
+        list.add(first);
+        list.addAll(List.of(second));
+
+        assertSame(first, list.find(hash(1)));
+        assertSame(second, list.find(hash(2)));
+        assertNull(list.find(hash(3)));
+
+        list.remove(first);
+        assertNull(list.find(hash(1)));
+
+        list.removeIf(element -> element == second);
+        assertNull(list.find(hash(2)));
+        assertEquals(0, list.size());
+    }
+
+    @Test
+    void firstElementWinsOnDuplicateHash() {
+        var list = new HashIndexedList<byte[]>(element -> element);
+        var first = hash(1);
+        var duplicate = hash(1);
+        list.add(first);
+        list.add(duplicate);
+
+        assertSame(first, list.find(hash(1)));
+        list.remove(0);
+        assertSame(duplicate, list.find(hash(1)));
+    }
+
+    @Test
+    void interfacesAreFoundByHashAndName() {
+        var iface = mock(ConnectionInterface.class);
+        when(iface.getInterfaceName()).thenReturn("Default Interface");
+        when(iface.getHash()).thenReturn(hash(7));
+        var interfaces = new InterfaceList();
+        interfaces.add(iface);
+
+        assertSame(iface, interfaces.find(hash(7)));
+        assertSame(iface, interfaces.findByName("Default Interface"));
+
+        interfaces.clear();
+        assertNull(interfaces.find(hash(7)));
+        assertNull(interfaces.findByName("Default Interface"));
+    }
+}
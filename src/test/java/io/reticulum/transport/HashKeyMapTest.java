@@ -0,0 +1,88 @@
+package io.reticulum.transport;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Random;
+
+import static org.apache.commons.codec.binary.Hex.encodeHexString;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HashKeyMapTest {
+
+    @Test
+    void hashKeyRoundTrip() {
+        var hash = new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, (byte) 0xff};
+        var key = HashKey.of(hash);
+
+        assertArrayEquals(hash, key.toBytes());
+        assertEquals(encodeHexString(hash), key.toString());
+        assertEquals(key, HashKey.fromHex(key.toString()));
+        assertEquals(key.hashCode(), HashKey.of(hash.clone()).hashCode());
+        assertTrue(key.matches(hash));
+    }
+
+    @Test
+    void lookupByBytesAndKey() {
+        var map = new HashKeyMap<String>();
+        var hash = new byte[16];
+        hash[0] = 42;
+
+        assertNull(map.put(hash, "a"));
+        assertEquals("a", map.put(HashKey.of(hash), "b"));
+        assertEquals("b", map.get(hash));
+        assertEquals("b", map.get(HashKey.of(hash)));
+        assertTrue(map.containsKey(hash));
+        assertNull(map.get("2a000000000000000000000000000000"));
+        assertThrows(NullPointerException.class, () -> map.put(hash, null));
+
+        assertEquals("b", map.remove(hash));
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    void behavesLikeHashMap() {
+        var random = new Random(7);
+        var map = new HashKeyMap<Integer>();
+        var reference = new HashMap<HashKey, Integer>();
+        var hashes = new byte[500][16];
+        for (byte[] hash : hashes) {
+            random.nextBytes(hash);
+        }
+
+        for (int i = 0; i < 50_000; i++) {
+            var hash = hashes[random.nextInt(hashes.length)];
+            var key = HashKey.of(hash);
+            if (random.nextInt(3) == 0) {
+                assertEquals(reference.remove(key), map.remove(hash));
+            } else {
+                assertEquals(reference.put(key, i), map.put(hash, i));
+            }
+        }
+
+        assertEquals(reference.size(), map.size());
+        assertEquals(reference, map);
+        for (byte[] hash : hashes) {
+            assertEquals(reference.get(HashKey.of(hash)), map.get(hash));
+        }
+    }
+
+    @Test
+    void iteratorRemovesFromMap() {
+        var map = new HashKeyMap<Integer>();
+        for (int i = 0; i < 100; i++) {
+            map.put(new byte[]{(byte) i}, i);
+        }
+
+        map.entrySet().removeIf(entry -> entry.getValue() % 2 == 0);
+        map.keySet().forEach(key -> map.remove(key));
+
+        assertTrue(map.isEmpty());
+        assertFalse(map.containsKey(new byte[]{1}));
+    }
+}
@@ -0,0 +1,61 @@
+package io.reticulum.transport;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InboundQueueTest {
+
+    @Test
+    void drainsInArrivalOrderInBatches() {
+        var queue = new InboundQueue(null, 8, OverflowPolicy.DROP_NEWEST);
+        for (byte i = 0; i < 5; i++) {
+            assertTrue(queue.offer(new byte[]{i}));
+        }
+
+        var batch = new ArrayList<byte[]>();
+        assertEquals(3, queue.drainTo(batch, 3));
+        assertEquals(2, queue.size());
+        assertEquals(2, queue.drainTo(batch, 3));
+        assertTrue(queue.isEmpty());
+        for (byte i = 0; i < 5; i++) {
+            assertArrayEquals(new byte[]{i}, batch.get(i));
+        }
+        assertEquals(5, queue.getDequeued());
+    }
+
+    @Test
+    void dropNewestKeepsQueuedFrames() {
+        var queue = new InboundQueue(null, 2, OverflowPolicy.DROP_NEWEST);
+        queue.offer(new byte[]{1});
+        queue.offer(new byte[]{2});
+        assertFalse(queue.offer(new byte[]{3}));
+
+        var batch = new ArrayList<byte[]>();
+        queue.drainTo(batch, 10);
+        assertArrayEquals(new byte[]{1}, batch.get(0));
+        assertArrayEquals(new byte[]{2}, batch.get(1));
+        assertEquals(1, queue.getDropped());
+    }
+
+    @Test
+    void dropOldestMakesRoomForNewFrame() {
+        var queue = new InboundQueue(null, 2, OverflowPolicy.DROP_OLDEST);
+        queue.offer(new byte[]{1});
+        queue.offer(new byte[]{2});
+        assertFalse(queue.offer(new byte[]{3}));
+
+        var batch = new ArrayList<byte[]>();
+        queue.drainTo(batch, 10);
+        assertEquals(2, batch.size());
+        assertArrayEquals(new byte[]{2}, batch.get(0));
+        assertArrayEquals(new byte[]{3}, batch.get(1));
+        assertEquals(1, queue.getDropped());
+        assertEquals(3, queue.getEnqueued());
+    }
+}
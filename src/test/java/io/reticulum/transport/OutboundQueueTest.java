@@ -0,0 +1,122 @@
+package io.reticulum.transport;
+
+import io.reticulum.packet.Packet;
+import io.reticulum.packet.PacketReceipt;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class OutboundQueueTest {
+
+    @Test
+    void sendsInSubmissionOrderAndCompletesWithReceipt() throws Exception {
+        var sent = new CopyOnWriteArrayList<Packet>();
+        var queue = new OutboundQueue(packet -> sent.add(packet));
+        queue.start();
+        try {
+            var receipt = mock(PacketReceipt.class);
+            var packets = new ArrayList<Packet>();
+            var futures = new ArrayList<CompletableFuture<PacketReceipt>>();
+            for (int i = 0; i < 100; i++) {
+                var packet = mock(Packet.class);
+                when(packet.getReceipt()).thenReturn(receipt);
+                packets.add(packet);
+                futures.add(queue.submit(packet));
+            }
+
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+            assertEquals(packets, List.copyOf(sent));
+            assertSame(receipt, futures.get(99).get());
+            assertEquals(100, queue.getSent());
+            assertEquals(0, queue.getDepth());
+        } finally {
+            queue.stop();
+        }
+    }
+
+    @Test
+    void completesExceptionallyWhenNotSent() throws Exception {
+        var queue = new OutboundQueue(packet -> false);
+        queue.start();
+        try {
+            var future = queue.submit(mock(Packet.class));
+
+            var e = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+            assertTrue(e.getCause() instanceof IllegalStateException);
+            assertEquals(1, queue.getFailed());
+        } finally {
+            queue.stop();
+        }
+    }
+
+    @Test
+    void senderExceptionIsPassedToFuture() {
+        var failure = new RuntimeException("boom");
+        var queue = new OutboundQueue(packet -> {
+            throw failure;
+        });
+        queue.start();
+        try {
+            var future = queue.submit(mock(Packet.class));
+
+            var e = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+            assertSame(failure, e.getCause());
+        } finally {
+            queue.stop();
+        }
+    }
+
+    @Test
+    void failsSubmissionsWhenStopped() {
+        var queue = new OutboundQueue(packet -> true);
+        queue.start();
+        queue.stop();
+
+        var future = queue.submit(mock(Packet.class));
+
+        assertTrue(future.isCompletedExceptionally());
+    }
+
+    @Test
+    void rejectsSubmissionsBeyondCapacity() throws Exception {
+        var release = new CountDownLatch(1);
+        var queue = new OutboundQueue(packet -> {
+            try {
+                return release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                return false;
+            }
+        }, 2);
+        queue.start();
+        try {
+            var futures = new ArrayList<CompletableFuture<PacketReceipt>>();
+            for (int i = 0; i < 4; i++) {
+                futures.add(queue.submit(mock(Packet.class)));
+            }
+
+            // the drainer holds at most one packet, so at least one submission found the queue full
+            assertTrue(queue.getRejected() >= 1);
+            assertTrue(futures.get(3).isCompletedExceptionally());
+            release.countDown();
+            assertEquals(4 - queue.getRejected(), futures.stream()
+                    .filter(future -> !future.isCompletedExceptionally())
+                    .map(CompletableFuture::join)
+                    .count());
+        } finally {
+            queue.stop();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package io.reticulum.transport;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static io.reticulum.utils.IdentityUtils.fullHash;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PacketHashFilterTest {
+
+    private static byte[] hash(int i) {
+        return fullHash(new byte[]{(byte) (i >>> 24), (byte) (i >>> 16), (byte) (i >>> 8), (byte) i});
+    }
+
+    @Test
+    void remembersAddedHashes() {
+        var filter = new PacketHashFilter(3, 3 * 1024 * 16, Duration.ofHours(1));
+
+        filter.add(hash(1));
+
+        assertTrue(filter.contains(hash(1)));
+        assertFalse(filter.contains(hash(2)));
+        assertFalse(filter.contains(new byte[32]));
+        assertEquals(1, filter.size());
+        assertEquals(1.0 / 3, filter.hitRate());
+    }
+
+    @Test
+    void rotatesWhenFullInsteadOfClearing() {
+        // 16 slots per generation, 12 entries each
+        var filter = new PacketHashFilter(3, 3 * 16 * 16, Duration.ofHours(1));
+
+        for (int i = 0; i < 36; i++) {
+            filter.add(hash(i));
+        }
+        // the first generation is still intact
+        assertTrue(filter.contains(hash(0)));
+        assertEquals(36, filter.size());
+
+        filter.add(hash(36));
+        assertFalse(filter.contains(hash(0)));
+        assertFalse(filter.contains(hash(11)));
+        assertTrue(filter.contains(hash(12)));
+        assertTrue(filter.contains(hash(36)));
+        assertEquals(3, filter.getRotations());
+        assertTrue(filter.occupancy() <= 1.0);
+    }
+
+    @Test
+    void expiresByAge() {
+        var clock = new AtomicLong();
+        var filter = new PacketHashFilter(3, 3 * 1024 * 16, Duration.ofSeconds(10), clock::get);
+
+        filter.add(hash(1));
+        clock.addAndGet(Duration.ofSeconds(6).toNanos());
+        filter.add(hash(2));
+        clock.addAndGet(Duration.ofSeconds(6).toNanos());
+        filter.expire();
+
+        // 12s old, still within window·n/(n-1)
+        assertTrue(filter.contains(hash(1)));
+
+        clock.addAndGet(Duration.ofSeconds(5).toNanos());
+        filter.expire();
+        assertFalse(filter.contains(hash(1)));
+        assertTrue(filter.contains(hash(2)));
+
+        clock.addAndGet(Duration.ofMinutes(5).toNanos());
+        filter.expire();
+        assertFalse(filter.contains(hash(2)));
+        assertEquals(0, filter.size());
+    }
+}
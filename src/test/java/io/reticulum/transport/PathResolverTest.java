@@ -0,0 +1,107 @@
+package io.reticulum.transport;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PathResolverTest {
+
+    private static byte[] hash(int seed) {
+        var hash = new byte[16];
+        Arrays.fill(hash, (byte) seed);
+        return hash;
+    }
+
+    @Test
+    void callersShareOneRequest() throws Exception {
+        var resolver = new PathResolver(10, Duration.ofSeconds(5));
+        var requests = new AtomicInteger();
+        var first = resolver.resolve(hash(1), Duration.ofMinutes(1), requests::incrementAndGet);
+        var second = resolver.resolve(hash(1), Duration.ofMinutes(1), requests::incrementAndGet);
+        resolver.resolve(hash(2), Duration.ofMinutes(1), requests::incrementAndGet);
+
+        assertEquals(2, requests.get());
+        assertEquals(1, resolver.getCoalesced());
+        assertTrue(resolver.isResolving(hash(1)));
+
+        var hops = Hops.builder().hops(3).build();
+        resolver.resolved(hash(1), hops);
+        assertSame(hops, first.get());
+        assertSame(hops, second.get());
+        assertFalse(resolver.isResolving(hash(1)));
+        assertEquals(1, resolver.size());
+    }
+
+    @Test
+    void timedOutResolutionStartsOver() {
+        var resolver = new PathResolver(10, Duration.ofSeconds(5));
+        var requests = new AtomicInteger();
+        var future = resolver.resolve(hash(1), Duration.ofMillis(50), requests::incrementAndGet);
+
+        assertEquals(1, resolver.expire(Instant.now().plusSeconds(1)));
+        var failure = assertThrows(ExecutionException.class, future::get);
+        assertInstanceOf(TimeoutException.class, failure.getCause());
+
+        resolver.resolve(hash(1), Duration.ofMinutes(1), requests::incrementAndGet);
+        assertEquals(2, requests.get());
+    }
+
+    @Test
+    void remembersLastRequest() {
+        var resolver = new PathResolver(10, Duration.ofSeconds(5));
+        assertEquals(Instant.EPOCH, resolver.lastRequest(hash(1)));
+
+        resolver.requested(hash(1));
+        assertTrue(resolver.lastRequest(hash(1)).isAfter(Instant.EPOCH));
+
+        resolver.expire(Instant.now().plusSeconds(10));
+        assertEquals(Instant.EPOCH, resolver.lastRequest(hash(1)));
+    }
+
+    @Test
+    void concurrentResolveAndResolvedKeepEveryResolutionScheduled() throws Exception {
+        var resolver = new PathResolver(10, Duration.ofSeconds(5));
+        var hops = Hops.builder().hops(1).build();
+        var start = new CountDownLatch(1);
+        var resolving = new Thread(() -> {
+            await(start);
+            for (int i = 0; i < 100_000; i++) {
+                resolver.resolve(hash(i % 4), Duration.ofMinutes(1), () -> {});
+            }
+        });
+        var resolved = new Thread(() -> {
+            await(start);
+            for (int i = 0; i < 100_000; i++) {
+                resolver.resolved(hash(i % 4), hops);
+            }
+        });
+        resolving.start();
+        resolved.start();
+        start.countDown();
+        resolving.join();
+        resolved.join();
+
+        assertEquals(resolver.size(), resolver.scheduled());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
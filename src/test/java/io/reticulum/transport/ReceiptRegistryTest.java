@@ -0,0 +1,97 @@
+package io.reticulum.transport;
+
+import io.reticulum.packet.PacketReceipt;
+import io.reticulum.packet.PacketReceiptStatus;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ReceiptRegistryTest {
+
+    private static byte[] hash(int seed) {
+        var hash = new byte[32];
+        Arrays.fill(hash, (byte) seed);
+        return hash;
+    }
+
+    private static PacketReceipt receipt(byte[] hash, Instant sentAt, long timeout) {
+        var receipt = mock(PacketReceipt.class);
+        when(receipt.getHash()).thenReturn(hash);
+        when(receipt.getTruncatedHash()).thenReturn(Arrays.copyOf(hash, 16));
+        when(receipt.getSentAt()).thenReturn(sentAt);
+        when(receipt.getTimeout()).thenReturn(timeout);
+        when(receipt.getStatus()).thenReturn(PacketReceiptStatus.SENT);
+        return receipt;
+    }
+
+    @Test
+    void findsReceiptsByFullOrTruncatedHash() {
+        var registry = new ReceiptRegistry(250, 16);
+        var now = Instant.now();
+        var first = receipt(hash(1), now, 10_000);
+        var resent = receipt(hash(1), now, 10_000);
+        var other = receipt(hash(2), now, 10_000);
+        registry.add(first);
+        registry.add(resent);
+        registry.add(other);
+
+        assertArrayEquals(new PacketReceipt[]{first, resent}, registry.get(hash(1)));
+        assertArrayEquals(new PacketReceipt[]{other}, registry.get(Arrays.copyOf(hash(2), 16)));
+        assertEquals(0, registry.get(hash(3)).length);
+
+        assertTrue(registry.remove(first));
+        assertFalse(registry.remove(first));
+        assertArrayEquals(new PacketReceipt[]{resent}, registry.get(hash(1)));
+        assertEquals(2, registry.size());
+    }
+
+    @Test
+    void expiresOnlyReceiptsPastTheirDeadline() {
+        var registry = new ReceiptRegistry(250, 16);
+        var now = Instant.now();
+        var early = receipt(hash(1), now, 1_000);
+        var late = receipt(hash(2), now, 60_000);
+        registry.add(early);
+        registry.add(late);
+
+        assertEquals(List.of(), registry.expire(now.plusMillis(500)));
+        assertEquals(List.of(early), registry.expire(now.plusMillis(2_000)));
+        assertEquals(1, registry.size());
+        assertArrayEquals(new PacketReceipt[]{late}, registry.get(hash(2)));
+    }
+
+    @Test
+    void dropsConcludedReceiptsWithoutReportingThem() {
+        var registry = new ReceiptRegistry(250, 16);
+        var now = Instant.now();
+        var receipt = receipt(hash(1), now, 60_000);
+        registry.add(receipt);
+        when(receipt.getStatus()).thenReturn(PacketReceiptStatus.DELIVERED);
+        registry.reschedule(receipt);
+
+        assertEquals(List.of(), registry.expire(now.plusMillis(500)));
+        assertEquals(0, registry.size());
+    }
+
+    @Test
+    void cullsReceiptsBeyondCapacity() {
+        var registry = new ReceiptRegistry(250, 1);
+        var now = Instant.now();
+        assertTrue(registry.add(receipt(hash(1), now, 60_000)));
+
+        var culled = receipt(hash(2), now, 60_000);
+        assertFalse(registry.add(culled));
+        verify(culled).setTimeout(-1);
+        assertEquals(1, registry.getCulled());
+    }
+}
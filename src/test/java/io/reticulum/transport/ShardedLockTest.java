@@ -0,0 +1,71 @@
+package io.reticulum.transport;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ShardedLockTest {
+
+    @Test
+    void shardCountIsPowerOfTwo() {
+        assertEquals(1, new ShardedLock(1).getShards());
+        assertEquals(8, new ShardedLock(5).getShards());
+        assertEquals(64, new ShardedLock(1000).getShards());
+    }
+
+    @Test
+    void sameHashSameShard() {
+        var locks = new ShardedLock(16);
+        var hash = new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16};
+
+        assertSame(locks.forHash(hash), locks.forHash(hash.clone()));
+        assertEquals(0, locks.shardOf(null));
+    }
+
+    @Test
+    void lockAllTimesOutAndReleasesTakenShards() throws Exception {
+        var locks = new ShardedLock(4);
+        var busyHash = new byte[]{0, 0, 0, 3};
+        var held = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        var holder = new Thread(() -> {
+            locks.forHash(busyHash).lock();
+            held.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                locks.forHash(busyHash).unlock();
+            }
+        });
+        holder.start();
+        held.await();
+
+        assertFalse(locks.lockAll(50, TimeUnit.MILLISECONDS));
+
+        var otherShardFree = new AtomicBoolean();
+        var probe = new Thread(() -> {
+            var lock = locks.forHash(new byte[]{0, 0, 0, 0});
+            otherShardFree.set(lock.tryLock());
+            if (otherShardFree.get()) {
+                lock.unlock();
+            }
+        });
+        probe.start();
+        probe.join();
+        assertTrue(otherShardFree.get());
+
+        release.countDown();
+        holder.join();
+        assertTrue(locks.lockAll(1, TimeUnit.SECONDS));
+        locks.unlockAll();
+    }
+}
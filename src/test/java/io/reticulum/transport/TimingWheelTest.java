@@ -0,0 +1,125 @@
+package io.reticulum.transport;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimingWheelTest {
+
+    private static final long TICK = 250;
+
+    @Test
+    void expiresOnlyDueKeys() {
+        var wheel = new TimingWheel<String>(TICK, 0);
+        wheel.schedule("a", 1_000);
+        wheel.schedule("b", 2_000);
+
+        assertTrue(wheel.advance(750).isEmpty());
+        assertEquals(List.of("a"), wheel.advance(1_000));
+        assertEquals(List.of("b"), wheel.advance(5_000));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void neverExpiresEarly() {
+        var wheel = new TimingWheel<Long>(TICK, 0);
+        // deadlines on every level, including ones that cascade down several times
+        var deadlines = new long[]{1, 249, 251, 15_999, 16_000, 16_001, 1_024_000, 3_600_000, 7 * 86_400_000L};
+        for (var deadline : deadlines) {
+            wheel.schedule(deadline, deadline);
+        }
+
+        var expired = new ArrayList<Long>();
+        for (long now = 0; now <= 7 * 86_400_000L + TICK; now += 60_000) {
+            for (var key : wheel.advance(now)) {
+                assertTrue(key <= now, "expired " + key + " at " + now);
+                assertTrue(now - key < 60_000 + TICK, "expired " + key + " late at " + now);
+                expired.add(key);
+            }
+        }
+        assertEquals(deadlines.length, expired.size());
+    }
+
+    @Test
+    void rescheduleAndCancel() {
+        var wheel = new TimingWheel<String>(TICK, 0);
+        wheel.schedule("a", 1_000);
+        wheel.schedule("b", 1_000);
+        wheel.schedule("a", 10_000);
+        assertTrue(wheel.cancel("b"));
+        assertFalse(wheel.cancel("b"));
+
+        assertTrue(wheel.advance(5_000).isEmpty());
+        assertTrue(wheel.contains("a"));
+        assertEquals(List.of("a"), wheel.advance(10_000));
+    }
+
+    @Test
+    void pastDeadlineExpiresWithNextTick() {
+        var wheel = new TimingWheel<String>(TICK, 10_000);
+        wheel.schedule("a", 0);
+
+        assertEquals(List.of("a"), wheel.advance(10_000 + TICK));
+    }
+
+    @Test
+    void keepsDeadlinesBeyondRange() {
+        var wheel = new TimingWheel<String>(1, 0);
+        // the wheel covers 64^4 ticks
+        var far = (1L << 24) * 3 + 17;
+        wheel.schedule("far", far);
+
+        assertTrue(wheel.advance(far - 1).isEmpty());
+        assertEquals(List.of("far"), wheel.advance(far));
+    }
+
+    @Test
+    void expiringMapRereadsMovedDeadlines() {
+        var map = new ExpiringHashKeyMap<Instant[]>(TICK, value -> value[0]);
+        var key = new byte[16];
+        var deadline = new Instant[]{Instant.now().minusSeconds(1)};
+        map.put(key, deadline);
+
+        // deadline moved later after the entry was put, the entry must survive
+        deadline[0] = Instant.now().plusSeconds(60);
+        var expired = map.expire(Instant.now().plusSeconds(1), (k, v) -> map.remove(k));
+        assertEquals(0, expired);
+        assertEquals(1, map.scheduled());
+
+        expired = map.expire(Instant.now().plusSeconds(61), (k, v) -> map.remove(k));
+        assertEquals(1, expired);
+        assertTrue(map.isEmpty());
+        assertEquals(0, map.scheduled());
+    }
+
+    @Test
+    void expiringMapKeepsWheelInStepWithConcurrentUpdates() throws Exception {
+        var map = new ExpiringHashKeyMap<Instant>(TICK, value -> value);
+        var deadline = Instant.now().plusSeconds(60);
+        Runnable putAndRemove = () -> {
+            var key = new byte[16];
+            for (int i = 0; i < 100_000; i++) {
+                key[0] = (byte) (i % 4);
+                if (i % 3 == 0) {
+                    map.remove(key);
+                } else {
+                    map.put(key, deadline);
+                }
+            }
+        };
+        var first = new Thread(putAndRemove);
+        var second = new Thread(putAndRemove);
+        first.start();
+        second.start();
+        first.join();
+        second.join();
+
+        assertEquals(map.size(), map.scheduled());
+    }
+}